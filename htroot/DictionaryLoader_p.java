@@ -302,6 +302,7 @@ public class DictionaryLoader_p {
                 FileUtils.copy(b, LibraryProvider.Dictionary.DRW0.file());
                 LibraryProvider.activateDeReWo();
                 LibraryProvider.initDidYouMean();
+                sb.suggestionIndex.invalidate();
                 prop.put("drw0Status", LibraryProvider.Dictionary.DRW0.file().exists() ? 1 : 0);
                 prop.put("drw0ActionLoaded", 1);
             } catch (final MalformedURLException e) {
@@ -318,6 +319,7 @@ public class DictionaryLoader_p {
         if (post.containsKey("drw0Remove")) {
             LibraryProvider.deactivateDeReWo();
             LibraryProvider.initDidYouMean();
+            sb.suggestionIndex.invalidate();
             FileUtils.deletedelete(LibraryProvider.Dictionary.DRW0.file());
             FileUtils.deletedelete(LibraryProvider.Dictionary.DRW0.fileDisabled());
             prop.put("drw0ActionRemoved", 1);
@@ -326,6 +328,7 @@ public class DictionaryLoader_p {
         if (post.containsKey("drw0Deactivate")) {
             LibraryProvider.deactivateDeReWo();
             LibraryProvider.initDidYouMean();
+            sb.suggestionIndex.invalidate();
             LibraryProvider.Dictionary.DRW0.file().renameTo(LibraryProvider.Dictionary.DRW0.fileDisabled());
             prop.put("drw0ActionDeactivated", 1);
         }
@@ -334,6 +337,7 @@ public class DictionaryLoader_p {
             LibraryProvider.Dictionary.DRW0.fileDisabled().renameTo(LibraryProvider.Dictionary.DRW0.file());
             LibraryProvider.activateDeReWo();
             LibraryProvider.initDidYouMean();
+            sb.suggestionIndex.invalidate();
             prop.put("drw0ActionActivated", 1);
         }
         
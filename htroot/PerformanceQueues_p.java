@@ -34,6 +34,7 @@ import net.yacy.cora.federate.solr.instance.RemoteInstance;
 import net.yacy.cora.protocol.ConnectionInfo;
 import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.protocol.http.HTTPClient;
+import net.yacy.cora.util.LatencyHistogram;
 import net.yacy.data.TransactionManager;
 import net.yacy.kelondro.data.word.WordReference;
 import net.yacy.kelondro.rwi.IndexCell;
@@ -42,6 +43,7 @@ import net.yacy.kelondro.util.Formatter;
 import net.yacy.kelondro.util.MemoryControl;
 import net.yacy.kelondro.util.OS;
 import net.yacy.kelondro.workflow.BusyThread;
+import net.yacy.kelondro.workflow.WorkflowProcessor;
 import net.yacy.search.Switchboard;
 import net.yacy.search.SwitchboardConstants;
 import net.yacy.search.index.Segment;
@@ -241,6 +243,27 @@ public class PerformanceQueues_p {
         }
         prop.put("table", c);
 
+        // throughput and latencies of the workflow stages
+        c = 0;
+        final Iterator<WorkflowProcessor<?>> processes = WorkflowProcessor.processes();
+        while (processes.hasNext()) {
+            final WorkflowProcessor<?> p = processes.next();
+            final LatencyHistogram wait = p.getWaitTimes(), service = p.getServiceTimes();
+            prop.put("stages_" + c + "_name", p.getName());
+            prop.put("stages_" + c + "_queuesize", Formatter.number(p.getQueueSize(), !xml));
+            prop.put("stages_" + c + "_executors", p.getExecutors());
+            prop.put("stages_" + c + "_concurrency", p.getConcurrency());
+            prop.put("stages_" + c + "_autoscale", p.isAutoscaled() ? "1" : "0");
+            prop.put("stages_" + c + "_autoscale_min", p.getMinConcurrency());
+            prop.put("stages_" + c + "_autoscale_max", p.getMaxConcurrency());
+            prop.put("stages_" + c + "_throughput", Formatter.number(p.getThroughput(), !xml));
+            prop.put("stages_" + c + "_count", Formatter.number(service.getCount(), !xml));
+            putPercentiles(prop, "stages_" + c + "_wait", wait);
+            putPercentiles(prop, "stages_" + c + "_service", service);
+            c++;
+        }
+        prop.put("stages", c);
+
         c = 0;
         final int[] speedValues = {200,150,100,50,25,10};
         final int usedspeed = sb.getConfigInt("performanceSpeed", 100);
@@ -421,4 +444,12 @@ public class PerformanceQueues_p {
     private static String d(final String a, final String b) {
         return (a == null) ? b : a;
     }
+
+    private static void putPercentiles(final serverObjects prop, final String prefix, final LatencyHistogram histogram) {
+        prop.put(prefix + "_mean", LatencyHistogram.format(histogram.getMean()));
+        prop.put(prefix + "_p50", LatencyHistogram.format(histogram.getPercentile(0.5)));
+        prop.put(prefix + "_p90", LatencyHistogram.format(histogram.getPercentile(0.9)));
+        prop.put(prefix + "_p99", LatencyHistogram.format(histogram.getPercentile(0.99)));
+    }
+
 }
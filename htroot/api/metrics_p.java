@@ -0,0 +1,99 @@
+// metrics_p.java
+// ------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+import java.util.Locale;
+
+import net.yacy.cora.protocol.RequestHeader;
+import net.yacy.cora.util.LatencyHistogram;
+import net.yacy.http.RequestMetrics;
+import net.yacy.server.serverObjects;
+import net.yacy.server.serverSwitch;
+
+/**
+ * Latency, throughput and in-flight requests per servlet endpoint, as json (metrics_p.json)
+ * or in the text format of Prometheus (metrics_p.txt). The parameter clear resets the measurement.
+ */
+public class metrics_p {
+
+    public static serverObjects respond(@SuppressWarnings("unused") final RequestHeader header, final serverObjects post, @SuppressWarnings("unused") final serverSwitch env) {
+
+        final serverObjects prop = new serverObjects();
+        if (post != null && post.containsKey("clear")) RequestMetrics.clear();
+
+        final long uptime = Math.max(1, RequestMetrics.getUptime());
+        prop.put("uptime", uptime);
+        int c = 0;
+        for (final RequestMetrics.Endpoint endpoint: RequestMetrics.endpoints()) {
+            final String prefix = "endpoints_" + c + "_";
+            final LatencyHistogram latency = endpoint.getLatency();
+            // the count is taken from the same snapshot of the buckets as the +Inf bucket, so that both are equal
+            final long[] buckets = latency.getBucketCounts();
+            long count = 0;
+            for (final long b: buckets) count += b;
+            prop.putJSON(prefix + "name", endpoint.getName());
+            prop.put(prefix + "label", label(endpoint.getName()));
+            prop.put(prefix + "count", count);
+            prop.put(prefix + "inflight", endpoint.getInflight());
+            prop.put(prefix + "errors", endpoint.getErrors());
+            prop.put(prefix + "bytes", endpoint.getBytes());
+            prop.put(prefix + "rate", String.format(Locale.ROOT, "%.3f", count * 1000.0d / uptime));
+            prop.put(prefix + "throughput", endpoint.getBytes() * 1000 / uptime);
+            prop.put(prefix + "mean", latency.getMean());
+            prop.put(prefix + "p50", percentile(latency, 0.5d));
+            prop.put(prefix + "p95", percentile(latency, 0.95d));
+            prop.put(prefix + "p99", percentile(latency, 0.99d));
+            prop.put(prefix + "sum", seconds(latency.getSum()));
+
+            // cumulative buckets of the histogram
+            long cumulated = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulated += buckets[i];
+                prop.put(prefix + "buckets_" + i + "_le", i < LatencyHistogram.BOUNDS.length ? seconds(LatencyHistogram.BOUNDS[i]) : "+Inf");
+                prop.put(prefix + "buckets_" + i + "_count", cumulated);
+            }
+            prop.put(prefix + "buckets", buckets.length);
+            prop.put(prefix + "eol", 1);
+            c++;
+        }
+        if (c > 0) prop.put("endpoints_" + (c - 1) + "_eol", 0);
+        prop.put("endpoints", c);
+
+        // return rewrite properties
+        return prop;
+    }
+
+    /**
+     * @return the percentile in milliseconds, values above the largest bucket are reported as its bound
+     */
+    private static long percentile(final LatencyHistogram latency, final double q) {
+        final long p = latency.getPercentile(q);
+        return p == Long.MAX_VALUE ? LatencyHistogram.BOUNDS[LatencyHistogram.BOUNDS.length - 1] : p;
+    }
+
+    private static String seconds(final long ms) {
+        return String.format(Locale.ROOT, "%.3f", ms / 1000.0d);
+    }
+
+    /**
+     * @return the value escaped for a label of the Prometheus text format
+     */
+    private static String label(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
@@ -22,14 +22,11 @@
 // Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
 
 
-import java.util.Collection;
-import java.util.ConcurrentModificationException;
+import java.util.List;
 
 import net.yacy.cora.protocol.HeaderFramework;
 import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.protocol.ResponseHeader;
-import net.yacy.cora.util.ConcurrentLog;
-import net.yacy.data.DidYouMean;
 import net.yacy.search.Switchboard;
 import net.yacy.server.serverObjects;
 import net.yacy.server.serverSwitch;
@@ -62,32 +59,21 @@ public class suggest {
         
         // get query
         final String originalquerystring = (post == null) ? "" : post.get("query", post.get("q", ""));
-        final String querystring =  originalquerystring.trim();
-        final int timeout = (post == null) ? 300 : post.getInt("timeout", 300);
         final int count = (post == null) ? 10 : Math.min(30, post.getInt("count", 20));
 
         int c = 0;
-        final DidYouMean didYouMean = new DidYouMean(sb.index, querystring);
-        final Collection<StringBuilder> suggestions = didYouMean.getSuggestions(timeout, count, sb.index.fulltext().collectionSize() < 2000000);
+        final List<String> suggestions = sb.suggestionIndex.getSuggestions(originalquerystring, Math.min(count, meanMax));
         //[#[query]#,[#{suggestions}##[text]##(eol)#,::#(/eol)##{/suggestions}#]]
-        synchronized (suggestions) {
-            for (StringBuilder suggestion: suggestions) {
-                if (c >= meanMax) break;
-                try {
-                    String s = suggestion.toString();
-                    if (json) {
-                        prop.putJSON("suggestions_" + c + "_text", s);
-                    } else if (xml) {
-                        prop.putXML("suggestions_" + c + "_text", s);
-                    } else {
-                        prop.putHTML("suggestions_" + c + "_text", s);
-                    }
-                    prop.put("suggestions_" + c + "_eol", 0);
-                    c++;
-                } catch (final ConcurrentModificationException e) {
-                    ConcurrentLog.logException(e);
-                }
+        for (final String s: suggestions) {
+            if (json) {
+                prop.putJSON("suggestions_" + c + "_text", s);
+            } else if (xml) {
+                prop.putXML("suggestions_" + c + "_text", s);
+            } else {
+                prop.putHTML("suggestions_" + c + "_text", s);
             }
+            prop.put("suggestions_" + c + "_eol", 0);
+            c++;
         }
 
         if (c > 0) {
@@ -27,6 +27,7 @@
 // javac -classpath .:../classes transferRWI.java
 
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -45,6 +46,7 @@ import net.yacy.cora.util.Memory;
 import net.yacy.cora.util.SpaceExceededException;
 import net.yacy.kelondro.data.word.Word;
 import net.yacy.kelondro.data.word.WordReferenceRow;
+import net.yacy.kelondro.data.word.WordReferenceTransfer;
 import net.yacy.kelondro.index.RowHandleSet;
 import net.yacy.kelondro.util.FileUtils;
 import net.yacy.kelondro.util.MemoryControl;
@@ -115,7 +117,8 @@ public final class transferRWI {
 //      final String key      = (String) post.get("key", "");             // transmission key
         final int wordc       = post.getInt("wordc", 0);                  // number of different words
         final int entryc      = post.getInt("entryc", 0);                 // number of entries in indexes
-        byte[] indexes        = post.get("indexes", "").getBytes();       // the indexes, as list of word entries
+        final Object binary   = header.getAttribute(HeaderFramework.MIME_BINARY_PART + ":indexes"); // the indexes in the binary format of WordReferenceTransfer, passed on as bytes by the servlet
+        byte[] indexes        = binary instanceof byte[] ? (byte[]) binary : post.get("indexes", "").getBytes(); // the indexes, as list of word entries
         boolean granted       = sb.getConfigBool(SwitchboardConstants.INDEX_RECEIVE_ALLOW, false);
         final boolean blockBlacklist = sb.getConfigBool(SwitchboardConstants.INDEX_RECEIVE_BLOCK_BLACKLIST, false);
         final long cachelimit = sb.getConfigLong(SwitchboardConstants.WORDCACHE_MAX_COUNT, 100000);
@@ -170,9 +173,21 @@ public final class transferRWI {
             if (sb.getLog().isFine()) sb.getLog().fine("Processing " + indexes.length + " bytes / " + wordc + " words / " + entryc + " entries from " + otherPeerName);
             final long startProcess = System.currentTimeMillis();
 
-            // decode request
+            // decode request: the binary postings are decoded while they are stored
             //System.out.println("STRINGS " + UTF8.String(indexes));
-            final Iterator<String> it = FileUtils.strings(indexes);
+            Iterator<String> it = null;
+            WordReferenceTransfer.Reader reader = null;
+            IOException malformed = null;
+            if (!(binary instanceof byte[])) {
+                it = FileUtils.strings(indexes);
+            } else {
+                try {
+                    reader = new WordReferenceTransfer.Reader(new ByteArrayInputStream(indexes));
+                } catch (final IOException e) {
+                    malformed = e;
+                    it = FileUtils.strings(new byte[0]);
+                }
+            }
 
             // free memory
             indexes = null;
@@ -189,20 +204,26 @@ public final class transferRWI {
             int blocked = 0;
             int count = 0;
             Set<String> testids = new HashSet<String>();
-            while (it.hasNext()) {
-                estring = it.next();
+            while (reader == null ? it.hasNext() : reader.hasNext()) {
                 count++;
                 if (count > 1000) break; // protection against flooding
 
-                // check if RWI entry is well-formed
-                p = estring.indexOf('{',0);
-                if (p < 0 || estring.indexOf("x=",0) < 0 || !(estring.indexOf("[B@",0) < 0)) {
-                    blocked++;
-                    continue;
+                if (reader == null) {
+                    estring = it.next();
+
+                    // check if RWI entry is well-formed
+                    p = estring.indexOf('{',0);
+                    if (p < 0 || estring.indexOf("x=",0) < 0 || !(estring.indexOf("[B@",0) < 0)) {
+                        blocked++;
+                        continue;
+                    }
+                    wordHash = estring.substring(0, p);
+                    iEntry = new WordReferenceRow(estring.substring(p));
+                } else {
+                    iEntry = reader.next();
+                    wordHash = ASCII.String(reader.termHash());
                 }
-                wordHash = estring.substring(0, p);
                 wordhashes.add(wordHash);
-                iEntry = new WordReferenceRow(estring.substring(p));
                 urlHash = iEntry.urlhash();
 
                 // block blacklisted entries
@@ -232,6 +253,12 @@ public final class transferRWI {
                 testids.add(ASCII.String(urlHash));
                 received++;
             }
+            if (reader != null && reader.failure() != null) malformed = reader.failure();
+            if (malformed != null) {
+                // the postings after the damage are lost; the error result makes the sender keep them
+                logWarning(contentType, "cannot decode indexes from peer " + otherPeerName + " after " + count + " postings: " + malformed.getMessage());
+                blocked += Math.max(0, entryc - count);
+            }
             for (String id: testids) {
                 try {
                     try {
@@ -264,7 +291,7 @@ public final class transferRWI {
                 sb.getLog().info("Received " + received + " RWIs, " + wordc + " Words [" + firstHash + " .. " + lastHash + "], processed in " + (System.currentTimeMillis() - startProcess) + " milliseconds, " + avdist + ", blocked " + blocked + ", requesting " + unknownURL.size() + "/" + received+ " URLs from " + otherPeerName);
                 EventChannel.channels(EventChannel.DHTRECEIVE).addMessage(new RSSMessage("Received " + received + " RWIs, " + wordc + " Words [" + firstHash + " .. " + lastHash + "], processed in " + (System.currentTimeMillis() - startProcess) + " milliseconds, " + avdist + ", blocked " + blocked + ", requesting " + unknownURL.size() + "/" + received + " URLs from " + otherPeerName, "", otherPeer.hash));
             }
-            result = "ok";
+            result = malformed == null ? "ok" : "malformed_indexes";
 
             pause = (int) (sb.index.RWIBufferCount() * 20000 / sb.getConfigLong(SwitchboardConstants.WORDCACHE_MAX_COUNT, 100000)); // estimation of necessary pause time
         }
@@ -34,9 +34,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.ConcurrentModificationException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedSet;
@@ -64,7 +62,6 @@ import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.protocol.ResponseHeader;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.data.BookmarksDB.Bookmark;
-import net.yacy.data.DidYouMean;
 import net.yacy.data.UserDB;
 import net.yacy.data.ymark.YMarkTables;
 import net.yacy.document.LibraryProvider;
@@ -880,27 +877,14 @@ public class yacysearch {
             prop.put("meanCount", meanMax);
             /* Suggestions ("Did you mean") are only provided in the first html results page */
             if ( meanMax > 0 && startRecord ==0 && !json && !rss) {
-                final DidYouMean didYouMean = new DidYouMean(indexSegment, querystring);
-                final Iterator<StringBuilder> meanIt = didYouMean.getSuggestions(100, 5, sb.index.fulltext().collectionSize() < 2000000).iterator();
                 int meanCount = 0;
-                String suggestion;
-                try {
-                    meanCollect: while ( meanCount < meanMax && meanIt.hasNext() ) {
-                        try {
-                            suggestion = meanIt.next().toString();
-                            prop.put("didYouMean_suggestions_" + meanCount + "_word", suggestion);
-                            prop.put("didYouMean_suggestions_" + meanCount + "_url",
-                                    QueryParams.navUrlWithNewQueryString(RequestHeader.FileType.HTML, 0, theQuery,
-                                            suggestion, authenticatedUserName != null));
-                            prop.put("didYouMean_suggestions_" + meanCount + "_sep", "|");
-                            meanCount++;
-                        } catch (final ConcurrentModificationException e) {
-                            ConcurrentLog.logException(e);
-                            break meanCollect;
-                        }
-                    }
-                } catch (final ConcurrentModificationException e) {
-                    ConcurrentLog.logException(e);
+                for (final String suggestion: sb.suggestionIndex.getSuggestions(querystring, meanMax)) {
+                    prop.put("didYouMean_suggestions_" + meanCount + "_word", suggestion);
+                    prop.put("didYouMean_suggestions_" + meanCount + "_url",
+                            QueryParams.navUrlWithNewQueryString(RequestHeader.FileType.HTML, 0, theQuery,
+                                    suggestion, authenticatedUserName != null));
+                    prop.put("didYouMean_suggestions_" + meanCount + "_sep", "|");
+                    meanCount++;
                 }
                 prop.put("didYouMean_suggestions_" + (meanCount - 1) + "_sep", "");
                 prop.put("didYouMean", meanCount > 0 ? 1 : 0);
@@ -29,7 +29,9 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -222,6 +224,19 @@ public class WordCache {
         }
     }
 
+    /**
+     * learn a word which is given as a range of a character buffer
+     * @param buffer the buffer holding the word
+     * @param start the position of the word in the buffer
+     * @param length the length of the word
+     */
+    public static void learn(final char[] buffer, final int start, final int length) {
+        if (length < commonWordsMinLength) {
+            return;
+        }
+        learn(new StringBuilder(length).append(buffer, start, length));
+    }
+
     public static void learn(Collection<String> wordset) {
         for (String s: wordset) {
             learn(new StringBuilder(s));
@@ -326,6 +341,20 @@ public class WordCache {
         return size;
     }
 
+    /**
+     * @return a copy of the common words with the number of times they were learned
+     */
+    public static Map<String, Integer> getCommonWords() {
+        final Map<String, Integer> words = new HashMap<String, Integer>();
+        final Iterator<StringBuilder> i = commonWords.keys(false);
+        StringBuilder word;
+        while (i.hasNext()) {
+            word = i.next();
+            words.put(word.toString(), commonWords.get(word));
+        }
+        return words;
+    }
+
     public static int sizeCommonWords() {
         return commonWords.size();
     }
@@ -48,6 +48,16 @@ public enum SolrType {
     public String printName() {
         return this.printName;
     }
+    /**
+     * @param printName the name of a field type in the solr schema
+     * @return the type with this print name or null if it is not one of the types known here
+     */
+    public static SolrType fromPrintName(final String printName) {
+        for (final SolrType type: values()) {
+            if (type.printName.equals(printName)) return type;
+        }
+        return null;
+    }
     public boolean appropriateName(final SchemaDeclaration collectionSchema) {
         String field = collectionSchema.name();
         int p = field.indexOf('_');
@@ -188,6 +188,18 @@ public class EmbeddedSolrConnector extends SolrServerConnector implements SolrCo
         return numDocs;
     }
 
+    /**
+     * @return the version of the index of the current searcher; it changes with every commit which opens a new searcher
+     */
+    public long getIndexVersion() {
+        RefCounted<SolrIndexSearcher> refCountedIndexSearcher = this.core.getSearcher();
+        try {
+            return refCountedIndexSearcher.get().getIndexReader().getVersion();
+        } finally {
+            refCountedIndexSearcher.decref();
+        }
+    }
+
     /**
      * get a new query request. MUST be closed after usage using close()
      * @param params
@@ -21,13 +21,17 @@
 package net.yacy.cora.federate.solr.responsewriter;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.yacy.cora.federate.solr.SolrType;
 
@@ -44,10 +48,8 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.QueryResponseWriter;
 import org.apache.solr.response.ResultContext;
 import org.apache.solr.response.SolrQueryResponse;
-import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
-import org.apache.solr.schema.TextField;
 import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
@@ -148,11 +150,13 @@ public class EnhancedXMLResponseWriter implements QueryResponseWriter, SolrjResp
         SolrIndexSearcher searcher = request.getSearcher();
         DocIterator iterator = response.iterator();
         includeScore = includeScore && response.hasScores();
-        IndexSchema schema = request.getSchema();
+        final XMLFields xmlFields = new XMLFields(request.getSchema(), returnFields);
+        // load only the stored fields which are returned; null if all are returned or the field list has wildcards
+        final Set<String> fieldNames = returnFields == null ? null : returnFields.getLuceneFieldNames();
         for (int i = 0; i < sz; i++) {
             int id = iterator.nextDoc();
-            Document doc = searcher.doc(id);
-            writeDoc(writer, schema, null, doc.getFields(), (includeScore ? iterator.score() : 0.0f), includeScore, returnFields);
+            Document doc = fieldNames == null ? searcher.doc(id) : searcher.doc(id, fieldNames);
+            writeDoc(writer, xmlFields, null, doc.getFields(), (includeScore ? iterator.score() : 0.0f), includeScore);
         }
         writer.write("</result>");
         writer.write(lb);
@@ -182,19 +186,13 @@ public class EnhancedXMLResponseWriter implements QueryResponseWriter, SolrjResp
         writer.write(lb);
     }
 
-	private static final void writeDoc(final Writer writer, final IndexSchema schema, final String name,
-			final List<IndexableField> fields, final float score, final boolean includeScore,
-			final ReturnFields returnFields) throws IOException {
+    private static final void writeDoc(final Writer writer, final XMLFields xmlFields, final String name,
+            final List<IndexableField> fields, final float score, final boolean includeScore) throws IOException {
         startTagOpen(writer, "doc", name);
 
         if (includeScore) {
             writeTag(writer, "float", "score", Float.toString(score), false); // this is the special Solr "score" pseudo-field
         }
-        
-        /* Fields may be renamed in the ouput result, using aliases in the 'fl' parameter 
-         * (see https://lucene.apache.org/solr/guide/6_6/common-query-parameters.html#CommonQueryParameters-FieldNameAliases) */
-		final Map<String, String> fieldRenamings = returnFields == null ? Collections.emptyMap()
-				: returnFields.getFieldRenames();
 
         int sz = fields.size();
         int fidx1 = 0, fidx2 = 0;
@@ -205,35 +203,26 @@ public class EnhancedXMLResponseWriter implements QueryResponseWriter, SolrjResp
             while (fidx2 < sz && fieldName.equals(fields.get(fidx2).name())) {
                 fidx2++;
             }
-            if(returnFields == null || returnFields.wantsField(fieldName)) {
-            	SchemaField sf = schema == null ? null : schema.getFieldOrNull(fieldName);
-            	if (sf == null) {
-            		sf = new SchemaField(fieldName, new TextField());
-            	}
-            	
-            	final String renderedFieldName = fieldRenamings.getOrDefault(fieldName, fieldName);
-            	
-            	FieldType type = sf.getType();
-            	if (fidx1 + 1 == fidx2) {
-            		if (sf.multiValued()) {
-            			startTagOpen(writer, "arr", renderedFieldName);
-            			writer.write(lb);
-            			String sv = value.stringValue();
-            			writeField(writer, type.getTypeName(), null, sv); //sf.write(this, null, f1);
-            			writer.write("</arr>");
-            		} else {
-            			writeField(writer, type.getTypeName(), renderedFieldName, value.stringValue()); //sf.write(this, f1.name(), f1);
-            		}
-            	} else {
-            		startTagOpen(writer, "arr", renderedFieldName);
-            		writer.write(lb);
-            		for (int i = fidx1; i < fidx2; i++) {
-            			String sv = fields.get(i).stringValue();
-            			writeField(writer, type.getTypeName(), null, sv); //sf.write(this, null, (Fieldable)this.tlst.get(i));
-            		}
-            		writer.write("</arr>");
-            		writer.write(lb);
-            	}
+            final XMLField field = xmlFields.get(fieldName);
+            if (field != null) {
+                if (fidx1 + 1 == fidx2) {
+                    if (field.multiValued) {
+                        writer.write(field.arrStart);
+                        writer.write(lb);
+                        field.write(writer, false, value.stringValue());
+                        writer.write("</arr>");
+                    } else {
+                        field.write(writer, true, value.stringValue());
+                    }
+                } else {
+                    writer.write(field.arrStart);
+                    writer.write(lb);
+                    for (int i = fidx1; i < fidx2; i++) {
+                        field.write(writer, false, fields.get(i).stringValue());
+                    }
+                    writer.write("</arr>");
+                    writer.write(lb);
+                }
             }
             fidx1 = fidx2;
         }
@@ -241,6 +230,121 @@ public class EnhancedXMLResponseWriter implements QueryResponseWriter, SolrjResp
         writer.write(lb);
     }
 
+    /**
+     * The stored fields of a response, each with its solr type and its xml markup. They are resolved when the
+     * field occurs the first time, so that the schema lookup and the escaping of the (possibly renamed) field name
+     * is done once per response and not once per written value.
+     */
+    private static final class XMLFields {
+
+        private final IndexSchema schema;
+        private final ReturnFields returnFields;
+        private final Map<String, String> fieldRenamings;
+        private final Map<String, XMLField> fields;
+
+        private XMLFields(final IndexSchema schema, final ReturnFields returnFields) {
+            this.schema = schema;
+            this.returnFields = returnFields;
+            /* Fields may be renamed in the ouput result, using aliases in the 'fl' parameter
+             * (see https://lucene.apache.org/solr/guide/6_6/common-query-parameters.html#CommonQueryParameters-FieldNameAliases) */
+            this.fieldRenamings = returnFields == null ? Collections.emptyMap() : returnFields.getFieldRenames();
+            this.fields = new HashMap<>();
+        }
+
+        /**
+         * @param fieldName the name of a stored field
+         * @return the field or null if it is not returned
+         */
+        private XMLField get(final String fieldName) throws IOException {
+            XMLField field = this.fields.get(fieldName);
+            if (field == null) {
+                if (this.returnFields != null && !this.returnFields.wantsField(fieldName)) {
+                    field = XMLField.UNWANTED;
+                } else {
+                    final SchemaField sf = this.schema == null ? null : this.schema.getFieldOrNull(fieldName);
+                    field = new XMLField(this.fieldRenamings.getOrDefault(fieldName, fieldName),
+                            sf == null ? SolrType.text_general : SolrType.fromPrintName(sf.getType().getTypeName()),
+                            sf != null && sf.multiValued());
+                }
+                this.fields.put(fieldName, field);
+            }
+            return field == XMLField.UNWANTED ? null : field;
+        }
+    }
+
+    /**
+     * a stored field with its precomputed xml markup
+     */
+    private static final class XMLField {
+
+        private static final XMLField UNWANTED = new XMLField();
+
+        private final SolrType type;
+        private final boolean multiValued;
+        private final char[] arrStart, namedStart, namedEmpty, start, empty, end;
+
+        private XMLField() {
+            this.type = null;
+            this.multiValued = false;
+            this.arrStart = this.namedStart = this.namedEmpty = this.start = this.empty = this.end = null;
+        }
+
+        private XMLField(final String name, final SolrType type, final boolean multiValued) throws IOException {
+            this.multiValued = multiValued;
+            final String tag = tag(type);
+            this.type = tag == null ? null : type;
+            final StringWriter escapedName = new StringWriter(name.length() + 8);
+            XML.escapeAttributeValue(name, escapedName);
+            this.arrStart = ("<arr name=\"" + escapedName + "\">").toCharArray();
+            if (tag == null) {
+                this.namedStart = this.namedEmpty = this.start = this.empty = this.end = null;
+            } else {
+                this.namedStart = ("<" + tag + " name=\"" + escapedName + "\">").toCharArray();
+                this.namedEmpty = ("<" + tag + " name=\"" + escapedName + "\"/>" + lb).toCharArray();
+                this.start = ("<" + tag + ">").toCharArray();
+                this.empty = ("<" + tag + "/>" + lb).toCharArray();
+                this.end = ("</" + tag + ">" + lb).toCharArray();
+            }
+        }
+
+        /**
+         * @return the xml tag of the values of a type or null if values of the type are not written
+         */
+        private static String tag(final SolrType type) {
+            if (type == null) return null;
+            switch (type) {
+                case text_general:
+                case string:
+                case text_en_splitting_tight: return "str";
+                case bool: return "bool";
+                case num_integer: return "int";
+                case num_long: return "long";
+                case date: return "date";
+                case num_float: return "float";
+                case num_double: return "double";
+                default: return null;
+            }
+        }
+
+        /**
+         * write a value of the field
+         * @param named true if the value tag has the name of the field, false for values inside of an arr tag
+         * @param value the stored value
+         */
+        private void write(final Writer writer, final boolean named, final String value) throws IOException {
+            if (this.type == null) return;
+            final String val = this.type == SolrType.bool ? ("F".equals(value) ? "false" : "true") :
+                               this.type == SolrType.date ? Instant.ofEpochMilli(Long.parseLong(value)).toString() : value;
+            if (val.length() == 0) {
+                writer.write(named ? this.namedEmpty : this.empty);
+                return;
+            }
+            writer.write(named ? this.namedStart : this.start);
+            XML.escapeCharData(val, writer);
+            writer.write(this.end);
+        }
+    }
+
     public static final void writeDoc(final Writer writer, final SolrInputDocument sid) throws IOException {
         startTagOpen(writer, "doc", null);
         for (String key: sid.getFieldNames()) {
@@ -325,26 +429,6 @@ public class EnhancedXMLResponseWriter implements QueryResponseWriter, SolrjResp
         writeDoc(writer, doc, null);
     }
 
-    private static void writeField(final Writer writer, final String typeName, final String name, final String value) throws IOException {
-        if (typeName.equals(SolrType.text_general.printName()) ||
-            typeName.equals(SolrType.string.printName()) ||
-            typeName.equals(SolrType.text_en_splitting_tight.printName())) {
-            writeTag(writer, "str", name, value, true);
-        } else if (typeName.equals(SolrType.bool.printName())) {
-            writeTag(writer, "bool", name, "F".equals(value) ? "false" : "true", true);
-        } else if (typeName.equals(SolrType.num_integer.printName())) {
-            writeTag(writer, "int", name, value, true);
-        } else if (typeName.equals(SolrType.num_long.printName())) {
-            writeTag(writer, "long", name, value, true);
-        } else if (typeName.equals(SolrType.date.printName())) {
-            writeTag(writer, "date", name, new Date(Long.parseLong(value)).toInstant().toString(), true);
-        } else if (typeName.equals(SolrType.num_float.printName())) {
-            writeTag(writer, "float", name, value, true);
-        } else if (typeName.equals(SolrType.num_double.printName())) {
-            writeTag(writer, "double", name, value, true);
-        }
-    }
-
     private static void writeField(final Writer writer, final String name, final Object value) throws IOException {
         if (value instanceof String) {
             writeTag(writer, "str", name, (String) value, true);
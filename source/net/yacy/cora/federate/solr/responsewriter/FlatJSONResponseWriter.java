@@ -22,8 +22,9 @@ package net.yacy.cora.federate.solr.responsewriter;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,18 +36,20 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.QueryResponseWriter;
 import org.apache.solr.response.ResultContext;
 import org.apache.solr.response.SolrQueryResponse;
-import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
-import org.apache.solr.schema.TextField;
 import org.apache.solr.search.DocIterator;
 import org.apache.solr.search.DocList;
 import org.apache.solr.search.SolrIndexSearcher;
-import org.json.simple.JSONArray;
 
 import net.yacy.cora.federate.solr.SolrType;
 import net.yacy.cora.util.JSONObject;
 
+/**
+ * Writes one json object per document and line, as used for the elasticsearch bulk api. The values are
+ * written from the stored fields straight to the writer; the json name and type of each field are resolved
+ * once per response.
+ */
 public class FlatJSONResponseWriter implements QueryResponseWriter, EmbeddedSolrResponseWriter {
 
     private static final char lb = '\n';
@@ -74,22 +77,20 @@ public class FlatJSONResponseWriter implements QueryResponseWriter, EmbeddedSolr
     }
 
     private static final void writeDocs(final Writer writer, final SolrQueryRequest request, final DocList response) throws IOException {
-        boolean includeScore = false;
         final int sz = response.size();
         SolrIndexSearcher searcher = request.getSearcher();
         DocIterator iterator = response.iterator();
-        includeScore = includeScore && response.hasScores();
-        IndexSchema schema = request.getSchema();
+        final JSONFields jsonFields = new JSONFields(request.getSchema());
         for (int i = 0; i < sz; i++) {
             int id = iterator.nextDoc();
             Document doc = searcher.doc(id);
-            writeDoc(writer, schema, null, doc.getFields(), (includeScore ? iterator.score() : 0.0f), includeScore);
+            writeDoc(writer, jsonFields, doc.getFields());
         }
     }
 
-    private static final void writeDoc(final Writer writer, final IndexSchema schema, final String name, final List<IndexableField> fields, final float score, final boolean includeScore) throws IOException {
-        JSONObject json = new JSONObject(true);
-        
+    private static final void writeDoc(final Writer writer, final JSONFields jsonFields, final List<IndexableField> fields) throws IOException {
+        writer.write('{');
+        boolean first = true;
         int sz = fields.size();
         int fidx1 = 0, fidx2 = 0;
         while (fidx1 < sz) {
@@ -99,76 +100,114 @@ public class FlatJSONResponseWriter implements QueryResponseWriter, EmbeddedSolr
             while (fidx2 < sz && fieldName.equals(fields.get(fidx2).name())) {
                 fidx2++;
             }
-            SchemaField sf = schema == null ? null : schema.getFieldOrNull(fieldName);
-            if (sf == null) {
-                sf = new SchemaField(fieldName, new TextField());
-            }
-            FieldType type = sf.getType();
-            if (fidx1 + 1 == fidx2) {
-                if (sf.multiValued()) {
-                    JSONArray a = new JSONArray();
-                    json.put(fieldName, a);
-                    JSONObject j = new JSONObject();
-                    String sv = value.stringValue();
-                    setValue(j, type.getTypeName(), "x", sv); //sf.write(this, null, f1);
-                    a.add(j.get("x"));
+            final JSONField field = jsonFields.get(fieldName);
+            if (field.type != null) {
+                if (!first) writer.write(',');
+                first = false;
+                writer.write(field.name);
+                if (fidx1 + 1 == fidx2 && !field.multiValued) {
+                    field.write(writer, value.stringValue());
                 } else {
-                    setValue(json, type.getTypeName(), value.name(), value.stringValue());
-                }
-            } else {
-                JSONArray a = new JSONArray();
-                json.put(fieldName, a);
-                for (int i = fidx1; i < fidx2; i++) {
-                    String sv = fields.get(i).stringValue();
-                    JSONObject j = new JSONObject();
-                    setValue(j, type.getTypeName(), "x", sv); //sf.write(this, null, f1);
-                    a.add(j.get("x"));
+                    writer.write('[');
+                    for (int i = fidx1; i < fidx2; i++) {
+                        if (i > fidx1) writer.write(',');
+                        field.write(writer, fields.get(i).stringValue());
+                    }
+                    writer.write(']');
                 }
             }
             fidx1 = fidx2;
         }
-        writer.write(json.toString());
+        writer.write('}');
         writer.write(lb);
     }
 
-    private static void setValue(final JSONObject json, final String typeName, final String name, final String value) {
-        if (typeName.equals(SolrType.text_general.printName()) ||
-            typeName.equals(SolrType.string.printName()) ||
-            typeName.equals(SolrType.text_en_splitting_tight.printName())) {
-            json.put(name, value);
-        } else if (typeName.equals(SolrType.bool.printName())) {
-            json.put(name, "F".equals(value) ? false : true);
-        } else if (typeName.equals(SolrType.num_integer.printName())) {
-            json.put(name, Long.parseLong(value));
-        } else if (typeName.equals(SolrType.num_long.printName())) {
-            json.put(name, Long.parseLong(value));
-        } else if (typeName.equals(SolrType.date.printName())) {
-            json.put(name, new Date(Long.parseLong(value)).toInstant().toString());
-        } else if (typeName.equals(SolrType.num_float.printName())) {
-            json.put(name, Double.parseDouble(value));
-        } else if (typeName.equals(SolrType.num_double.printName())) {
-            json.put(name, Double.parseDouble(value));
+    /**
+     * The stored fields of a response with their quoted json names, resolved when a field occurs the first time.
+     */
+    private static final class JSONFields {
+
+        private final IndexSchema schema;
+        private final Map<String, JSONField> fields;
+
+        private JSONFields(final IndexSchema schema) {
+            this.schema = schema;
+            this.fields = new HashMap<>();
+        }
+
+        private JSONField get(final String fieldName) {
+            JSONField field = this.fields.get(fieldName);
+            if (field == null) {
+                final SchemaField sf = this.schema == null ? null : this.schema.getFieldOrNull(fieldName);
+                field = new JSONField(fieldName,
+                        sf == null ? SolrType.text_general : SolrType.fromPrintName(sf.getType().getTypeName()),
+                        sf != null && sf.multiValued());
+                this.fields.put(fieldName, field);
+            }
+            return field;
         }
     }
-    
+
+    /**
+     * a stored field with its quoted json name
+     */
+    private static final class JSONField {
+
+        private final char[] name;
+        private final SolrType type;
+        private final boolean multiValued;
+
+        private JSONField(final String name, final SolrType type, final boolean multiValued) {
+            this.name = (JSONObject.quote(name) + ':').toCharArray();
+            this.multiValued = multiValued;
+            // values of geospatial types are not written
+            this.type = type == SolrType.location || type == SolrType.coordinate ? null : type;
+        }
+
+        private void write(final Writer writer, final String value) throws IOException {
+            switch (this.type) {
+                case bool: writer.write("F".equals(value) ? "false" : "true"); break;
+                case num_integer: case num_long: writer.write(Long.toString(Long.parseLong(value))); break;
+                case num_float: case num_double: writer.write(JSONObject.numberToString(Double.parseDouble(value))); break;
+                case date: JSONObject.quote(Instant.ofEpochMilli(Long.parseLong(value)).toString(), writer); break;
+                default: JSONObject.quote(value, writer);
+            }
+        }
+    }
+
     public static final void writeDoc(final Writer writer, final SolrDocument doc) throws IOException {
-        JSONObject json = new JSONObject(true);
-        final Map<String, Object> fields = doc.getFieldValueMap();
-        for (String key: fields.keySet()) {
-            if (key == null)  continue;
-            Object value = doc.get(key);
-            if (value == null) {
-            } else if (value instanceof Collection<?>) {
-                JSONArray a = new JSONArray();
-                json.put(key, a);
-                for (Object o: ((Collection<?>) value)) {
-                    a.add(o);
+        writer.write('{');
+        boolean first = true;
+        for (final Map.Entry<String, Object> entry: doc) {
+            final String key = entry.getKey();
+            final Object value = entry.getValue();
+            if (key == null || value == null) continue;
+            if (!first) writer.write(',');
+            first = false;
+            JSONObject.quote(key, writer);
+            writer.write(':');
+            if (value instanceof Collection<?>) {
+                writer.write('[');
+                boolean firstValue = true;
+                for (final Object o: (Collection<?>) value) {
+                    if (!firstValue) writer.write(',');
+                    firstValue = false;
+                    writeValue(writer, o);
                 }
+                writer.write(']');
             } else {
-                json.put(key, value);
+                writeValue(writer, value);
             }
         }
-        writer.write(json.toString());
+        writer.write('}');
         writer.write(lb);
     }
+
+    private static void writeValue(final Writer writer, final Object value) throws IOException {
+        if (value instanceof String) {
+            JSONObject.quote((String) value, writer);
+        } else {
+            writer.write(JSONObject.valueToString(value));
+        }
+    }
 }
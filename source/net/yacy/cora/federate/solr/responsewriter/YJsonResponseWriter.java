@@ -291,10 +291,10 @@ public class YJsonResponseWriter implements QueryResponseWriter, SolrjResponseWr
         int writtenDocs = 0;
         while(iterator.hasNext()) {
         	if(writtenDocs > 0) {
-        		writer.write(",\n".toCharArray());
+        		writer.write(",\n");
         	}
             try {
-            	writer.write("{\n".toCharArray());
+            	writer.write("{\n");
             	int id = iterator.nextDoc();
             	Document doc = searcher.doc(id, OpensearchResponseWriter.SOLR_FIELDS);
             	MultiProtocolURL url = null;
@@ -384,10 +384,10 @@ public class YJsonResponseWriter implements QueryResponseWriter, SolrjResponseWr
 		int writtenDocs = 0;
         for (final SolrDocument doc : documents) {
         	if(writtenDocs > 0) {
-        		writer.write(",\n".toCharArray());
+        		writer.write(",\n");
         	}
             try {
-            	writer.write("{\n".toCharArray());
+            	writer.write("{\n");
             	MultiProtocolURL url = null;
             	String urlhash = null;
             	List<String> descriptions = new ArrayList<>();
@@ -570,20 +570,20 @@ public class YJsonResponseWriter implements QueryResponseWriter, SolrjResponseWr
 			int sp = snippetstring.lastIndexOf(' ');
 			if (sp >= 0) snippetstring = snippetstring.substring(0, sp) + " ..."; else snippetstring = snippetstring + "...";
 		}
-		writer.write("\"description\":"); writer.write(JSONObject.quote(snippetstring)); writer.write("\n}\n");
+		writer.write("\"description\":"); JSONObject.quote(snippetstring, writer); writer.write("\n}\n");
 	}
 
     public static void solitaireTag(final Writer writer, final String tagname, String value) throws IOException {
         if (value == null) return;
-        writer.write('"'); writer.write(tagname); writer.write("\":"); writer.write(JSONObject.quote(value)); writer.write(','); writer.write('\n');
+        writer.write('"'); writer.write(tagname); writer.write("\":"); JSONObject.quote(value, writer); writer.write(','); writer.write('\n');
     }
 
     private static void facetEntry(final Writer writer, String modifier, String propname, final String value) throws IOException {
         modifier = modifier.replaceAll("\"", "'").trim();
         propname = propname.replaceAll("\"", "'").trim();
-        writer.write("{\"name\":"); writer.write(JSONObject.quote(propname));
-        writer.write(",\"count\":"); writer.write(JSONObject.quote(value.replaceAll("\"", "'").trim())); 
-        writer.write(",\"modifier\":"); writer.write(JSONObject.quote(modifier+"%3A"+propname));
+        writer.write("{\"name\":"); JSONObject.quote(propname, writer);
+        writer.write(",\"count\":"); JSONObject.quote(value.replaceAll("\"", "'").trim(), writer);
+        writer.write(",\"modifier\":"); JSONObject.quote(modifier+"%3A"+propname, writer);
         writer.write("}");
     }
 }
@@ -126,6 +126,12 @@ public class HeaderFramework extends TreeMap<String, String> implements Map<Stri
      * ============================================================= */
     public static final String CONTENT_ENCODING_GZIP = "gzip";
 
+    /* =============================================================
+     * Constants for content-types
+     * ============================================================= */
+    /** content type of multipart file parts which the servlet hands over as bytes in the request attribute MIME_BINARY_PART + ":" + field name, not as string parameter */
+    public static final String MIME_BINARY_PART = "application/x-yacy-binary";
+
     /* =============================================================
      * Constants defining http methods
      * ============================================================= */
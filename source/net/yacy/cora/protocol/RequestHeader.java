@@ -81,6 +81,7 @@ public class RequestHeader extends HeaderFramework implements HttpServletRequest
     public static final String COOKIE = "Cookie";
 
     public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    public static final String IF_NONE_MATCH = "If-None-Match";
     public static final String IF_RANGE = "If-Range";
     public static final String REFERER = "Referer"; // a misspelling of referrer that occurs as an HTTP header field. Its defined so in the http protocol, so please don't 'fix' it!
 
@@ -103,6 +104,20 @@ public class RequestHeader extends HeaderFramework implements HttpServletRequest
         this._request = request;
     }
 
+    /**
+     * @param ifNoneMatch the value of an If-None-Match request header, may be null
+     * @param etag the current entity tag of the response
+     * @return true if the client has the current response already
+     */
+    public static boolean notModified(final String ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null) return false;
+        for (final String tag: ifNoneMatch.split(",")) {
+            final String t = tag.trim();
+            if (t.equals("*") || t.equals(etag) || ("W/" + t).equals(etag)) return true;
+        }
+        return false;
+    }
+
     public DigestURL referer() {
         final String referer = get(REFERER);
         if (referer == null) return null;
@@ -166,7 +166,11 @@ public class HTTPClient {
 	private HttpUriRequest currentRequest = null;
 	private long upbytes = 0L;
 	private String host = null;
+	private boolean keepAlive = false;
 	private final long timeout;
+	/** the request in execution, aborted by {@link #abort()} from another thread */
+	private volatile HttpUriRequest executing = null;
+	private volatile boolean aborted = false;
 	private static ExecutorService executor = Executors
 			.newCachedThreadPool(new NamePrefixThreadFactory(HTTPClient.class.getSimpleName() + ".execute"));
 
@@ -324,6 +328,30 @@ public class HTTPClient {
     	this.headers = entrys;
     }
 
+    /**
+     * By default each request asks the server to close the connection after the response, so that
+     * no connections to servers which are contacted only once remain open (in CLOSE_WAIT state).
+     * Clients which send requests to the same servers repeatedly (i.e. to other peers) can keep
+     * the connection open: it is returned to the pool and reused by the next request to the same
+     * host until it was idle for the time given by the keep-alive strategy.
+     *
+     * @param keepAlive true to keep the connection open after the response
+     */
+    public void setKeepAlive(final boolean keepAlive) {
+    	this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Abort the request executed by this client from another thread, i.e. when its response is not needed
+     * any more. The thread sending the request gets an IOException, a request started after this call is
+     * aborted at once.
+     */
+    public void abort() {
+    	this.aborted = true;
+    	final HttpUriRequest request = this.executing;
+    	if (request != null) request.abort();
+    }
+
     /**
      * This method sets the timeout of the Connection and Socket
      *
@@ -937,6 +965,8 @@ public class HTTPClient {
     		context.setTargetHost(new HttpHost(this.host));
     	
     	setHeaders(httpUriRequest);
+    	this.executing = httpUriRequest;
+    	if (this.aborted) httpUriRequest.abort();
     	// statistics
     	storeConnectionInfo(httpUriRequest);
     	// execute the method; some asserts confirm that that the request can be send with Content-Length and is therefore not terminated by EOF
@@ -1054,7 +1084,7 @@ public class HTTPClient {
             }
     	}
     	if (this.host != null) httpUriRequest.setHeader(HTTP.TARGET_HOST, this.host);
-        httpUriRequest.setHeader(HTTP.CONN_DIRECTIVE, "close"); // don't keep alive, prevent CLOSE_WAIT state
+        if (!this.keepAlive) httpUriRequest.setHeader(HTTP.CONN_DIRECTIVE, "close"); // don't keep alive, prevent CLOSE_WAIT state
     }
 
     private void storeConnectionInfo(final HttpUriRequest httpUriRequest) {
@@ -0,0 +1,449 @@
+/**
+ *  StripedScoreMap
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.cora.sorting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A score map for concurrent counting with many increments and rare reads, as done by the search navigators.
+ * Keys are dictionary-encoded to int ids, and counts are held in primitive int arrays. The counts are split
+ * into a fixed number of stripes, each with its own lock; a writing thread increments the stripe selected by
+ * its thread id, so that concurrent writers rarely wait for each other. Readers and deletions take the locks
+ * of all stripes, merge the stripes and reuse the ids of deleted keys.
+ */
+public class StripedScoreMap<E> extends AbstractScoreMap<E> implements ScoreMap<E> {
+
+    /** initial size of the counter array of a stripe */
+    private static final int INITIAL_STRIPE_SIZE = 16;
+
+    /** the number of stripes: a power of two, about twice the number of processors */
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1));
+
+    /** the counter array of the writing threads which share one stripe */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** the counts indexed by key id, guarded by lock */
+        private int[] counts = new int[INITIAL_STRIPE_SIZE];
+
+        private void inc(final int id, final int score) {
+            int[] c = this.counts;
+            if (id >= c.length) {
+                final int[] g = new int[Math.max(id + 1, c.length * 2)];
+                System.arraycopy(c, 0, g, 0, c.length);
+                this.counts = g;
+                c = g;
+            }
+            c[id] += score;
+        }
+
+        private int get(final int id) {
+            final int[] c = this.counts;
+            return id < c.length ? c[id] : 0;
+        }
+    }
+
+    /** the dictionary and the stripes, replaced as a whole on clear() */
+    private static final class State<E> {
+
+        /** the dictionary: a mapping from a key to its id */
+        private final ConcurrentHashMap<E, Integer> ids = new ConcurrentHashMap<E, Integer>();
+
+        /** the ids of deleted keys, to be assigned again, guarded by this */
+        private final List<Integer> free = new ArrayList<Integer>();
+
+        /** the next id to assign, guarded by this */
+        private int nextId = 0;
+
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        private State() {
+            for (int i = 0; i < this.stripes.length; i++) this.stripes[i] = new Stripe();
+        }
+
+        /**
+         * @return the id of the key, a new one if the key is not known; the caller holds the lock of a stripe
+         */
+        private int id(final E obj) {
+            Integer id = this.ids.get(obj);
+            if (id == null) {
+                synchronized (this) {
+                    id = this.ids.get(obj);
+                    if (id == null) {
+                        id = this.free.isEmpty() ? Integer.valueOf(this.nextId++) : this.free.remove(this.free.size() - 1);
+                        this.ids.put(obj, id);
+                    }
+                }
+            }
+            return id.intValue();
+        }
+
+        private Stripe stripe() {
+            return this.stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        }
+
+        private void lockAll() {
+            for (final Stripe stripe: this.stripes) stripe.lock.lock();
+        }
+
+        private void unlockAll() {
+            for (int i = this.stripes.length - 1; i >= 0; i--) this.stripes[i].lock.unlock();
+        }
+
+        /**
+         * @return the score of the id, summed up over all stripes; the caller holds the locks of all stripes
+         */
+        private int score(final int id) {
+            int score = 0;
+            for (final Stripe stripe: this.stripes) score += stripe.get(id);
+            return score;
+        }
+
+        /**
+         * remove a key, reset its counts and free its id; the caller holds the locks of all stripes
+         * @return the score of the removed key
+         */
+        private int remove(final E obj) {
+            final Integer id = this.ids.remove(obj);
+            if (id == null) return 0;
+            final int i = id.intValue();
+            int score = 0;
+            for (final Stripe stripe: this.stripes) {
+                if (i < stripe.counts.length) {
+                    score += stripe.counts[i];
+                    stripe.counts[i] = 0;
+                }
+            }
+            synchronized (this) {
+                this.free.add(id);
+            }
+            return score;
+        }
+
+        /**
+         * @return the scores of all keys; the caller holds the locks of all stripes
+         */
+        private Map<E, Integer> scores() {
+            final int[] m;
+            synchronized (this) {
+                m = new int[this.nextId];
+            }
+            for (final Stripe stripe: this.stripes) {
+                final int[] c = stripe.counts;
+                final int l = Math.min(c.length, m.length);
+                for (int i = 0; i < l; i++) m[i] += c[i];
+            }
+            final Map<E, Integer> scores = new HashMap<E, Integer>(this.ids.size() * 2);
+            for (final Map.Entry<E, Integer> entry: this.ids.entrySet()) scores.put(entry.getKey(), m[entry.getValue().intValue()]);
+            return scores;
+        }
+
+        /**
+         * @return the scores of all keys, taken with the locks of all stripes
+         */
+        private Map<E, Integer> snapshot() {
+            lockAll();
+            try {
+                return scores();
+            } finally {
+                unlockAll();
+            }
+        }
+    }
+
+    private volatile State<E> state;
+
+    /** Eventual registered object listening on map updates */
+    private ScoreMapUpdatesListener updatesListener;
+
+    public StripedScoreMap() {
+        this(null);
+    }
+
+    /**
+     * @param updatesListener an eventual object listening on score map updates
+     */
+    public StripedScoreMap(final ScoreMapUpdatesListener updatesListener) {
+        this.state = new State<E>();
+        this.updatesListener = updatesListener;
+    }
+
+    /**
+     * Dispatch the update event to the eventually registered listener.
+     */
+    private void dispatchUpdateToListener() {
+        if (this.updatesListener != null) {
+            this.updatesListener.updatedScoreMap();
+        }
+    }
+
+    /**
+     * @param updatesListener an eventual object which wants to listen to successful updates on this score map
+     */
+    public void setUpdatesListener(final ScoreMapUpdatesListener updatesListener) {
+        this.updatesListener = updatesListener;
+    }
+
+    /**
+     * @return the entries of the scores sorted by score
+     */
+    private static <E> List<Map.Entry<E, Integer>> sorted(final Map<E, Integer> scores, final boolean up) {
+        final List<Map.Entry<E, Integer>> entries = new ArrayList<Map.Entry<E, Integer>>(scores.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<E, Integer>>() {
+            @Override
+            public int compare(final Map.Entry<E, Integer> e1, final Map.Entry<E, Integer> e2) {
+                final int c = Integer.compare(e1.getValue().intValue(), e2.getValue().intValue());
+                return up ? c : -c;
+            }
+        });
+        return entries;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return this.state.ids.keySet().iterator();
+    }
+
+    @Override
+    public void clear() {
+        this.state = new State<E>();
+        dispatchUpdateToListener();
+    }
+
+    @Override
+    public int shrinkToMaxSize(final int maxsize) {
+        final State<E> s = this.state;
+        if (s.ids.size() <= maxsize) {
+            return 0;
+        }
+        int deletedNb = 0;
+        s.lockAll();
+        try {
+            final List<Map.Entry<E, Integer>> entries = sorted(s.scores(), true);
+            // remove the entries with the lowest scores; entries with the same score are removed together
+            int i = 0;
+            while (entries.size() - i > maxsize) {
+                final int minScore = entries.get(i).getValue().intValue();
+                while (i < entries.size() && entries.get(i).getValue().intValue() == minScore) {
+                    if (s.ids.containsKey(entries.get(i).getKey())) {
+                        s.remove(entries.get(i).getKey());
+                        deletedNb++;
+                    }
+                    i++;
+                }
+            }
+        } finally {
+            s.unlockAll();
+        }
+        if (deletedNb > 0) {
+            dispatchUpdateToListener();
+        }
+        return deletedNb;
+    }
+
+    @Override
+    public int shrinkToMinScore(final int minScore) {
+        final State<E> s = this.state;
+        int deletedNb = 0;
+        s.lockAll();
+        try {
+            for (final Map.Entry<E, Integer> entry: s.scores().entrySet()) {
+                if (entry.getValue().intValue() < minScore) {
+                    s.remove(entry.getKey());
+                    deletedNb++;
+                }
+            }
+        } finally {
+            s.unlockAll();
+        }
+        if (deletedNb > 0) {
+            dispatchUpdateToListener();
+        }
+        return deletedNb;
+    }
+
+    /**
+     * @return the sum of all scores
+     */
+    public long totalCount() {
+        long count = 0;
+        for (final Integer score: this.state.snapshot().values()) count += score.intValue();
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return this.state.ids.size();
+    }
+
+    @Override
+    public boolean sizeSmaller(final int size) {
+        return this.state.ids.size() < size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.state.ids.isEmpty();
+    }
+
+    @Override
+    public void inc(final E obj) {
+        inc(obj, 1);
+    }
+
+    @Override
+    public void inc(final E obj, final int incrementScore) {
+        if (obj == null) return;
+        final State<E> s = this.state;
+        final Stripe stripe = s.stripe();
+        stripe.lock.lock();
+        try {
+            stripe.inc(s.id(obj), incrementScore);
+        } finally {
+            stripe.lock.unlock();
+        }
+        dispatchUpdateToListener();
+    }
+
+    @Override
+    public void dec(final E obj) {
+        inc(obj, -1);
+    }
+
+    @Override
+    public void dec(final E obj, final int decrementScore) {
+        inc(obj, -decrementScore);
+    }
+
+    @Override
+    public void set(final E obj, final int newScore) {
+        if (obj == null) return;
+        final State<E> s = this.state;
+        s.lockAll();
+        try {
+            final int id = s.id(obj);
+            s.stripe().inc(id, newScore - s.score(id));
+        } finally {
+            s.unlockAll();
+        }
+        dispatchUpdateToListener();
+    }
+
+    @Override
+    public int delete(final E obj) {
+        // deletes entry and returns previous score
+        if (obj == null) return 0;
+        final State<E> s = this.state;
+        if (!s.ids.containsKey(obj)) return 0;
+        final int score;
+        s.lockAll();
+        try {
+            if (!s.ids.containsKey(obj)) return 0;
+            score = s.remove(obj);
+        } finally {
+            s.unlockAll();
+        }
+        dispatchUpdateToListener();
+        return score;
+    }
+
+    @Override
+    public boolean containsKey(final E obj) {
+        if (obj == null) return false;
+        return this.state.ids.containsKey(obj);
+    }
+
+    @Override
+    public int get(final E obj) {
+        if (obj == null) return 0;
+        final State<E> s = this.state;
+        s.lockAll();
+        try {
+            final Integer id = s.ids.get(obj);
+            if (id == null) return 0;
+            return s.score(id.intValue());
+        } finally {
+            s.unlockAll();
+        }
+    }
+
+    public int getMinScore() {
+        final Map<E, Integer> scores = this.state.snapshot();
+        if (scores.isEmpty()) return -1;
+        int minScore = Integer.MAX_VALUE;
+        for (final Integer score: scores.values()) minScore = Math.min(minScore, score.intValue());
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        final Map<E, Integer> scores = this.state.snapshot();
+        if (scores.isEmpty()) return -1;
+        int maxScore = Integer.MIN_VALUE;
+        for (final Integer score: scores.values()) maxScore = Math.max(maxScore, score.intValue());
+        return maxScore;
+    }
+
+    @Override
+    public String toString() {
+        return this.state.snapshot().toString();
+    }
+
+    /**
+     * Creates and returns a sorted view to the keys. Sortorder is the score value.
+     * @param up true = asc order, false = reverse order
+     * @return iterator accessing the keys in order of score values
+     */
+    @Override
+    public Iterator<E> keys(final boolean up) {
+        final List<Map.Entry<E, Integer>> entries = sorted(this.state.snapshot(), up);
+        final List<E> l = new ArrayList<E>(entries.size());
+        for (final Map.Entry<E, Integer> entry: entries) l.add(entry.getKey());
+        return l.iterator();
+    }
+
+    /**
+     * Creates and returns a sorted view of the keys, sorted by their own natural order.
+     * @param up true = asc order, false = reverse order
+     * @return iterator accessing the keys in natural order
+     */
+    public Iterator<E> keysByNaturalOrder(final boolean up) {
+        TreeSet<E> sortedKeys;
+        if (up) {
+            sortedKeys = new TreeSet<>();
+        } else {
+            sortedKeys = new TreeSet<>(Collections.reverseOrder());
+        }
+        for (E key: this.state.ids.keySet()) {
+            sortedKeys.add(key);
+        }
+        return sortedKeys.iterator();
+    }
+
+}
@@ -110,6 +110,14 @@ public class WeakPriorityBlockingQueue<E> implements Serializable {
                         Math.min(this.maxsize, this.queue.size() + (this.drained == null ? 0 : this.drained.size()));
     }
 
+    /**
+     * test if the queue has reached its maximum size; a put of a new element then removes the element with the worst weight
+     * @return true if the queue is full
+     */
+    public synchronized boolean isFull() {
+        return this.maxsize >= 0 && this.queue.size() >= this.maxsize;
+    }
+
     /**
      * put a element on the stack using a order of the weight
      * elements that had been on the stack cannot be put in again,
@@ -0,0 +1,150 @@
+/**
+ *  ByteSizeLimitedCache
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.cora.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache which is bounded by the sum of the sizes of its entries and forgets the least recently used entries
+ * first. An entry larger than a sixteenth of the maximum size is not stored, so that a single entry cannot
+ * push out most of the others. Lookups are counted as hits or misses.
+ */
+public class ByteSizeLimitedCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+    private final ToLongFunction<V> sizeOf;
+    private final long maxSize, maxEntrySize;
+    private long size;
+    private final AtomicLong hits, misses;
+
+    /**
+     * @param maxSize the maximum size of all entries in bytes; 0 disables the cache
+     * @param sizeOf computes the size of an entry in bytes
+     */
+    public ByteSizeLimitedCache(final long maxSize, final ToLongFunction<V> sizeOf) {
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxSize / 16;
+        this.sizeOf = sizeOf;
+        this.size = 0;
+        this.entries = new LinkedHashMap<K, V>(64, 0.75f, true);
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    /**
+     * @return true if entries are stored
+     */
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    /**
+     * @return the size in bytes of the largest entry which is stored
+     */
+    public long getMaxEntrySize() {
+        return this.maxEntrySize;
+    }
+
+    /**
+     * @param key the key of an entry
+     * @param valid tells if a cached entry can still be used; an entry which can not is removed
+     * @return the valid entry or null
+     */
+    public V get(final K key, final Predicate<V> valid) {
+        if (this.maxSize <= 0) return null;
+        synchronized (this) {
+            final V value = this.entries.get(key);
+            if (value != null) {
+                if (valid.test(value)) {
+                    this.hits.incrementAndGet();
+                    return value;
+                }
+                this.entries.remove(key);
+                this.size -= this.sizeOf.applyAsLong(value);
+            }
+        }
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * store an entry and remove the least recently used entries until the cache fits into its maximum size
+     * @param key the key of the entry
+     * @param value the entry
+     * @return true if the entry was stored, false if it is too large
+     */
+    public boolean put(final K key, final V value) {
+        final long s = this.sizeOf.applyAsLong(value);
+        if (this.maxSize <= 0 || s > this.maxEntrySize) return false;
+        synchronized (this) {
+            final V old = this.entries.put(key, value);
+            if (old != null) this.size -= this.sizeOf.applyAsLong(old);
+            this.size += s;
+            final Iterator<Map.Entry<K, V>> i = this.entries.entrySet().iterator();
+            while (this.size > this.maxSize && i.hasNext()) {
+                this.size -= this.sizeOf.applyAsLong(i.next().getValue());
+                i.remove();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the size of all entries in bytes
+     */
+    public synchronized long byteSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of lookups which found a valid entry
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of lookups which found no valid entry
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * remove all entries
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+}
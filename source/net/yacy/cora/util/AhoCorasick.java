@@ -0,0 +1,151 @@
+/**
+ *  AhoCorasick.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.cora.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton: finds all occurrences of a fixed set of literal strings in a text
+ * in one pass over the text, independent of the number of strings. The automaton is immutable
+ * after construction and can be shared between threads.
+ */
+public final class AhoCorasick {
+
+    /**
+     * Receiver of the matches found in a text
+     */
+    public interface MatchHandler {
+
+        /**
+         * @param pattern the index of the matching pattern in the array given to the constructor
+         * @param start the position of the first character of the match in the text
+         * @param end the position after the last character of the match in the text
+         * @return true to continue the search, false to stop it
+         */
+        public boolean match(final int pattern, final int start, final int end);
+    }
+
+    private final int[] lengths; // the length of each pattern
+    private final char[][] keys; // for each state the sorted characters of its transitions
+    private final int[][] targets; // for each state the target states of its transitions
+    private final int[] fail; // for each state the state of its longest proper suffix in the automaton
+    private final int[][] outputs; // for each state the patterns which end in this state, including those of suffix states
+
+    /**
+     * @param patterns the strings to search; empty strings are ignored
+     */
+    public AhoCorasick(final String[] patterns) {
+        this.lengths = new int[patterns.length];
+
+        // build the trie
+        final List<TreeMap<Character, Integer>> trie = new ArrayList<TreeMap<Character, Integer>>();
+        final List<List<Integer>> out = new ArrayList<List<Integer>>();
+        trie.add(new TreeMap<Character, Integer>());
+        out.add(new ArrayList<Integer>(1));
+        for (int p = 0; p < patterns.length; p++) {
+            final String pattern = patterns[p];
+            this.lengths[p] = pattern.length();
+            if (pattern.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                final Character c = pattern.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<Character, Integer>());
+                    out.add(new ArrayList<Integer>(1));
+                }
+                state = next;
+            }
+            out.get(state).add(p);
+        }
+
+        // compile the transitions into arrays
+        final int states = trie.size();
+        this.keys = new char[states][];
+        this.targets = new int[states][];
+        for (int s = 0; s < states; s++) {
+            final TreeMap<Character, Integer> transitions = trie.get(s);
+            this.keys[s] = new char[transitions.size()];
+            this.targets[s] = new int[transitions.size()];
+            int i = 0;
+            for (final Map.Entry<Character, Integer> t: transitions.entrySet()) {
+                this.keys[s][i] = t.getKey();
+                this.targets[s][i] = t.getValue();
+                i++;
+            }
+        }
+
+        // compute the failure links and outputs in breadth-first order
+        this.fail = new int[states];
+        final ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+        for (final int t: this.targets[0]) queue.add(t);
+        while (!queue.isEmpty()) {
+            final int s = queue.poll();
+            out.get(s).addAll(out.get(this.fail[s]));
+            for (int i = 0; i < this.keys[s].length; i++) {
+                final char c = this.keys[s][i];
+                final int t = this.targets[s][i];
+                int f = this.fail[s];
+                int g;
+                while ((g = transition(f, c)) < 0 && f != 0) f = this.fail[f];
+                this.fail[t] = g < 0 ? 0 : g;
+                queue.add(t);
+            }
+        }
+        this.outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            final List<Integer> o = out.get(s);
+            this.outputs[s] = new int[o.size()];
+            for (int i = 0; i < o.size(); i++) this.outputs[s][i] = o.get(i);
+        }
+    }
+
+    private int transition(final int state, final char c) {
+        final int i = Arrays.binarySearch(this.keys[state], c);
+        return i < 0 ? -1 : this.targets[state][i];
+    }
+
+    /**
+     * find all occurrences of the patterns in the text, also overlapping ones
+     * @param text the text to search
+     * @param handler the receiver of the matches, called in the order of the end positions of the matches
+     */
+    public void find(final CharSequence text, final MatchHandler handler) {
+        int state = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) state = this.fail[state];
+            state = next < 0 ? 0 : next;
+            for (final int p: this.outputs[state]) {
+                if (!handler.match(p, i + 1 - this.lengths[p], i + 1)) return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+// ConcurrencyLimit.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An adaptive limit of concurrent requests which follows the observed latency, like the gradient of TCP Vegas:
+ * while the short-term latency stays near the long-term latency the limit grows, and when the short-term
+ * latency rises above it the requests are queueing somewhere and the limit shrinks. Acquiring a permit is
+ * lock-free, the limit is updated with each finished request.
+ */
+public class ConcurrencyLimit {
+
+    /** the factor by which the short-term latency may exceed the long-term latency before the limit shrinks */
+    private static final double TOLERANCE = 1.5d;
+
+    /** the weight of a new limit against the current limit */
+    private static final double SMOOTHING = 0.2d;
+
+    private final int minLimit, maxLimit;
+    private final AtomicInteger inflight;
+    private volatile double limit;
+    private double shortLatency, longLatency;
+
+    /**
+     * @param minLimit the lowest limit
+     * @param maxLimit the highest limit
+     * @param initialLimit the limit until the first requests are finished
+     */
+    public ConcurrencyLimit(final int minLimit, final int maxLimit, final int initialLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.inflight = new AtomicInteger(0);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.shortLatency = 0.0d;
+        this.longLatency = 0.0d;
+    }
+
+    /**
+     * @return true if the request may start, then {@link #release(long)} must be called when it is finished
+     */
+    public boolean acquire() {
+        if (this.inflight.incrementAndGet() > (int) this.limit) {
+            this.inflight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param latency the time in nanoseconds the request took
+     */
+    public void release(final long latency) {
+        sample(latency, this.inflight.getAndDecrement());
+    }
+
+    private synchronized void sample(final long latency, final int concurrent) {
+        final double l = Math.max(1L, latency);
+        if (this.longLatency == 0.0d) {
+            this.shortLatency = l;
+            this.longLatency = l;
+            return;
+        }
+        this.shortLatency = this.shortLatency * 0.9d + l * 0.1d;
+        this.longLatency = this.longLatency * 0.99d + l * 0.01d;
+        // after a lasting drop of the latency the long-term latency follows faster
+        if (this.longLatency > 2.0d * this.shortLatency) this.longLatency *= 0.95d;
+        // a limit which is not used does not tell anything about the latency
+        if (concurrent < this.limit / 2.0d) return;
+        final double gradient = Math.max(0.5d, Math.min(1.0d, TOLERANCE * this.longLatency / this.shortLatency));
+        final double newLimit = this.limit * gradient + Math.sqrt(this.limit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, this.limit * (1.0d - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return the number of requests which are running
+     */
+    public int getInflight() {
+        return this.inflight.get();
+    }
+
+}
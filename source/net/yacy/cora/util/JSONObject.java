@@ -1223,6 +1223,17 @@ public class JSONObject {
         }
     }
 
+    /**
+     * Write a string in double quotes with backslash sequences, see {@link #quote(String)}.
+     * Runs of characters which need no escaping are written in one piece.
+     *
+     * @param string
+     *            A String
+     * @param w
+     *            the writer to append to
+     * @return the writer
+     * @throws IOException when writing failed
+     */
     public static Writer quote(String string, Writer w) throws IOException {
         if (string == null || string.length() == 0) {
             w.write("\"\"");
@@ -1234,21 +1245,25 @@ public class JSONObject {
         String hhhh;
         int i;
         int len = string.length();
+        int run = 0; // start of the characters which are not written yet
 
         w.write('"');
         for (i = 0; i < len; i += 1) {
             b = c;
             c = string.charAt(i);
+            if (c >= ' ' && c != '\\' && c != '"' && c != '/' && (c < '\u0080' || (c >= '\u00a0' && (c < '\u2000' || c >= '\u2100')))) {
+                continue;
+            }
+            if (c == '/' && b != '<') {
+                continue;
+            }
+            if (run < i) w.write(string, run, i - run);
+            run = i + 1;
             switch (c) {
             case '\\':
             case '"':
-                w.write('\\');
-                w.write(c);
-                break;
             case '/':
-                if (b == '<') {
-                    w.write('\\');
-                }
+                w.write('\\');
                 w.write(c);
                 break;
             case '\b':
@@ -1267,17 +1282,13 @@ public class JSONObject {
                 w.write("\\r");
                 break;
             default:
-                if (c < ' ' || (c >= '\u0080' && c < '\u00a0')
-                        || (c >= '\u2000' && c < '\u2100')) {
-                    w.write("\\u");
-                    hhhh = Integer.toHexString(c);
-                    w.write("0000", 0, 4 - hhhh.length());
-                    w.write(hhhh);
-                } else {
-                    w.write(c);
-                }
+                w.write("\\u");
+                hhhh = Integer.toHexString(c);
+                w.write("0000", 0, 4 - hhhh.length());
+                w.write(hhhh);
             }
         }
+        if (run < len) w.write(string, run, len - run);
         w.write('"');
         return w;
     }
@@ -0,0 +1,135 @@
+// LatencyHistogram.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in milliseconds with fixed buckets. Adding a value is lock-free and does not
+ * allocate, and the counters are striped so that many threads of a hot path do not contend on them.
+ * Percentiles are answered with the upper bound of the bucket which contains them.
+ */
+public class LatencyHistogram {
+
+    /** the upper bounds of the buckets in milliseconds; the last bucket has no upper bound */
+    public static final long[] BOUNDS = new long[]{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000};
+
+    private final LongAdder[] counts;
+    private final LongAdder count, sum;
+
+    public LatencyHistogram() {
+        this.counts = new LongAdder[BOUNDS.length + 1];
+        for (int i = 0; i < this.counts.length; i++) this.counts[i] = new LongAdder();
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * @param ms a latency in milliseconds
+     */
+    public void add(final long ms) {
+        final long v = Math.max(0, ms);
+        this.counts[bucket(v)].increment();
+        this.count.increment();
+        this.sum.add(v);
+    }
+
+    private static int bucket(final long ms) {
+        int b = 0;
+        while (b < BOUNDS.length && ms > BOUNDS[b]) b++;
+        return b;
+    }
+
+    /**
+     * @return the number of added values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the sum of all added values in milliseconds
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * @return the mean of all added values in milliseconds, 0 if no value was added
+     */
+    public long getMean() {
+        final long c = this.count.sum();
+        return c == 0 ? 0 : this.sum.sum() / c;
+    }
+
+    /**
+     * @return the number of values in each bucket; the bucket i holds values up to BOUNDS[i],
+     *         the last bucket holds all values above the largest bound
+     */
+    public long[] getBucketCounts() {
+        final long[] c = new long[this.counts.length];
+        for (int i = 0; i < c.length; i++) c[i] = this.counts[i].sum();
+        return c;
+    }
+
+    /**
+     * @param q the quantile, from 0.0 to 1.0
+     * @return the upper bound of the bucket which contains the quantile, in milliseconds. Values in the
+     *         last, unbounded bucket are reported as Long.MAX_VALUE; 0 if no value was added
+     */
+    public long getPercentile(final double q) {
+        final long[] c = getBucketCounts();
+        long total = 0;
+        for (final long n: c) total += n;
+        if (total == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < c.length; i++) {
+            seen += c[i];
+            if (seen >= rank) return i < BOUNDS.length ? BOUNDS[i] : Long.MAX_VALUE;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * remove all values
+     */
+    public void clear() {
+        for (final LongAdder c: this.counts) c.reset();
+        this.count.reset();
+        this.sum.reset();
+    }
+
+    /**
+     * @param ms a latency or a percentile of this histogram
+     * @return a short readable form, values in the unbounded bucket are shown as the largest bound with a '+'
+     */
+    public static String format(final long ms) {
+        if (ms == Long.MAX_VALUE) return BOUNDS[BOUNDS.length - 1] + "ms+";
+        return ms + "ms";
+    }
+
+    @Override
+    public String toString() {
+        return "n=" + getCount() + " mean=" + format(getMean()) + " p50=" + format(getPercentile(0.5)) + " p90=" + format(getPercentile(0.9)) + " p99=" + format(getPercentile(0.99));
+    }
+
+}
@@ -0,0 +1,103 @@
+// TokenBuckets.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for many keys, i.e. one bucket for each client of a service. Each bucket allows a sustained
+ * rate of requests and a burst of requests above that rate. The buckets follow the generic cell rate algorithm:
+ * a bucket is only the theoretical arrival time of its next request in one atomic value, so that taking a
+ * token is lock-free. Buckets which are full again are forgotten when the number of keys exceeds its maximum.
+ */
+public class TokenBuckets {
+
+    private final long interval, tolerance;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets;
+
+    /**
+     * @param rate the number of tokens per second
+     * @param burst the number of tokens of a full bucket
+     * @param maxKeys the number of keys above which full buckets are removed
+     */
+    public TokenBuckets(final double rate, final int burst, final int maxKeys) {
+        this.interval = (long) (1000000000.0d / rate);
+        this.tolerance = this.interval * (Math.max(1, burst) - 1);
+        this.maxKeys = maxKeys;
+        this.buckets = new ConcurrentHashMap<String, AtomicLong>();
+    }
+
+    /**
+     * take a token from the bucket of a key
+     * @param key the key, i.e. a client address
+     * @return true if the bucket had a token, false if the request exceeds the rate
+     */
+    public boolean take(final String key) {
+        return take(key, System.nanoTime());
+    }
+
+    boolean take(final String key, final long now) {
+        final AtomicLong tat = bucket(key, now);
+        while (true) {
+            final long t = tat.get();
+            final long next = Math.max(t, now);
+            if (next - now > this.tolerance) return false;
+            if (tat.compareAndSet(t, next + this.interval)) return true;
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the time in milliseconds until the bucket of the key has a token again
+     */
+    public long waitTime(final String key) {
+        final AtomicLong tat = this.buckets.get(key);
+        if (tat == null) return 0;
+        return Math.max(0, tat.get() - System.nanoTime() - this.tolerance) / 1000000L;
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public int size() {
+        return this.buckets.size();
+    }
+
+    private AtomicLong bucket(final String key, final long now) {
+        AtomicLong tat = this.buckets.get(key);
+        if (tat != null) return tat;
+        if (this.buckets.size() >= this.maxKeys) prune(now);
+        tat = new AtomicLong(now);
+        final AtomicLong old = this.buckets.putIfAbsent(key, tat);
+        return old == null ? tat : old;
+    }
+
+    private void prune(final long now) {
+        final Iterator<AtomicLong> i = this.buckets.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().get() <= now) i.remove();
+        }
+    }
+
+}
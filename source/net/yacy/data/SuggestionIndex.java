@@ -0,0 +1,253 @@
+/**
+ *  SuggestionIndex
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingSuggester;
+import org.apache.lucene.search.suggest.analyzing.FuzzySuggester;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+
+import net.yacy.cora.document.WordCache;
+import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.document.LibraryProvider;
+
+/**
+ * A prebuilt index of query suggestions. The index is a finite state transducer of all words of the
+ * did-you-mean dictionaries and of the words and successful queries learned from indexed documents and
+ * the query log, weighted with the number of times they were seen. A lookup finds the entries which
+ * start with the given input or with a variation of it by one changed, added, deleted or swapped letter,
+ * so it covers the same typing mistakes as {@link DidYouMean} without starting threads or asking the index.
+ * The index is built in the background at startup and again when it is older than the refresh interval; a lookup
+ * never waits for it and has no suggestions until the first index is built.
+ */
+public class SuggestionIndex {
+
+    private static final ConcurrentLog log = new ConcurrentLog("SuggestionIndex");
+
+    private static final int MinimumInputWordLength = 2;
+    private static final int MinimumOutputWordLength = 4;
+
+    private final long refreshInterval;
+    private final AtomicBoolean building;
+    private volatile Lookup suggester;
+    private volatile long lastBuild;
+
+    /**
+     * @param refreshInterval the time in milliseconds after which the index is built again
+     */
+    public SuggestionIndex(final long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+        this.building = new AtomicBoolean(false);
+        this.suggester = null;
+        this.lastBuild = 0;
+    }
+
+    /**
+     * get suggestions for a query. For a query of several words the last word is also completed on its own.
+     * @param query the query as typed so far
+     * @param count the maximum number of suggestions
+     * @return the suggestions ordered by their weight, without the query itself
+     */
+    public List<String> getSuggestions(final String query, final int count) {
+        String q = query.toLowerCase(Locale.ROOT);
+        int b = 0;
+        while (b < q.length() && q.charAt(b) == ' ') b++;
+        q = q.substring(b);
+        final List<String> result = new ArrayList<String>(count);
+        if (q.trim().length() < MinimumInputWordLength) return result;
+        final Lookup lookup = suggester();
+        if (lookup == null) return result;
+        final Set<String> suggestions = new LinkedHashSet<String>();
+        lookup(lookup, "", q, count + 1, suggestions);
+        final int p = q.lastIndexOf(' ');
+        if (p > 0 && suggestions.size() <= count) {
+            lookup(lookup, q.substring(0, p + 1), q.substring(p + 1), count + 1 - suggestions.size(), suggestions);
+        }
+        suggestions.remove(q.trim());
+        for (final String s: suggestions) {
+            if (result.size() >= count) break;
+            result.add(s);
+        }
+        return result;
+    }
+
+    private static void lookup(final Lookup lookup, final String head, final String key, final int count, final Set<String> suggestions) {
+        if (key.length() < MinimumInputWordLength) return;
+        try {
+            for (final Lookup.LookupResult r: lookup.lookup(key, false, count)) {
+                suggestions.add(head + r.key);
+            }
+        } catch (final IOException e) {
+            log.warn("lookup of '" + key + "' failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * mark the index as outdated and build it again in the background
+     */
+    public void invalidate() {
+        this.lastBuild = 0;
+        buildInBackground();
+    }
+
+    /**
+     * build the index in a new thread unless it is already being built; the current index is used until the new one is complete
+     */
+    public void buildInBackground() {
+        if (!this.building.compareAndSet(false, true)) return;
+        new Thread("SuggestionIndex.build") {
+            @Override
+            public void run() {
+                try {
+                    build();
+                } finally {
+                    SuggestionIndex.this.building.set(false);
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * @return the number of entries of the index
+     */
+    public long size() {
+        final Lookup lookup = this.suggester;
+        try {
+            return lookup == null ? 0 : lookup.getCount();
+        } catch (final IOException e) {
+            return 0;
+        }
+    }
+
+    private Lookup suggester() {
+        if (System.currentTimeMillis() - this.lastBuild > this.refreshInterval) buildInBackground();
+        return this.suggester;
+    }
+
+    /**
+     * build the index from the dictionaries and the learned words and replace the current index; this blocks until
+     * the index is complete, see {@link #buildInBackground()}
+     */
+    public void build() {
+        final long start = System.currentTimeMillis();
+        final Map<String, Long> weights = collect();
+        final Analyzer analyzer = new KeywordLowerCaseAnalyzer();
+        final FuzzySuggester s = new FuzzySuggester(new RAMDirectory(), "suggest", analyzer, analyzer,
+                AnalyzingSuggester.EXACT_FIRST | AnalyzingSuggester.PRESERVE_SEP, 256, -1, true,
+                FuzzySuggester.DEFAULT_MAX_EDITS, true, FuzzySuggester.DEFAULT_NON_FUZZY_PREFIX, FuzzySuggester.DEFAULT_MIN_FUZZY_LENGTH, true);
+        try {
+            s.build(new WeightIterator(weights));
+            this.suggester = s;
+            log.info("built suggestion index with " + weights.size() + " entries in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (final IOException e) {
+            log.warn("could not build suggestion index: " + e.getMessage());
+        } finally {
+            this.lastBuild = System.currentTimeMillis();
+        }
+    }
+
+    private static Map<String, Long> collect() {
+        final Map<String, Long> weights = new HashMap<String, Long>();
+        for (final WordCache.Dictionary dict: LibraryProvider.dymLib.getDictionaries().values()) {
+            for (final StringBuilder word: dict.getWords()) add(weights, word.toString(), 1);
+        }
+        for (final Map.Entry<String, Integer> word: WordCache.getCommonWords().entrySet()) {
+            add(weights, word.getKey(), word.getValue().longValue());
+        }
+        return weights;
+    }
+
+    private static void add(final Map<String, Long> weights, final String word, final long weight) {
+        final String w = word.trim().toLowerCase(Locale.ROOT);
+        if (w.length() < MinimumOutputWordLength) return;
+        final Long v = weights.get(w);
+        weights.put(w, v == null ? weight : v.longValue() + weight);
+    }
+
+    private static final class KeywordLowerCaseAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(final String fieldName) {
+            final Tokenizer tokenizer = new KeywordTokenizer();
+            return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+        }
+    }
+
+    private static final class WeightIterator implements InputIterator {
+
+        private final Iterator<Map.Entry<String, Long>> entries;
+        private long weight;
+
+        private WeightIterator(final Map<String, Long> weights) {
+            this.entries = weights.entrySet().iterator();
+            this.weight = 0;
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!this.entries.hasNext()) return null;
+            final Map.Entry<String, Long> entry = this.entries.next();
+            this.weight = Math.min(Integer.MAX_VALUE, entry.getValue().longValue());
+            return new BytesRef(entry.getKey());
+        }
+
+        @Override
+        public long weight() {
+            return this.weight;
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ *  ArchiveMemberParser.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.document;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.yacy.kelondro.util.MemoryControl;
+import net.yacy.kelondro.util.NamePrefixThreadFactory;
+
+/**
+ * Parses the members of an archive concurrently. The archive parser reads the members one after another and
+ * hands each of them over as a {@link Member}, which is parsed on a shared pool while the next member is read.
+ * The documents of the members are added to the main document of the archive in the order of the members.
+ * The number of members in flight is bounded by the concurrency, so that at most that many extracted members
+ * are held at the same time. A member is parsed on the calling thread if the memory is short or if the
+ * caller is itself a pool thread, i.e. for an archive inside of an archive.
+ */
+public class ArchiveMemberParser {
+
+    private static final String THREAD_PREFIX = ArchiveMemberParser.class.getSimpleName();
+
+    /** the maximum number of members of one archive which are parsed at the same time; 1 parses all members on the calling thread */
+    public static int concurrency = Runtime.getRuntime().availableProcessors();
+
+    private static ThreadPoolExecutor pool = null;
+
+    /**
+     * The parser of an extracted archive member. A member cleans up its extracted content when it is parsed.
+     */
+    public interface Member extends Callable<Document[]> {
+
+        /**
+         * @return the documents of the member or null if the member shall be skipped
+         */
+        @Override
+        public Document[] call() throws Parser.Failure, InterruptedException;
+    }
+
+    private final Document maindoc;
+    private final ArrayDeque<Future<Document[]>> pending;
+    private final boolean sequential;
+
+    /**
+     * @param maindoc the main document of the archive which receives the documents of the members
+     */
+    public ArchiveMemberParser(final Document maindoc) {
+        this.maindoc = maindoc;
+        this.pending = new ArrayDeque<Future<Document[]>>();
+        this.sequential = concurrency <= 1 || Thread.currentThread().getName().startsWith(THREAD_PREFIX);
+    }
+
+    private static synchronized ThreadPoolExecutor pool() {
+        if (pool == null || pool.getMaximumPoolSize() != concurrency) {
+            if (pool != null) pool.shutdown();
+            pool = new ThreadPoolExecutor(concurrency, concurrency, 10, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new NamePrefixThreadFactory(THREAD_PREFIX));
+            pool.allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+
+    /**
+     * parse a member. This returns when the member is parsed or when it is scheduled for parsing, and may wait
+     * for the earlier members if the maximum number of members is in flight.
+     * @param member the member
+     * @throws Parser.Failure if the member or an earlier one failed
+     * @throws IOException if the documents could not be added to the main document
+     * @throws InterruptedException
+     */
+    public void parse(final Member member) throws Parser.Failure, IOException, InterruptedException {
+        if (this.sequential || MemoryControl.shortStatus()) {
+            finish(); // keep the order of the members
+            add(member.call());
+            return;
+        }
+        while (this.pending.size() >= concurrency) add(take());
+        this.pending.add(pool().submit(member));
+    }
+
+    /**
+     * wait for all scheduled members and add their documents to the main document
+     * @throws Parser.Failure if a member failed
+     * @throws IOException if the documents could not be added to the main document
+     * @throws InterruptedException
+     */
+    public void finish() throws Parser.Failure, IOException, InterruptedException {
+        try {
+            while (!this.pending.isEmpty()) add(take());
+        } finally {
+            discard();
+        }
+    }
+
+    /**
+     * discard the documents of all scheduled members, i.e. if the archive cannot be read any more. The members
+     * are not cancelled because they clean up their extracted content when they are parsed.
+     */
+    public void discard() {
+        this.pending.clear();
+    }
+
+    private Document[] take() throws Parser.Failure, InterruptedException {
+        final Future<Document[]> f = this.pending.poll();
+        try {
+            return f.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Parser.Failure) throw (Parser.Failure) cause;
+            if (cause instanceof InterruptedException) throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private void add(final Document[] docs) throws IOException {
+        if (docs != null) this.maindoc.addSubDocuments(docs);
+    }
+
+}
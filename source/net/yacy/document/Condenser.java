@@ -62,7 +62,6 @@ public final class Condenser extends Tokenizer {
     private long fuzzy_signature = 0, exact_signature = 0; // signatures for double-check detection
     private String fuzzy_signature_text = null; // signatures for double-check detection
     
-    private final Identificator languageIdentificator;
     public LinkedHashSet<Date> dates_in_content;
     
     public Condenser(
@@ -75,7 +74,7 @@ public final class Condenser extends Tokenizer {
             final boolean findDatesInContent,
             final int timezoneOffset
             ) {
-        super(document.dc_source(), indexText ? document.getTextString() : "", meaningLib, doAutotagging, scraper);
+        super(document.dc_source(), indexText ? document.getTextString() : "", meaningLib, doAutotagging, scraper, new Identificator());
         
         final String initialThreadName = Thread.currentThread().getName();
         Thread.currentThread().setName("condenser-" + document.dc_identifier()); // for debugging
@@ -92,10 +91,8 @@ public final class Condenser extends Tokenizer {
         if (contentDomain == ContentDomain.APP   || !document.getApplinks().isEmpty())   this.RESULT_FLAGS.set(flag_cat_hasapp,   true);
         if (document.lat() != 0.0 && document.lon() != 0.0) this.RESULT_FLAGS.set(flag_cat_haslocation, true);
 
-        this.languageIdentificator = new Identificator();
-
         // add the URL components to the word list
-        insertTextToWords(new SentenceReader(document.dc_source().toTokens()), 0, WordReferenceRow.flag_app_dc_identifier, this.RESULT_FLAGS, false, meaningLib);
+        insertTextToWords(document.dc_source().toTokens(), 0, WordReferenceRow.flag_app_dc_identifier, this.RESULT_FLAGS, false, meaningLib);
 
         Map.Entry<AnchorURL, String> entry;
         if (indexText) {
@@ -113,17 +110,17 @@ public final class Condenser extends Tokenizer {
             // phrase  98 is taken from the embedded anchor/hyperlinks description (REMOVED!)
             // phrase  99 is taken from the media Link url and anchor description
             // phrase 100 and above are lines from the text
-            insertTextToWords(new SentenceReader(document.dc_title()),       1, WordReferenceRow.flag_app_dc_title, this.RESULT_FLAGS, true, meaningLib);
+            insertTextToWords(document.dc_title(),       1, WordReferenceRow.flag_app_dc_title, this.RESULT_FLAGS, true, meaningLib);
             for (String description: document.dc_description()) {
-                insertTextToWords(new SentenceReader(description), 3, WordReferenceRow.flag_app_dc_description, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(description, 3, WordReferenceRow.flag_app_dc_description, this.RESULT_FLAGS, true, meaningLib);
             }
-            insertTextToWords(new SentenceReader(document.dc_creator()),     4, WordReferenceRow.flag_app_dc_creator, this.RESULT_FLAGS, true, meaningLib);
-            insertTextToWords(new SentenceReader(document.dc_publisher()),   5, WordReferenceRow.flag_app_dc_creator, this.RESULT_FLAGS, true, meaningLib);
-            insertTextToWords(new SentenceReader(document.dc_subject(' ')),  6, WordReferenceRow.flag_app_dc_description, this.RESULT_FLAGS, true, meaningLib);
+            insertTextToWords(document.dc_creator(),     4, WordReferenceRow.flag_app_dc_creator, this.RESULT_FLAGS, true, meaningLib);
+            insertTextToWords(document.dc_publisher(),   5, WordReferenceRow.flag_app_dc_creator, this.RESULT_FLAGS, true, meaningLib);
+            insertTextToWords(document.dc_subject(' '),  6, WordReferenceRow.flag_app_dc_description, this.RESULT_FLAGS, true, meaningLib);
             // missing: tags!
             final String[] titles = document.getSectionTitles();
             for (int i = 0; i < titles.length; i++) {
-                insertTextToWords(new SentenceReader(titles[i]), i + 10, WordReferenceRow.flag_app_emphasized, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(titles[i], i + 10, WordReferenceRow.flag_app_emphasized, this.RESULT_FLAGS, true, meaningLib);
             }
 
             // anchors: for text indexing we add only the anchor description
@@ -151,24 +148,24 @@ public final class Condenser extends Tokenizer {
             Iterator<Map.Entry<AnchorURL, String>> i = document.getAudiolinks().entrySet().iterator();
             while (i.hasNext()) {
                 entry = i.next();
-                insertTextToWords(new SentenceReader(entry.getKey().toNormalform(true)), 99, flag_cat_hasaudio, this.RESULT_FLAGS, false, meaningLib);
-                insertTextToWords(new SentenceReader(entry.getValue()), 99, flag_cat_hasaudio, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(entry.getKey().toNormalform(true), 99, flag_cat_hasaudio, this.RESULT_FLAGS, false, meaningLib);
+                insertTextToWords(entry.getValue(), 99, flag_cat_hasaudio, this.RESULT_FLAGS, true, meaningLib);
             }
 
             // video
             i = document.getVideolinks().entrySet().iterator();
             while (i.hasNext()) {
                 entry = i.next();
-                insertTextToWords(new SentenceReader(entry.getKey().toNormalform(true)), 99, flag_cat_hasvideo, this.RESULT_FLAGS, false, meaningLib);
-                insertTextToWords(new SentenceReader(entry.getValue()), 99, flag_cat_hasvideo, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(entry.getKey().toNormalform(true), 99, flag_cat_hasvideo, this.RESULT_FLAGS, false, meaningLib);
+                insertTextToWords(entry.getValue(), 99, flag_cat_hasvideo, this.RESULT_FLAGS, true, meaningLib);
             }
 
             // applications
             i = document.getApplinks().entrySet().iterator();
             while (i.hasNext()) {
                 entry = i.next();
-                insertTextToWords(new SentenceReader(entry.getKey().toNormalform(true)), 99, flag_cat_hasapp, this.RESULT_FLAGS, false, meaningLib);
-                insertTextToWords(new SentenceReader(entry.getValue()), 99, flag_cat_hasapp, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(entry.getKey().toNormalform(true), 99, flag_cat_hasapp, this.RESULT_FLAGS, false, meaningLib);
+                insertTextToWords(entry.getValue(), 99, flag_cat_hasapp, this.RESULT_FLAGS, true, meaningLib);
             }
 
             // images
@@ -179,8 +176,8 @@ public final class Condenser extends Tokenizer {
                 ientry = j.next();
                 url = ientry.url();
                 if (url == null) continue;
-                insertTextToWords(new SentenceReader(url.toNormalform(true)), 99, flag_cat_hasimage, this.RESULT_FLAGS, false, meaningLib);
-                insertTextToWords(new SentenceReader(ientry.alt()), 99, flag_cat_hasimage, this.RESULT_FLAGS, true, meaningLib);
+                insertTextToWords(url.toNormalform(true), 99, flag_cat_hasimage, this.RESULT_FLAGS, false, meaningLib);
+                insertTextToWords(ientry.alt(), 99, flag_cat_hasimage, this.RESULT_FLAGS, true, meaningLib);
             }
 
             // finally check all words for missing flag entry
@@ -207,7 +204,9 @@ public final class Condenser extends Tokenizer {
         }
 
         String text = document.getTextString();
-        this.languageIdentificator.add(text); // use content text for language detection (before we added already title etc. for best identification content text is valuable)
+        // use content text for language detection (before we added already title etc. for best identification content text is valuable)
+        // if the text is indexed, its words have been added to the language statistics when the words were counted
+        if (!indexText) this.languageIdentificator.addText(text);
 
         // create hashes for duplicate detection
         // check dups with http://localhost:8090/solr/select?q=*:*&start=0&rows=3&fl=sku,fuzzy_signature_text_t,fuzzy_signature_l,fuzzy_signature_unique_b
@@ -256,36 +255,37 @@ public final class Condenser extends Tokenizer {
 	}
 
     private void insertTextToWords(
-            final SentenceReader text,
+            final String text,
             final int phrase,
             final int flagpos,
             final Bitfield flagstemplate,
             final boolean useForLanguageIdentification,
             final WordCache meaningLib) {
         if (text == null) return;
-        String word;
-        Word wprop;
-        WordTokenizer wordenum = new WordTokenizer(text, meaningLib);
-        try {
-	        int pip = 0;
-	        while (wordenum.hasMoreElements()) {
-	            word = wordenum.nextElement().toString();
-	            if (useForLanguageIdentification) this.languageIdentificator.add(word); // langdetect is case sensitive
-                    if (word.length() < 2) continue;
-                    word = word.toLowerCase(Locale.ENGLISH);
-	            wprop = this.words.get(word);
-	            if (wprop == null) wprop = new Word(0, pip, phrase);
-	            if (wprop.flags == null) wprop.flags = flagstemplate.clone();
-	            wprop.flags.set(flagpos, true);
-	            this.words.put(word, wprop);
-	            pip++;
-	            this.RESULT_NUMB_WORDS++;
-	            //this.RESULT_DIFF_WORDS++;
+        WordScanner.scan(text, new WordScanner.Handler() {
+            private int pip = 0;
+
+            @Override
+            public void word(final char[] buffer, final int start, final int length) {
+                if (meaningLib != null) WordCache.learn(buffer, start, length);
+                if (useForLanguageIdentification) Condenser.this.languageIdentificator.add(buffer, start, length); // langdetect is case sensitive
+                if (length < 2) return;
+                final String word = new String(buffer, start, length).toLowerCase(Locale.ENGLISH);
+                Word wprop = Condenser.this.words.get(word);
+                if (wprop == null) {
+                    wprop = new Word(0, this.pip, phrase);
+                    Condenser.this.words.put(word, wprop);
                 }
-        } finally {
-        	wordenum.close();
-        	wordenum = null;
-        }
+                if (wprop.flags == null) wprop.flags = flagstemplate.clone();
+                wprop.flags.set(flagpos, true);
+                this.pip++;
+                Condenser.this.RESULT_NUMB_WORDS++;
+            }
+
+            @Override
+            public void punctuation(final char c) {
+            }
+        });
     }
 
     public int excludeWords(final SortedSet<String> stopwords) {
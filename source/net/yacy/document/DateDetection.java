@@ -29,6 +29,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjuster;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -51,6 +52,7 @@ import com.ibm.icu.util.SimpleDateRule;
 
 import net.yacy.cora.date.AbstractFormatter;
 import net.yacy.cora.date.GenericFormatter;
+import net.yacy.cora.util.AhoCorasick;
 
 /**
  * The purpose of this class exceeds the demands on simple date parsing using a SimpleDateFormat
@@ -151,17 +153,18 @@ public class DateDetection {
     }
 
     public static HolidayMap Holidays = new HolidayMap();
-    public static Map<Pattern, Date[]> HolidayPattern = new HashMap<>();
+    private static final String[] HolidayNames; // the keys of Holidays
+    private static final AhoCorasick HolidayMatcher; // finds all holiday names in one pass over a text
     
     static {
     	Holidays.putAll(getHolidays(CURRENT_YEAR));
-        
-        
-        for (Map.Entry<String, Date[]> holiday: Holidays.entrySet()) {
-            HolidayPattern.put(Pattern.compile(BODNCG + holiday.getKey() + EODNCG), holiday.getValue());
-        }
+        HolidayNames = Holidays.keySet().toArray(new String[Holidays.size()]);
+        HolidayMatcher = new AhoCorasick(HolidayNames);
     }
 
+    /** the largest distance of a character of a date expression from the nearest digit of that expression */
+    private final static int DATE_RADIUS = 32;
+
 	/**
 	 * @param currentYear
 	 *            the current year reference to use
@@ -534,9 +537,19 @@ public class DateDetection {
          */
         @Override
         public LinkedHashSet<Date> parse(final String text) {
+            return parse(text, null);
+        }
+
+        /**
+         * get all dates in the given ranges of the text
+         * @param text
+         * @param spans pairs of start and end positions of the ranges, see {@link DateDetection#candidateSpans(String)}; null for the whole text
+         * @return a set of dates, ordered by occurrence.
+         */
+        public LinkedHashSet<Date> parse(final String text, final int[] spans) {
             LinkedHashSet<Date> dates = new LinkedHashSet<>();
-            Matcher matcher = this.pattern.matcher(text);
-            while (matcher.find()) {
+            Matcher matcher = candidateMatcher(this.pattern, text);
+            spanloop: for (int span = 0; nextSpan(matcher, spans, span); span++) while (matcher.find()) {
                 if (!(matcher.groupCount() == 3)) continue;
                 String entity1 = matcher.group(1); if (entity1 == null) continue;
                 String entity2 = matcher.group(2); if (entity2 == null) continue;
@@ -557,13 +570,63 @@ public class DateDetection {
                 if(parsed != null) {
                 	dates.add(parsed);
                 }
-                if (dates.size() > 100) {dates.clear(); break;} // that does not make sense
+                if (dates.size() > 100) {dates.clear(); break spanloop;} // that does not make sense
             }
             return dates;
         }
         
     }
     
+    /**
+     * All date expressions contain digits. This computes the ranges of the text around its digits in one pass,
+     * so that the date patterns are only applied to these ranges instead of the whole text.
+     * @param text
+     * @return pairs of start and end positions of the ranges, in ascending order; empty if the text has no digits
+     */
+    private static int[] candidateSpans(final String text) {
+        int[] spans = new int[16];
+        int n = 0;
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                i++;
+                continue;
+            }
+            final int start = Math.max(0, i - DATE_RADIUS);
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') i++;
+            final int end = Math.min(length, i + DATE_RADIUS);
+            if (n > 0 && start <= spans[n - 1]) {
+                spans[n - 1] = end; // overlapping ranges are joined
+            } else {
+                if (n == spans.length) spans = Arrays.copyOf(spans, 2 * n);
+                spans[n++] = start;
+                spans[n++] = end;
+            }
+        }
+        return Arrays.copyOf(spans, n);
+    }
+
+    /**
+     * @return a matcher for ranges of the text which matches exactly what the pattern matches in the whole text:
+     *         the range bounds are neither anchors nor limits for the look at the characters next to a match
+     */
+    private static Matcher candidateMatcher(final Pattern pattern, final String text) {
+        return pattern.matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+    }
+
+    /**
+     * set the region of the matcher to the next range of the text
+     * @return false if there is no such range
+     */
+    private static boolean nextSpan(final Matcher matcher, final int[] spans, final int span) {
+        if (spans == null) return span == 0; // the whole text
+        if (2 * span >= spans.length) return false;
+        matcher.region(spans[2 * span], spans[2 * span + 1]);
+        return true;
+    }
+
 	/**
 	 * Safely parse the given string to an instant using the given formatter. Return
 	 * null when the format can not be applied to the given string or when any
@@ -626,10 +689,20 @@ public class DateDetection {
          */
         @Override
         public LinkedHashSet<Date> parse(final String text) {
+            return parse(text, null);
+        }
+
+        /**
+         * get all dates in the given ranges of the text
+         * @param text
+         * @param spans pairs of start and end positions of the ranges, see {@link DateDetection#candidateSpans(String)}; null for the whole text
+         * @return a set of dates, ordered by occurrence.
+         */
+        public LinkedHashSet<Date> parse(final String text, final int[] spans) {
             LinkedHashSet<Date> dates = new LinkedHashSet<>();
-            Matcher matcher = this.pattern.matcher(text);
+            Matcher matcher = candidateMatcher(this.pattern, text);
             //ConcurrentLog.info("DateDetection", "applying matcher: " + matcher.toString());
-            while (matcher.find()) {
+            spanloop: for (int span = 0; nextSpan(matcher, spans, span); span++) while (matcher.find()) {
                 if (!(matcher.groupCount() == 2)) continue;
                 String entity1 = matcher.group(1); if (entity1 == null) continue;
                 String entity2 = matcher.group(2); if (entity2 == null) continue;
@@ -655,7 +728,7 @@ public class DateDetection {
                 	dates.add(atNextYear);
                 }
                 //dates.add(atThisYear.after(TODAY) ? atThisYear : atNextYear); // we consider these kind of dates as given for the future
-                if (dates.size() > 100) {dates.clear(); break;} // that does not make sense
+                if (dates.size() > 100) {dates.clear(); break spanloop;} // that does not make sense
             }
             return dates;
         }
@@ -675,18 +748,47 @@ public class DateDetection {
      * @param text
      * @return a set of dates, ordered by time. first date in the ordered set is the oldest time.
      */
-    public static LinkedHashSet<Date> parse(String text, int timezoneOffset) {
+    public static LinkedHashSet<Date> parse(final String text, int timezoneOffset) {
 
         LinkedHashSet<Date> dates = parseRawDate(text);
         
-        for (Map.Entry<Pattern, Date[]> entry: HolidayPattern.entrySet()) {
-            if (entry.getKey().matcher(text).find()) {
-                for (Date d: entry.getValue()) dates.add(d);
+        // find the holiday names which are separated from the surrounding text like in BODNCG + name + EODNCG
+        final boolean[] found = new boolean[HolidayNames.length];
+        HolidayMatcher.find(text, new AhoCorasick.MatchHandler() {
+            @Override
+            public boolean match(final int pattern, final int start, final int end) {
+                if (!found[pattern] && (start == 0 || isWhitespace(text.charAt(start - 1))) && isDateEnd(text, end)) found[pattern] = true;
+                return true;
+            }
+        });
+        for (int i = 0; i < HolidayNames.length; i++) {
+            if (found[i]) {
+                for (Date d: Holidays.get(HolidayNames[i])) dates.add(d);
             }
         }
         return dates;
     }
 
+    /**
+     * @return true if the character is matched by the regular expression \s
+     */
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @return true if the regular expression EODNCG matches at the given position of the text
+     */
+    private static boolean isDateEnd(final String text, final int pos) {
+        final int length = text.length();
+        if (pos >= length) return true;
+        final char c = text.charAt(pos);
+        if (c == ')' || c == '.' || c == ':' || c == ';' || c == '!' || c == ' ') return true;
+        // '$' also matches before a line terminator at the end of the text
+        if (pos == length - 1) return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        return pos == length - 2 && c == '\r' && text.charAt(pos + 1) == '\n';
+    }
+
     /**
      * Parse a line expected to contain one date expression only.
      * This is used by the query parser for query date modifier on:, from: or to:
@@ -735,21 +837,25 @@ public class DateDetection {
     }
     
     private static LinkedHashSet<Date> parseRawDate(String text) {
+        // the date patterns are applied only to the ranges of the text around digits
+        final int[] spans = candidateSpans(text);
+        if (spans.length == 0) return new LinkedHashSet<Date>(0);
+
         // get parse alternatives for different date styles; we consider that one document uses only one style
-        LinkedHashSet<Date> DMYDates = EndianStyle.DMY.parse(text);
+        LinkedHashSet<Date> DMYDates = EndianStyle.DMY.parse(text, spans);
         ShortStyle[] shortStyleCheck = new ShortStyle[]{ShortStyle.DM_GERMAN, ShortStyle.DM_FRENCH, ShortStyle.DM_ITALIAN, ShortStyle.DM_SPANISH};
         LinkedHashSet<Date>  DMDates = new LinkedHashSet<>();
         for (ShortStyle shortStyle: shortStyleCheck) {
-            DMDates.addAll(shortStyle.parse(text));
+            DMDates.addAll(shortStyle.parse(text, spans));
             if (DMDates.size() > 0) break;
         }
         DMYDates.addAll(DMDates);
         
-        LinkedHashSet<Date> MDYDates = DMYDates.size() == 0 ? EndianStyle.MDY.parse(text) : new LinkedHashSet<Date>(0);
-        LinkedHashSet<Date>  MDDates = DMYDates.size() == 0 ? ShortStyle.MD_ENGLISH.parse(text) : new LinkedHashSet<Date>(0);
+        LinkedHashSet<Date> MDYDates = DMYDates.size() == 0 ? EndianStyle.MDY.parse(text, spans) : new LinkedHashSet<Date>(0);
+        LinkedHashSet<Date>  MDDates = DMYDates.size() == 0 ? ShortStyle.MD_ENGLISH.parse(text, spans) : new LinkedHashSet<Date>(0);
         MDYDates.addAll(MDDates);
         
-        LinkedHashSet<Date> YMDDates = DMYDates.size() == 0 && MDYDates.size() == 0 ? EndianStyle.YMD.parse(text) : new LinkedHashSet<Date>(0);
+        LinkedHashSet<Date> YMDDates = DMYDates.size() == 0 && MDYDates.size() == 0 ? EndianStyle.YMD.parse(text, spans) : new LinkedHashSet<Date>(0);
         
         // if either one of them contains any and the other contain no date, chose that one (we don't want to mix them)
         if (YMDDates.size() > 0 && DMYDates.size() == 0 && MDYDates.size() == 0) return YMDDates;
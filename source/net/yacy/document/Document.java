@@ -171,6 +171,37 @@ public class Document {
         this.partiallyParsed = false;
     }
 
+    /**
+     * Copy a document for another indexing of the same parser result, i.e. from the parser cache.
+     * The copy has its own collections, so that it can be changed without changing this document;
+     * the urls, images and the scraper object are shared.
+     * @return a copy of this document
+     */
+    public Document copy() {
+        final Document copy = new Document(this.source, this.mimeType, this.charset, this.parserObject,
+                this.languages == null ? null : new HashSet<String>(this.languages),
+                this.keywords.toArray(new String[this.keywords.size()]),
+                new ArrayList<String>(this.titles),
+                this.creator.toString(), this.publisher,
+                this.sections.toArray(new String[this.sections.size()]),
+                new ArrayList<String>(this.descriptions),
+                this.lon, this.lat,
+                getTextString(),
+                new ArrayList<AnchorURL>(this.anchors),
+                new LinkedHashMap<DigestURL, String>(this.rss),
+                new LinkedHashMap<DigestURL, ImageEntry>(this.images),
+                this.indexingDenied, this.lastModified);
+        copy.icons = new HashMap<DigestURL, IconEntry>(this.icons);
+        copy.linkedDataTypes = new HashSet<DigestURL>(this.linkedDataTypes);
+        for (final Map.Entry<String, Set<String>> facet: this.generic_facets.entrySet()) {
+            copy.generic_facets.put(facet.getKey(), new HashSet<String>(facet.getValue()));
+        }
+        copy.crawldepth = this.crawldepth;
+        copy.scraperObject = this.scraperObject;
+        copy.partiallyParsed = this.partiallyParsed;
+        return copy;
+    }
+
     /**
      * Get the content domain of a document. This tries to get the content domain from the mime type
      * and if this fails it uses alternatively the content domain from the file extension.
@@ -0,0 +1,133 @@
+/**
+ *  ParserCache.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.document;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.storage.ByteSizeLimitedCache;
+
+/**
+ * A cache of parser results for resources which are loaded again with identical content, i.e. by a recrawl
+ * or by the proxy and a crawler. The key is the url hash, an entry is only used if the SHA-256 digest of the
+ * content, the mime type, the charset and the parser settings are the same as those of the cached result.
+ * Parsed documents keep links which are resolved against the url of the resource, therefore a result is
+ * never used for another url even if the content is the same. The indexing changes the documents it gets,
+ * so the cache keeps copies of the documents and hands out copies of them. The cache is bounded by the
+ * estimated size of the documents and forgets the least recently used entries first.
+ * Only the parsing is saved: the condensing of the documents for the index is done again for a cached result.
+ * The cache is disabled unless {@code parser.cache.maxSize} is set.
+ */
+public class ParserCache extends ByteSizeLimitedCache<String, ParserCache.Entry> {
+
+    /** the estimated size of a document without its text */
+    private static final int DOCUMENT_OVERHEAD = 4096;
+
+    /** the estimated size of a link of a document */
+    private static final int LINK_OVERHEAD = 256;
+
+    static final class Entry {
+        private final byte[] digest;
+        private final String mime, charset, settings;
+        private final Document[] documents;
+        private final long size;
+
+        private Entry(final byte[] digest, final String mime, final String charset, final String settings, final Document[] documents, final long size) {
+            this.digest = digest;
+            this.mime = mime;
+            this.charset = charset;
+            this.settings = settings;
+            this.documents = documents;
+            this.size = size;
+        }
+
+        private boolean matches(final byte[] d, final String m, final String c, final String s) {
+            return Arrays.equals(this.digest, d) && equal(this.mime, m) && equal(this.charset, c) && equal(this.settings, s);
+        }
+
+        private static boolean equal(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * @param maxSize the maximum estimated size of all cached documents in bytes; 0 disables the cache
+     */
+    public ParserCache(final long maxSize) {
+        super(maxSize, entry -> entry.size);
+    }
+
+    /**
+     * @param content the content of a resource
+     * @return the SHA-256 digest of the content
+     */
+    public static byte[] digest(final byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every java platform has SHA-256
+        }
+    }
+
+    private static Document[] copy(final Document[] documents) {
+        final Document[] copies = new Document[documents.length];
+        for (int i = 0; i < documents.length; i++) copies[i] = documents[i].copy();
+        return copies;
+    }
+
+    /**
+     * @param url the url of the resource
+     * @param digest the digest of the content, see {@link #digest(byte[])}
+     * @param mime the mime type of the resource
+     * @param charset the charset of the resource, may be null
+     * @param settings a description of all parser settings which were used for the cached result
+     * @return copies of the cached documents or null if there is no result for exactly these inputs
+     */
+    public Document[] get(final DigestURL url, final byte[] digest, final String mime, final String charset, final String settings) {
+        final Entry entry = get(ASCII.String(url.hash()), e -> e.matches(digest, mime, charset, settings));
+        return entry == null ? null : copy(entry.documents);
+    }
+
+    /**
+     * store copies of a parser result. Documents which are too large to be kept are not cached.
+     * @param url the url of the resource
+     * @param digest the digest of the content, see {@link #digest(byte[])}
+     * @param mime the mime type of the resource
+     * @param charset the charset of the resource, may be null
+     * @param settings a description of all parser settings which were used for the documents
+     * @param documents the parser result
+     */
+    public void put(final DigestURL url, final byte[] digest, final String mime, final String charset, final String settings, final Document[] documents) {
+        if (!isEnabled() || documents == null) return;
+        long s = 0;
+        for (final Document document: documents) {
+            final long textLength = document.getTextLength();
+            if (textLength > getMaxEntrySize()) return;
+            // read the text of streamed documents, a stream can be read only once
+            s += 2 * document.getTextString().length() + DOCUMENT_OVERHEAD + LINK_OVERHEAD * document.getAnchors().size();
+        }
+        if (s > getMaxEntrySize()) return;
+        put(ASCII.String(url.hash()), new Entry(digest, mime, charset, settings, copy(documents), s));
+    }
+
+}
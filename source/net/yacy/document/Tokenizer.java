@@ -37,6 +37,7 @@ import net.yacy.cora.document.id.DigestURL;
 import net.yacy.cora.language.synonyms.SynonymLibrary;
 import net.yacy.cora.lod.vocabulary.Tagging;
 import net.yacy.cora.order.NaturalOrder;
+import net.yacy.document.language.Identificator;
 import net.yacy.kelondro.data.word.Word;
 import net.yacy.kelondro.util.Bitfield;
 
@@ -58,6 +59,7 @@ public class Tokenizer {
     //private Properties analysis;
     protected final Map<String, Word> words; // a string (the words) to (indexWord) - relation (key: words are lowercase)
     private final Set<String> synonyms; // a set of synonyms to the words
+    protected final Identificator languageIdentificator; // statistics for the language of the text, may be null
     protected final Map<String, Set<Tagging.Metatag>> tags = new HashMap<String, Set<Tagging.Metatag>>(); // a set of tags, discovered from Autotagging
     
     public int RESULT_NUMB_WORDS = -1;
@@ -65,76 +67,25 @@ public class Tokenizer {
     public Bitfield RESULT_FLAGS = new Bitfield(4);
 
     public Tokenizer(final DigestURL root, final String text, final WordCache meaningLib, boolean doAutotagging, final VocabularyScraper scraper) {
+        this(root, text, meaningLib, doAutotagging, scraper, null);
+    }
+
+    /**
+     * @param languageIdentificator if not null, the words of the text are added to the language statistics
+     *            of this identificator during the same scan of the text
+     */
+    protected Tokenizer(final DigestURL root, final String text, final WordCache meaningLib, boolean doAutotagging, final VocabularyScraper scraper, final Identificator languageIdentificator) {
         this.words = new TreeMap<String, Word>(NaturalOrder.naturalComparator);
         this.synonyms = new LinkedHashSet<String>();
+        this.languageIdentificator = languageIdentificator;
         assert text != null;
-        final String[] wordcache = new String[LibraryProvider.autotagging.getMaxWordsInTerm() - 1];
-        for (int i = 0; i < wordcache.length; i++) {
-        	wordcache[i] = "";
-        }
         String k;
         int wordlen;
-        int allwordcounter = 0;
-        int allsentencecounter = 0;
-        int wordInSentenceCounter = 1;
-        boolean comb_indexof = false, last_last = false, last_index = false;
-        //final Map<StringBuilder, Phrase> sentences = new HashMap<StringBuilder, Phrase>(100);
         if (LibraryProvider.autotagging.isEmpty()) doAutotagging = false;
 
         // read source
-        WordTokenizer wordenum = new WordTokenizer(new SentenceReader(text), meaningLib);
-        try {
-            while (wordenum.hasMoreElements()) {
-                String word = wordenum.nextElement().toString().toLowerCase(Locale.ENGLISH);
-                // handle punktuation (start new sentence)
-                if (word.length() == 1 && SentenceReader.punctuation(word.charAt(0))) {
-                    // store sentence
-                    if (wordInSentenceCounter > 1) // if no word in sentence repeated punktuation ".....", don't count as sentence
-                        allsentencecounter++;
-                    wordInSentenceCounter = 1;
-                    continue;
-                }
-                if (word.length() < wordminsize) continue;
-
-                // get tags from autotagging
-                if (doAutotagging) {
-                    Set<String> vocabularyNames = LibraryProvider.autotagging.getVocabularyNames();
-                    extendVocabularies(root, scraper, vocabularyNames);
-                    
-                    extractAutoTagsFromText(wordcache, word, vocabularyNames);
-                }
-                // shift wordcache
-                System.arraycopy(wordcache, 1, wordcache, 0, wordcache.length - 1);
-                wordcache[wordcache.length - 1] = word;
-
-                // check index.of detection
-                if (last_last && comb_indexof && word.equals("modified")) {
-                    this.RESULT_FLAGS.set(flag_cat_indexof, true);
-                    wordenum.pre(true); // parse lines as they come with CRLF
-                }
-                if (last_index && (wordminsize > 2 || word.equals("of"))) comb_indexof = true;
-                last_last = word.equals("last");
-                last_index = word.equals("index");
-
-                // store word
-                allwordcounter++;
-                Word wsp = this.words.get(word);
-                if (wsp != null) {
-                    // word already exists
-                    wsp.inc();
-                } else {
-                    // word does not yet exist, create new word entry
-                    wsp = new Word(allwordcounter, wordInSentenceCounter, allsentencecounter + 100); // nomal sentence start at 100 !
-                    wsp.flags = this.RESULT_FLAGS.clone();
-                    this.words.put(word, wsp);
-                }
-                // we now have the unique handle of the word, put it into the sentence:
-                wordInSentenceCounter++;
-            }
-        } finally {
-            wordenum.close();
-            wordenum = null;
-        }
+        final TextHandler handler = new TextHandler(root, meaningLib, doAutotagging, scraper);
+        WordScanner.scan(text, handler);
 
         if (pseudostemming) {
             // we search for similar words and reorganize the corresponding sentences
@@ -169,9 +120,90 @@ public class Tokenizer {
         }
         
         // store result
-        this.RESULT_NUMB_WORDS = allwordcounter;
+        this.RESULT_NUMB_WORDS = handler.allwordcounter;
         // if text doesn't end with punktuation but has words after last found sentence, inc sentence count for trailing text.
-        this.RESULT_NUMB_SENTENCES = allsentencecounter + (wordInSentenceCounter > 1 ? 1 : 0);
+        this.RESULT_NUMB_SENTENCES = handler.allsentencecounter + (handler.wordInSentenceCounter > 1 ? 1 : 0);
+    }
+
+    /**
+     * Receiver of the tokens of the text: counts words and sentences, stores the words with their
+     * first position and feeds the language statistics and the autotagging.
+     */
+    private class TextHandler implements WordScanner.Handler {
+
+        private final DigestURL root;
+        private final WordCache meaningLib;
+        private final boolean doAutotagging;
+        private final VocabularyScraper scraper;
+        private final String[] wordcache;
+        private int allwordcounter = 0;
+        private int allsentencecounter = 0;
+        private int wordInSentenceCounter = 1;
+        private boolean comb_indexof = false, last_last = false, last_index = false;
+
+        private TextHandler(final DigestURL root, final WordCache meaningLib, final boolean doAutotagging, final VocabularyScraper scraper) {
+            this.root = root;
+            this.meaningLib = meaningLib;
+            this.doAutotagging = doAutotagging;
+            this.scraper = scraper;
+            this.wordcache = new String[doAutotagging ? LibraryProvider.autotagging.getMaxWordsInTerm() - 1 : 0];
+            for (int i = 0; i < this.wordcache.length; i++) {
+                this.wordcache[i] = "";
+            }
+        }
+
+        @Override
+        public void punctuation(final char c) {
+            // handle punktuation (start new sentence)
+            if (this.wordInSentenceCounter > 1) // if no word in sentence repeated punktuation ".....", don't count as sentence
+                this.allsentencecounter++;
+            this.wordInSentenceCounter = 1;
+        }
+
+        @Override
+        public void word(final char[] buffer, final int start, final int length) {
+            // put word to words statistics cache
+            if (this.meaningLib != null) WordCache.learn(buffer, start, length);
+            if (Tokenizer.this.languageIdentificator != null) Tokenizer.this.languageIdentificator.addText(buffer, start, length); // langdetect is case sensitive
+            if (length < wordminsize) return;
+            final String word = new String(buffer, start, length).toLowerCase(Locale.ENGLISH);
+
+            // get tags from autotagging
+            if (this.doAutotagging) {
+                Set<String> vocabularyNames = LibraryProvider.autotagging.getVocabularyNames();
+                extendVocabularies(this.root, this.scraper, vocabularyNames);
+
+                extractAutoTagsFromText(this.wordcache, word, vocabularyNames);
+            }
+            // shift wordcache
+            if (this.wordcache.length > 0) {
+                System.arraycopy(this.wordcache, 1, this.wordcache, 0, this.wordcache.length - 1);
+                this.wordcache[this.wordcache.length - 1] = word;
+            }
+
+            // check index.of detection
+            if (this.last_last && this.comb_indexof && word.equals("modified")) {
+                Tokenizer.this.RESULT_FLAGS.set(flag_cat_indexof, true);
+            }
+            if (this.last_index && (wordminsize > 2 || word.equals("of"))) this.comb_indexof = true;
+            this.last_last = word.equals("last");
+            this.last_index = word.equals("index");
+
+            // store word
+            this.allwordcounter++;
+            Word wsp = Tokenizer.this.words.get(word);
+            if (wsp != null) {
+                // word already exists
+                wsp.inc();
+            } else {
+                // word does not yet exist, create new word entry
+                wsp = new Word(this.allwordcounter, this.wordInSentenceCounter, this.allsentencecounter + 100); // nomal sentence start at 100 !
+                wsp.flags = Tokenizer.this.RESULT_FLAGS.clone();
+                Tokenizer.this.words.put(word, wsp);
+            }
+            // we now have the unique handle of the word, put it into the sentence:
+            this.wordInSentenceCounter++;
+        }
     }
 
 	/**
@@ -0,0 +1,101 @@
+/**
+ *  WordScanner.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.document;
+
+import java.util.Arrays;
+
+/**
+ * Split a text into words in one pass over its characters. This produces the same tokens as a
+ * {@link WordTokenizer} on a {@link SentenceReader}: runs of visible characters, and each punctuation
+ * character as a token of its own. But no sentence or word objects are created: the text is copied in
+ * chunks into a thread-local buffer and the words are handed to a {@link Handler} as ranges of that
+ * buffer, so the handler decides which words are worth a String.
+ */
+public final class WordScanner {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private static final ThreadLocal<char[]> buffers = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[CHUNK_SIZE];
+        }
+    };
+
+    /**
+     * The receiver of the tokens of a text. A handler must not scan another text with the WordScanner.
+     */
+    public interface Handler {
+
+        /**
+         * @param buffer the buffer which holds the word; its content is only valid during this call
+         * @param start the position of the first character of the word in the buffer
+         * @param length the number of characters of the word
+         */
+        public void word(final char[] buffer, final int start, final int length);
+
+        /**
+         * @param c a punctuation character, see {@link SentenceReader#punctuation(char)}
+         */
+        public void punctuation(final char c);
+    }
+
+    private WordScanner() {
+    }
+
+    /**
+     * hand all tokens of the text to the handler, in their order in the text
+     * @param text the text, may be null
+     * @param handler the receiver of the tokens
+     */
+    public static void scan(final String text, final Handler handler) {
+        if (text == null) return;
+        final int textLength = text.length();
+        char[] buffer = buffers.get();
+        int pos = 0; // the next character of the text which is not yet in the buffer
+        int wordStart = 0, wordLength = 0; // the current, unfinished word in the buffer
+        while (pos < textLength) {
+            // move the unfinished word to the beginning of the buffer and fill the remaining space
+            if (wordLength > 0 && wordStart > 0) System.arraycopy(buffer, wordStart, buffer, 0, wordLength);
+            wordStart = 0;
+            if (wordLength == buffer.length) buffer = Arrays.copyOf(buffer, 2 * buffer.length); // a very long word, the grown buffer is not kept
+            final int n = Math.min(buffer.length - wordLength, textLength - pos);
+            text.getChars(pos, pos + n, buffer, wordLength);
+            pos += n;
+            final int end = wordLength + n;
+            for (int i = wordLength; i < end; i++) {
+                final char c = buffer[i];
+                if (SentenceReader.punctuation(c)) {
+                    if (wordLength > 0) handler.word(buffer, wordStart, wordLength);
+                    wordLength = 0;
+                    handler.punctuation(c);
+                } else if (SentenceReader.invisible(c)) {
+                    if (wordLength > 0) handler.word(buffer, wordStart, wordLength);
+                    wordLength = 0;
+                } else {
+                    if (wordLength == 0) wordStart = i;
+                    wordLength++;
+                }
+            }
+        }
+        if (wordLength > 0) handler.word(buffer, wordStart, wordLength);
+    }
+
+}
@@ -24,7 +24,6 @@ package net.yacy.document.importer;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
@@ -40,7 +39,8 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
 import java.net.MalformedURLException;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
+import java.text.ParseException;
+import java.util.Date;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -52,25 +52,26 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.zip.GZIPInputStream;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import net.yacy.cora.date.ISO8601Formatter;
 import net.yacy.cora.document.encoding.UTF8;
 import net.yacy.cora.document.id.AnchorURL;
-import net.yacy.cora.document.id.DigestURL;
 import net.yacy.cora.document.id.MultiProtocolURL;
 import net.yacy.cora.protocol.ClientIdentification;
 import net.yacy.cora.protocol.http.HTTPClient;
 import net.yacy.cora.util.ByteBuffer;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.cora.util.NumberTools;
-import net.yacy.data.wiki.WikiCode;
-import net.yacy.data.wiki.WikiParser;
 import net.yacy.document.Document;
-import net.yacy.document.Parser;
-import net.yacy.document.TextParser;
-import net.yacy.document.VocabularyScraper;
 import net.yacy.document.content.SurrogateReader;
 import net.yacy.kelondro.util.NamePrefixThreadFactory;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.io.input.CountingInputStream;
 
 
 /*
@@ -80,8 +81,6 @@ import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 
 public class MediawikiImporter extends Thread implements Importer {
 
-    private static final String textstart = "<text";
-    private static final String textend = "</text>";
     private static final String pagestart = "<page>";
     private static final String pageend = "</page>";
     private static final byte[] pagestartb = UTF8.getBytes(pagestart);
@@ -96,7 +95,8 @@ public class MediawikiImporter extends Thread implements Importer {
     private   long start;
     private   final long docsize;
     private   final int approxdocs;
-    private   String hostport, urlStub;
+    private   String urlStub;
+    private   CountingInputStream counter;
     private   String errorMessage;
 
 
@@ -108,7 +108,6 @@ public class MediawikiImporter extends Thread implements Importer {
     	this.targetdir = targetdir;
         this.count = 0;
         this.start = 0;
-        this.hostport = null;
         this.urlStub = null;
         this.errorMessage = null;
     }
@@ -141,10 +140,12 @@ public class MediawikiImporter extends Thread implements Importer {
     }
 
     /**
-     * @return the remaining seconds for the completion of all records in milliseconds
+     * @return the remaining seconds for the completion of all records, estimated from the bytes read from the dump
      */
     @Override
     public long remainingTime() {
+        final long read = this.counter == null ? 0 : this.counter.getByteCount();
+        if (read > 0 && this.docsize > read) return runningTime() * (this.docsize - read) / read;
         return Math.max(0, this.approxdocs - this.count) / Math.max(1, speed() );
     }
 
@@ -156,27 +157,28 @@ public class MediawikiImporter extends Thread implements Importer {
     @Override
     public void run() {
         this.start = System.currentTimeMillis();
-        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        final int threads = Runtime.getRuntime().availableProcessors();
         // out keeps a outputfile open until poisened, to make sure underlaying thread gets the end condition
         // regardless of any exception (e.g. eof memory) a add(poison) is added to the most outer final block
         final BlockingQueue<wikiparserrecord> out = new ArrayBlockingQueue<wikiparserrecord>(threads * 10);
         final wikiparserrecord poison = newRecord();
-        BufferedReader reader = null;
+        InputStream is = null;
+        XMLStreamReader reader = null;
         try {
             String targetstub = this.sourcefile.getFileName();
             int p = targetstub.lastIndexOf("\\.");
             if (p > 0) targetstub = targetstub.substring(0, p);
-            InputStream is = new BufferedInputStream(this.sourcefile.getInputStream(ClientIdentification.yacyInternetCrawlerAgent), 1024 * 1024);
+            this.counter = new CountingInputStream(this.sourcefile.getInputStream(ClientIdentification.yacyInternetCrawlerAgent));
+            is = new BufferedInputStream(this.counter, 1024 * 1024);
             if (this.sourcefile.getFileName().endsWith(".bz2")) {
-                is = new BZip2CompressorInputStream(is);
+                is = new BZip2CompressorInputStream(is, true); // multistream dumps are a sequence of bz2 streams
             } else if (this.sourcefile.getFileName().endsWith(".gz")) {
-                is = new GZIPInputStream(is);
+                is = new GZIPInputStream(is, 64 * 1024);
             }
-            reader = new BufferedReader(new java.io.InputStreamReader(is, StandardCharsets.UTF_8), 4 * 1024 * 1024);
-            String t;
-            StringBuilder sb = new StringBuilder();
-            boolean page = false, text = false;
-            String title = null;
+            final XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            reader = factory.createXMLStreamReader(is, StandardCharsets.UTF_8.name());
             final BlockingQueue<wikiparserrecord> in = new ArrayBlockingQueue<wikiparserrecord>(threads * 10);
 			final ExecutorService service = Executors.newCachedThreadPool(
 					new NamePrefixThreadFactory(MediawikiImporter.class.getSimpleName() + ".convertConsumer"));
@@ -189,81 +191,47 @@ public class MediawikiImporter extends Thread implements Importer {
             final convertWriter   writer = new convertWriter(out, poison, this.targetdir, targetstub);
             final Future<Integer> writerResult = service.submit(writer);
 
-            wikiparserrecord record;
+            // the text of the elements is read with decoded entities, the converter gets the original wikitext
+            String title = null, text = null, timestamp = null;
+            boolean redirect = false;
             int q;
-            while ((t = reader.readLine()) != null) {
-                if ((p = t.indexOf("<base>",0)) >= 0 && (q = t.indexOf("</base>", p)) > 0) {
-                    //urlStub = "http://" + lang + ".wikipedia.org/wiki/";
-                    this.urlStub = t.substring(p + 6, q);
-                    if (!this.urlStub.endsWith("/")) {
-                        q = this.urlStub.lastIndexOf('/');
-                        if (q > 0) this.urlStub = this.urlStub.substring(0, q + 1);
-                    }
-                    final DigestURL uri = new DigestURL(this.urlStub);
-                    this.hostport = uri.getHost();
-                    if (uri.getPort() != 80) this.hostport += ":" + uri.getPort();
-                    continue;
-                }
-                if (t.indexOf(pagestart) >= 0) {
-                    page = true;
-                    continue;
-                }
-                if ((p = t.indexOf(textstart)) >= 0) {
-                    text = page;
-                    q = t.indexOf('>', p + textstart.length());
-                    if (q > 0) {
-                        final int u = t.indexOf(textend, q + 1);
-                        if (u > q) {
-                            sb.append(t.substring(q + 1, u));
-                            ConcurrentLog.info("WIKITRANSLATION", "[INJECT] Title: " + title);
-                            if (sb.length() == 0) {
-                                ConcurrentLog.info("WIKITRANSLATION", "ERROR: " + title + " has empty content");
-                                continue;
-                            }
-                            record = newRecord(this.hostport, this.urlStub, title, sb);
-                            try {
-                                in.put(record);
-                                this.count++;
-                            } catch (final InterruptedException e1) {
-                                ConcurrentLog.logException(e1);
-                            }
-                            sb = new StringBuilder(200);
-                            continue;
-                        }
-                        sb.append(t.substring(q + 1));
-                    }
-                    continue;
-                }
-                if (t.indexOf(textend) >= 0) {
-                    text = false;
-                    ConcurrentLog.info("WIKITRANSLATION", "[INJECT] Title: " + title);
-                    if (sb.length() == 0) {
-                        ConcurrentLog.info("WIKITRANSLATION", "ERROR: " + title + " has empty content");
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "page".equals(reader.getLocalName())) {
+                    if (redirect || text == null || text.isEmpty()) {
+                        ConcurrentLog.fine("WIKITRANSLATION", "skipped " + title + ", redirect or empty content");
                         continue;
                     }
-                    record = newRecord(this.hostport, this.urlStub, title, sb);
                     try {
-                        in.put(record);
+                        in.put(newRecord(this.urlStub, title, text, timestamp));
                         this.count++;
                     } catch (final InterruptedException e1) {
                         ConcurrentLog.logException(e1);
                     }
-                    sb = new StringBuilder(200);
                     continue;
                 }
-                if (t.indexOf(pageend) >= 0) {
-                    page = false;
-                    continue;
-                }
-                if ((p = t.indexOf("<title>",0)) >= 0) {
-                    title = t.substring(p + 7);
-                    q = title.indexOf("</title>",0);
-                    if (q >= 0) title = title.substring(0, q);
-                    continue;
-                }
-                if (text) {
-                    sb.append(t);
-                    sb.append('\n');
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+                final String name = reader.getLocalName();
+                if ("page".equals(name)) {
+                    title = null;
+                    text = null;
+                    timestamp = null;
+                    redirect = false;
+                } else if ("title".equals(name)) {
+                    title = reader.getElementText();
+                } else if ("redirect".equals(name)) {
+                    redirect = true;
+                } else if ("timestamp".equals(name)) {
+                    timestamp = reader.getElementText();
+                } else if ("text".equals(name)) {
+                    text = reader.getElementText();
+                } else if ("base".equals(name)) {
+                    //urlStub = "http://" + lang + ".wikipedia.org/wiki/";
+                    this.urlStub = reader.getElementText().trim();
+                    if (!this.urlStub.endsWith("/")) {
+                        q = this.urlStub.lastIndexOf('/');
+                        if (q > 0) this.urlStub = this.urlStub.substring(0, q + 1);
+                    }
                 }
             }
 
@@ -281,14 +249,23 @@ public class MediawikiImporter extends Thread implements Importer {
                 out.put(poison); // output thread condition (for file.close)
                 writerResult.get(10000, TimeUnit.MILLISECONDS);
             }
+            ConcurrentLog.info("WIKITRANSLATION", "imported " + this.count + " articles from " + this.sourcefile.getFileName() +
+                    " in " + runningTime() + " seconds, " + speed() + " articles/second");
         } catch (final Exception e) {
         	this.errorMessage = e.getMessage();
             ConcurrentLog.logException(e);
         } finally {
-        	if(reader != null) {
+        	if (reader != null) {
                 try {
 					reader.close();
-				} catch (IOException e) {
+				} catch (final XMLStreamException e) {
+					ConcurrentLog.warn("WIKITRANSLATION", "Could not close dump reader : " + e.getMessage());
+				}
+        	}
+        	if (is != null) {
+                try {
+					is.close();
+				} catch (final IOException e) {
 					ConcurrentLog.warn("WIKITRANSLATION", "Could not close dump reader : " + e.getMessage());
 				}
         	}
@@ -508,37 +485,29 @@ public class MediawikiImporter extends Thread implements Importer {
     public wikiparserrecord newRecord() {
         return new wikiparserrecord(null, null, null, null);
     }
-    public wikiparserrecord newRecord(final String hostport, final String urlStub, final String title, final StringBuilder sb) {
-        return new wikiparserrecord(hostport, urlStub, title, sb);
+    public wikiparserrecord newRecord(final String urlStub, final String title, final String source, final String timestamp) {
+        return new wikiparserrecord(urlStub, title, source, timestamp);
     }
 
     public class wikiparserrecord {
         public String title;
-        String source, html, hostport, urlStub;
+        String source, urlStub, timestamp;
         AnchorURL url;
         Document document;
-        public wikiparserrecord(final String hostport, final String urlStub, final String title, final StringBuilder sb) {
+        public wikiparserrecord(final String urlStub, final String title, final String source, final String timestamp) {
             this.title = title;
-            this.hostport = hostport;
             this.urlStub = urlStub;
-            this.source = (sb == null) ? null : sb.toString();
+            this.source = source;
+            this.timestamp = timestamp;
         }
-        public void genHTML() throws IOException {
+        public void genDocument() {
             try {
-                final WikiParser wparser = new WikiCode();
-                this.html = wparser.transform(this.hostport, this.source);
-            } catch (final Exception e) {
-                ConcurrentLog.logException(e);
-                throw new IOException(e.getMessage());
-            }
-        }
-        public void genDocument() throws Parser.Failure {
-            try {
-				this.url = new AnchorURL(this.urlStub + this.title);
-				final Document[] parsed = TextParser.parseSource(this.url, "text/html", StandardCharsets.UTF_8.name(), new HashSet<String>(), new VocabularyScraper(), 0, 1, UTF8.getBytes(this.html));
-				this.document = Document.mergeDocuments(this.url, "text/html", parsed);
-				// the wiki parser is not able to find the proper title in the source text, so it must be set here
-				this.document.setTitle(this.title);
+				this.url = new AnchorURL(this.urlStub + this.title.replace(' ', '_'));
+				Date lastModified = null;
+				if (this.timestamp != null) try {
+				    lastModified = ISO8601Formatter.FORMATTER.parse(this.timestamp, 0).getTime();
+				} catch (final ParseException e) {}
+				this.document = WikitextConverter.toDocument(this.url, this.urlStub, this.title, this.source, lastModified);
 			} catch (final MalformedURLException e1) {
 			    ConcurrentLog.logException(e1);
 			}
@@ -667,17 +636,11 @@ public class MediawikiImporter extends Thread implements Importer {
                         break;
                     }
                     try {
-                        record.genHTML();
                         record.genDocument();
-                        this.out.put(record);
+                        if (record.document != null) this.out.put(record);
                     } catch (final RuntimeException e) {
                         ConcurrentLog.logException(e);
-                    } catch (final Parser.Failure e) {
-                        ConcurrentLog.logException(e);
-                    } catch (final IOException e) {
-						// TODO Auto-generated catch block
-                        ConcurrentLog.logException(e);
-					}
+                    }
                 }
             } catch (final InterruptedException e) {
                 ConcurrentLog.logException(e);
@@ -730,7 +693,7 @@ public class MediawikiImporter extends Thread implements Importer {
                         this.osw = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(new File(this.targetdir, this.outputfilename))), StandardCharsets.UTF_8);
                         this.osw.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" + SurrogateReader.SURROGATES_MAIN_ELEMENT_OPEN + "\n");
                     }
-                    ConcurrentLog.info("WIKITRANSLATION", "[CONSUME] Title: " + record.title);
+                    ConcurrentLog.fine("WIKITRANSLATION", "[CONSUME] Title: " + record.title);
                     record.document.writeXML(this.osw);
                     this.rc++;
                     if (this.rc >= 10000) {
@@ -738,6 +701,7 @@ public class MediawikiImporter extends Thread implements Importer {
                         this.osw.close();
                         final String finalfilename = this.targetstub + "." + this.fc + ".xml";
                         new File(this.targetdir, this.outputfilename).renameTo(new File(this.targetdir, finalfilename));
+                        ConcurrentLog.info("WIKITRANSLATION", "wrote " + this.rc + " articles to " + finalfilename);
                         this.rc = 0;
                         this.fc++;
                         this.outputfilename = this.targetstub + "." + this.fc + ".xml.prt";
@@ -0,0 +1,332 @@
+/**
+ *  WikitextConverter
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.document.importer;
+
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import net.yacy.cora.document.id.AnchorURL;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.document.Document;
+import net.yacy.document.parser.html.CharacterCoding;
+
+/**
+ * Converts the wikitext of a MediaWiki article directly into a {@link Document}, without rendering it to html
+ * and parsing the html again. The conversion is made in one pass over the wikitext: templates, comments,
+ * references and table markup are removed, headlines become the sections of the document and internal and
+ * external links become its anchors. Links to files, categories and other namespaces are dropped.
+ * An instance converts one article and is not thread-safe.
+ */
+public class WikitextConverter {
+
+    /** the tags which are removed together with their content */
+    private static final String[] SKIPPED_TAGS = {"ref", "math", "gallery", "timeline", "score", "templatedata", "imagemap"};
+
+    private final String urlStub;
+    private final StringBuilder text;
+    private final List<String> sections;
+    private final List<AnchorURL> anchors;
+    private int table;
+
+    /**
+     * @param urlStub the url prefix of the articles of the wiki, i.e. "https://en.wikipedia.org/wiki/"
+     */
+    public WikitextConverter(final String urlStub) {
+        this.urlStub = urlStub;
+        this.text = new StringBuilder();
+        this.sections = new ArrayList<String>();
+        this.anchors = new ArrayList<AnchorURL>();
+        this.table = 0;
+    }
+
+    /**
+     * convert an article into a document
+     * @param url the url of the article
+     * @param urlStub the url prefix of the articles of the wiki
+     * @param title the title of the article
+     * @param wikitext the wikitext of the article, xml entities already decoded
+     * @param lastModified the date of the revision or null if unknown
+     * @return the document of the article
+     */
+    public static Document toDocument(final DigestURL url, final String urlStub, final String title, final String wikitext, final Date lastModified) {
+        final WikitextConverter converter = new WikitextConverter(urlStub);
+        converter.convert(wikitext);
+        final List<String> titles = new ArrayList<String>(1);
+        if (title != null) titles.add(title);
+        return new Document(url, "text/html", StandardCharsets.UTF_8.name(), null, null, null, titles, null, url.getHost(),
+                converter.getSections(), null, 0.0d, 0.0d, converter.getText(), converter.getAnchors(), null, null, false, lastModified);
+    }
+
+    /**
+     * convert wikitext and add the result to the text, sections and anchors of this converter
+     * @param wikitext the wikitext
+     */
+    public void convert(final String wikitext) {
+        convert(wikitext, 0, wikitext.length(), this.text, true);
+    }
+
+    /**
+     * @return the plain text of the converted wikitext
+     */
+    public String getText() {
+        return CharacterCoding.html2unicode(this.text.toString());
+    }
+
+    /**
+     * @return the headlines of the converted wikitext
+     */
+    public String[] getSections() {
+        return this.sections.toArray(new String[this.sections.size()]);
+    }
+
+    /**
+     * @return the internal and external links of the converted wikitext
+     */
+    public List<AnchorURL> getAnchors() {
+        return this.anchors;
+    }
+
+    private void convert(final String s, final int from, final int to, final StringBuilder out, boolean lineStart) {
+        int i = from;
+        while (i < to) {
+            char c = s.charAt(i);
+            if (lineStart) {
+                lineStart = false;
+                if (s.startsWith("{|", i) || (this.table > 0 && (s.startsWith("|}", i) || s.startsWith("|-", i) || s.startsWith("|+", i)))) {
+                    if (c == '{') this.table++; else if (s.charAt(i + 1) == '}') this.table--;
+                    i = lineEnd(s, i, to);
+                    continue;
+                }
+                if (this.table > 0 && (c == '|' || c == '!')) {
+                    i = cellStart(s, i + 1, to);
+                    continue;
+                }
+                if (c == '=') {
+                    final int e = lineEnd(s, i, to);
+                    int p = i, q = e;
+                    while (q > p && Character.isWhitespace(s.charAt(q - 1))) q--;
+                    if (q - p > 2 && s.charAt(q - 1) == '=') {
+                        while (p < q && s.charAt(p) == '=') p++;
+                        while (q > p && s.charAt(q - 1) == '=') q--;
+                        final StringBuilder headline = new StringBuilder(q - p);
+                        convert(s, p, q, headline, false);
+                        final String h = CharacterCoding.html2unicode(headline.toString().trim());
+                        if (!h.isEmpty()) this.sections.add(h);
+                        out.append(h);
+                        i = e;
+                        continue;
+                    }
+                }
+                while (i < to && ((c = s.charAt(i)) == '*' || c == '#' || c == ':' || c == ';')) i++;
+                if (i >= to) break;
+            }
+            switch (c) {
+                case '\n':
+                    out.append('\n');
+                    i++;
+                    lineStart = true;
+                    continue;
+                case '<':
+                    i = tag(s, i, to);
+                    continue;
+                case '{':
+                    if (s.startsWith("{{", i)) {
+                        final int e = closing(s, i, to, "{{", "}}");
+                        i = e < 0 ? to : e + 2;
+                        continue;
+                    }
+                    break;
+                case '[':
+                    if (s.startsWith("[[", i)) {
+                        final int e = closing(s, i, to, "[[", "]]");
+                        if (e > 0) {
+                            link(s, i + 2, e, out);
+                            i = e + 2;
+                            continue;
+                        }
+                    } else if (isExternal(s, i + 1)) {
+                        final int e = s.indexOf(']', i);
+                        final int n = s.indexOf('\n', i);
+                        if (e > 0 && e < to && (n < 0 || e < n)) {
+                            external(s, i + 1, e, out);
+                            i = e + 1;
+                            continue;
+                        }
+                    }
+                    break;
+                case '\'':
+                    if (i + 1 < to && s.charAt(i + 1) == '\'') {
+                        while (i < to && s.charAt(i) == '\'') i++;
+                        continue;
+                    }
+                    break;
+                case '_':
+                    if (s.startsWith("__", i)) {
+                        int e = i + 2;
+                        while (e < to && Character.isUpperCase(s.charAt(e))) e++;
+                        if (e > i + 2 && s.startsWith("__", e)) {
+                            i = e + 2;
+                            continue;
+                        }
+                    }
+                    break;
+                case '|':
+                case '!':
+                    if (this.table > 0 && i + 1 < to && s.charAt(i + 1) == c) {
+                        out.append(' ');
+                        i = cellStart(s, i + 2, to);
+                        continue;
+                    }
+                    break;
+                default:
+            }
+            out.append(c);
+            i++;
+        }
+    }
+
+    private static int lineEnd(final String s, final int from, final int to) {
+        final int e = s.indexOf('\n', from);
+        return e < 0 || e >= to ? to : e;
+    }
+
+    /**
+     * skip the attributes of a table cell, i.e. 'style="color:red" | text'
+     */
+    private static int cellStart(final String s, final int from, final int to) {
+        final int e = lineEnd(s, from, to);
+        final int p = s.indexOf('|', from);
+        if (p < 0 || p >= e || (p + 1 < e && s.charAt(p + 1) == '|')) return from;
+        final String attributes = s.substring(from, p);
+        if (attributes.indexOf('=') < 0 || attributes.contains("[[") || attributes.contains("{{")) return from;
+        return p + 1;
+    }
+
+    /**
+     * @return the position of the closing sequence which matches the opening sequence at the position from or -1
+     */
+    private static int closing(final String s, final int from, final int to, final String open, final String close) {
+        int depth = 0;
+        int i = from;
+        while (i < to - 1) {
+            if (s.startsWith(open, i)) {
+                depth++;
+                i += open.length();
+            } else if (s.startsWith(close, i)) {
+                depth--;
+                if (depth == 0) return i;
+                i += close.length();
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * skip a comment or a tag; the content of tags which are not text is skipped as well
+     * @return the position after the skipped markup
+     */
+    private static int tag(final String s, final int from, final int to) {
+        if (s.startsWith("<!--", from)) {
+            final int e = s.indexOf("-->", from + 4);
+            return e < 0 || e + 3 > to ? to : e + 3;
+        }
+        final int e = s.indexOf('>', from);
+        if (from + 1 >= to || e < 0 || e >= to) return from + 1;
+        final char n = s.charAt(from + 1);
+        if (!Character.isLetter(n) && n != '/') return from + 1; // not a tag, the character is text
+        if (s.charAt(e - 1) != '/') {
+            int p = from + 1;
+            while (p < e && Character.isLetter(s.charAt(p))) p++;
+            final String name = s.substring(from + 1, p).toLowerCase(Locale.ROOT);
+            for (final String skipped: SKIPPED_TAGS) {
+                if (skipped.equals(name)) {
+                    final int c = indexOfIgnoreCase(s, "</" + name, e, to);
+                    if (c < 0 || c >= to) return to;
+                    final int ce = s.indexOf('>', c);
+                    return ce < 0 || ce >= to ? to : ce + 1;
+                }
+            }
+        }
+        return e + 1;
+    }
+
+    private static int indexOfIgnoreCase(final String s, final String pattern, final int from, final int to) {
+        for (int i = from; i <= to - pattern.length(); i++) {
+            if (s.regionMatches(true, i, pattern, 0, pattern.length())) return i;
+        }
+        return -1;
+    }
+
+    private void link(final String s, final int from, final int to, final StringBuilder out) {
+        final int bar = s.indexOf('|', from);
+        String target = s.substring(from, bar < 0 || bar >= to ? to : bar).trim();
+        if (target.startsWith(":")) {
+            target = target.substring(1);
+        } else if (target.indexOf(':') > 0) {
+            return; // a file, a category or a link to another language
+        }
+        final StringBuilder label = new StringBuilder();
+        if (bar < 0 || bar >= to || bar + 1 == to) {
+            label.append(target);
+        } else {
+            convert(s, bar + 1, to, label, false);
+        }
+        final String l = label.toString();
+        out.append(l);
+        final int hash = target.indexOf('#');
+        final String page = hash < 0 ? target : target.substring(0, hash);
+        if (page.isEmpty() || this.urlStub == null) return;
+        try {
+            final AnchorURL anchor = new AnchorURL(this.urlStub + page.replace(' ', '_'));
+            anchor.setTextProperty(CharacterCoding.html2unicode(l));
+            this.anchors.add(anchor);
+        } catch (final MalformedURLException e) {
+        }
+    }
+
+    private void external(final String s, final int from, final int to, final StringBuilder out) {
+        final int space = s.indexOf(' ', from);
+        final String url = s.substring(from, space < 0 || space >= to ? to : space);
+        String label = "";
+        if (space > 0 && space < to) {
+            final StringBuilder sb = new StringBuilder();
+            convert(s, space + 1, to, sb, false);
+            label = sb.toString();
+            out.append(label);
+        }
+        try {
+            final AnchorURL anchor = new AnchorURL(url.startsWith("//") ? "https:" + url : url);
+            anchor.setTextProperty(CharacterCoding.html2unicode(label));
+            this.anchors.add(anchor);
+        } catch (final MalformedURLException e) {
+        }
+    }
+
+    private static boolean isExternal(final String s, final int p) {
+        return s.startsWith("http://", p) || s.startsWith("https://", p) || s.startsWith("ftp://", p) || s.startsWith("//", p);
+    }
+
+}
@@ -32,21 +32,30 @@ import com.cybozu.labs.langdetect.LangDetectException;
 import com.cybozu.labs.langdetect.Language;
 
 import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.document.WordScanner;
 
 /**
  * This class can try to identify the language a text is written in.
  */
 public final class Identificator {
 
+    /** the number of characters of a document text which are used for the identification */
+    public static final int MAX_TEXT_LENGTH = 10000;
+
     private Detector detector;
     private Language language;
+    private final StringBuilder text; // words which are not yet appended to the detector
+    private int textLength; // the number of characters added with addText()
 
     /**
      * Default constructor. Requires the DetectorFactory language profiles to be loaded before.
      */
     public Identificator() {
+        this.text = new StringBuilder(256);
+        this.textLength = 0;
         try {
             this.detector = DetectorFactory.create();
+            this.detector.setMaxTextLength(Integer.MAX_VALUE); // the length of the document text is limited by addText()
         } catch (LangDetectException e) {
             ConcurrentLog.logException(e);
         }
@@ -61,7 +70,55 @@ public final class Identificator {
         if (word == null || this.detector == null) {
         	return;
         }
-        this.detector.append(" " + word); // detector internally caches text up to maxtextlen = default = 10000 chars
+        this.text.append(' ').append(word);
+    }
+
+    /**
+     * Append a word given as a range of a character buffer, see {@link #add(String)}
+     * @param buffer a buffer holding the word
+     * @param start the position of the word in the buffer
+     * @param length the length of the word
+     */
+    public void add(final char[] buffer, final int start, final int length) {
+        if (this.detector == null) {
+        	return;
+        }
+        this.text.append(' ').append(buffer, start, length);
+    }
+
+    /**
+     * Append a word of the document text to the text to be analyzed. Only the first
+     * MAX_TEXT_LENGTH characters of the document text are used, the remaining words are ignored.
+     * @param buffer a buffer holding the word
+     * @param start the position of the word in the buffer
+     * @param length the length of the word
+     */
+    public void addText(final char[] buffer, final int start, final int length) {
+        if (this.detector == null || this.textLength >= MAX_TEXT_LENGTH) {
+            return;
+        }
+        this.text.append(' ').append(buffer, start, length);
+        this.textLength += length + 1;
+    }
+
+    /**
+     * Append the words of a document text to the text to be analyzed, see {@link #addText(char[], int, int)}
+     * @param text the document text
+     */
+    public void addText(final String text) {
+        if (text == null || this.detector == null) {
+            return;
+        }
+        WordScanner.scan(text, new WordScanner.Handler() {
+            @Override
+            public void word(final char[] buffer, final int start, final int length) {
+                addText(buffer, start, length);
+            }
+
+            @Override
+            public void punctuation(final char c) {
+            }
+        });
     }
 
     /**
@@ -72,10 +129,15 @@ public final class Identificator {
      */
     public String getLanguage() {
     	if(this.detector != null) {
+    		if (this.text.length() > 0) {
+    			// one append for all words, the detector cleans each appended text with regular expressions
+    			this.detector.append(this.text.toString());
+    			this.text.setLength(0);
+    		}
     		try {
     			ArrayList<Language> probabilities = this.detector.getProbabilities();
     			if(probabilities.isEmpty()) return null;
-    			this.language = this.detector.getProbabilities().get(0);
+    			this.language = probabilities.get(0);
     		} catch (LangDetectException e) {
     			// this contains mostly the message "no features in text"
     			//ConcurrentLog.logException(e);
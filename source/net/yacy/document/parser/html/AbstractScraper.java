@@ -67,6 +67,7 @@ public abstract class AbstractScraper implements Scraper {
 
     public static String stripAllTags(final char[] s) {
         if (s.length > 80 && !MemoryControl.request(s.length * 2, false)) return "";
+        if (!containsTagMark(s)) return new String(s).trim(); // the common case of a plain text
         final StringBuilder r = new StringBuilder(s.length);
         int bc = 0;
         for (final char c : s) {
@@ -82,6 +83,13 @@ public abstract class AbstractScraper implements Scraper {
         return r.toString().trim();
     }
 
+    private static boolean containsTagMark(final char[] s) {
+        for (final char c : s) {
+            if (c == lb || c == rb) return true;
+        }
+        return false;
+    }
+
     protected final static String cleanLine(final String s) {
         if (!MemoryControl.request(s.length() * 2, false)) return EMPTY_STRING;
         final StringBuilder sb = new StringBuilder(s.length());
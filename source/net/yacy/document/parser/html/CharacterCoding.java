@@ -287,6 +287,7 @@ public final class CharacterCoding {
      */
     public static String html2unicode(String text) {
         if (text == null) return null;
+        if (text.indexOf('&') < 0) return text; // nothing to decode
         text = ampPattern.matcher(text).replaceAll("&"); // sometimes a double-replacement is necessary.
         int p = 0, p1, q;
         final StringBuilder sb = new StringBuilder(text.length());
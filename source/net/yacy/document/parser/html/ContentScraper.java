@@ -31,6 +31,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -77,6 +78,10 @@ public class ContentScraper extends AbstractScraper implements Scraper {
 
     private final char degree = '\u00B0';
     private final char[] minuteCharsHTML = "&#039;".toCharArray();
+    private static final char[] DEGREE_HTML = "&deg;".toCharArray();
+    private static final char[] MINUTE = "'".toCharArray();
+    private static final char[] EAST = " E".toCharArray();
+    private static final char[] WEST = " W".toCharArray();
 
     // statics: for initialization of the HTMLFilterAbstractScraper
     /** Set of tag names processed as singletons (no end tag, or not processing the eventual end tag) */
@@ -85,8 +90,6 @@ public class ContentScraper extends AbstractScraper implements Scraper {
     /** Set of tag names processed by pairs of start and end tag */
     private static final Set<String> linkTags1 = new HashSet<String>(15,0.99f);
 
-    private static final Pattern LB = Pattern.compile("\n");
-
     public enum TagType {
     	/** Tag with no end tag (see https://www.w3.org/TR/html51/syntax.html#void-elements),
     	 * optional end tag (see https://www.w3.org/TR/html51/syntax.html#optional-tags),
@@ -172,10 +175,6 @@ public class ContentScraper extends AbstractScraper implements Scraper {
             this.content = null;
         }
         @Override
-        public void finalize() {
-            this.close();
-        }
-        @Override
         public String toString() {
             return "<" + name + " " + opts + ">" + content + "</" + name + ">";
         }
@@ -336,6 +335,11 @@ public class ContentScraper extends AbstractScraper implements Scraper {
 
     @Override
     public void scrapeText(final char[] newtext0, final Tag insideTag) {
+        scrapeText(newtext0, 0, newtext0.length, insideTag);
+    }
+
+    @Override
+    public void scrapeText(final char[] text, final int offset, final int length, final Tag insideTag) {
         if (insideTag != null) {
         	if(insideTag.ignore) {
         		return;
@@ -345,7 +349,10 @@ public class ContentScraper extends AbstractScraper implements Scraper {
 			}
         }
         int p, pl, q, s = 0;
-        char[] newtext = CharacterCoding.html2unicode(new String(newtext0)).toCharArray();
+        // the text is a range of the tokenizer buffer: copy it once, decoding entities only if there are any
+        final char[] newtext = !contains(text, offset, length, '&') ?
+                Arrays.copyOfRange(text, offset, offset + length) :
+                CharacterCoding.html2unicode(new String(text, offset, length)).toCharArray();
         
         // match evaluation pattern
         this.evaluationScores.match(Element.text, newtext);
@@ -357,12 +364,12 @@ public class ContentScraper extends AbstractScraper implements Scraper {
         location: while (s < newtext.length) {
             pl = 1;
             p = CharBuffer.indexOf(newtext, s, this.degree);
-            if (p < 0) {p = CharBuffer.indexOf(newtext, s, "&deg;".toCharArray()); if (p >= 0) pl = 5;}
+            if (p < 0) {p = CharBuffer.indexOf(newtext, s, DEGREE_HTML); if (p >= 0) pl = 5;}
             if (p < 0) break location;
             q = CharBuffer.indexOf(newtext, p + pl, this.minuteCharsHTML);
-            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, "'".toCharArray());
-            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, " E".toCharArray());
-            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, " W".toCharArray());
+            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, MINUTE);
+            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, EAST);
+            if (q < 0) q = CharBuffer.indexOf(newtext, p + pl, WEST);
             if (q < 0 && newtext.length - p == 7 + pl) q = newtext.length;
             if (q < 0) break location;
             int r = p;
@@ -414,15 +421,15 @@ public class ContentScraper extends AbstractScraper implements Scraper {
             //System.out.println("*** Appended dot: " + b.toString());
         }
         // find absolute URLs inside text
-        final Object[] listeners = this.htmlFilterEventListeners.getListenerList();
-        List<ContentScraperListener> anchorListeners = new ArrayList<>();
-        for (int i = 0; i < listeners.length; i += 2) {
-            if (listeners[i] == ContentScraperListener.class) {
-            	anchorListeners.add((ContentScraperListener)listeners[i+1]);
+        if(!this.maxAnchorsExceeded && b.indexOf(URL_SCHEME_SEPARATOR) >= 0) {
+            final Object[] listeners = this.htmlFilterEventListeners.getListenerList();
+            List<ContentScraperListener> anchorListeners = new ArrayList<>();
+            for (int i = 0; i < listeners.length; i += 2) {
+                if (listeners[i] == ContentScraperListener.class) {
+                	anchorListeners.add((ContentScraperListener)listeners[i+1]);
+                }
             }
-        }
-        
-        if(!this.maxAnchorsExceeded) {
+
         	int maxLinksToDetect = this.maxAnchors - this.anchors.size();
         	if(maxLinksToDetect < Integer.MAX_VALUE) {
         		/* Add one to the anchors limit to detect when the limit is exceeded */
@@ -443,6 +450,16 @@ public class ContentScraper extends AbstractScraper implements Scraper {
     }
 
     private final static Pattern protp = Pattern.compile("smb://|ftp://|http://|https://");
+
+    /** contained in any match of {@link #protp}, a cheap test whether a text may contain an URL at all */
+    private final static String URL_SCHEME_SEPARATOR = "://";
+
+    private static boolean contains(final char[] text, final int offset, final int length, final char c) {
+        for (int i = offset; i < offset + length; i++) {
+            if (text[i] == c) return true;
+        }
+        return false;
+    }
     
     /** A regular expression pattern matching any whitespace character */
     private final static Pattern WHITESPACE_PATTERN = Pattern.compile("\\s");
@@ -456,7 +473,7 @@ public class ContentScraper extends AbstractScraper implements Scraper {
      * @return the number of well formed URLs detected
      */
     public static long findAbsoluteURLs(final String text, final Collection<AnchorURL> urls, final Collection<ContentScraperListener> listeners, final long maxURLs) {
-        if(text == null) {
+        if(text == null || text.indexOf(URL_SCHEME_SEPARATOR) < 0) {
         	return 0;
         }
         int schemePosition, offset = 0;
@@ -982,7 +999,7 @@ public class ContentScraper extends AbstractScraper implements Scraper {
             	}
                 this.evaluationScores.match(Element.scriptpath, src);
             } else {
-                this.evaluationScores.match(Element.scriptcode, LB.matcher(new String(tag.content.getChars())).replaceAll(" "));
+                this.evaluationScores.match(Element.scriptcode, tag.content.toString().replace('\n', ' '));
             }
         } else if (tag.name.equalsIgnoreCase("article")) {
             h = cleanLine(CharacterCoding.html2unicode(stripAllTags(tag.content.getChars())));
@@ -998,7 +1015,7 @@ public class ContentScraper extends AbstractScraper implements Scraper {
         }
 
         // fire event
-        this.fireScrapeTag1(tag.name, tag.opts, tag.content.getChars());
+        this.fireScrapeTag1(tag.name, tag.opts, tag.content);
     }
     
 	/**
@@ -1028,7 +1045,7 @@ public class ContentScraper extends AbstractScraper implements Scraper {
 		
 		/* Parent is not marked as ignored : let's check the current tag */
 		if (!ignore &&
-		        this.ignoreDivClassNames != null &&
+		        this.ignoreDivClassNames != null && !this.ignoreDivClassNames.isEmpty() &&
 		        tag != null &&
 		        (TagName.div.name().equals(tag.name) || TagName.nav.name().equals(tag.name))) {
 			final String classAttr = tag.opts.getProperty("class", EMPTY_STRING);
@@ -1054,7 +1071,7 @@ public class ContentScraper extends AbstractScraper implements Scraper {
 
     @Override
     public void scrapeComment(final char[] comment) {
-        this.evaluationScores.match(Element.comment, LB.matcher(new String(comment)).replaceAll(" "));
+        this.evaluationScores.match(Element.comment, new String(comment).replace('\n', ' '));
     }
 
     public List<String> getTitles() {
@@ -1581,10 +1598,12 @@ public class ContentScraper extends AbstractScraper implements Scraper {
         }
     }
 
-    private void fireScrapeTag1(final String tagname, final Properties tagopts, final char[] text) {
+    private void fireScrapeTag1(final String tagname, final Properties tagopts, final CharBuffer content) {
         final Object[] listeners = this.htmlFilterEventListeners.getListenerList();
+        char[] text = null; // copied only when there is a listener
         for (int i = 0; i < listeners.length; i += 2) {
             if (listeners[i] == ScraperListener.class  || listeners[i] == ContentScraperListener.class) {
+                    if (text == null) text = content.getChars();
                     ((ScraperListener)listeners[i+1]).scrapeTag1(tagname, tagopts, text);
             }
         }
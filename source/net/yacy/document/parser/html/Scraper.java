@@ -24,6 +24,8 @@
 
 package net.yacy.document.parser.html;
 
+import java.util.Arrays;
+
 public interface Scraper {
 
 	/**
@@ -55,6 +57,18 @@ public interface Scraper {
      */
     public void scrapeText(char[] text, ContentScraper.Tag insideTag);
 
+    /**
+     * Process plain text given as a range of a buffer. The buffer is reused by the caller
+     * after this call, so an implementation must copy any characters it keeps.
+     * @param text the buffer holding the text
+     * @param offset the position of the first character of the text in the buffer
+     * @param length the number of characters of the text
+     * @param insideTag the eventual direct parent tag. May be null.
+     */
+    public default void scrapeText(final char[] text, final int offset, final int length, final ContentScraper.Tag insideTag) {
+        scrapeText(Arrays.copyOfRange(text, offset, offset + length), insideTag);
+    }
+
     /**
      * Process a tag belonging to the first category of tags according to the Scraper implementation
      * @param tag a parsed tag
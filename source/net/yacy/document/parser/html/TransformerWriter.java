@@ -36,6 +36,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Locale;
 import java.util.Properties;
@@ -54,9 +55,21 @@ public final class TransformerWriter extends Writer {
     public static final char singlequote = '\'';
     public static final char doublequote = '"';
 
+    private static final char[] EMPTY = new char[0];
+
+    /** the largest token buffer which is kept for the next writer of a thread */
+    private static final int MAX_POOLED_BUFFER = 64 * 1024;
+
+    /**
+     * A token buffer released by a closed writer, for re-use by the next writer of the same thread.
+     * Parser threads scrape many documents one after another, this saves growing a new buffer for each.
+     */
+    private static final ThreadLocal<char[]> pooledBuffers = new ThreadLocal<char[]>();
+
     private final OutputStream outStream;
     private OutputStreamWriter out;
-    private CharBuffer buffer;
+    private char[] buffer; // the current token, shared with the scraper as a range and never copied for it
+    private int length; // the length of the current token
     private Stack<ContentScraper.Tag> tagStack;
     private final Scraper scraper;
     private boolean inSingleQuote;
@@ -83,7 +96,13 @@ public final class TransformerWriter extends Writer {
     ) {
         this.outStream     = outStream;
         this.scraper       = scraper;
-        this.buffer        = new CharBuffer(ContentScraper.MAX_DOCSIZE, initialBufferSize);
+        this.buffer        = pooledBuffers.get();
+        if (this.buffer == null || this.buffer.length < initialBufferSize) {
+            this.buffer = new char[initialBufferSize];
+        } else {
+            pooledBuffers.remove(); // now owned by this writer until it is closed
+        }
+        this.length        = 0;
         this.tagStack      = new Stack<ContentScraper.Tag>();
         this.inSingleQuote = false;
         this.inDoubleQuote = false;
@@ -114,6 +133,24 @@ public final class TransformerWriter extends Writer {
             return result;
     }
 
+    private static char[] genTag0raw(final String tagname, final boolean opening, final char[] tagopts, final int offset, final int length) {
+            final CharBuffer bb = new CharBuffer(ContentScraper.MAX_DOCSIZE, tagname.length() + length + 3);
+            appendTag0raw(bb, tagname, opening, tagopts, offset, length);
+            final char[] result = bb.getChars();
+            bb.close();
+            return result;
+    }
+
+    private static void appendTag0raw(final CharBuffer bb, final String tagname, final boolean opening, final char[] tagopts, final int offset, final int length) {
+            bb.append('<');
+            if (!opening) {
+                bb.append('/');
+            }
+            bb.append(tagname);
+            bb.append(tagopts, offset, length);
+            bb.append('>');
+    }
+
     public static char[] genTag1raw(final String tagname, final char[] tagopts, final char[] text) {
             final CharBuffer bb = new CharBuffer(ContentScraper.MAX_DOCSIZE, 2 * tagname.length() + tagopts.length + text.length + 5);
             bb.append('<').append(tagname);
@@ -153,6 +190,24 @@ public final class TransformerWriter extends Writer {
             return result;
     }
 
+    /**
+     * append a tag with its text to a buffer, producing the same characters as {@link #genTag1(String, Properties, char[], char)}
+     */
+    private static void appendTag1(final CharBuffer bb, final ContentScraper.Tag tag, final char quotechar) {
+            bb.append('<').append(tag.name);
+            final Enumeration<?> e = tag.opts.propertyNames();
+            String key;
+            while (e.hasMoreElements()) {
+                key = (String) e.nextElement();
+                bb.appendSpace().append(key).append('=').append(quotechar);
+                bb.append(tag.opts.getProperty(key));
+                bb.append(quotechar);
+            }
+            bb.append('>');
+            bb.append(tag.content);
+            bb.append('<').append('/').append(tag.name).append('>');
+    }
+
     // a helper method for pretty-printing of properties for html tags
     public static char[] genOpts(final Properties prop, final char quotechar) {
             final Enumeration<?> e = prop.propertyNames();
@@ -175,39 +230,36 @@ public final class TransformerWriter extends Writer {
 
     /**
      * the token processor distinguishes three different types of input: opening tag, closing tag, text content
-     * @param in - the token to be processed
+     * @param in - the buffer holding the token to be processed, starting at position 0
+     * @param length - the length of the token
      * @param quotechar
-     * @return a processed version of the token
+     * @return a processed version of the token, an empty array if there is no output stream to write it to
      */
-    private char[] tokenProcessor(final char[] in, final char quotechar) {
-        if (in.length == 0) return in;
+    private char[] tokenProcessor(final char[] in, final int length, final char quotechar) {
+        if (length == 0) return EMPTY;
         
         // scan the string and parse structure
-        if (in.length <= 2 || in[0] != lb) return filterTag(in); // this is a text
+        if (length <= 2 || in[0] != lb) return filterTag(in, 0, length); // this is a text
 
         // this is a tag
         String tag;
         int tagend;
         if (in[1] == '/') {
             // a closing tag
-            tagend = tagEnd(in, 2);
+            tagend = tagEnd(in, 2, length);
             tag = new String(in, 2, tagend - 2).toLowerCase(Locale.ROOT);
-            final char[] text = new char[in.length - tagend - 1];
-            System.arraycopy(in, tagend, text, 0, in.length - tagend - 1);
-            return filterTag(text, quotechar, tag, false);
+            return filterTag(in, tagend, length - tagend - 1, quotechar, tag, false);
         }
 
         // don't add text from within <script> section, here e.g. a "if 1<a" expression could confuse tag detection
         if (this.tagStack.size()>0 && this.tagStack.lastElement().name.equals(TagName.script.name())) {
-            return new char[0];
+            return EMPTY;
         }
 
         // an opening tag
-        tagend = tagEnd(in, 1);
+        tagend = tagEnd(in, 1, length);
         tag = new String(in, 1, tagend - 1).toLowerCase(Locale.ROOT);
-        final char[] text = new char[in.length - tagend - 1];
-        System.arraycopy(in, tagend, text, 0, in.length - tagend - 1);
-        return filterTag(text, quotechar, tag, true);
+        return filterTag(in, tagend, length - tagend - 1, quotechar, tag, true);
     }
     
     // distinguish the following cases:
@@ -221,29 +273,31 @@ public final class TransformerWriter extends Writer {
     
     /**
      * 
-     * @param content
-     * @return content or empty array
+     * @param content the buffer holding the text
+     * @param offset the position of the text in the buffer
+     * @param length the length of the text
+     * @return the text or an empty array
      */
-    private char[] filterTag(final char[] content) {
+    private char[] filterTag(final char[] content, final int offset, final int length) {
         if (this.tagStack.size() == 0) {
             // we are not collection tag text -> case (1) - (3)
             // case (1): this is not a tag opener/closer
-            if (this.scraper != null && content.length > 0) {
-            	this.scraper.scrapeText(content, null);
+            if (this.scraper != null && length > 0) {
+            	this.scraper.scrapeText(content, offset, length, null);
             }
-            return content;
+            return this.out == null ? EMPTY : Arrays.copyOfRange(content, offset, offset + length);
         }
 
         // we are collection tag text for the tag 'filterTag' -> case (4) - (7)
         // case (4): getting no tag, go on collecting content
         if (this.scraper != null) {
-            this.scraper.scrapeText(content, this.tagStack.lastElement());
+            this.scraper.scrapeText(content, offset, length, this.tagStack.lastElement());
         }
-        this.tagStack.lastElement().content.append(content);
-        return new char[0];
+        this.tagStack.lastElement().content.append(content, offset, length);
+        return EMPTY;
     }
             
-    private char[] filterTag(final char[] content, final char quotechar, final String tagname, final boolean opening) {
+    private char[] filterTag(final char[] content, final int offset, final int length, final char quotechar, final String tagname, final boolean opening) {
         assert tagname != null;
         
         if (this.tagStack.size() == 0) {
@@ -252,39 +306,37 @@ public final class TransformerWriter extends Writer {
             // we have a new tag
             if (opening) {
                 // case (2):
-                return filterTagOpening(tagname, content, quotechar);
+                return filterTagOpening(tagname, content, offset, length, quotechar);
             }
 
             // its a close tag where no should be
             // case (3): we ignore that thing and return it again
-            return genTag0raw(tagname, false, content);
+            return this.out == null ? EMPTY : genTag0raw(tagname, false, content, offset, length);
 
         }
 
         // we are collection tag text for the tag 'filterTag' -> case (4) - (7)
-        if (tagname.equals("!")) filterTag(content);
+        if (tagname.equals("!")) filterTag(content, offset, length);
 
         // it's a tag! which one?
         if (opening) {
             // case (5): the opening should not be here. But we keep the order anyway
-            this.tagStack.lastElement().content.append(filterTagOpening(tagname, content, quotechar));
-            return new char[0];
+            this.tagStack.lastElement().content.append(filterTagOpening(tagname, content, offset, length, quotechar));
+            return EMPTY;
         }
 
         if (!tagname.equalsIgnoreCase(this.tagStack.lastElement().name)) {
             // case (6): its a closing tag, but the wrong one. just add it.
-            this.tagStack.lastElement().content.append(genTag0raw(tagname, opening, content));
-            return new char[0];
+            appendTag0raw(this.tagStack.lastElement().content, tagname, opening, content, offset, length);
+            return EMPTY;
         }
 
         // it's our closing tag! return complete result.
         return filterTagCloseing(quotechar);
     }
 
-    private char[] filterTagOpening(final String tagname, final char[] content, final char quotechar) {
-        final CharBuffer charBuffer = new CharBuffer(ContentScraper.MAX_DOCSIZE, content);
-        ContentScraper.Tag tag = new ContentScraper.Tag(tagname, charBuffer.propParser());
-        charBuffer.close();
+    private char[] filterTagOpening(final String tagname, final char[] content, final int offset, final int length, final char quotechar) {
+        ContentScraper.Tag tag = new ContentScraper.Tag(tagname, CharBuffer.propParser(content, offset, offset + length));
         
         final ContentScraper.Tag parentTag;
         if(this.tagStack.size() > 0) {
@@ -310,24 +362,32 @@ public final class TransformerWriter extends Writer {
         if (this.scraper != null && this.scraper.isTag1(tagname)) {
             // ok, start collecting; we don't push this here to the scraper or transformer; we do that when the tag is closed.
             this.tagStack.push(tag);
-            return new char[0];
+            return EMPTY;
         }
-        // we ignore that thing and return it again
-        return genTag0raw(tagname, true, content);
+        // we ignore that thing and return it again, if anybody reads it
+        if (this.out == null && this.tagStack.size() == 0) return EMPTY;
+        return genTag0raw(tagname, true, content, offset, length);
     }
 
     private char[] filterTagCloseing(final char quotechar) {
-        char[] ret;
         ContentScraper.Tag tag = this.tagStack.lastElement();
         if (this.scraper != null) this.scraper.scrapeTag1(tag);
-        ret = genTag1(tag.name, tag.opts, tag.content.getChars(), quotechar);
         if (this.scraper != null && this.scraper.isTag1(tag.name)) {
             // remove the tag from the stack as soon as the tag is processed
             this.tagStack.pop();
             // at this point the characters from the recently processed tag must be attached to the previous tag
-            if (this.tagStack.size() > 0) this.tagStack.lastElement().content.append(ret);
+            if (this.tagStack.size() > 0) {
+                if (this.out == null) {
+                    appendTag1(this.tagStack.lastElement().content, tag, quotechar);
+                    return EMPTY;
+                }
+                final char[] ret = genTag1(tag.name, tag.opts, tag.content.getChars(), quotechar);
+                this.tagStack.lastElement().content.append(ret);
+                return ret;
+            }
         }
-        return ret;
+        if (this.out == null) return EMPTY;
+        return genTag1(tag.name, tag.opts, tag.content.getChars(), quotechar);
     }
 
     private char[] filterFinalize(final char quotechar) {
@@ -336,16 +396,16 @@ public final class TransformerWriter extends Writer {
         }
 
         // it's our closing tag! return complete result.
-        char[] ret;
+        char[] ret = EMPTY;
         if (this.scraper != null) this.scraper.scrapeTag1(this.tagStack.lastElement());
-        ret = genTag1(this.tagStack.lastElement().name, this.tagStack.lastElement().opts, this.tagStack.lastElement().content.getChars(), quotechar);
+        if (this.out != null) ret = genTag1(this.tagStack.lastElement().name, this.tagStack.lastElement().opts, this.tagStack.lastElement().content.getChars(), quotechar);
         this.tagStack.pop();
         return ret;
     }
 
-    private static int tagEnd(final char[] tag, final int start) {
+    private static int tagEnd(final char[] tag, final int start, final int length) {
         char c;
-        for (int i = start; i < tag.length; i++) {
+        for (int i = start; i < length; i++) {
             c = tag[i];
             if (c != '!' && c != '-' &&
                 (c < '0' || c > '9') &&
@@ -353,7 +413,18 @@ public final class TransformerWriter extends Writer {
                 (c < 'A' || c > 'Z')
             ) return i;
         }
-        return tag.length - 1;
+        return length - 1;
+    }
+
+    /**
+     * append a character to the current token; characters beyond the maximum document size are dropped
+     */
+    private void append(final int c) {
+        if (this.length == this.buffer.length) {
+            if (this.buffer.length >= ContentScraper.MAX_DOCSIZE) return;
+            this.buffer = Arrays.copyOf(this.buffer, Math.min(ContentScraper.MAX_DOCSIZE, 2 * this.buffer.length));
+        }
+        this.buffer[this.length++] = (char) c;
     }
 
     /**
@@ -375,93 +446,89 @@ public final class TransformerWriter extends Writer {
         if (this.binaryUnsuspect || !this.passbyIfBinarySuspect) {
             char[] filtered;
             if (this.inSingleQuote) {
-                this.buffer.append(c);
+                append(c);
                 if (c == singlequote) this.inSingleQuote = false;
                 // check error cases
-                if ((c == rb) && (this.buffer.length() > 0 && this.buffer.charAt(0) == lb)) {
+                if ((c == rb) && (this.length > 0 && this.buffer[0] == lb)) {
                     this.inSingleQuote = false;
                     // the tag ends here. after filtering: pass on
-                    filtered = tokenProcessor(this.buffer.getChars(), singlequote);
+                    filtered = tokenProcessor(this.buffer, this.length, singlequote);
                     if (this.out != null) { this.out.write(filtered); }
-                    // this.buffer = new serverByteBuffer();
-                    this.buffer.reset();
+                    this.length = 0;
                 }
             } else if (this.inDoubleQuote) {
-                this.buffer.append(c);
+                append(c);
                 if (c == doublequote) this.inDoubleQuote = false;
                 // check error cases
-                if (c == rb && this.buffer.length() > 0 && this.buffer.charAt(0) == lb) {
+                if (c == rb && this.length > 0 && this.buffer[0] == lb) {
                     this.inDoubleQuote = false;
                     // the tag ends here. after filtering: pass on
-                    filtered = tokenProcessor(this.buffer.getChars(), doublequote);
+                    filtered = tokenProcessor(this.buffer, this.length, doublequote);
                     if (this.out != null) this.out.write(filtered);
-                    // this.buffer = new serverByteBuffer();
-                    this.buffer.reset();
+                    this.length = 0;
                 }
             } else if (this.inComment) {
-                this.buffer.append(c);
+                append(c);
                 if (c == rb &&
-                    this.buffer.length() > 6 &&
-                    this.buffer.charAt(this.buffer.length() - 3) == dash) {
+                    this.length > 6 &&
+                    this.buffer[this.length - 3] == dash) {
                     // comment is at end
                     this.inComment = false;
-                    final char[] comment = this.buffer.getChars();
-                    if (this.scraper != null) this.scraper.scrapeComment(comment);
-                    if (this.out != null) this.out.write(comment);
-                    // this.buffer = new serverByteBuffer();
-                    this.buffer.reset();
+                    if (this.scraper != null || this.out != null) {
+                        final char[] comment = Arrays.copyOf(this.buffer, this.length);
+                        if (this.scraper != null) this.scraper.scrapeComment(comment);
+                        if (this.out != null) this.out.write(comment);
+                    }
+                    this.length = 0;
                 }
             } else {
-                if (this.buffer.isEmpty()) {
+                if (this.length == 0) {
                     if (c == rb) {
                         // very strange error case; we just let it pass
                         if (this.out != null) this.out.write(c);
                     } else {
-                        this.buffer.append(c);
+                        append(c);
                     }
-                } else if (this.buffer.length() > 0 && this.buffer.charAt(0) == lb) {
+                } else if (this.length > 0 && this.buffer[0] == lb) {
                     if (c == singlequote) this.inSingleQuote = true;
                     if (c == doublequote) this.inDoubleQuote = true;
                     // fill in tag text
-                    if ((this.buffer.length() >= 3) && (this.buffer.charAt(1) == excl) &&
-                        (this.buffer.charAt(2) == dash) && (c == dash)) {
+                    if ((this.length >= 3) && (this.buffer[1] == excl) &&
+                        (this.buffer[2] == dash) && (c == dash)) {
                         // this is the start of a comment
                         this.inComment = true;
-                        this.buffer.append(c);
+                        append(c);
                     } else if (c == rb) {
-                        this.buffer.append(c);
+                        append(c);
                         // the tag ends here. after filtering: pass on
-                        filtered = tokenProcessor(this.buffer.getChars(), doublequote);
+                        filtered = tokenProcessor(this.buffer, this.length, doublequote);
                         if (this.out != null) this.out.write(filtered);
-                        // this.buffer = new serverByteBuffer();
-                        this.buffer.reset();
+                        this.length = 0;
                     } else if (c == lb) {
                         // this is an error case
                         // we consider that there is one rb missing
-                        if (this.buffer.length() > 0) {
-                            filtered = tokenProcessor(this.buffer.getChars(), doublequote);
+                        if (this.length > 0) {
+                            filtered = tokenProcessor(this.buffer, this.length, doublequote);
                             if (this.out != null) this.out.write(filtered);
                         }
-                        // this.buffer = new serverByteBuffer();
-                        this.buffer.reset();
-                        this.buffer.append(c);
+                        this.length = 0;
+                        append(c);
                     } else {
-                        this.buffer.append(c);
+                        append(c);
                     }
                 } else {
                     // fill in plain text
                     if (c == lb) {
                         // the text ends here
-                        if (this.buffer.length() > 0) {
-                            filtered = tokenProcessor(this.buffer.getChars(), doublequote);
+                        if (this.length > 0) {
+                            filtered = tokenProcessor(this.buffer, this.length, doublequote);
                             if (this.out != null) this.out.write(filtered);
                         }
-                        // this.buffer = new serverByteBuffer();
-                        this.buffer.reset();
-                        this.buffer.append(c);
+                        this.length = 0;
+                        append(c);
                     } else {
                         // simply append
-                        this.buffer.append(c);
+                        append(c);
                     }
                 }
             }
@@ -479,7 +546,7 @@ public final class TransformerWriter extends Writer {
     public void write(final char b[], final int off, final int len) throws IOException {
 //      System.out.println(UTF8.String(b, off, len));
         if ((off | len | (b.length - (len + off)) | (off + len)) < 0) throw new IndexOutOfBoundsException();
-        for (int i = off ; i < (len - off) ; i++) this.write(b[i]);
+        for (int i = off ; i < off + len ; i++) this.write(b[i]);
     }
 
     @Override
@@ -497,12 +564,13 @@ public final class TransformerWriter extends Writer {
         flush();
         final char quotechar = (this.inSingleQuote) ? singlequote : doublequote;
         if (this.buffer != null) {
-            if (this.buffer.length() > 0) {
-                final char[] filtered = tokenProcessor(this.buffer.getChars(), quotechar);
+            if (this.length > 0) {
+                final char[] filtered = tokenProcessor(this.buffer, this.length, quotechar);
                 if (this.out != null) this.out.write(filtered);
             }
-            this.buffer.close();
+            if (this.buffer.length <= MAX_POOLED_BUFFER) pooledBuffers.set(this.buffer);
             this.buffer = null;
+            this.length = 0;
         }
         final char[] finalized = filterFinalize(quotechar);
         if (this.out != null) {
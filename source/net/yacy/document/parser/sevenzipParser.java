@@ -40,6 +40,7 @@ import net.yacy.cora.document.id.DigestURL;
 import net.yacy.cora.document.id.MultiProtocolURL;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.document.AbstractParser;
+import net.yacy.document.ArchiveMemberParser;
 import net.yacy.document.Document;
 import net.yacy.document.Parser;
 import net.yacy.document.TextParser;
@@ -94,10 +95,12 @@ public class sevenzipParser extends AbstractParser implements Parser {
         } catch (final IOException e) {
             throw new Parser.Failure("error opening 7zip archive: " + e.getMessage(), location);
         }
-        final SZParserExtractCallback aec = new SZParserExtractCallback(AbstractParser.log, archive, doc, location.getFile(), ignore_class_name, timezoneOffset);
+        final ArchiveMemberParser members = new ArchiveMemberParser(doc);
+        final SZParserExtractCallback aec = new SZParserExtractCallback(AbstractParser.log, archive, doc, members, location.getFile(), ignore_class_name, timezoneOffset);
         AbstractParser.log.fine("processing archive contents...");
         try {
             archive.Extract(null, -1, 0, aec);
+            members.finish();
             return doc;
         } catch (final IOException e) {
             if (e.getCause() instanceof InterruptedException)
@@ -108,6 +111,7 @@ public class sevenzipParser extends AbstractParser implements Parser {
                     "error processing 7zip archive at internal file " + aec.getCurrentFilePath() + ": " + e.getMessage(),
                     location);
         } finally {
+            members.discard();
             try { archive.close(); } catch (final IOException e) {  }
         }
     }
@@ -147,6 +151,7 @@ public class sevenzipParser extends AbstractParser implements Parser {
          private final ConcurrentLog log;
          private ByteArrayOutputStream cfos = null;
          private final Document doc;
+         private final ArchiveMemberParser members;
          private final String prefix;
          private Set<String> ignore_class_name;
          private final int timezoneOffset;
@@ -155,12 +160,14 @@ public class sevenzipParser extends AbstractParser implements Parser {
                  final ConcurrentLog logger,
                  final IInArchive handler,
                  final Document doc,
+                 final ArchiveMemberParser members,
                  final String prefix,
                  final Set<String> ignore_class_name,
                  final int timezoneOffset) {
              super.Init(handler);
              this.log = logger;
              this.doc = doc;
+             this.members = members;
              this.prefix = prefix;
              this.ignore_class_name = ignore_class_name;
              this.timezoneOffset = timezoneOffset;
@@ -199,15 +206,15 @@ public class sevenzipParser extends AbstractParser implements Parser {
              } else try {
 
                  if (this.cfos != null) {
-                     // parse the file
-                     Document[] theDocs;
+                     // parse the file, concurrently to the extraction of the next files
                      // workaround for relative links in file, normally '#' shall be used behind the location, see
                      // below for reversion of the effects
                      final AnchorURL url = AnchorURL.newAnchor(this.doc.dc_source(), this.prefix + "/" + super.filePath);
                      final String mime = TextParser.mimeOf(super.filePath.substring(super.filePath.lastIndexOf('.') + 1));
-                     theDocs = TextParser.parseSource(url, mime, null, this.ignore_class_name, new VocabularyScraper(), timezoneOffset, this.doc.getDepth() + 1, this.cfos.toByteArray());
-
-                     this.doc.addSubDocuments(theDocs);
+                     final byte[] content = this.cfos.toByteArray();
+                     this.cfos = null;
+                     final int depth = this.doc.getDepth() + 1;
+                     this.members.parse(() -> TextParser.parseSource(url, mime, null, this.ignore_class_name, new VocabularyScraper(), this.timezoneOffset, depth, content));
                  }
              } catch (final Exception e) {
                  final IOException ex = new IOException("error parsing extracted content of " + super.filePath + ": " + e.getMessage());
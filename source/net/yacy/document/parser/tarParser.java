@@ -41,6 +41,7 @@ import net.yacy.cora.document.encoding.UTF8;
 import net.yacy.cora.document.id.DigestURL;
 import net.yacy.cora.document.id.MultiProtocolURL;
 import net.yacy.document.AbstractParser;
+import net.yacy.document.ArchiveMemberParser;
 import net.yacy.document.Document;
 import net.yacy.document.Parser;
 import net.yacy.document.TextParser;
@@ -91,7 +92,9 @@ public class tarParser extends AbstractParser implements Parser {
         
         // create maindoc for this tar container
         final Document maindoc = createMainDocument(location, mimeType, charset, this);
-        // loop through the elements in the tar file and parse every single file inside
+        // loop through the elements in the tar file and parse every single file inside;
+        // the elements are read one after another and parsed concurrently
+        final ArchiveMemberParser members = new ArchiveMemberParser(maindoc);
         while (true) {
             try {
                 File tmp = null;
@@ -112,13 +115,18 @@ public class tarParser extends AbstractParser implements Parser {
 					 * as a possible parser for the sub resource.
 					 */
                     final DigestURL subLocation = new DigestURL(parentTarURL, name);
-                    final Document[] subDocs = TextParser.parseSource(subLocation, mime, null, ignore_class_name, scraper, timezoneOffset,	999, tmp);
-                    if (subDocs == null) {
-                    	continue;
-                    }
-                    maindoc.addSubDocuments(subDocs);
-                } catch (final Parser.Failure e) {
-                    AbstractParser.log.warn("tar parser entry " + name + ": " + e.getMessage());
+                    final File memberFile = tmp;
+                    tmp = null; // the member deletes the file when it is parsed
+                    members.parse(() -> {
+                        try {
+                            return TextParser.parseSource(subLocation, mime, null, ignore_class_name, scraper, timezoneOffset, 999, memberFile);
+                        } catch (final Parser.Failure e) {
+                            AbstractParser.log.warn("tar parser entry " + name + ": " + e.getMessage());
+                            return null;
+                        } finally {
+                            FileUtils.deletedelete(memberFile);
+                        }
+                    });
                 } finally {
                     if (tmp != null) FileUtils.deletedelete(tmp);
                 }
@@ -127,6 +135,11 @@ public class tarParser extends AbstractParser implements Parser {
                 break;
             }
         }
+        try {
+            members.finish();
+        } catch (final IOException e) {
+            AbstractParser.log.warn("tar parser:" + e.getMessage());
+        }
         return new Document[]{maindoc};
     }
 
@@ -35,6 +35,7 @@ import java.util.zip.ZipInputStream;
 import net.yacy.cora.document.id.DigestURL;
 import net.yacy.cora.document.id.MultiProtocolURL;
 import net.yacy.document.AbstractParser;
+import net.yacy.document.ArchiveMemberParser;
 import net.yacy.document.Document;
 import net.yacy.document.Parser;
 import net.yacy.document.TextParser;
@@ -103,7 +104,9 @@ public class zipParser extends AbstractParser implements Parser {
                 false,
                 new Date());
 
-        // loop through the elements in the zip file and parse every single file inside
+        // loop through the elements in the zip file and parse every single file inside;
+        // the elements are read one after another and parsed concurrently
+        final ArchiveMemberParser members = new ArchiveMemberParser(maindoc);
         while (true) {
             try {
                 File tmp = null;
@@ -119,11 +122,18 @@ public class zipParser extends AbstractParser implements Parser {
                     FileUtils.copy(zis, tmp, entry.getSize());
                     final DigestURL virtualURL = DigestURL.newURL(location, "#" + name);
                     //this.log.logInfo("ZIP file parser: " + virtualURL.toNormalform(false, false));
-                    final Document[] docs = TextParser.parseSource(virtualURL, mime, null, ignore_class_name, scraper, timezoneOffset, 999, tmp);
-                    if (docs == null) continue;
-                    maindoc.addSubDocuments(docs);
-                } catch (final Parser.Failure e) {
-                    AbstractParser.log.warn("ZIP parser entry " + name + ": " + e.getMessage());
+                    final File memberFile = tmp;
+                    tmp = null; // the member deletes the file when it is parsed
+                    members.parse(() -> {
+                        try {
+                            return TextParser.parseSource(virtualURL, mime, null, ignore_class_name, scraper, timezoneOffset, 999, memberFile);
+                        } catch (final Parser.Failure e) {
+                            AbstractParser.log.warn("ZIP parser entry " + name + ": " + e.getMessage());
+                            return null;
+                        } finally {
+                            FileUtils.deletedelete(memberFile);
+                        }
+                    });
                 } finally {
                     if (tmp != null) FileUtils.deletedelete(tmp);
                 }
@@ -132,6 +142,11 @@ public class zipParser extends AbstractParser implements Parser {
                 break;
             }
         }
+        try {
+            members.finish();
+        } catch (final IOException e) {
+            AbstractParser.log.warn("ZIP parser:" + e.getMessage());
+        }
         return new Document[]{maindoc};
     }
 }
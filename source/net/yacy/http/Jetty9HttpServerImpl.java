@@ -29,10 +29,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.security.KeyStore;
+import java.util.EnumSet;
 import java.util.StringTokenizer;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.servlet.DispatcherType;
 
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpVersion;
@@ -50,12 +52,14 @@ import org.eclipse.jetty.server.handler.DefaultHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.server.handler.InetAccessHandler;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.http.servlets.YaCyAdmissionFilter;
 import net.yacy.http.servlets.YaCyDefaultServlet;
 import net.yacy.search.Switchboard;
 import net.yacy.search.SwitchboardConstants;
@@ -75,10 +79,14 @@ public class Jetty9HttpServerImpl implements YaCyHttpServer {
         Switchboard sb = Switchboard.getSwitchboard();
         
         server = new Server();
+        // timeout in ms when no bytes send / received; until then clients can send further requests on the same connection
+        final int idleTimeout = sb.getConfigInt(SwitchboardConstants.SERVER_IDLE_TIMEOUT, SwitchboardConstants.SERVER_IDLE_TIMEOUT_DEFAULT);
         ServerConnector connector = new ServerConnector(server);
         connector.setPort(port);
         connector.setName("httpd:"+Integer.toString(port));
-        connector.setIdleTimeout(9000); // timout in ms when no bytes send / received
+        connector.setIdleTimeout(idleTimeout);
+        final RequestMetrics metrics = new RequestMetrics(); // latency and throughput of the servlets, measured when a request is complete
+        connector.addBean(metrics);
         server.addConnector(connector);
         
         // add ssl/https connector
@@ -102,7 +110,8 @@ public class Jetty9HttpServerImpl implements YaCyHttpServer {
                         new HttpConnectionFactory(https_config));
                 sslConnector.setPort(sslport);
                 sslConnector.setName("ssld:" + Integer.toString(sslport)); // name must start with ssl (for withSSL() to work correctly)
-                sslConnector.setIdleTimeout(9000); // timout in ms when no bytes send / received
+                sslConnector.setIdleTimeout(idleTimeout);
+                sslConnector.addBean(metrics);
 
                 server.addConnector(sslConnector);
                 ConcurrentLog.info("SERVER", "SSL support initialized successfully on port " + sslport);
@@ -144,6 +153,13 @@ public class Jetty9HttpServerImpl implements YaCyHttpServer {
         sholder.setAsyncSupported(true); // needed for YaCyQoSFilter
         //sholder.setInitParameter("welcomeFile", "index.html"); // default is index.html, welcome.html
         htrootContext.addServlet(sholder, "/*");
+
+        // admission control of the search endpoints, for the request dispatch only (not for server side includes)
+        if (sb.getConfigBool(SwitchboardConstants.SERVER_ADMISSION_ENABLED, SwitchboardConstants.SERVER_ADMISSION_ENABLED_DEFAULT)) {
+            final FilterHolder admission = new FilterHolder(YaCyAdmissionFilter.class);
+            admission.setAsyncSupported(true);
+            htrootContext.addFilter(admission, "/*", EnumSet.of(DispatcherType.REQUEST));
+        }
         
 		final GzipHandler gzipHandler = new GzipHandler();
 		/*
@@ -152,7 +168,13 @@ public class Jetty9HttpServerImpl implements YaCyHttpServer {
 		 * handled by a GZIPRequestWrapper in the YaCyDefaultServlet.
 		 */
 		gzipHandler.setInflateBufferSize(4096);
-		
+		/*
+		 * Search results for yacysearch.json, .rss and .atom are written item by item with a flush before
+		 * each server side include (see YaCyDefaultServlet.parseSSI); without a sync flush the compressed
+		 * output would be held in the deflater until the whole result page is complete.
+		 */
+		gzipHandler.setSyncFlush(true);
+
 		if (!sb.getConfigBool(SwitchboardConstants.SERVER_RESPONSE_COMPRESS_GZIP,
 				SwitchboardConstants.SERVER_RESPONSE_COMPRESS_GZIP_DEFAULT)) {
 			/* Gzip compression of responses can be disabled by user configuration */
@@ -0,0 +1,176 @@
+/**
+ *  RequestMetrics
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.ServletRequest;
+
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+
+import net.yacy.cora.util.LatencyHistogram;
+
+/**
+ * Latency, throughput and in-flight requests of the servlets, per endpoint. The servlets name the endpoint of
+ * a request with {@link #begin(ServletRequest, String)} when they start to handle it: the path of a template or
+ * of a search api, or {@link #STATIC} for files. The request is measured when it is complete, from the time it
+ * was received until the last byte of the response was written, by an instance of this class which is
+ * registered as channel listener at the connectors. Requests without endpoint (i.e. for files which do not exist,
+ * or handled by the proxy) are counted as {@link #OTHER}. All counters are striped and updating them does not
+ * allocate, so the measurement can stay switched on.
+ */
+public class RequestMetrics implements HttpChannel.Listener {
+
+    /** the endpoint of static files */
+    public static final String STATIC = "static";
+
+    /** the endpoint of all requests which were not assigned to an endpoint by a servlet */
+    public static final String OTHER = "other";
+
+    /** the maximum number of endpoints, requests to further endpoints are counted as {@link #OTHER} */
+    private static final int MAX_ENDPOINTS = 1000;
+
+    private static final String ATTRIBUTE = RequestMetrics.class.getName();
+
+    /**
+     * the metrics of one endpoint
+     */
+    public static class Endpoint {
+        private final String name;
+        private final LatencyHistogram latency;
+        private final LongAdder inflight, bytes, errors;
+
+        private Endpoint(final String name) {
+            this.name = name;
+            this.latency = new LatencyHistogram();
+            this.inflight = new LongAdder();
+            this.bytes = new LongAdder();
+            this.errors = new LongAdder();
+        }
+
+        /**
+         * @return the name of the endpoint, i.e. the path of a servlet
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the latencies of the completed requests; the count of the histogram is the number of requests
+         */
+        public LatencyHistogram getLatency() {
+            return this.latency;
+        }
+
+        /**
+         * @return the number of requests which are currently handled
+         */
+        public long getInflight() {
+            return this.inflight.sum();
+        }
+
+        /**
+         * @return the number of bytes sent in all responses
+         */
+        public long getBytes() {
+            return this.bytes.sum();
+        }
+
+        /**
+         * @return the number of responses with a server error status (5xx)
+         */
+        public long getErrors() {
+            return this.errors.sum();
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+    private static final Endpoint other = endpoint(OTHER);
+    private static volatile long started = System.currentTimeMillis();
+
+    private static Endpoint endpoint(final String name) {
+        final Endpoint endpoint = endpoints.get(name);
+        if (endpoint != null) return endpoint;
+        if (endpoints.size() >= MAX_ENDPOINTS) return other;
+        return endpoints.computeIfAbsent(name, Endpoint::new);
+    }
+
+    /**
+     * assign a request to an endpoint; only the first assignment of a request counts, so that forwarded and
+     * included requests are measured with the endpoint which received them
+     * @param request the request
+     * @param name the name of the endpoint, i.e. the path of the servlet
+     */
+    public static void begin(final ServletRequest request, final String name) {
+        if (request.getAttribute(ATTRIBUTE) != null) return;
+        final Endpoint endpoint = endpoint(name);
+        request.setAttribute(ATTRIBUTE, endpoint);
+        endpoint.inflight.increment();
+    }
+
+    /**
+     * @return all endpoints which had requests
+     */
+    public static Collection<Endpoint> endpoints() {
+        final List<Endpoint> list = new ArrayList<Endpoint>(endpoints.values());
+        list.sort((a, b) -> a.name.compareTo(b.name));
+        return list;
+    }
+
+    /**
+     * @return the time in milliseconds since the measurement started or was cleared
+     */
+    public static long getUptime() {
+        return System.currentTimeMillis() - started;
+    }
+
+    /**
+     * forget all measurements and start the uptime again; requests in flight are still counted
+     */
+    public static void clear() {
+        started = System.currentTimeMillis();
+        for (final Endpoint endpoint: endpoints.values()) {
+            endpoint.latency.clear();
+            endpoint.bytes.reset();
+            endpoint.errors.reset();
+        }
+    }
+
+    @Override
+    public void onComplete(final Request request) {
+        final Object a = request.getAttribute(ATTRIBUTE);
+        final Endpoint endpoint;
+        if (a instanceof Endpoint) {
+            endpoint = (Endpoint) a;
+            endpoint.inflight.decrement();
+        } else {
+            endpoint = other;
+        }
+        endpoint.latency.add(System.currentTimeMillis() - request.getTimeStamp());
+        endpoint.bytes.add(request.getHttpChannel().getBytesWritten());
+        if (request.getResponse().getStatus() >= 500) endpoint.errors.increment();
+    }
+
+}
@@ -20,7 +20,6 @@
 package net.yacy.http.servlets;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
@@ -42,6 +41,7 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.DisMaxParams;
+import org.apache.solr.common.params.MultiMapSolrParams;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrRequestInfo;
 import org.apache.solr.response.QueryResponseWriter;
@@ -57,6 +57,7 @@ import net.yacy.cora.protocol.HeaderFramework;
 import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.data.UserDB;
+import net.yacy.http.RequestMetrics;
 import net.yacy.search.Switchboard;
 import net.yacy.search.query.AccessTracker;
 import net.yacy.search.query.QueryGoal;
@@ -92,9 +93,10 @@ public class GSAsearchServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
+        RequestMetrics.begin(request, request.getServletPath());
         response.setContentType(QueryResponseWriter.CONTENT_TYPE_XML_UTF8);
         response.setStatus(HttpServletResponse.SC_OK);
-        respond(request, Switchboard.getSwitchboard(), response.getOutputStream());
+        respond(request, Switchboard.getSwitchboard(), response);
     }
     
     // ------------------------------------------
@@ -103,7 +105,7 @@ public class GSAsearchServlet extends HttpServlet {
      * with modification to use HttpServletRequest instead of (yacy) RequestHeader
      */
     
-    private void respond(final HttpServletRequest header, final Switchboard sb, final OutputStream out) {
+    private void respond(final HttpServletRequest header, final Switchboard sb, final HttpServletResponse hresponse) throws IOException {
 
         // remember the peer contact for peer statistics
         String clientip = RequestHeader.client(header);
@@ -220,9 +222,33 @@ public class GSAsearchServlet extends HttpServlet {
         // get the embedded connector
         EmbeddedSolrConnector connector = sb.index.fulltext().getDefaultEmbeddedConnector();
         if (connector == null) return;
+        final MultiMapSolrParams params = post.toSolrParams(null);
+
+        // answer a repeated query from the response cache as long as the index is unchanged
+        final ResponseCache cache = sb.responseCache;
+        String cacheKey = null;
+        long indexVersion = 0;
+        if (cache != null && cache.isEnabled()) {
+            indexVersion = connector.getIndexVersion();
+            cacheKey = ResponseCache.key("/gsa/search|", params.getMap());
+            final String etag = ResponseCache.etag(cacheKey, indexVersion);
+            hresponse.setHeader(HeaderFramework.ETAG, etag);
+            hresponse.setHeader(HeaderFramework.CACHE_CONTROL, "no-cache");
+            if (RequestHeader.notModified(header.getHeader(RequestHeader.IF_NONE_MATCH), etag)) {
+                hresponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            final ResponseCache.Response cached = cache.get(cacheKey, indexVersion);
+            if (cached != null) {
+                AccessTracker.addToDump(originalQuery, (int) cached.getMatches());
+                hresponse.setContentLength(cached.length());
+                cached.writeTo(hresponse.getOutputStream());
+                return;
+            }
+        }
 
         // do the solr request
-        SolrQueryRequest req = connector.request(post.toSolrParams(null));
+        SolrQueryRequest req = connector.request(params);
         SolrQueryResponse response = null;
         Exception e = null;
         try {response = connector.query(req);} catch (final SolrException ee) {e = ee;}
@@ -245,11 +271,14 @@ public class GSAsearchServlet extends HttpServlet {
         context.put("entqr", entqr == null ? "3" : entqr[0]);
         */
         
-        // write the result directly to the output stream
-        Writer ow = new FastWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // write the result directly to the output stream, keep a copy for the response cache
+        final ResponseCache.Recorder recorder = cacheKey == null ? null : cache.record(hresponse.getOutputStream());
+        Writer ow = new FastWriter(new OutputStreamWriter(recorder == null ? hresponse.getOutputStream() : recorder, StandardCharsets.UTF_8));
+        boolean complete = false;
         try {
             responseWriter.write(ow, req, response);
             ow.flush();
+            complete = true;
         } catch (final IOException e1) {
         } finally {
             req.close();
@@ -264,7 +293,9 @@ public class GSAsearchServlet extends HttpServlet {
             matches = ((ResultContext) rv).getDocList().matches();
         } else if (rv != null && rv instanceof SolrDocumentList) {
             matches = (int) ((SolrDocumentList) rv).getNumFound();
+            complete = false; // a partial response is not cached
         }
+        if (complete && recorder != null) recorder.store(cacheKey, indexVersion, QueryResponseWriter.CONTENT_TYPE_XML_UTF8, matches);
         AccessTracker.addToDump(originalQuery, matches);
         ConcurrentLog.info("GSA Query", "results: " + matches + ", for query:" + post.toString());
     }
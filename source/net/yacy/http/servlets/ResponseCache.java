@@ -0,0 +1,204 @@
+/**
+ *  ResponseCache.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.http.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import net.yacy.cora.order.Digest;
+import net.yacy.cora.storage.ByteSizeLimitedCache;
+
+/**
+ * A cache of serialized responses of the search API servlets, so that a query which is repeated while the
+ * index is unchanged is answered without a search and without serializing the result again. The key is made
+ * of the canonical request parameters and everything else the response depends on (i.e. the response writer
+ * and the core), an entry is only used for the same version of the index it was created from. The bytes of the
+ * responses are held outside of the java heap in direct buffers; the cache is bounded by their size and forgets
+ * the least recently used entries first. The same key and index version also give a stable ETag, so a client
+ * which sends it back with If-None-Match gets a 304 answer without any work.
+ */
+public class ResponseCache extends ByteSizeLimitedCache<String, ResponseCache.Response> {
+
+    /**
+     * a cached response
+     */
+    public static class Response {
+        private final long version;
+        private final String contentType;
+        private final long matches;
+        private final ByteBuffer body;
+
+        private Response(final long version, final String contentType, final long matches, final ByteBuffer body) {
+            this.version = version;
+            this.contentType = contentType;
+            this.matches = matches;
+            this.body = body;
+        }
+
+        /**
+         * @return the content type of the response, may be null
+         */
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        /**
+         * @return the number of matching documents of the query of the response
+         */
+        public long getMatches() {
+            return this.matches;
+        }
+
+        /**
+         * @return the length of the response body in bytes
+         */
+        public int length() {
+            return this.body.capacity();
+        }
+
+        /**
+         * write the response body
+         * @param out the stream to write to
+         * @throws IOException when writing failed
+         */
+        public void writeTo(final OutputStream out) throws IOException {
+            final ByteBuffer b = this.body.duplicate();
+            final byte[] buffer = new byte[Math.min(8192, b.remaining() + 1)];
+            while (b.hasRemaining()) {
+                final int n = Math.min(buffer.length, b.remaining());
+                b.get(buffer, 0, n);
+                out.write(buffer, 0, n);
+            }
+        }
+    }
+
+    /**
+     * An output stream which passes everything to the client and keeps a copy of it for the cache, as long as
+     * the copy does not exceed the maximum size of an entry.
+     */
+    public class Recorder extends FilterOutputStream {
+
+        private ByteArrayOutputStream copy;
+
+        private Recorder(final OutputStream out) {
+            super(out);
+            this.copy = new ByteArrayOutputStream(4096);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.out.write(b);
+            if (this.copy != null) {
+                if (this.copy.size() >= getMaxEntrySize()) this.copy = null; else this.copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            this.out.write(b, off, len);
+            if (this.copy != null) {
+                if (this.copy.size() + len > getMaxEntrySize()) this.copy = null; else this.copy.write(b, off, len);
+            }
+        }
+
+        /**
+         * store the recorded response in the cache; this must only be called after the response was written completely
+         * @param key the key of the request, see {@link ResponseCache#key(String, Map)}
+         * @param version the version of the index the response was created from
+         * @param contentType the content type of the response
+         * @param matches the number of matching documents of the query
+         */
+        public void store(final String key, final long version, final String contentType, final long matches) {
+            if (this.copy == null) return;
+            put(key, version, contentType, matches, this.copy.toByteArray());
+            this.copy = null;
+        }
+    }
+
+    /**
+     * @param maxSize the maximum size of all cached responses in bytes; 0 disables the cache
+     */
+    public ResponseCache(final long maxSize) {
+        super(maxSize, response -> response.length());
+    }
+
+    /**
+     * compute the key of a request from its effective parameters, independent of their order in the request
+     * @param prefix everything else the response depends on, i.e. the name of the response writer and the core
+     * @param params the request parameters
+     * @return the key
+     */
+    public static String key(final String prefix, final Map<String, String[]> params) {
+        final String[] names = params.keySet().toArray(new String[params.size()]);
+        Arrays.sort(names);
+        final StringBuilder key = new StringBuilder(prefix.length() + 32 * names.length).append(prefix);
+        for (final String name: names) {
+            final String[] values = params.get(name);
+            if (values == null) continue;
+            for (final String value: values) {
+                key.append('&').append(escape(name)).append('=').append(escape(value));
+            }
+        }
+        return key.toString();
+    }
+
+    private static String escape(final String s) {
+        return s == null ? "" : s.replace("%", "%25").replace("&", "%26").replace("=", "%3D");
+    }
+
+    /**
+     * @param key the key of a request
+     * @param version the version of the index
+     * @return a weak entity tag for the response to the request at this index version
+     */
+    public static String etag(final String key, final long version) {
+        return "W/\"" + Long.toHexString(version) + '-' + Digest.encodeMD5Hex(key) + '"';
+    }
+
+    /**
+     * @param key the key of a request
+     * @param version the current version of the index
+     * @return the cached response or null if there is none for this version of the index
+     */
+    public Response get(final String key, final long version) {
+        return get(key, response -> response.version == version);
+    }
+
+    /**
+     * @param out the output stream of a response
+     * @return a stream which writes to out and records the response for {@link Recorder#store(String, long, String, long)}
+     */
+    public Recorder record(final OutputStream out) {
+        return new Recorder(out);
+    }
+
+    private void put(final String key, final long version, final String contentType, final long matches, final byte[] body) {
+        if (!isEnabled() || body.length > getMaxEntrySize()) return;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+        buffer.put(body).flip();
+        put(key, new Response(version, contentType, matches, buffer.asReadOnlyBuffer()));
+    }
+
+}
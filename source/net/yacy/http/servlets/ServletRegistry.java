@@ -0,0 +1,162 @@
+/**
+ *  ServletRegistry
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.yacy.cora.protocol.RequestHeader;
+import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.server.serverClassLoader;
+import net.yacy.server.serverObjects;
+import net.yacy.server.serverSwitch;
+
+/**
+ * Registry of the servlet classes in htroot, which answer a template with their static
+ * <code>respond(RequestHeader, serverObjects, serverSwitch)</code> method. All classes are loaded when the
+ * registry is created and their respond method is bound to a method handle, keyed by the path of the class
+ * relative to htroot without extension, i.e. "/yacy/search" for the templates /yacy/search.html and
+ * /yacy/search.json. A request finds its servlet with one map lookup and calls it without reflection.
+ * With reload switched on (for development) a new or changed class file is loaded again with each request.
+ */
+public class ServletRegistry {
+
+    private static final MethodType RESPOND = MethodType.methodType(Object.class, RequestHeader.class, serverObjects.class, serverSwitch.class);
+
+    private final File htroot;
+    private final boolean reload;
+    private final ConcurrentHashMap<String, Servlet> servlets;
+    private serverClassLoader provider;
+
+    /**
+     * @param htroot the directory of the servlet classes and templates
+     * @param reload true to look for new or changed class files with each request
+     */
+    public ServletRegistry(final File htroot, final boolean reload) {
+        this.htroot = htroot;
+        this.reload = reload;
+        this.servlets = new ConcurrentHashMap<String, Servlet>();
+        this.provider = new serverClassLoader();
+        final long start = System.currentTimeMillis();
+        scan(htroot, "");
+        ConcurrentLog.info("FILEHANDLER", "ServletRegistry: bound " + this.servlets.size() + " servlets in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void scan(final File dir, final String path) {
+        final File[] files = dir.listFiles();
+        if (files == null) return;
+        for (final File f: files) {
+            final String name = f.getName();
+            if (f.isDirectory()) {
+                scan(f, path + '/' + name);
+            } else if (name.endsWith(".class") && name.indexOf('$') < 0) {
+                final Servlet servlet = load(f, this.provider);
+                if (servlet != null) this.servlets.put(path + '/' + name.substring(0, name.length() - 6), servlet);
+            }
+        }
+    }
+
+    /**
+     * @param classFile a class file
+     * @param loader the loader of the class
+     * @return the servlet of the class file or null if it is not a servlet class
+     */
+    private static Servlet load(final File classFile, final serverClassLoader loader) {
+        final long lastModified = classFile.lastModified();
+        try {
+            final Class<?> c = loader.loadClass(classFile);
+            final Method m = c.getMethod("respond", RequestHeader.class, serverObjects.class, serverSwitch.class);
+            return new Servlet(MethodHandles.publicLookup().unreflect(m).asType(RESPOND), lastModified);
+        } catch (final NoSuchMethodException e) {
+            return null; // a helper class, not a servlet
+        } catch (final ClassNotFoundException | IllegalAccessException | LinkageError e) {
+            ConcurrentLog.warn("FILEHANDLER", "ServletRegistry: could not load servlet class " + classFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param target the path of a template relative to htroot, i.e. "/yacysearch.html"
+     * @return the respond method of the servlet of the template or null if the template has no servlet
+     */
+    public MethodHandle get(final String target) {
+        final int p = target.lastIndexOf('.');
+        final String key = p > target.lastIndexOf('/') ? target.substring(0, p) : target;
+        Servlet servlet = this.servlets.get(key);
+        if (this.reload) servlet = reload(key, servlet);
+        return servlet == null ? null : servlet.respond;
+    }
+
+    private Servlet reload(final String key, final Servlet servlet) {
+        final File classFile = new File(this.htroot, key + ".class");
+        if (!classFile.exists()) {
+            if (servlet != null) this.servlets.remove(key);
+            return null;
+        }
+        if (servlet != null && servlet.lastModified == classFile.lastModified()) return servlet;
+        // a class cannot be defined twice by the same loader
+        synchronized (this) {
+            this.provider = new serverClassLoader();
+            final Servlet loaded = load(classFile, this.provider);
+            if (loaded == null) this.servlets.remove(key); else this.servlets.put(key, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * call the respond method of a servlet
+     * @param respond the respond method from {@link #get(String)}
+     * @param header the request header
+     * @param post the request arguments or null
+     * @param env the server switch
+     * @return the result of the servlet
+     * @throws InvocationTargetException wrapping anything thrown by the servlet
+     */
+    public static Object invoke(final MethodHandle respond, final RequestHeader header, final serverObjects post, final serverSwitch env) throws InvocationTargetException {
+        try {
+            return (Object) respond.invokeExact(header, post, env);
+        } catch (final Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * @return the number of servlets
+     */
+    public int size() {
+        return this.servlets.size();
+    }
+
+    private static final class Servlet {
+
+        private final MethodHandle respond;
+        private final long lastModified;
+
+        private Servlet(final MethodHandle respond, final long lastModified) {
+            this.respond = respond;
+            this.lastModified = lastModified;
+        }
+    }
+
+}
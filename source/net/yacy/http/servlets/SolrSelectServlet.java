@@ -21,6 +21,7 @@
 package net.yacy.http.servlets;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -49,9 +50,11 @@ import net.yacy.cora.federate.solr.responsewriter.OpensearchResponseWriter;
 import net.yacy.cora.federate.solr.responsewriter.SnapshotImagesReponseWriter;
 import net.yacy.cora.federate.solr.responsewriter.SolrjResponseWriter;
 import net.yacy.cora.federate.solr.responsewriter.YJsonResponseWriter;
+import net.yacy.cora.protocol.HeaderFramework;
 import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.data.UserDB;
+import net.yacy.http.RequestMetrics;
 import net.yacy.search.Switchboard;
 import net.yacy.search.SwitchboardConstants;
 import net.yacy.search.query.AccessTracker;
@@ -125,6 +128,7 @@ public class SolrSelectServlet extends HttpServlet {
 
         HttpServletRequest hrequest = (HttpServletRequest) request;
         HttpServletResponse hresponse = (HttpServletResponse) response;
+        RequestMetrics.begin(hrequest, hrequest.getServletPath());
         SolrQueryRequest req = null;
 
         final Method reqMethod = Method.getMethod(hrequest.getMethod());
@@ -258,6 +262,31 @@ public class SolrSelectServlet extends HttpServlet {
                 mmsp.getMap().put(CommonParams.DF, new String[]{CollectionSchema.text_t.getSolrFieldName()});
             }
 
+            // answer a repeated query from the response cache as long as the index is unchanged
+            final ResponseCache cache = sb.responseCache;
+            String cacheKey = null;
+            long indexVersion = 0;
+            if (cache != null && cache.isEnabled() && connector instanceof EmbeddedSolrConnector) {
+                indexVersion = ((EmbeddedSolrConnector) connector).getIndexVersion();
+                cacheKey = ResponseCache.key(requestURI + '|' + (defaultConnector ? CollectionSchema.CORE_NAME : WebgraphSchema.CORE_NAME) + '|', mmsp.getMap());
+                final String etag = ResponseCache.etag(cacheKey, indexVersion);
+                hresponse.setHeader(HeaderFramework.ETAG, etag);
+                hresponse.setHeader("Cache-Control", "no-cache");
+                if (RequestHeader.notModified(hrequest.getHeader(RequestHeader.IF_NONE_MATCH), etag)) {
+                    hresponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+                final ResponseCache.Response cached = cache.get(cacheKey, indexVersion);
+                if (cached != null) {
+                    AccessTracker.addToDump(querystring, cached.getMatches(), new Date(), "sq");
+                    if (cached.getContentType() != null) response.setContentType(cached.getContentType());
+                    if (Method.HEAD == reqMethod) return;
+                    response.setContentLength(cached.length());
+                    cached.writeTo(response.getOutputStream());
+                    return;
+                }
+            }
+
             // do the solr request, generate facets if we use a special YaCy format
             final SolrQueryResponse rsp;
             if (connector instanceof EmbeddedSolrConnector) {
@@ -269,7 +298,7 @@ public class SolrSelectServlet extends HttpServlet {
                 rsp = ((EmbeddedSolrConnector) connector).query(req);
 
                 // prepare response
-                hresponse.setHeader("Cache-Control", "no-cache, no-store");
+                if (cacheKey == null) hresponse.setHeader("Cache-Control", "no-cache, no-store");
                 HttpCacheHeaderUtil.checkHttpCachingVeto(rsp, hresponse, reqMethod);
 
                 // check error
@@ -281,9 +310,11 @@ public class SolrSelectServlet extends HttpServlet {
                 
 
                 final Object responseObj = rsp.getResponse();
+                long matches = 0;
                 if(responseObj instanceof ResultContext) {
                 	/* Regular response object */
                 	final DocList r = ((ResultContext) responseObj).getDocList();
+                	matches = r.matches();
                     AccessTracker.addToDump(querystring, r.matches(), new Date(), "sq");
                 } else if(responseObj instanceof SolrDocumentList){
 					/*
@@ -291,7 +322,9 @@ public class SolrSelectServlet extends HttpServlet {
 					 * for example when the allowed processing time has been exceeded
 					 */
                 	final SolrDocumentList r = (SolrDocumentList) responseObj;
+                	matches = r.getNumFound();
                     AccessTracker.addToDump(querystring, r.getNumFound(), new Date(), "sq");
+                	cacheKey = null; // a partial response is not cached
                 }
                 
                 // write response header
@@ -302,14 +335,18 @@ public class SolrSelectServlet extends HttpServlet {
                     return;
                 }
 
-                // write response body
+                // write response body, keep a copy for the response cache
+                final ResponseCache.Recorder recorder = cacheKey == null ? null : cache.record(response.getOutputStream());
+                final OutputStream os = recorder == null ? response.getOutputStream() : recorder;
                 if (responseWriter instanceof BinaryResponseWriter) {
-                    ((BinaryResponseWriter) responseWriter).write(response.getOutputStream(), req, rsp);
+                    ((BinaryResponseWriter) responseWriter).write(os, req, rsp);
+                    os.flush();
                 } else {
-                    out = new FastWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+                    out = new FastWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
                     responseWriter.write(out, req, rsp);
                     out.flush();
                 }
+                if (recorder != null) recorder.store(cacheKey, indexVersion, contentType, matches);
             } else {
 				if (responseWriter instanceof EmbeddedSolrResponseWriter || responseWriter instanceof CSVResponseWriter
 						|| responseWriter instanceof XSLTResponseWriter || responseWriter instanceof RawResponseWriter) {
@@ -368,7 +405,7 @@ public class SolrSelectServlet extends HttpServlet {
                 
                 // write response body
                 if (responseWriter instanceof SolrjResponseWriter) {
-					out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+					out = new FastWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
 					((SolrjResponseWriter) responseWriter).write(out, req,
 							defaultConnector ? CollectionSchema.CORE_NAME : WebgraphSchema.CORE_NAME, queryRsp);
                 } else if(responseWriter instanceof BinaryResponseWriter) {
@@ -0,0 +1,257 @@
+/**
+ *  StaticResources.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.http.servlets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import net.yacy.cora.order.Digest;
+import net.yacy.cora.util.ConcurrentLog;
+
+/**
+ * The static files of htroot and htdocs (scripts, style sheets, images) as buffers, together with pre-compressed
+ * variants for compressible content types. A gzip variant is created once when a file is requested for the first
+ * time (or again after it has changed) and stored in a directory of the peer, a gzip or brotli variant which was
+ * placed next to the file (i.e. by the build) is used as it is. The buffers can be passed to the connector without
+ * copying them and without compressing them for each request again, and each variant has a strong entity tag
+ * derived from the modification time and length of the file. Small files are read into the heap, only larger
+ * files are memory mapped: a mapped file stays locked on Windows until its buffer is garbage collected, so it
+ * could not be changed or deleted, i.e. in the htdocs of the user.
+ */
+public class StaticResources {
+
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+
+    /** files larger than this are not held here, they are sent the usual way */
+    private static final long MAX_FILE_SIZE = 4L * 1024L * 1024L;
+
+    /** files up to this size are read into the heap instead of being mapped */
+    private static final long MAX_HEAP_SIZE = 256L * 1024L;
+
+    /** the number of files above which all buffers are dropped */
+    private static final int MAX_ENTRIES = 10000;
+
+    /**
+     * a static file and its variants
+     */
+    public static class Entry {
+        private final long lastModified;
+        private final boolean compress;
+        private final String etag;
+        private final ByteBuffer identity, gzip, brotli;
+
+        private Entry(final long lastModified, final long length, final boolean compress, final ByteBuffer identity, final ByteBuffer gzip, final ByteBuffer brotli) {
+            this.lastModified = lastModified;
+            this.compress = compress;
+            this.etag = Long.toHexString(lastModified) + '-' + Long.toHexString(length);
+            this.identity = identity;
+            this.gzip = gzip;
+            this.brotli = brotli;
+        }
+
+        /**
+         * @return true if the entry has a compressed variant, so that the response depends on the Accept-Encoding of the request
+         */
+        public boolean isCompressed() {
+            return this.gzip != null || this.brotli != null;
+        }
+
+        /**
+         * @param acceptEncoding the Accept-Encoding request header, may be null
+         * @return the best content encoding accepted by the client: {@link StaticResources#BROTLI}, {@link StaticResources#GZIP} or null for the plain file
+         */
+        public String encoding(final String acceptEncoding) {
+            if (acceptEncoding == null || !isCompressed()) return null;
+            boolean br = false, gz = false;
+            for (final String token: acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+                final int p = token.indexOf(';');
+                final String name = (p < 0 ? token : token.substring(0, p)).trim();
+                if (p >= 0 && token.substring(p + 1).replace(" ", "").matches("q=0(\\.0*)?")) continue; // not acceptable
+                if (name.equals(BROTLI)) br = true;
+                else if (name.equals(GZIP)) gz = true;
+            }
+            if (br && this.brotli != null) return BROTLI;
+            if (gz && this.gzip != null) return GZIP;
+            return null;
+        }
+
+        /**
+         * @param encoding the content encoding from {@link #encoding(String)}
+         * @return a strong entity tag of the variant
+         */
+        public String etag(final String encoding) {
+            return '"' + this.etag + (encoding == null ? "" : "-" + encoding) + '"';
+        }
+
+        /**
+         * @param encoding the content encoding from {@link #encoding(String)}
+         * @return the content of the variant as a new read-only buffer
+         */
+        public ByteBuffer content(final String encoding) {
+            final ByteBuffer b = BROTLI.equals(encoding) ? this.brotli : GZIP.equals(encoding) ? this.gzip : this.identity;
+            return b.duplicate();
+        }
+    }
+
+    private final File compressedPath;
+    private final ConcurrentHashMap<File, Entry> entries;
+
+    /**
+     * @param compressedPath the directory for the generated gzip variants
+     */
+    public StaticResources(final File compressedPath) {
+        this.compressedPath = compressedPath;
+        this.entries = new ConcurrentHashMap<File, Entry>();
+    }
+
+    /**
+     * @param mime a content type
+     * @return true if content of the type becomes smaller when it is compressed
+     */
+    public static boolean isCompressible(final String mime) {
+        if (mime == null) return false;
+        final String m = mime.toLowerCase(Locale.ROOT);
+        return m.startsWith("text/") || m.startsWith("application/javascript") || m.startsWith("application/x-javascript")
+                || m.startsWith("application/json") || m.startsWith("application/xml") || m.startsWith("image/svg+xml")
+                || m.startsWith("image/x-icon") || m.startsWith("image/vnd.microsoft.icon") || m.startsWith("font/ttf") || m.startsWith("application/x-font-ttf");
+    }
+
+    /**
+     * @param file a static file
+     * @param compress true if compressed variants shall be created and used
+     * @return the entry of the file or null if the file is not served from here (because it is too large or cannot be read)
+     */
+    public Entry get(final File file, final boolean compress) {
+        final long lastModified = file.lastModified();
+        Entry entry = this.entries.get(file);
+        if (entry != null) {
+            if (entry.lastModified == lastModified && entry.compress == compress) return entry;
+            this.entries.remove(file, entry); // release the buffers of the changed file
+        }
+        final long length = file.length();
+        if (lastModified == 0 || length > MAX_FILE_SIZE || !file.isFile()) return null;
+        try {
+            final ByteBuffer identity = load(file);
+            ByteBuffer gzip = null, brotli = null;
+            if (compress) {
+                brotli = variant(new File(file.getPath() + ".br"), lastModified);
+                gzip = variant(new File(file.getPath() + ".gz"), lastModified);
+                if (gzip == null) gzip = variant(gzip(file, lastModified), lastModified);
+                // a compressed variant which is not smaller is not used
+                if (brotli != null && brotli.remaining() >= length) brotli = null;
+                if (gzip != null && gzip.remaining() >= length) gzip = null;
+            }
+            entry = new Entry(lastModified, length, compress, identity, gzip, brotli);
+        } catch (final IOException e) {
+            ConcurrentLog.warn("FILEHANDLER", "StaticResources: cannot read " + file + ": " + e.getMessage());
+            return null;
+        }
+        if (this.entries.size() >= MAX_ENTRIES) this.entries.clear();
+        this.entries.put(file, entry);
+        return entry;
+    }
+
+    /**
+     * @return the content of the file, read into the heap or memory mapped if it is larger than {@link #MAX_HEAP_SIZE}
+     */
+    private static ByteBuffer load(final File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r"); final FileChannel channel = raf.getChannel()) {
+            final long size = channel.size();
+            if (size > MAX_HEAP_SIZE) return channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+            final ByteBuffer b = ByteBuffer.allocate((int) size);
+            while (b.hasRemaining()) {
+                if (channel.read(b) < 0) break; // the file became shorter
+            }
+            b.flip();
+            return b.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * @param variant a pre-compressed variant of a file
+     * @param lastModified the modification time of the file
+     * @return the content of the variant or null if it does not exist or is older than the file
+     */
+    private static ByteBuffer variant(final File variant, final long lastModified) throws IOException {
+        if (variant == null || !variant.isFile() || variant.lastModified() < lastModified) return null;
+        return load(variant);
+    }
+
+    /**
+     * create the gzip variant of a file in the directory of compressed files. The name of the variant contains
+     * the modification time of the file, so that a variant is never written again while it may still be mapped;
+     * the variants of earlier versions of the file are deleted.
+     * @return the gzip variant or null if it could not be written
+     */
+    private File gzip(final File file, final long lastModified) {
+        final String prefix = Digest.encodeMD5Hex(file.getAbsolutePath()) + "-";
+        final File gz = new File(this.compressedPath, prefix + Long.toHexString(lastModified) + ".gz");
+        if (gz.isFile()) return gz;
+        final File tmp = new File(this.compressedPath, gz.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            this.compressedPath.mkdirs();
+            final File[] earlier = this.compressedPath.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".gz"));
+            if (earlier != null) for (final File f: earlier) f.delete();
+            try (final InputStream in = new FileInputStream(file); final OutputStream out = new BestGZIPOutputStream(new FileOutputStream(tmp))) {
+                final byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+            }
+            tmp.setLastModified(lastModified);
+            if (!tmp.renameTo(gz)) return null;
+            return gz;
+        } catch (final IOException e) {
+            ConcurrentLog.warn("FILEHANDLER", "StaticResources: cannot compress " + file + ": " + e.getMessage());
+            return null;
+        } finally {
+            if (tmp.exists()) tmp.delete();
+        }
+    }
+
+    /**
+     * gzip with the best compression, which is affordable because each file is compressed only once
+     */
+    private static class BestGZIPOutputStream extends GZIPOutputStream {
+        private BestGZIPOutputStream(final OutputStream out) throws IOException {
+            super(out, 8192);
+            this.def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    /**
+     * drop the buffers of all files
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ *  YaCyAdmissionFilter
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import net.yacy.cora.protocol.Domains;
+import net.yacy.cora.util.CommonPattern;
+import net.yacy.cora.util.ConcurrencyLimit;
+import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.cora.util.TokenBuckets;
+import net.yacy.search.Switchboard;
+import net.yacy.search.SwitchboardConstants;
+
+/**
+ * Admission control for the search endpoints, so that an overload is answered early and
+ * cheaply instead of letting all requests wait in the thread pool. Each endpoint has a rate limit for every
+ * client and one for all clients (answered with 429 Too Many Requests) and an adaptive limit of concurrent
+ * requests (answered with 503 Service Unavailable), both with a Retry-After header. Requests from localhost
+ * are always admitted. The filter is installed by the server for the request dispatch only, so that
+ * server side includes of an admitted page are not counted again. The peer protocol (the remote search
+ * /yacy/search and the index transfer /yacy/transferRWI) is not filtered by default: other peers take a
+ * rejection for a departure of this peer and remove it from their seed lists.
+ */
+public class YaCyAdmissionFilter implements Filter {
+
+    private static final ConcurrentLog log = new ConcurrentLog("ADMISSION");
+
+    /** the number of client buckets of an endpoint above which idle clients are forgotten */
+    private static final int MAX_CLIENTS = 10000;
+
+    /** the Retry-After seconds of a request rejected by the concurrency limit */
+    private static final int OVERLOAD_RETRY = 1;
+
+    private Map<String, Endpoint> endpoints = new HashMap<String, Endpoint>();
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        final Switchboard sb = Switchboard.getSwitchboard();
+        if (sb == null) return;
+        final float clientRate = sb.getConfigFloat(SwitchboardConstants.SERVER_ADMISSION_CLIENT_RATE, SwitchboardConstants.SERVER_ADMISSION_CLIENT_RATE_DEFAULT);
+        final int clientBurst = sb.getConfigInt(SwitchboardConstants.SERVER_ADMISSION_CLIENT_BURST, SwitchboardConstants.SERVER_ADMISSION_CLIENT_BURST_DEFAULT);
+        final float endpointRate = sb.getConfigFloat(SwitchboardConstants.SERVER_ADMISSION_ENDPOINT_RATE, SwitchboardConstants.SERVER_ADMISSION_ENDPOINT_RATE_DEFAULT);
+        final int endpointBurst = sb.getConfigInt(SwitchboardConstants.SERVER_ADMISSION_ENDPOINT_BURST, SwitchboardConstants.SERVER_ADMISSION_ENDPOINT_BURST_DEFAULT);
+        final int minConcurrency = sb.getConfigInt(SwitchboardConstants.SERVER_ADMISSION_CONCURRENCY_MIN, SwitchboardConstants.SERVER_ADMISSION_CONCURRENCY_MIN_DEFAULT);
+        final int maxConcurrency = sb.getConfigInt(SwitchboardConstants.SERVER_ADMISSION_CONCURRENCY_MAX, SwitchboardConstants.SERVER_ADMISSION_CONCURRENCY_MAX_DEFAULT);
+        final Map<String, Endpoint> map = new HashMap<String, Endpoint>();
+        for (final String path: CommonPattern.COMMA.split(sb.getConfig(SwitchboardConstants.SERVER_ADMISSION_PATHS, SwitchboardConstants.SERVER_ADMISSION_PATHS_DEFAULT))) {
+            if (path.trim().isEmpty()) continue;
+            map.put(path.trim(), new Endpoint(new TokenBuckets(clientRate, clientBurst, MAX_CLIENTS), new TokenBuckets(endpointRate, endpointBurst, 1),
+                    new ConcurrencyLimit(minConcurrency, maxConcurrency, (minConcurrency + maxConcurrency) / 2)));
+        }
+        this.endpoints = map;
+        log.info("admission control for " + map.size() + " endpoints, " + clientRate + " requests/s per client, " + endpointRate + " requests/s per endpoint");
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final String path = endpointPath(((HttpServletRequest) request).getRequestURI());
+        final Endpoint endpoint = path == null ? null : this.endpoints.get(path);
+        final String client = request.getRemoteAddr();
+        if (endpoint == null || client == null || Domains.isLocalhost(client)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!endpoint.clients.take(client)) {
+            reject((HttpServletResponse) response, 429, "Too Many Requests", endpoint.clients.waitTime(client), endpoint.rejectedRate);
+            return;
+        }
+        if (!endpoint.total.take("")) {
+            reject((HttpServletResponse) response, 429, "Too Many Requests", endpoint.total.waitTime(""), endpoint.rejectedRate);
+            return;
+        }
+        if (!endpoint.concurrency.acquire()) {
+            reject((HttpServletResponse) response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server Overloaded", OVERLOAD_RETRY * 1000L, endpoint.rejectedOverload);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            endpoint.concurrency.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * the path of a request as it is configured for an endpoint: the request path without the extension of its
+     * last segment, so that /yacysearch.html and /yacysearch.rss are both /yacysearch but /yacysearchitem.html is not
+     * @param uri the path of the request
+     * @return the path without extension or null if there is no path
+     */
+    static String endpointPath(final String uri) {
+        if (uri == null) return null;
+        final int dot = uri.lastIndexOf('.');
+        return dot > uri.lastIndexOf('/') ? uri.substring(0, dot) : uri;
+    }
+
+    private void reject(final HttpServletResponse response, final int status, final String message, final long wait, final AtomicLong counter) throws IOException {
+        final long count = counter.incrementAndGet();
+        if (log.isFine()) log.fine("rejected request with status " + status + ", " + count + " rejections");
+        response.setHeader("Retry-After", Long.toString(Math.max(1, (wait + 999) / 1000)));
+        response.sendError(status, message);
+    }
+
+    @Override
+    public void destroy() {
+        this.endpoints = new HashMap<String, Endpoint>();
+    }
+
+    private static final class Endpoint {
+
+        private final TokenBuckets clients, total;
+        private final ConcurrencyLimit concurrency;
+        private final AtomicLong rejectedRate, rejectedOverload;
+
+        private Endpoint(final TokenBuckets clients, final TokenBuckets total, final ConcurrencyLimit concurrency) {
+            this.clients = clients;
+            this.total = total;
+            this.concurrency = concurrency;
+            this.rejectedRate = new AtomicLong(0);
+            this.rejectedOverload = new AtomicLong(0);
+        }
+    }
+
+}
@@ -29,10 +29,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ref.SoftReference;
-import java.lang.reflect.Array;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap;
@@ -42,7 +40,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.servlet.RequestDispatcher;
@@ -62,6 +59,7 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.io.WriterOutputStream;
+import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.server.InclusiveByteRange;
 import org.eclipse.jetty.util.MultiPartOutputStream;
 import org.eclipse.jetty.util.URIUtil;
@@ -81,6 +79,7 @@ import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.data.BadTransactionException;
 import net.yacy.data.InvalidURLLicenceException;
 import net.yacy.data.TransactionManager;
+import net.yacy.http.RequestMetrics;
 import net.yacy.kelondro.util.FileUtils;
 import net.yacy.kelondro.util.MemoryControl;
 import net.yacy.peers.Seed;
@@ -88,7 +87,6 @@ import net.yacy.peers.graphics.EncodedImage;
 import net.yacy.peers.operation.yacyBuildProperties;
 import net.yacy.search.Switchboard;
 import net.yacy.search.SwitchboardConstants;
-import net.yacy.server.serverClassLoader;
 import net.yacy.server.serverObjects;
 import net.yacy.server.serverSwitch;
 import net.yacy.server.servletProperties;
@@ -135,8 +133,9 @@ public class YaCyDefaultServlet extends HttpServlet  {
     
     protected File _htLocalePath;
     protected File _htDocsPath;    
-    protected static final serverClassLoader provider = new serverClassLoader(/*this.getClass().getClassLoader()*/);
-    protected ConcurrentHashMap<File, SoftReference<Method>> templateMethodCache = null;
+    protected ServletRegistry servlets = null;
+    protected StaticResources staticResources = null;
+    protected boolean _compressStatic = true;
     // settings for multipart/form-data
     protected static final File TMPDIR = new File(System.getProperty("java.io.tmpdir"));
     protected static final int SIZE_FILE_THRESHOLD = 1024 * 1024 * 1024; // 1GB is a lot but appropriate for multi-document pushed using the push_p.json servlet
@@ -177,7 +176,14 @@ public class YaCyDefaultServlet extends HttpServlet  {
         if (ConcurrentLog.isFine("FILEHANDLER")) {
             ConcurrentLog.fine("FILEHANDLER","YaCyDefaultServlet: resource base = " + _resourceBase);
         }
-        templateMethodCache = new ConcurrentHashMap<File, SoftReference<Method>>();
+        try {
+            servlets = new ServletRegistry(_resourceBase.getFile(), sb.getConfigBool(SwitchboardConstants.SERVER_SERVLETS_RELOAD, SwitchboardConstants.SERVER_SERVLETS_RELOAD_DEFAULT));
+        } catch (IOException e) {
+            ConcurrentLog.severe("FILEHANDLER", "YaCyDefaultServlet: resource base (htRootPath) is not a directory");
+            throw new UnavailableException(e.toString());
+        }
+        staticResources = new StaticResources(new File(sb.workPath, "static"));
+        _compressStatic = sb.getConfigBool(SwitchboardConstants.SERVER_RESPONSE_COMPRESS_GZIP, SwitchboardConstants.SERVER_RESPONSE_COMPRESS_GZIP_DEFAULT);
     }
     
     /* ------------------------------------------------------------ */
@@ -257,19 +263,8 @@ public class YaCyDefaultServlet extends HttpServlet  {
 
         try {
 
-            // Look for a class resource
-            boolean hasClass = false;
-            if (reqRanges == null && !endsWithSlash) {
-                final int p = pathInContext.lastIndexOf('.');
-                if (p >= 0) {
-                    String pathofClass = pathInContext.substring(0, p) + ".class";
-                    Resource classresource = _resourceBase.addPath(pathofClass);
-                    // Does a class resource exist?
-                    if (classresource != null && classresource.exists() && !classresource.isDirectory()) {
-                        hasClass = true;
-                    }
-                }
-            }
+            // Look for a servlet class
+            final boolean hasClass = reqRanges == null && !endsWithSlash && pathInContext.lastIndexOf('.') >= 0 && servlets.get(pathInContext) != null;
             
             // find resource
             resource = getResource(pathInContext);
@@ -299,10 +294,14 @@ public class YaCyDefaultServlet extends HttpServlet  {
                     response.sendRedirect(response.encodeRedirectURL(URIUtil.addPaths(_servletContext.getContextPath(), pathInContext)));
                 } else {
                     if (hasClass) { // this is a YaCy servlet, handle the template
+                        RequestMetrics.begin(request, pathInContext);
                         handleTemplate(pathInfo, request, response);
                     } else {
+                        RequestMetrics.begin(request, RequestMetrics.STATIC);
                         if (included || passConditionalHeaders(request, response, resource)) {
-                            sendData(request, response, included, resource, reqRanges);
+                            if (included || hasDefinedRange(reqRanges) || !sendStaticContent(request, response, resource)) {
+                                sendData(request, response, included, resource, reqRanges);
+                            }
                         }
                     }
                 }
@@ -472,6 +471,67 @@ public class YaCyDefaultServlet extends HttpServlet  {
         response.getOutputStream().write(data);
     }
 
+    /* ------------------------------------------------------------ */
+    /**
+     * send a static file from its memory mapped buffer, or the pre-compressed
+     * variant of it which is accepted by the client, without copying it through
+     * the servlet output stream. Templates are not handled here, their output
+     * is still compressed on the fly by the gzip handler of the server.
+     *
+     * @param request
+     * @param response
+     * @param resource the static content
+     * @return false if the resource was not sent because it cannot be mapped,
+     *         then it must be sent with {@link #sendData(HttpServletRequest, HttpServletResponse, boolean, Resource, Enumeration)}
+     * @throws IOException
+     */
+    protected boolean sendStaticContent(HttpServletRequest request, HttpServletResponse response, Resource resource) throws IOException {
+        final File file = resource.getFile();
+        if (file == null || staticResources == null) {
+            return false;
+        }
+        OutputStream out = response.getOutputStream();
+        if (!(out instanceof HttpOutput)) {
+            return false;
+        }
+        final String mime = _mimeTypes.getMimeByExtension(resource.getName());
+        final StaticResources.Entry entry = staticResources.get(file, _compressStatic && StaticResources.isCompressible(mime));
+        if (entry == null) {
+            return false;
+        }
+        final String encoding = entry.encoding(request.getHeader(HeaderFramework.ACCEPT_ENCODING));
+        final String etag = entry.etag(encoding);
+
+        if (response.containsHeader(HeaderFramework.LAST_MODIFIED)) {
+            response.getHeaders(HeaderFramework.LAST_MODIFIED).clear(); // see sendData
+        }
+        response.setHeader(HeaderFramework.CACHE_CONTROL, "public, max-age=" + Integer.toString(600)); // seconds; ten minutes
+        response.setHeader(HeaderFramework.ETAG, etag);
+        if (entry.isCompressed()) {
+            response.setHeader(HttpHeader.VARY.asString(), HeaderFramework.ACCEPT_ENCODING);
+        }
+        if (RequestHeader.notModified(request.getHeader(RequestHeader.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        if (mime != null) {
+            response.setContentType(mime);
+        }
+        if (encoding != null) {
+            // the gzip handler leaves responses alone which have a content encoding already
+            response.setHeader(HeaderFramework.CONTENT_ENCODING, encoding);
+        }
+        final java.nio.ByteBuffer content = entry.content(encoding);
+        response.setContentLength(content.remaining());
+        if (_acceptRanges && encoding == null) {
+            response.setHeader(HeaderFramework.ACCEPT_RANGES, "bytes");
+        }
+        if (!request.getMethod().equals(HttpMethod.HEAD.asString())) {
+            ((HttpOutput) out).sendContent(content);
+        }
+        return true;
+    }
+
     /* ------------------------------------------------------------ */
     /**
      * send static content
@@ -655,8 +715,8 @@ public class YaCyDefaultServlet extends HttpServlet  {
     }
 
     
-    protected Object invokeServlet(final File targetClass, final RequestHeader request, final serverObjects args) throws IllegalArgumentException, IllegalAccessException, InvocationTargetException {
-        return rewriteMethod(targetClass).invoke(null, new Object[]{request, args, Switchboard.getSwitchboard()}); // add switchboard
+    protected Object invokeServlet(final MethodHandle targetServlet, final RequestHeader request, final serverObjects args) throws InvocationTargetException {
+        return ServletRegistry.invoke(targetServlet, request, args, Switchboard.getSwitchboard()); // add switchboard
     }
     
     /**
@@ -744,62 +804,6 @@ public class YaCyDefaultServlet extends HttpServlet  {
         return _resourceBase.addPath(path).getFile();
     }
 
-    protected File rewriteClassFile(final File template) {
-        try {
-            String f = template.getCanonicalPath();
-            final int p = f.lastIndexOf('.');
-            if (p < 0) {
-                return null;
-            }
-            f = f.substring(0, p) + ".class";
-            final File cf = new File(f);
-            if (cf.exists()) {
-                return cf;
-            }
-            return null;
-        } catch (final IOException e) {
-            return null;
-        }
-    }
-
-    protected Method rewriteMethod(final File classFile) throws InvocationTargetException {
-        Method m = null;
-        // now make a class out of the stream
-        try {
-            final SoftReference<Method> ref = templateMethodCache.get(classFile);
-            if (ref != null) {
-                m = ref.get();
-                if (m == null) {
-                    templateMethodCache.remove(classFile);
-                } else {
-                    return m;
-                }
-            }
-
-            final Class<?> c = provider.loadClass(classFile);
-            
-            final Class<?>[] params = (Class<?>[]) Array.newInstance(Class.class, 3);
-            params[0]=  RequestHeader.class;
-            params[1] = serverObjects.class;
-            params[2] = serverSwitch.class;
-            m = c.getMethod("respond", params);
-
-            if (MemoryControl.shortStatus()) {
-                templateMethodCache.clear();
-            } else {
-                // store the method into the cache
-                templateMethodCache.put(classFile, new SoftReference<Method>(m));
-            }
-        } catch (final ClassNotFoundException e) {
-            ConcurrentLog.severe("FILEHANDLER","YaCyDefaultServlet: class " + classFile + " is missing:" + e.getMessage());
-            throw new InvocationTargetException(e, "class " + classFile + " is missing:" + e.getMessage());
-        } catch (final NoSuchMethodException e) {
-            ConcurrentLog.severe("FILEHANDLER","YaCyDefaultServlet: method 'respond' not found in class " + classFile + ": " + e.getMessage());
-            throw new InvocationTargetException(e, "method 'respond' not found in class " + classFile + ": " + e.getMessage());
-        }
-        return m;
-    }
-
     /**
      * Handles a YaCy servlet template, reads the template and replaces the template
      * items with actual values. Because of supported server side includes target 
@@ -824,7 +828,7 @@ public class YaCyDefaultServlet extends HttpServlet  {
             }
         }
         File targetFile = getLocalizedFile(target, localeSelection);
-        File targetClass = rewriteClassFile(_resourceBase.addPath(target).getFile());
+        MethodHandle targetServlet = servlets.get(target);
         String targetExt = target.substring(target.lastIndexOf('.') + 1);
 
         long now = System.currentTimeMillis();
@@ -846,7 +850,7 @@ public class YaCyDefaultServlet extends HttpServlet  {
             response.setHeader(HeaderFramework.CORS_ALLOW_ORIGIN, "*");
         }
 
-        if ((targetClass != null)) {
+        if ((targetServlet != null)) {
             serverObjects args = new serverObjects();
             Enumeration<String> argNames = request.getParameterNames(); // on ssi jetty dispatcher merged local ssi query parameters
             while (argNames.hasMoreElements()) {
@@ -864,9 +868,9 @@ public class YaCyDefaultServlet extends HttpServlet  {
             try {
                 if (args.isEmpty()) {
                     // yacy servlets typically test for args != null (but not for args .isEmpty())
-                    tmp = invokeServlet(targetClass, legacyRequestHeader, null); 
+                    tmp = invokeServlet(targetServlet, legacyRequestHeader, null); 
                 } else {
-                    tmp = invokeServlet(targetClass, legacyRequestHeader, args);
+                    tmp = invokeServlet(targetServlet, legacyRequestHeader, args);
                 }
             } catch(InvocationTargetException e) {
             	if(e.getCause() instanceof InvalidURLLicenceException) {
@@ -894,9 +898,6 @@ public class YaCyDefaultServlet extends HttpServlet  {
                 }
             	ConcurrentLog.logException(e);
                 throw new ServletException(targetFile.getAbsolutePath());
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                ConcurrentLog.logException(e);
-                throw new ServletException(targetFile.getAbsolutePath());
             }
 
             if (tmp instanceof RasterPlotter || tmp instanceof EncodedImage || tmp instanceof Image) {
@@ -1187,6 +1188,8 @@ public class YaCyDefaultServlet extends HttpServlet  {
     
     /**
      * parse SSI line and include resource (<!--#include virtual="file.html" -->)
+     * The output before each include is flushed, so that i.e. the items of a search result, which are
+     * included one by one, are sent with chunked transfer as soon as each of them is rendered.
      */
     protected void parseSSI(final byte[] in, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
         ByteBuffer buffer = new ByteBuffer(in);
@@ -1229,6 +1232,9 @@ public class YaCyDefaultServlet extends HttpServlet  {
      * For file data the parameter for the formfield contains the filename and a
      * additional parameter with appendix [fieldname]$file conteins the upload content
      * (e.g. <input type="file" name="upload">  upload="local/filename" upload$file=[content])
+     * File parts with the content type {@link HeaderFramework#MIME_BINARY_PART} are not transformed into a
+     * string: their content is the byte[] of the request attribute {@link HeaderFramework#MIME_BINARY_PART}
+     * + ":" + [fieldname]. Only the first such part of a request is read into memory, further ones are skipped.
      *
      * @param request
      * @param args found fields/values are added to the map
@@ -1250,6 +1256,7 @@ public class YaCyDefaultServlet extends HttpServlet  {
             // Process the uploaded file items
             Iterator<FileItem> i = fileItems.iterator();
             final BlockingQueue<Map.Entry<String, byte[]>> files = new LinkedBlockingQueue<>();
+            boolean binaryRead = false;
             while (i.hasNext()) {
                 FileItem item = i.next();
                 if (item.isFormField()) {
@@ -1261,6 +1268,16 @@ public class YaCyDefaultServlet extends HttpServlet  {
                         // use default encoding (given as header or ISO-8859-1)
                         args.add(item.getFieldName(), item.getString());
                     }
+                } else if (item.getContentType() != null && item.getContentType().startsWith(HeaderFramework.MIME_BINARY_PART)) {
+                    // binary content, read by the servlet from the request attribute; the attribute name has a fixed
+                    // prefix so that a client can not overwrite other attributes
+                    if (binaryRead) {
+                        ConcurrentLog.info("FILEHANDLER", "skipped additional binary part " + item.getFieldName());
+                        continue;
+                    }
+                    binaryRead = true;
+                    args.add(item.getFieldName(), item.getName());
+                    request.setAttribute(HeaderFramework.MIME_BINARY_PART + ":" + item.getFieldName(), item.get());
                 } else {
                     // read file upload
                     args.add(item.getFieldName(), item.getName()); // add the filename to the parameters
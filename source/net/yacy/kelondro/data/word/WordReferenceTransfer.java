@@ -0,0 +1,237 @@
+/**
+ *  WordReferenceTransfer
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.kelondro.data.word;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.yacy.kelondro.rwi.ReferenceContainer;
+
+/**
+ * Binary encoding of RWI postings for the index transfer between peers (transferRWI), which replaces one
+ * line of text in property form per posting. The postings are grouped by term and sent as the bytes of
+ * their {@link WordReferenceRow}: the url hashes front-coded against the url hash of the previous posting
+ * (the postings of a container are sorted by url hash), the remaining columns packed column by column, so
+ * that the equal values of a column are next to each other when the stream is compressed with gzip.
+ * <p>
+ * Format version 1, inside a gzip stream:
+ * <pre>
+ * version           1 byte
+ * per term:
+ *   n               number of postings as variable length integer, 0 ends the stream
+ *   term hash       12 bytes
+ *   url hashes      n times: length of the prefix shared with the previous url hash (1 byte), remaining bytes
+ *   columns         for each row byte after the url hash: that byte of all n postings
+ * </pre>
+ */
+public final class WordReferenceTransfer {
+
+    /** the version of the format written by {@link #write(Iterable, OutputStream)} */
+    public static final int VERSION = 1;
+
+    /** the largest number of postings of one term accepted by the {@link Reader} */
+    private static final int MAX_POSTINGS = 100000;
+
+    private static final int HASHLEN = Word.commonHashLength;
+    private static final int ROWSIZE = WordReferenceRow.urlEntryRow.objectsize;
+
+    private WordReferenceTransfer() {
+    }
+
+    /**
+     * write the postings of the containers; the output stream is not closed
+     * @param indexes the containers to transfer
+     * @param out the stream which gets the compressed postings
+     * @return the number of written postings
+     * @throws IOException
+     */
+    public static int write(final Iterable<ReferenceContainer<WordReference>> indexes, final OutputStream out) throws IOException {
+        final GZIPOutputStream zip = new FastGZIPOutputStream(out);
+        zip.write(VERSION);
+        int count = 0;
+        final List<byte[]> rows = new ArrayList<byte[]>();
+        for (final ReferenceContainer<WordReference> container: indexes) {
+            final byte[] termHash = container.getTermHash();
+            if (termHash == null || termHash.length != HASHLEN) continue;
+            rows.clear();
+            final Iterator<WordReference> i = container.entries();
+            while (i.hasNext()) rows.add(i.next().toKelondroEntry().bytes());
+            if (rows.isEmpty()) continue;
+            final int n = rows.size();
+            writeVarInt(zip, n);
+            zip.write(termHash);
+            byte[] previous = null;
+            for (final byte[] row: rows) {
+                int p = 0;
+                if (previous != null) while (p < HASHLEN - 1 && row[p] == previous[p]) p++;
+                zip.write(p);
+                zip.write(row, p, HASHLEN - p);
+                previous = row;
+            }
+            final byte[] column = new byte[n];
+            for (int j = HASHLEN; j < ROWSIZE; j++) {
+                for (int r = 0; r < n; r++) column[r] = rows.get(r)[j];
+                zip.write(column);
+            }
+            count += n;
+        }
+        writeVarInt(zip, 0);
+        zip.finish();
+        return count;
+    }
+
+    private static void writeVarInt(final OutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarInt(final InputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.read();
+            if (b < 0) throw new EOFException();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("malformed number");
+    }
+
+    /**
+     * gzip with the fastest compression: the column packing already does most of the work
+     */
+    private static class FastGZIPOutputStream extends GZIPOutputStream {
+        private FastGZIPOutputStream(final OutputStream out) throws IOException {
+            super(out, 8192);
+            this.def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    /**
+     * decodes the postings while they are read from the stream, one term at a time;
+     * a malformed or truncated stream ends the iteration, its cause is returned by {@link #failure()}
+     */
+    public static class Reader implements Iterator<WordReferenceRow> {
+
+        private final DataInputStream in;
+        private byte[] groupTerm, currentTerm;
+        private byte[][] rows;
+        private int next;
+        private boolean eof;
+        private IOException failure;
+
+        /**
+         * @param in the compressed postings as written by {@link WordReferenceTransfer#write(Iterable, OutputStream)}
+         * @throws IOException if the stream is not compressed or has an unknown version
+         */
+        public Reader(final InputStream in) throws IOException {
+            this.in = new DataInputStream(new GZIPInputStream(in, 8192));
+            final int version = this.in.read();
+            if (version != VERSION) throw new IOException("unknown transfer format version " + version);
+            this.groupTerm = null;
+            this.currentTerm = null;
+            this.rows = new byte[0][];
+            this.next = 0;
+            this.eof = false;
+            this.failure = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next < this.rows.length) return true;
+            if (this.eof) return false;
+            try {
+                readTerm();
+            } catch (final IOException e) {
+                this.failure = e;
+                this.rows = new byte[0][];
+                this.eof = true;
+            }
+            return this.next < this.rows.length;
+        }
+
+        private void readTerm() throws IOException {
+            final int n = readVarInt(this.in);
+            if (n == 0) {
+                this.eof = true;
+                return;
+            }
+            if (n < 0 || n > MAX_POSTINGS) throw new IOException("too many postings: " + n);
+            final byte[] term = new byte[HASHLEN];
+            this.in.readFully(term);
+            final byte[][] r = new byte[n][ROWSIZE];
+            byte[] previous = null;
+            for (int k = 0; k < n; k++) {
+                final int p = this.in.readUnsignedByte();
+                if (p >= HASHLEN || (previous == null && p > 0)) throw new IOException("malformed url hash prefix " + p);
+                if (p > 0) System.arraycopy(previous, 0, r[k], 0, p);
+                this.in.readFully(r[k], p, HASHLEN - p);
+                previous = r[k];
+            }
+            final byte[] column = new byte[n];
+            for (int j = HASHLEN; j < ROWSIZE; j++) {
+                this.in.readFully(column);
+                for (int k = 0; k < n; k++) r[k][j] = column[k];
+            }
+            this.groupTerm = term;
+            this.rows = r;
+            this.next = 0;
+        }
+
+        @Override
+        public WordReferenceRow next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            this.currentTerm = this.groupTerm;
+            return new WordReferenceRow(WordReferenceRow.urlEntryRow.newEntry(this.rows[this.next++]));
+        }
+
+        /**
+         * @return the term hash of the posting returned by the last call of {@link #next()}
+         */
+        public byte[] termHash() {
+            return this.currentTerm;
+        }
+
+        /**
+         * @return the reason why the iteration ended before the end of the postings, or null if the stream was complete
+         */
+        public IOException failure() {
+            return this.failure;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -422,55 +422,68 @@ public final class CharBuffer extends Writer {
      * @return
      */
     public Properties propParser() {
+        return propParser(this.buffer, this.offset, this.length);
+    }
+
+    /**
+     * Parses tag properties for key=value pairs from a range of a char array, see {@link #propParser()}.
+     * This lets a tokenizer parse the properties from its own buffer without copying them into a CharBuffer.
+     *
+     * @param buffer the characters holding the properties
+     * @param offset the position of the first character in the buffer
+     * @param end the position after the last character in the buffer
+     * @return the properties
+     */
+    public static Properties propParser(final char[] buffer, final int offset, final int end) {
         // extract a=b or a="b" - relations from the buffer
-        int pos = this.offset;
+        int pos = offset;
         int start;
         String key;
         final Properties p = new Properties();
         // eat up spaces at beginning
-        while ((pos < this.length) && (this.buffer[pos] <= 32)) pos++;
-        while (pos < this.length) {
+        while ((pos < end) && (buffer[pos] <= 32)) pos++;
+        while (pos < end) {
             // pos is at start of next key
             start = pos;
-            while ((pos < this.length) && (this.buffer[pos] != equal && this.buffer[pos] > 32) ) pos++; // find = or whitespace
-            key = new String(this.buffer, start, pos - start).trim().toLowerCase(); // we have a key
-            while ((pos < this.length) && (this.buffer[pos] != equal && this.buffer[pos] <= 32)) pos++; // eat up whitespace until = or next char found
-            if (pos >= this.length || this.buffer[pos] != equal) { // no = found, this is the case for attributes w/o value
+            while ((pos < end) && (buffer[pos] != equal && buffer[pos] > 32) ) pos++; // find = or whitespace
+            key = new String(buffer, start, pos - start).trim().toLowerCase(); // we have a key
+            while ((pos < end) && (buffer[pos] != equal && buffer[pos] <= 32)) pos++; // eat up whitespace until = or next char found
+            if (pos >= end || buffer[pos] != equal) { // no = found, this is the case for attributes w/o value
                 p.setProperty(key, "");
                 continue;
             }
             pos++;
             // find start of value
-            while ((pos < this.length) && (this.buffer[pos] <= 32)) pos++;
+            while ((pos < end) && (buffer[pos] <= 32)) pos++;
             // doublequotes are obligatory. However, we want to be fuzzy if they
             // are ommittet
-            if (pos >= this.length) {
+            if (pos >= end) {
                 // error case: input ended too early
                 break;
-            } else if (this.buffer[pos] == doublequote) {
+            } else if (buffer[pos] == doublequote) {
                 // search next doublequote
                 pos++;
                 start = pos;
-                while ((pos < this.length) && (this.buffer[pos] != doublequote)) pos++;
-                if (pos >= this.length) break; // this is the case if we found no parent doublequote
-                p.setProperty(key, new String(this.buffer, start, pos - start).trim());
+                while ((pos < end) && (buffer[pos] != doublequote)) pos++;
+                if (pos >= end) break; // this is the case if we found no parent doublequote
+                p.setProperty(key, new String(buffer, start, pos - start).trim());
                 pos++;
-            } else if (this.buffer[pos] == singlequote) {
+            } else if (buffer[pos] == singlequote) {
                 // search next singlequote
                 pos++;
                 start = pos;
-                while ((pos < this.length) && (this.buffer[pos] != singlequote)) pos++;
-                if (pos >= this.length) break; // this is the case if we found no parent singlequote
-                p.setProperty(key, new String(this.buffer, start, pos - start).trim());
+                while ((pos < end) && (buffer[pos] != singlequote)) pos++;
+                if (pos >= end) break; // this is the case if we found no parent singlequote
+                p.setProperty(key, new String(buffer, start, pos - start).trim());
                 pos++;
             } else {
                 // search next whitespace
                 start = pos;
-                while ((pos < this.length) && (this.buffer[pos] > 32)) pos++;
-                p.setProperty(key, new String(this.buffer, start, pos - start).trim());
+                while ((pos < end) && (buffer[pos] > 32)) pos++;
+                p.setProperty(key, new String(buffer, start, pos - start).trim());
             }
             // pos should point now to a whitespace: eat up spaces
-            while ((pos < this.length) && (this.buffer[pos] <= 32)) pos++;
+            while ((pos < end) && (buffer[pos] <= 32)) pos++;
             // go on with next loop
         }
         return p;
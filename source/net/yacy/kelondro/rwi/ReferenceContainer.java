@@ -175,6 +175,17 @@ public class ReferenceContainer<ReferenceType extends Reference> extends RowSet
         return this.factory.produceSlow(entry);
     }
 
+    /**
+     * get a reference by its position in the container
+     * @param index the position, 0 <= index < size()
+     * @return the reference at the given position or null if the position is not available
+     */
+    public ReferenceType getReference(final int index) {
+        final Row.Entry entry = super.get(index, false);
+        if (entry == null) return null;
+        return this.factory.produceSlow(entry);
+    }
+
     /**
      * remove a url reference from the container.
      * if the url hash was found, return the entry, but delete the entry from the container
@@ -67,6 +67,10 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
     private final ContainerOrder<ReferenceType> containerOrder;
     private ConcurrentHashMap<ByteArray, ReferenceContainer<ReferenceType>> cache;
 
+    /** striped locks for the modification of the containers, selected by the term hash; writers of different terms do not block each other */
+    private final Object[] locks;
+    private static final int LOCK_STRIPES = 64;
+
     
     /**
      * open an existing heap file in undefined mode
@@ -83,6 +87,31 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         this.termSize = termSize;
         this.containerOrder = new ContainerOrder<ReferenceType>(this.termOrder);
         this.cache = new ConcurrentHashMap<ByteArray, ReferenceContainer<ReferenceType>>();
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) this.locks[i] = new Object();
+    }
+
+    /**
+     * @param termHash a term hash
+     * @return the lock which must be held to modify the container of the term
+     */
+    private Object lock(final ByteArray termHash) {
+        return this.locks[(termHash.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * run an action while the locks of all stripes are held, so that no container is modified meanwhile
+     * @param stripe the first stripe which is not locked yet, 0 to lock all
+     * @param action the action
+     */
+    private void withAllLocks(final int stripe, final Runnable action) {
+        if (stripe >= LOCK_STRIPES) {
+            action.run();
+            return;
+        }
+        synchronized (this.locks[stripe]) {
+            withAllLocks(stripe + 1, action);
+        }
     }
 
     public Row rowdef() {
@@ -101,7 +130,8 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
 
     @Override
     public void clear() {
-        if (this.cache != null) this.cache.clear();
+        final ConcurrentHashMap<ByteArray, ReferenceContainer<ReferenceType>> c = this.cache;
+        if (c != null) withAllLocks(0, c::clear);
     }
 
     @Override
@@ -163,7 +193,9 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
                 } catch (final SpaceExceededException e) {
                     ConcurrentLog.logException(e);
                 }
-                if (destructive) container.clear(); // this memory is not needed any more
+                if (destructive) synchronized (lock(new ByteArray(term))) {
+                    container.clear(); // this memory is not needed any more
+                }
                 urlcount += container.size();
             }
             wordcount++;
@@ -184,22 +216,22 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
      */
     private List<ReferenceContainer<ReferenceType>> sortedClone() {
         final List<ReferenceContainer<ReferenceType>> cachecopy = new ArrayList<ReferenceContainer<ReferenceType>>(this.cache.size());
-        synchronized (this.cache) {
+        withAllLocks(0, () -> {
             for (final Map.Entry<ByteArray, ReferenceContainer<ReferenceType>> entry: this.cache.entrySet()) {
                 if (entry.getValue() != null && entry.getValue().getTermHash() != null) cachecopy.add(entry.getValue());
             }
-        }
+        });
         Collections.sort(cachecopy, this.containerOrder);
         return cachecopy;
     }
 
     private List<Rating<ByteArray>> ratingList() {
         final List<Rating<ByteArray>> list = new ArrayList<Rating<ByteArray>>(this.cache.size());
-        synchronized (this.cache) {
+        withAllLocks(0, () -> {
             for (final Map.Entry<ByteArray, ReferenceContainer<ReferenceType>> entry: this.cache.entrySet()) {
                 if (entry.getValue() != null && entry.getValue().getTermHash() != null) list.add(new Rating<ByteArray>(entry.getKey(), entry.getValue().size()));
             }
-        }
+        });
         return list;
     }
 
@@ -329,7 +361,7 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         @Override
         public void remove() {
             System.arraycopy(this.cachecopy, this.p, this.cachecopy, this.p - 1, this.cachecopy.size() - this.p);
-            ReferenceContainerCache.this.cache.remove(new ByteArray(this.latestTermHash));
+            ReferenceContainerCache.this.delete(this.latestTermHash);
         }
 
         @Override
@@ -414,7 +446,7 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         @Override
         public void remove() {
             System.arraycopy(this.cachecounts, this.p, this.cachecounts, this.p - 1, this.cachecounts.size() - this.p);
-            ReferenceContainerCache.this.cache.remove(new ByteArray(this.latestTermHash));
+            ReferenceContainerCache.this.delete(this.latestTermHash);
         }
 
         @Override
@@ -490,7 +522,10 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         // returns the index that had been deleted
         assert this.cache != null;
         if (this.cache == null) return null;
-        return this.cache.remove(new ByteArray(termHash));
+        final ByteArray tha = new ByteArray(termHash);
+        synchronized (lock(tha)) {
+            return this.cache.remove(tha);
+        }
     }
 
     @Override
@@ -498,7 +533,10 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         // returns the index that had been deleted
         assert this.cache != null;
         if (this.cache == null) return;
-        this.cache.remove(new ByteArray(termHash));
+        final ByteArray tha = new ByteArray(termHash);
+        synchronized (lock(tha)) {
+            this.cache.remove(tha);
+        }
     }
 
     @Override
@@ -511,7 +549,7 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         assert this.cache != null;
         if (this.cache == null) return false;
         final ByteArray tha = new ByteArray(termHash);
-        synchronized (this.cache) {
+        synchronized (lock(tha)) {
 	        final ReferenceContainer<ReferenceType> c = this.cache.get(tha);
 	        if (c != null && c.delete(urlHashBytes)) {
 	            // removal successful
@@ -533,7 +571,7 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         if (urlHashes.isEmpty()) return 0;
         final ByteArray tha = new ByteArray(termHash);
         int count;
-        synchronized (this.cache) {
+        synchronized (lock(tha)) {
             final ReferenceContainer<ReferenceType> c = this.cache.get(tha);
             if ((c != null) && ((count = c.removeEntries(urlHashes)) > 0)) {
                 // removal successful
@@ -559,7 +597,7 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         // put new words into cache
         final ByteArray tha = new ByteArray(container.getTermHash());
         int added = 0;
-        synchronized (this.cache) {
+        synchronized (lock(tha)) {
             ReferenceContainer<ReferenceType> entries = this.cache.get(tha); // null pointer exception? wordhash != null! must be cache==null
             if (entries == null) {
                 entries = container.topLevelClone();
@@ -581,29 +619,15 @@ public final class ReferenceContainerCache<ReferenceType extends Reference> exte
         if (this.cache == null) return;
         final ByteArray tha = new ByteArray(termHash);
 
-        // first access the cache without synchronization
-        ReferenceContainer<ReferenceType> container = this.cache.remove(tha);
-        if (container == null) container = new ReferenceContainer<ReferenceType>(this.factory, termHash, 1);
-        container.put(newEntry);
-
-        // synchronization: check if the entry is still empty and set new value
-        final ReferenceContainer<ReferenceType> container0 = this.cache.put(tha, container);
-        if (container0 != null) synchronized (this.cache) {
-            // no luck here, we get a lock exclusively to sort this out
-            final ReferenceContainer<ReferenceType> containerNew = this.cache.put(tha, container0);
-            if (containerNew == null) return;
-            if (container0 == containerNew) {
-                // The containers are the same, so nothing needs to be done
-                return;
-            }
-            // Now merge the smaller container into the lager.
-            // The other way around can become very slow
-            if (container0.size() >= containerNew.size()) {
-                container0.putAllRecent(containerNew);
-       	        this.cache.put(tha, container0);
-            } else {
-                containerNew.putAllRecent(container0);
-                this.cache.put(tha, containerNew);
+        // only writers of terms with the same lock stripe are serialized; the container is taken out of the cache
+        // while it is modified, so that readers do not see it in an intermediate state
+        synchronized (lock(tha)) {
+            ReferenceContainer<ReferenceType> container = this.cache.remove(tha);
+            if (container == null) container = new ReferenceContainer<ReferenceType>(this.factory, termHash, 1);
+            try {
+                container.put(newEntry);
+            } finally {
+                if (!container.isEmpty()) this.cache.put(tha, container);
             }
         }
     }
@@ -30,6 +30,7 @@ import net.yacy.kelondro.util.MemoryControl;
 public abstract class AbstractBlockingThread<J extends WorkflowJob> extends AbstractThread implements BlockingThread<J> {
 
     private WorkflowProcessor<J> manager = null;
+    private int partition = -1;
     private final static ConcurrentLog log = new ConcurrentLog("AbstractBlockingThread");
 
     public AbstractBlockingThread() {
@@ -45,6 +46,13 @@ public abstract class AbstractBlockingThread<J extends WorkflowJob> extends Abst
         return this.manager;
     }
 
+    /**
+     * @param partition the partition of a partitioned manager which is processed by this thread
+     */
+    protected void setPartition(final int partition) {
+        this.partition = partition;
+    }
+
     @Override
     public void run() {
         this.open();
@@ -54,8 +62,15 @@ public abstract class AbstractBlockingThread<J extends WorkflowJob> extends Abst
         long timestamp;
         long memstamp0, memstamp1;
         long busyCycles = 0;
+        boolean retired = false;
 
         while (this.running) {
+            if (this.manager.retire(this.partition)) {
+                // the manager has lowered its concurrency limit
+                retired = true;
+                this.running = false;
+                break;
+            }
             try {
                 // check memory status
                 if (!shutdownInProgress() && MemoryControl.shortStatus()) {
@@ -70,7 +85,7 @@ public abstract class AbstractBlockingThread<J extends WorkflowJob> extends Abst
                 // do job
                 timestamp = System.currentTimeMillis();
                 memstamp0 = MemoryControl.used();
-                final J in = this.manager.take();
+                final J in = this.manager.take(this.partition);
                 if ((in == null) || (in == WorkflowJob.poisonPill) || (in.status == WorkflowJob.STATUS_POISON)) {
                     // the poison pill: shutdown
                     // a null element is pushed to the queue on purpose to signal
@@ -108,7 +123,7 @@ public abstract class AbstractBlockingThread<J extends WorkflowJob> extends Abst
                 busyCycles++;
             }
         }
-        this.manager.decExecutors();
+        if (!retired) this.manager.decExecutors(this.partition);
         this.close();
         logSystem("thread '" + this.getName() + "' terminated.");
     }
@@ -47,6 +47,15 @@ public class InstantBlockingThread<J extends WorkflowJob> extends AbstractBlocki
         setName(manager.getName() + "." + handleCounter.getAndIncrement());
     }
 
+    /**
+     * @param manager a partitioned manager
+     * @param partition the partition of the manager which is processed by this thread
+     */
+    public InstantBlockingThread(final WorkflowProcessor<J> manager, final int partition) {
+        this(manager);
+        setPartition(partition);
+    }
+
     @Override
     public int getJobCount() {
         return getManager().getQueueSize();
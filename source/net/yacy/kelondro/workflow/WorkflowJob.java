@@ -33,6 +33,7 @@ public class WorkflowJob {
     public final static int STATUS_POISON    = 99;
     
     public int status = STATUS_INITIATED;
+    protected long enqueued = 0; // the time when the job was put into the input queue of its current processor
     
     public WorkflowJob() {
         this.status = STATUS_INITIATED;
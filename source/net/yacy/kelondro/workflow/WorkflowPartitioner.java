@@ -0,0 +1,53 @@
+// WorkflowPartitioner.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.kelondro.workflow;
+
+/**
+ * Distribution of the entries of a partitioned {@link WorkflowProcessor} to its workers.
+ * Each partition has its own input queue which is processed by exactly one worker thread,
+ * so entries of the same partition are processed one after another in the order of their arrival.
+ *
+ * @param <ENTRY>
+ *            the workflow entry type to be processed
+ */
+public interface WorkflowPartitioner<ENTRY> {
+
+	/**
+	 * @param in
+	 *            a workflow entry
+	 * @param partitions
+	 *            the number of partitions of the processor
+	 * @return the partition of the entry, from 0 to partitions - 1. The same
+	 *         entry must always be assigned to the same partition.
+	 */
+	int partition(final ENTRY in, final int partitions);
+
+	/**
+	 * Called by the worker of a partition when its input queue is empty,
+	 * before it blocks waiting for the next entry. This is the place to
+	 * flush work which the worker has buffered.
+	 *
+	 * @param partition
+	 *            the partition of the worker
+	 */
+	void idle(final int partition);
+
+}
@@ -32,8 +32,10 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.cora.util.LatencyHistogram;
 import net.yacy.kelondro.util.NamePrefixThreadFactory;
 
 
@@ -41,30 +43,61 @@ public class WorkflowProcessor<J extends WorkflowJob> {
 
     public static final int availableCPU = Runtime.getRuntime().availableProcessors();
     private static final ArrayList<WorkflowProcessor<?>> processMonitor = new ArrayList<WorkflowProcessor<?>>();
+    private static final ConcurrentLog log = new ConcurrentLog("WorkflowProcess");
+    private static final long ADAPT_INTERVAL = 1000; // milliseconds between two adaptions of the concurrency
 
     private ExecutorService executor;
     private AtomicInteger executorRunning;
-    private BlockingQueue<J> input;
+    private BlockingQueue<J>[] input; // one queue shared by all executors, or one queue for each partition
     private final WorkflowProcessor<J> output;
     private final int maxpoolsize;
     private final WorkflowTask<J> task;
+    private final WorkflowPartitioner<J> partitioner;
+    private final boolean[] partitionRunning;
     private final String processName, description;
     private final String[] childs;
     private long blockTime, execTime, passOnTime;
     private long execCount;
+    private volatile int minConcurrency, maxConcurrency, concurrency; // bounds and current limit of the executors
+    private volatile boolean autoscale;
+    private final LatencyHistogram waitTimes, serviceTimes; // time in the input queue and time of processing of each entry
+    private final AtomicLong arrivals, lastAdapt;
+    private long windowCount, windowWait, windowService, windowArrivals, windowBlock, windowPassOn; // statistics at the last adaption
+    private volatile double throughput; // processed entries per second since the last adaption
 
     public WorkflowProcessor(
             final String name, final String description, final String[] childnames,
             final WorkflowTask<J> task,
             final int inputQueueSize, final WorkflowProcessor<J> output,
             final int maxpoolsize) {
+        this(name, description, childnames, task, inputQueueSize, output, maxpoolsize, null);
+    }
+
+    /**
+     * A processor with one executor for each partition of its entries. Entries of the same partition are
+     * processed one after another by the same executor, entries of different partitions concurrently.
+     * @param partitions the number of partitions and executors
+     * @param partitioner the assignment of entries to partitions
+     */
+    public WorkflowProcessor(
+            final String name, final String description, final String[] childnames,
+            final WorkflowTask<J> task,
+            final int inputQueueSize, final WorkflowProcessor<J> output,
+            final int partitions, final WorkflowPartitioner<J> partitioner) {
         // start a fixed number of executors that handle entries in the process queue
         this.processName = name;
         this.description = description;
         this.task = task;
         this.childs = childnames;
-        this.maxpoolsize = maxpoolsize;
-        this.input = new LinkedBlockingQueue<J>(Math.max(maxpoolsize + 1, inputQueueSize));
+        this.maxpoolsize = partitioner == null ? partitions : Math.max(1, partitions);
+        this.minConcurrency = this.maxpoolsize;
+        this.maxConcurrency = this.maxpoolsize;
+        this.concurrency = this.maxpoolsize;
+        this.autoscale = false;
+        this.partitioner = partitioner;
+        this.partitionRunning = partitioner == null ? null : new boolean[this.maxpoolsize];
+        this.input = newQueues(partitioner == null ? 1 : this.maxpoolsize,
+                partitioner == null ? Math.max(this.maxpoolsize + 1, inputQueueSize) : Math.max(2, inputQueueSize / this.maxpoolsize + 1));
         this.output = output;
         this.executor = Executors.newCachedThreadPool(new NamePrefixThreadFactory(name));
         this.executorRunning = new AtomicInteger(0);
@@ -79,31 +112,90 @@ public class WorkflowProcessor<J extends WorkflowJob> {
         this.execTime = 0;
         this.passOnTime = 0;
         this.execCount = 0;
+        this.waitTimes = new LatencyHistogram();
+        this.serviceTimes = new LatencyHistogram();
+        this.arrivals = new AtomicLong(0);
+        this.lastAdapt = new AtomicLong(System.currentTimeMillis());
+        this.windowCount = 0;
+        this.windowWait = 0;
+        this.windowService = 0;
+        this.windowArrivals = 0;
+        this.windowBlock = 0;
+        this.windowPassOn = 0;
+        this.throughput = 0.0d;
 
         // store this object for easy monitoring
         processMonitor.add(this);
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <J> BlockingQueue<J>[] newQueues(final int count, final int capacity) {
+        final BlockingQueue<J>[] queues = new BlockingQueue[count];
+        for (int i = 0; i < count; i++) queues[i] = new LinkedBlockingQueue<J>(capacity);
+        return queues;
+    }
+
     public WorkflowTask<J> getTask() {
 		return this.task;
 	}
     
     public int getQueueSize() {
-        if (this.input == null) return 0;
-        return this.input.size();
+        final BlockingQueue<J>[] queues = this.input;
+        if (queues == null) return 0;
+        int size = 0;
+        for (final BlockingQueue<J> queue: queues) size += queue.size();
+        return size;
     }
 
     public boolean queueIsEmpty() {
-        return this.input == null || this.input.isEmpty();
+        final BlockingQueue<J>[] queues = this.input;
+        if (queues == null) return true;
+        for (final BlockingQueue<J> queue: queues) if (!queue.isEmpty()) return false;
+        return true;
     }
 
     public int getMaxQueueSize() {
-        if (this.input == null) return 0;
-        return this.input.size() + this.input.remainingCapacity();
+        final BlockingQueue<J>[] queues = this.input;
+        if (queues == null) return 0;
+        int size = 0;
+        for (final BlockingQueue<J> queue: queues) size += queue.size() + queue.remainingCapacity();
+        return size;
+    }
+
+    /**
+     * Let the number of executors follow the load of this processor within the given bounds. The limit is
+     * increased by one executor while entries wait longer in the input queue than their processing takes, and
+     * decreased multiplicatively while the executors wait for input or for the next processor; it never falls
+     * below the number of executors which the arrival rate needs according to Little's law.
+     * A partitioned processor keeps one executor for each partition and is not scaled.
+     * @param min the smallest number of executors
+     * @param max the largest number of executors
+     */
+    public void setConcurrencyBounds(final int min, final int max) {
+        if (this.partitioner != null) return;
+        this.minConcurrency = Math.max(1, min);
+        this.maxConcurrency = Math.max(this.minConcurrency, max);
+        this.concurrency = Math.max(this.minConcurrency, Math.min(this.maxConcurrency, this.concurrency));
+        this.autoscale = true;
+    }
+
+    public boolean isAutoscaled() {
+        return this.autoscale;
+    }
+
+    public int getMinConcurrency() {
+        return this.minConcurrency;
     }
 
     public int getMaxConcurrency() {
-        return this.maxpoolsize;
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return the current limit of executors, between getMinConcurrency() and getMaxConcurrency()
+     */
+    public int getConcurrency() {
+        return this.concurrency;
     }
     
     public int getExecutors() {
@@ -117,17 +209,70 @@ public class WorkflowProcessor<J extends WorkflowJob> {
         this.executorRunning.decrementAndGet();
     }
 
+    /**
+     * the decExecutors method may only be called within the AbstractBlockingThread while loop!!
+     * @param partition the partition of the terminating executor, -1 if this processor is not partitioned
+     */
+    public void decExecutors(final int partition) {
+        if (partition >= 0 && this.partitionRunning != null) synchronized (this.partitionRunning) {
+            this.partitionRunning[partition] = false;
+        }
+        decExecutors();
+    }
+
+    /**
+     * Called by an executor before it takes the next entry: an executor which exceeds the current
+     * concurrency limit terminates. If this returns true, the executor has already been removed from
+     * the count of executors and must not call decExecutors().
+     * @param partition the partition of the executor, -1 if this processor is not partitioned
+     * @return true if the executor shall terminate
+     */
+    public boolean retire(final int partition) {
+        if (partition >= 0 || !this.autoscale) return false;
+        int running;
+        while ((running = this.executorRunning.get()) > this.concurrency) {
+            if (this.executorRunning.compareAndSet(running, running - 1)) return true;
+        }
+        return false;
+    }
+
     public J take() throws InterruptedException {
-        // read from the input queue
-        if (this.input == null) {
+        return take(-1);
+    }
+
+    /**
+     * read the next entry from the input queue
+     * @param partition the partition of the executor, -1 if this processor is not partitioned
+     * @return the next entry
+     * @throws InterruptedException
+     */
+    public J take(final int partition) throws InterruptedException {
+        final BlockingQueue<J>[] queues = this.input;
+        if (queues == null) {
             return null;
         }
+        final BlockingQueue<J> queue = queues[Math.max(0, partition)];
+        if (partition >= 0 && this.partitioner != null) {
+            // a partition executor may have buffered work which shall be finished before it waits
+            final J j = queue.poll();
+            if (j != null) return j;
+            this.partitioner.idle(partition);
+        }
         final long t = System.currentTimeMillis();
-        final J j = this.input.take();
-        this.blockTime += System.currentTimeMillis() - t;
+        final J j = queue.take();
+        final long now = System.currentTimeMillis();
+        this.blockTime += now - t;
+        if (j != null && j != WorkflowJob.poisonPill && j.enqueued > 0) this.waitTimes.add(now - j.enqueued);
         return j;
     }
 
+    /**
+     * @return the number of partitions, 0 if this processor is not partitioned
+     */
+    public int getPartitions() {
+        return this.partitioner == null ? 0 : this.maxpoolsize;
+    }
+
     public void passOn(final J next) {
         // don't mix this method up with enQueue()!
         // this method enqueues into the _next_ queue, not this queue!
@@ -140,28 +285,32 @@ public class WorkflowProcessor<J extends WorkflowJob> {
     }
 
     public void clear() {
-        if (this.input != null) {
-            this.input.clear();
+        final BlockingQueue<J>[] queues = this.input;
+        if (queues != null) {
+            for (final BlockingQueue<J> queue: queues) queue.clear();
         }
     }
 
     private synchronized void relaxCapacity() {
-        if (this.input.isEmpty()) {
-            return;
-        }
-        if (this.input.remainingCapacity() > 1000) {
-            return;
-        }
-        final BlockingQueue<J> i = new LinkedBlockingQueue<J>();
-        J e;
-        while (!this.input.isEmpty()) {
-            e = this.input.poll();
-            if (e == null) {
-                break;
+        for (int p = 0; p < this.input.length; p++) {
+            final BlockingQueue<J> queue = this.input[p];
+            if (queue.isEmpty()) {
+                continue;
+            }
+            if (queue.remainingCapacity() > 1000) {
+                continue;
+            }
+            final BlockingQueue<J> i = new LinkedBlockingQueue<J>();
+            J e;
+            while (!queue.isEmpty()) {
+                e = queue.poll();
+                if (e == null) {
+                    break;
+                }
+                i.add(e);
             }
-            i.add(e);
+            this.input[p] = i;
         }
-        this.input = i;
     }
 
     public void enQueue(final J in) {
@@ -180,11 +329,27 @@ public class WorkflowProcessor<J extends WorkflowJob> {
             return;
         }        
         // execute concurrent in thread
+        in.enqueued = System.currentTimeMillis();
+        this.arrivals.incrementAndGet();
         while (this.input != null) {
             try {
-                this.input.put(in);
-                if (this.input.size() > this.executorRunning.get() && this.executorRunning.get() < this.maxpoolsize) synchronized (executor) {
-                    if (this.input.size() > this.executorRunning.get() && this.executorRunning.get() < this.maxpoolsize) {
+                if (this.partitioner != null) {
+                    // the entry is processed by the one executor of its partition
+                    final int partition = this.partitioner.partition(in, this.maxpoolsize);
+                    this.input[partition].put(in);
+                    synchronized (this.partitionRunning) {
+                        if (!this.partitionRunning[partition]) {
+                            this.partitionRunning[partition] = true;
+                            this.executorRunning.incrementAndGet();
+                            this.executor.submit(new InstantBlockingThread<J>(this, partition));
+                        }
+                    }
+                    break;
+                }
+                final BlockingQueue<J> queue = this.input[0];
+                queue.put(in);
+                if (queue.size() > this.executorRunning.get() && this.executorRunning.get() < this.concurrency) synchronized (executor) {
+                    if (queue.size() > this.executorRunning.get() && this.executorRunning.get() < this.concurrency) {
                         this.executorRunning.incrementAndGet();
                         this.executor.submit(new InstantBlockingThread<J>(this));
                     }
@@ -207,18 +372,22 @@ public class WorkflowProcessor<J extends WorkflowJob> {
         // before we put pills into the queue, make sure that they will take them
         relaxCapacity();
         // put poison pills into the queue
-        for (int i = 0; i < this.executorRunning.get(); i++) {
+        final int pills = this.partitioner == null ? this.executorRunning.get() : this.input.length;
+        for (int i = 0; i < pills; i++) {
+            if (this.partitioner != null) synchronized (this.partitionRunning) {
+                if (!this.partitionRunning[i]) continue; // no executor to kill in this partition
+            }
             try {
                 ConcurrentLog.info("serverProcessor", "putting poison pill in queue " + this.processName + ", thread " + i);
-                this.input.put((J) WorkflowJob.poisonPill); // put a poison pill into the queue which will kill the job
+                this.input[this.partitioner == null ? 0 : i].put((J) WorkflowJob.poisonPill); // put a poison pill into the queue which will kill the job
                 ConcurrentLog.info("serverProcessor", ".. poison pill is in queue " + this.processName + ", thread " + i + ". awaiting termination");
             } catch (final InterruptedException e) { }
         }
 
         // wait until input queue is empty
         for (int i = 0; i < 10; i++) {
-            if (this.input.size() <= 0) break;
-            ConcurrentLog.info("WorkflowProcess", "waiting for queue " + this.processName + " to shut down; input.size = " + this.input.size());
+            if (this.getQueueSize() <= 0) break;
+            ConcurrentLog.info("WorkflowProcess", "waiting for queue " + this.processName + " to shut down; input.size = " + this.getQueueSize());
             try {Thread.sleep(1000);} catch (final InterruptedException e) {}
         }
         this.executorRunning.set(0);
@@ -230,7 +399,7 @@ public class WorkflowProcessor<J extends WorkflowJob> {
                 this.executor.shutdown();
                 for (int i = 0; i < 60; i++) {
                     this.executor.awaitTermination(1, TimeUnit.SECONDS);
-                    if (this.input.size() <= 0) break;
+                    if (this.getQueueSize() <= 0) break;
                 }
             } catch (final InterruptedException e) {}
         }
@@ -256,6 +425,76 @@ public class WorkflowProcessor<J extends WorkflowJob> {
     protected void increaseJobTime(final long time) {
         this.execTime += time;
         this.execCount++;
+        this.serviceTimes.add(time);
+        adapt();
+    }
+
+    /**
+     * compute the throughput since the last adaption and, if this processor is autoscaled, adapt the
+     * concurrency limit (additive increase, multiplicative decrease). This is done at most once in
+     * ADAPT_INTERVAL by the executor which finishes a job first after the interval.
+     */
+    private void adapt() {
+        final long now = System.currentTimeMillis();
+        final long last = this.lastAdapt.get();
+        if (now - last < ADAPT_INTERVAL || !this.lastAdapt.compareAndSet(last, now)) return;
+        final long dt = now - last;
+        final long count = this.serviceTimes.getCount(), service = this.serviceTimes.getSum(), wait = this.waitTimes.getSum();
+        final long arrived = this.arrivals.get(), block = this.blockTime, passOn = this.passOnTime;
+        final long dn = count - this.windowCount, dService = service - this.windowService, dWait = wait - this.windowWait;
+        final long dArrivals = arrived - this.windowArrivals, dBlock = block - this.windowBlock, dPassOn = passOn - this.windowPassOn;
+        this.windowCount = count;
+        this.windowService = service;
+        this.windowWait = wait;
+        this.windowArrivals = arrived;
+        this.windowBlock = block;
+        this.windowPassOn = passOn;
+        this.throughput = 1000.0d * dn / dt;
+        if (!this.autoscale || dn <= 0) return;
+
+        final int executors = Math.max(1, this.executorRunning.get());
+        final double serviceTime = (double) dService / dn;
+        final double waitTime = (double) dWait / dn;
+        // Little's law: the number of busy executors is the arrival rate times the service time
+        final int needed = (int) Math.ceil((double) dArrivals / dt * serviceTime);
+        final int c = this.concurrency;
+        int next = c;
+        if (dPassOn > dService / 2) {
+            // the next processor does not take the results: more executors would only wait there
+            next = Math.max(this.minConcurrency, c / 2);
+        } else if (dBlock > dt * executors / 2) {
+            // the executors wait for input most of the time
+            next = Math.max(this.minConcurrency, Math.min(c - 1, Math.max(needed, c / 2)));
+        } else if (waitTime > serviceTime && !queueIsEmpty()) {
+            // the entries wait longer than they are processed
+            next = Math.min(this.maxConcurrency, c + 1);
+        }
+        if (next != c) {
+            this.concurrency = next;
+            if (log.isFine()) log.fine("concurrency of " + this.processName + " " + c + " -> " + next +
+                    " (wait " + Math.round(waitTime) + "ms, service " + Math.round(serviceTime) + "ms, needed " + needed + ")");
+        }
+    }
+
+    /**
+     * @return the processed entries per second, measured during the last second of activity
+     */
+    public double getThroughput() {
+        return this.throughput;
+    }
+
+    /**
+     * @return the times that the entries waited in the input queue
+     */
+    public LatencyHistogram getWaitTimes() {
+        return this.waitTimes;
+    }
+
+    /**
+     * @return the processing times of the entries
+     */
+    public LatencyHistogram getServiceTimes() {
+        return this.serviceTimes;
     }
 
     public String getName() {
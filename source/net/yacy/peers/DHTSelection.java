@@ -27,10 +27,14 @@ package net.yacy.peers;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
@@ -152,6 +156,51 @@ public class DHTSelection {
         return seeds;
     }
 
+    /**
+     * Collect for each selected search target the other peers that are responsible for the same DHT vertical positions.
+     * These peers are candidates for a hedged (duplicate) search request when the selected target answers late.
+     * @param seedDB the seeds database.
+     * @param wordhashes hashes of the words we are searching for
+     * @param minage the minimum age of each seed in days
+     * @param minWordCount the minimum RWI words count of each seed
+     * @param redundancy the number of responsible peers to consider for each vertical position
+     * @param selected the already selected search targets
+     * @return a map from the hash of a selected target to its alternatives ordered by expected response time, fastest first
+     */
+    public static Map<String, List<Seed>> selectDHTSearchAlternatives(final SeedDB seedDB, final HandleSet wordhashes, final int minage, final int minWordCount, final int redundancy, final Collection<Seed> selected) {
+        final Map<String, List<Seed>> alternatives = new HashMap<>();
+        if (seedDB == null || selected == null || selected.isEmpty()) return alternatives;
+        final Set<String> selectedHashes = new HashSet<>();
+        for (final Seed seed: selected) selectedHashes.add(seed.hash);
+        final Iterator<byte[]> iter = wordhashes.iterator();
+        while (iter.hasNext()) {
+            final byte[] wordhash = iter.next();
+            for (int verticalPosition = 0; verticalPosition < seedDB.scheme.verticalPartitions(); verticalPosition++) {
+                final ArrayList<Seed> seeds = selectVerticalDHTPositions(seedDB, wordhash, minage, minWordCount, redundancy, verticalPosition);
+                for (final Seed seed: seeds) {
+                    if (!selectedHashes.contains(seed.hash)) continue;
+                    List<Seed> a = alternatives.get(seed.hash);
+                    if (a == null) {
+                        a = new ArrayList<>();
+                        alternatives.put(seed.hash, a);
+                    }
+                    for (final Seed alternative: seeds) {
+                        if (!selectedHashes.contains(alternative.hash) && !a.contains(alternative)) a.add(alternative);
+                    }
+                }
+            }
+        }
+        for (final List<Seed> a: alternatives.values()) {
+            Collections.sort(a, new Comparator<Seed>() {
+                @Override
+                public int compare(final Seed s1, final Seed s2) {
+                    return Long.compare(seedDB.expectedResponseTime(s1.hash, Long.MAX_VALUE), seedDB.expectedResponseTime(s2.hash, Long.MAX_VALUE));
+                }
+            });
+        }
+        return alternatives;
+    }
+
     private static ArrayList<Seed> collectHorizontalDHTPositions(final SeedDB seedDB, final byte[] wordhash, final int minage, final int minWordCount, final int redundancy, final int maxredundancy, final Random random) {
         // this method is called from the search target computation
         ArrayList<Seed> collectedSeeds = new ArrayList<>(redundancy * seedDB.scheme.verticalPartitions());
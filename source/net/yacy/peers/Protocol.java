@@ -47,6 +47,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.time.DateTimeException;
@@ -66,6 +67,10 @@ import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.response.FacetField;
@@ -91,6 +96,7 @@ import net.yacy.cora.order.Base64Order;
 import net.yacy.cora.order.Digest;
 import net.yacy.cora.protocol.ClientIdentification;
 import net.yacy.cora.protocol.Domains;
+import net.yacy.cora.protocol.HeaderFramework;
 import net.yacy.cora.protocol.http.HTTPClient;
 import net.yacy.cora.sorting.ClusteredScoreMap;
 import net.yacy.cora.sorting.ReversibleScoreMap;
@@ -109,6 +115,7 @@ import net.yacy.kelondro.data.meta.URIMetadataNode;
 import net.yacy.kelondro.data.word.Word;
 import net.yacy.kelondro.data.word.WordReference;
 import net.yacy.kelondro.data.word.WordReferenceFactory;
+import net.yacy.kelondro.data.word.WordReferenceTransfer;
 import net.yacy.kelondro.rwi.Reference;
 import net.yacy.kelondro.rwi.ReferenceContainer;
 import net.yacy.kelondro.rwi.ReferenceContainerCache;
@@ -136,6 +143,22 @@ import net.yacy.utils.crypt;
 
 public final class Protocol {
 
+    /** the maximum timeout in milliseconds of a remote RWI search request */
+    private static final int SEARCH_REQUEST_TIMEOUT_MAX = 8000;
+
+    /** when true, the connections to other peers are kept open and reused by the following requests to the same peer */
+    public static final AtomicBoolean KEEP_ALIVE = new AtomicBoolean(true);
+
+    /**
+     * @param timeout the timeout of the request in milliseconds
+     * @return a client for a request to another peer, which takes a persistent connection from the pool when {@link #KEEP_ALIVE} is set
+     */
+    private static HTTPClient peerClient(final int timeout) {
+        final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, timeout);
+        httpClient.setKeepAlive(KEEP_ALIVE.get());
+        return httpClient;
+    }
+
     /**
      * wrapper class for multi-post attempts to multiple IPs
      */
@@ -159,8 +182,7 @@ public final class Protocol {
             final String path,
             final Map<String, ContentBody> parts,
             final int timeout) throws IOException {
-            final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent);
-            httpClient.setTimout(timeout);
+            final HTTPClient httpClient = peerClient(timeout);
             MultiProtocolURL targetURL = new MultiProtocolURL(targetBaseURL, path);
 			this.result = httpClient.POSTbytes(targetURL, Seed.b64Hash2hexHash(targetHash) + ".yacyh", parts, false,
 					true);
@@ -207,7 +229,7 @@ public final class Protocol {
             // send request
             final long start = System.currentTimeMillis();
             // final byte[] content = HTTPConnector.getConnector(MultiProtocolURI.yacybotUserAgent).post(new MultiProtocolURI("http://" + address + "/yacy/hello.html"), 30000, yacySeed.b64Hash2hexHash(otherHash) + ".yacyh", parts);
-            final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, 30000);
+            final HTTPClient httpClient = peerClient(30000);
             content =
                 httpClient.POSTbytes(
                     new MultiProtocolURL(targetBaseURL, "/yacy/hello.html"),
@@ -433,7 +455,7 @@ public final class Protocol {
         parts.put("count", UTF8.StringBody(Integer.toString(maxCount)));
         parts.put("time", UTF8.StringBody(Long.toString(maxTime)));
         // final byte[] result = HTTPConnector.getConnector(MultiProtocolURI.yacybotUserAgent).post(new MultiProtocolURI("http://" + target.getClusterAddress() + "/yacy/urls.xml"), (int) maxTime, target.getHexHash() + ".yacyh", parts);
-        final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, (int) maxTime);
+        final HTTPClient httpClient = peerClient((int) maxTime);
         RSSReader reader = null;
         for (final String ip: target.getIPs()) {
         	MultiProtocolURL targetBaseURL = null;
@@ -499,7 +521,8 @@ public final class Protocol {
         final int partitions,
         final Seed target,
         final SecondarySearchSuperviser secondarySearchSuperviser,
-        final Blacklist blacklist) throws InterruptedException {
+        final Blacklist blacklist,
+        final RemoteSearch search) throws InterruptedException {
         // send a search request to peer with remote Hash
 
         // INPUT:
@@ -516,7 +539,9 @@ public final class Protocol {
         // duetime    : maximum time that a peer should spent to create a result
 
         final long timestamp = System.currentTimeMillis();
-        event.addExpectedRemoteReferences(count);
+        final int timeout = searchRequestTimeout(event.peers, target, time);
+        // a redundant search is one more request for the same references
+        if (!search.isRedundant()) event.addExpectedRemoteReferences(count);
         SearchResult result = null;
         for (String ip: target.getIPs()) {
             //if (ip.indexOf(':') >= 0) System.out.println("Search target: IPv6: " + ip);
@@ -529,6 +554,8 @@ public final class Protocol {
     							SwitchboardConstants.REMOTESEARCH_HTTPS_PREFERRED_DEFAULT));
             }
             try {
+                final HTTPClient httpClient = peerClient(timeout);
+                search.requestStarted(httpClient);
                 result =
                     new SearchResult(
                         event,
@@ -545,11 +572,18 @@ public final class Protocol {
                         partitions,
                         target.getHexHash() + ".yacyh",
                         targetBaseURL,
+                        httpClient,
                         secondarySearchSuperviser
                         );
                 break;
             } catch (final IOException e ) {
+                if (search.isCancelled()) {
+                    // the redundant search of this target answered first, this is no failure of the peer
+                    Network.log.info("SEARCH cancelled, Peer: " + target.hash + ":" + target.getName());
+                    return -1;
+                }
                 Network.log.info("SEARCH failed, Peer: " + target.hash + ":" + target.getName() + " (" + e.getMessage() + ")");
+                event.peers.recordResponseFailure(target.hash, timeout);
                 if(targetBaseURL.startsWith("https")) {
                 	/* First mark https unavailable on this peer before removing any interface */
     				target.setFlagSSLAvailable(false);
@@ -561,12 +595,14 @@ public final class Protocol {
             }
         }
         if (result == null) return -1;
+        search.answered();
         
         // computation time
         final long totalrequesttime = System.currentTimeMillis() - timestamp;
+        event.peers.recordResponseTime(target.hash, totalrequesttime);
 
         try {
-            remoteSearchProcess(event, count, totalrequesttime, wordhashes, target, blacklist, result);
+            remoteSearchProcess(event, count, search.settleExpectedReferences() ? count : 0, totalrequesttime, wordhashes, target, blacklist, result);
         } catch (final SpaceExceededException e) {
             ConcurrentLog.logException(e);
             return -1;
@@ -615,6 +651,7 @@ public final class Protocol {
         final Blacklist blacklist) throws InterruptedException {
 
         final long timestamp = System.currentTimeMillis();
+        final int timeout = searchRequestTimeout(event.peers, target, time);
         event.addExpectedRemoteReferences(count);
         SearchResult result = null;
         for (String ip: target.getIPs()) {
@@ -638,11 +675,13 @@ public final class Protocol {
                         partitions,
                         target.getHexHash() + ".yacyh",
                         targetBaseURL,
+                        peerClient(timeout),
                         null
                         );
                 break;
             } catch (final IOException e ) {
                 Network.log.info("SEARCH failed, Peer: " + target.hash + ":" + target.getName() + " (" + e.getMessage() + ")");
+                event.peers.recordResponseFailure(target.hash, timeout);
                 if(targetBaseURL.startsWith("https")) {
                 	/* First mark https unavailable on this peer before removing any interface */
     				target.setFlagSSLAvailable(false);     
@@ -657,9 +696,10 @@ public final class Protocol {
         
         // computation time
         final long totalrequesttime = System.currentTimeMillis() - timestamp;
+        event.peers.recordResponseTime(target.hash, totalrequesttime);
 
         try {
-            remoteSearchProcess(event, count, totalrequesttime, wordhashes, target, blacklist, result);
+            remoteSearchProcess(event, count, count, totalrequesttime, wordhashes, target, blacklist, result);
         } catch (final SpaceExceededException e) {
             ConcurrentLog.logException(e);
             return -1;
@@ -667,9 +707,25 @@ public final class Protocol {
         return result.availableCount;
     }
 
+    /**
+     * Compute the timeout of a remote RWI search request from the response times observed on the target peer.
+     * A peer that answered fast in the past gets a shorter timeout, so a dead or overloaded peer does not delay
+     * the search event until the maximum timeout. The timeout never drops below the time granted to the remote
+     * peer for the search plus one second of network latency.
+     * @param peers the seed database holding the response time statistics
+     * @param target the target peer
+     * @param time the maximum processing time requested from the remote peer
+     * @return the request timeout in milliseconds
+     */
+    private static int searchRequestTimeout(final SeedDB peers, final Seed target, final long time) {
+        final long min = Math.min(Math.max(3000, time) + 1000, SEARCH_REQUEST_TIMEOUT_MAX);
+        return (int) peers.responseTimeout(target.hash, min, SEARCH_REQUEST_TIMEOUT_MAX);
+    }
+
     private static void remoteSearchProcess(
         final SearchEvent event,
         final int count,
+        final int expected,
         final long time,
         final String wordhashes,
         final Seed target,
@@ -806,7 +862,7 @@ public final class Protocol {
             event.addNodes(storeDocs, null, snip, false, target.getName() + "/" + target.hash, count, true);
         }
         event.addFinalize();
-        event.addExpectedRemoteReferences(-count);
+        event.addExpectedRemoteReferences(-expected);
 
         // insert the containers to the index
         for ( final ReferenceContainer<WordReference> c : container ) {
@@ -904,6 +960,7 @@ public final class Protocol {
             final int partitions,
             final String hostname,
             final String targetBaseURL,
+            final HTTPClient httpClient,
             final SecondarySearchSuperviser secondarySearchSuperviser
             ) throws IOException {
             // send a search request to peer with remote Hash
@@ -962,7 +1019,6 @@ public final class Protocol {
                 //resultMap = FileUtils.table(HTTPConnector.getConnector(MultiProtocolURI.crawlerUserAgent).post(new MultiProtocolURI("http://" + target.getClusterAddress() + "/yacy/search.html"), 60000, target.getHexHash() + ".yacyh", parts));
             }
 
-            final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, 8000);
             byte[] a = httpClient.POSTbytes(new MultiProtocolURL(targetBaseURL + "/yacy/search.html"), hostname, parts, false, true);
             if (a != null && a.length > 200000) {
                 // there is something wrong. This is too large, maybe a hack on the other side?
@@ -1215,6 +1271,7 @@ public final class Protocol {
         Map<String, LinkedHashSet<String>> snippets = new HashMap<String, LinkedHashSet<String>>(); // this will be a list of urlhash-snippet entries
         final QueryResponse[] rsp = new QueryResponse[]{null};
         final SolrDocumentList[] docList = new SolrDocumentList[]{null};
+        final boolean partialResults;
         {// encapsulate expensive solr QueryResponse object
             if (localsearch && !Switchboard.getSwitchboard().getConfigBool(SwitchboardConstants.DEBUG_SEARCH_REMOTE_SOLR_TESTLOCAL, false)) {
                 // search the local index
@@ -1338,11 +1395,25 @@ public final class Protocol {
                     // no snippet found :( --we don't assign a value here by default; that can be done as an evaluation outside this method
                 }
             }
+            partialResults = rsp[0].getResponseHeader() != null && Boolean.TRUE.equals(rsp[0].getResponseHeader().get("partialResults"));
             rsp[0] = null;
         }
         
         // evaluate result
-        final int numFound = (int) docList[0].getNumFound();
+        int numFound = (int) docList[0].getNumFound();
+        if (count == 0) {
+            /* A facets only query (see QueryParams.solrFacetQuery()) : its facets counts and number of matching documents are exact */
+            if (localsearch) {
+                event.addLocalFacets(facets, numFound, incrementNavigators);
+                Network.log.info("local search (solr): counted " + facets.size() + " facets " + facets.keySet().toString() + " for " + numFound + " documents");
+            }
+            return 0;
+        }
+        if (partialResults && localsearch) {
+            /* The time allowed was exceeded (see QueryParams.solrFirstPageQuery()) : numFound only counts the documents collected so far,
+             * do not overwrite the exact count eventually delivered by a concurrent facets query */
+            numFound = Math.max(numFound, event.local_solr_stored.get());
+        }
         if (docList == null || docList[0].isEmpty()) {
             Network.log.info("SEARCH (solr), returned 0 out of 0 documents from " + (target == null ? "shard" : ("peer " + target.hash + ":" + target.getName())) + " query = " + solrQuery.toString()) ;
             if(localsearch && offset > 0) {
@@ -1628,7 +1699,7 @@ public final class Protocol {
 				}
 				parts.put("lurlEntry", UTF8.StringBody(crypt.simpleEncode(lurlstr, salt)));
 				// send request
-				final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, 10000);
+				final HTTPClient httpClient = peerClient(10000);
 				MultiProtocolURL targetBaseURL = target.getPublicMultiprotocolURL(ip, preferHttps);
 				byte[] content;
 				try {
@@ -1774,6 +1845,47 @@ public final class Protocol {
         return null;
     }
 
+    /**
+     * the postings of a transferRWI request in the binary format of {@link WordReferenceTransfer}, encoded
+     * while the request is sent; the content type lets the receiving servlet pass them on as bytes
+     */
+    private static class RWIBody extends AbstractContentBody {
+
+        private final ReferenceContainerCache<WordReference> indexes;
+
+        /** the number of bytes of the last transmission */
+        private long length;
+
+        private RWIBody(final ReferenceContainerCache<WordReference> indexes) {
+            super(ContentType.create(HeaderFramework.MIME_BINARY_PART));
+            this.indexes = indexes;
+            this.length = 0;
+        }
+
+        @Override
+        public String getFilename() {
+            return "indexes";
+        }
+
+        @Override
+        public void writeTo(final OutputStream out) throws IOException {
+            final CountingOutputStream counter = new CountingOutputStream(out);
+            WordReferenceTransfer.write(this.indexes, counter);
+            counter.flush();
+            this.length = counter.getByteCount();
+        }
+
+        @Override
+        public String getTransferEncoding() {
+            return MIME.ENC_BINARY;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1; // not known before the postings are encoded
+        }
+    }
+
     /**
 	 * Transfer Reverse Word Index entries to remote peer. If the used IP is not
 	 * responding, this IP (interface) is removed from targtSeed IP list. Remote
@@ -1821,19 +1933,28 @@ public final class Protocol {
                 gzipBody = false;
             }
 
+            // peers which know the binary format get the postings streamed from the containers,
+            // older peers one line of text per posting
+            final boolean binary = targetSeed.getFlagBinaryRWITransfer();
             int indexcount = 0;
-            final StringBuilder entrypost = new StringBuilder(indexes.size() * 73);
-            Iterator<WordReference> eenum;
-            Reference entry;
-            for ( final ReferenceContainer<WordReference> ic : indexes ) {
-                eenum = ic.entries();
-                while ( eenum.hasNext() ) {
-                    entry = eenum.next();
-                    entrypost
-                            .append(ASCII.String(ic.getTermHash()))
-                            .append(entry.toPropertyForm())
-                            .append(serverCore.CRLF_STRING);
-                    indexcount++;
+            StringBuilder entrypost = null;
+            if (binary) {
+                for ( final ReferenceContainer<WordReference> ic : indexes ) indexcount += ic.size();
+                gzipBody = false; // the postings are compressed already
+            } else {
+                entrypost = new StringBuilder(indexes.size() * 73);
+                Iterator<WordReference> eenum;
+                Reference entry;
+                for ( final ReferenceContainer<WordReference> ic : indexes ) {
+                    eenum = ic.entries();
+                    while ( eenum.hasNext() ) {
+                        entry = eenum.next();
+                        entrypost
+                                .append(ASCII.String(ic.getTermHash()))
+                                .append(entry.toPropertyForm())
+                                .append(serverCore.CRLF_STRING);
+                        indexcount++;
+                    }
                 }
             }
 
@@ -1848,8 +1969,9 @@ public final class Protocol {
                 final Map<String, ContentBody> parts = basicRequestParts(Switchboard.getSwitchboard(), targetSeed.hash, salt);
                 parts.put("wordc", UTF8.StringBody(Integer.toString(indexes.size())));
                 parts.put("entryc", UTF8.StringBody(Integer.toString(indexcount)));
-                parts.put("indexes", UTF8.StringBody(entrypost.toString()));
-                final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, timeout);
+                final RWIBody rwiBody = binary ? new RWIBody(indexes) : null;
+                parts.put("indexes", binary ? rwiBody : UTF8.StringBody(entrypost.toString()));
+                final HTTPClient httpClient = peerClient(timeout);
                 byte[] content = null;
                 try {
 					content = httpClient.POSTbytes(new MultiProtocolURL(targetBaseURL, "/yacy/transferRWI.html"),
@@ -1873,7 +1995,7 @@ public final class Protocol {
 
                 final Map<String, String> result = FileUtils.table(v);
                 // return the transfered index data in bytes (for debugging only)
-                result.put("indexPayloadSize", Integer.toString(entrypost.length()));
+                result.put("indexPayloadSize", Long.toString(binary ? rwiBody.length : entrypost.length()));
                 result.put(Seed.IP, ip); // add used ip to result for error handling (in case no "result" key was received)
                 return result;
             } catch (final Exception e ) {
@@ -1953,7 +2075,7 @@ public final class Protocol {
                 MultiProtocolURL targetBaseURL = targetSeed.getPublicMultiprotocolURL(ip, preferHttps);
                 
                 parts.put("urlc", UTF8.StringBody(Integer.toString(urlc)));
-                final HTTPClient httpClient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, timeout);
+                final HTTPClient httpClient = peerClient(timeout);
                 byte[] content = null;
                 try {
 					content = httpClient.POSTbytes(new MultiProtocolURL(targetBaseURL, "/yacy/transferURL.html"),
@@ -2001,7 +2123,7 @@ public final class Protocol {
             try {
                 final Map<String, ContentBody> parts =
                     basicRequestParts(sb, targetSeed.hash, salt);
-                final HTTPClient httpclient = new HTTPClient(ClientIdentification.yacyInternetCrawlerAgent, 15000);
+                final HTTPClient httpclient = peerClient(15000);
                 MultiProtocolURL targetBaseURL = targetSeed.getPublicMultiprotocolURL(ip, preferHttps);
                 byte[] content;
                 try {
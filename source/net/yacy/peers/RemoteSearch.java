@@ -28,15 +28,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.solr.client.solrj.SolrQuery;
 
 import net.yacy.cora.document.analysis.Classification.ContentDomain;
 import net.yacy.cora.document.encoding.ASCII;
 import net.yacy.cora.protocol.Domains;
+import net.yacy.cora.protocol.http.HTTPClient;
 import net.yacy.cora.storage.HandleSet;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.cora.util.Memory;
@@ -73,6 +77,27 @@ public class RemoteSearch extends Thread {
     private final long time;
     final private String language;
 
+    /** the time when this search was created, used to detect late responses */
+    private final long startTime;
+
+    /** true when the target peer answered */
+    private volatile boolean answered;
+
+    /** a redundant search on an alternative peer responsible for the same DHT positions, started when this target answers late */
+    private volatile RemoteSearch hedge;
+
+    /** true when this search is the redundant search of a late target */
+    private boolean redundant;
+
+    /** shared by a search and its redundant search, set by the first of both which settles the expected remote references */
+    private AtomicBoolean settled;
+
+    /** true when this search was cancelled because the other search of a redundant pair answered first */
+    private volatile boolean cancelled;
+
+    /** the client sending the search request, aborted when this search is cancelled */
+    private volatile HTTPClient client;
+
     public RemoteSearch(
               final SearchEvent event,
               final String wordhashes,
@@ -102,6 +127,102 @@ public class RemoteSearch extends Thread {
         this.count = count;
         this.time = time;
         this.maxDistance = maxDistance;
+        this.startTime = System.currentTimeMillis();
+        this.answered = false;
+        this.hedge = null;
+        this.redundant = false;
+        this.settled = new AtomicBoolean(false);
+        this.cancelled = false;
+        this.client = null;
+    }
+
+    /**
+     * Create a redundant search with the same parameters as this one on an alternative target peer.
+     * Both searches are linked, so the one answering last is cancelled and the expected remote references are
+     * counted once for both.
+     * @param alternative the alternative target peer
+     * @return the new search thread, not yet started, or null if this search answered in the meantime
+     */
+    private synchronized RemoteSearch hedgeTo(final Seed alternative) {
+        if (this.answered) return null;
+        final RemoteSearch rs = new RemoteSearch(
+                this.event,
+                this.wordhashes,
+                this.excludehashes,
+                this.language,
+                this.contentdom,
+                this.strictContentDom,
+                this.count,
+                this.time,
+                this.maxDistance,
+                this.partitions,
+                alternative,
+                this.secondarySearchSuperviser,
+                this.blacklist);
+        rs.hedge = this;
+        rs.redundant = true;
+        rs.settled = this.settled;
+        this.hedge = rs;
+        return rs;
+    }
+
+    /**
+     * @return true when this search is the redundant search of a late target, which does not count the expected
+     * remote references again
+     */
+    boolean isRedundant() {
+        return this.redundant;
+    }
+
+    /**
+     * @return true for the first search of a search and its redundant search which gets to process its results,
+     * this one removes the expected remote references of both from the search event
+     */
+    boolean settleExpectedReferences() {
+        return this.settled.compareAndSet(false, true);
+    }
+
+    /**
+     * @return true when this search was cancelled because the other search of a redundant pair answered first;
+     * its failure is not a failure of the target peer
+     */
+    boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Set the client which sends the search request, so that it can be aborted when the search is cancelled.
+     * @param client the client of the request
+     */
+    void requestStarted(final HTTPClient client) {
+        this.client = client;
+        if (this.cancelled) client.abort();
+    }
+
+    /**
+     * Called when the target peer answered: the redundant search of this search is cancelled when it
+     * did not answer yet.
+     */
+    void answered() {
+        final RemoteSearch other;
+        synchronized (this) {
+            this.answered = true;
+            other = this.hedge;
+        }
+        if (other != null && !other.answered && other.isAlive()) {
+            Network.log.info("REMOTE SEARCH - peer " + this.targetPeer.hash + ":" + this.targetPeer.getName() + " answered first, cancelling redundant search to peer " + other.targetPeer.hash + ":" + other.targetPeer.getName());
+            other.cancel();
+        }
+    }
+
+    /**
+     * Cancel this search: the pending request is aborted, so the thread does not wait for the response.
+     */
+    void cancel() {
+        this.cancelled = true;
+        final HTTPClient c = this.client;
+        if (c != null) c.abort();
+        this.interrupt();
     }
 
     /**
@@ -124,12 +245,13 @@ public class RemoteSearch extends Thread {
                         this.partitions,
                         this.targetPeer,
                         this.secondarySearchSuperviser,
-                        this.blacklist);
+                        this.blacklist,
+                        this);
             if (this.urls >= 0) {
                 // urls is an array of url hashes. this is only used for log output
                 this.event.peers.mySeed().incRI(this.urls);
                 this.event.peers.mySeed().incRU(this.urls);
-            } else {
+            } else if (!this.cancelled) {
                 Network.log.info("REMOTE SEARCH - no answer from remote peer " + this.targetPeer.hash + ":" + this.targetPeer.getName());
             }
         } catch(InterruptedException e) {
@@ -202,6 +324,8 @@ public class RemoteSearch extends Thread {
         // prepare seed targets and threads
         Random random = new Random(System.currentTimeMillis());
         Collection<Seed> dhtPeers = null;
+        final int hedgeMaxCount = sb.getConfigInt(SwitchboardConstants.REMOTESEARCH_HEDGE_MAXCOUNT, SwitchboardConstants.REMOTESEARCH_HEDGE_MAXCOUNT_DEFAULT);
+        Map<String, List<Seed>> hedgeAlternatives = null;
         if (clusterselection != null) {
             dhtPeers = DHTSelection.selectClusterPeers(event.peers, clusterselection);
         } else {
@@ -238,6 +362,16 @@ public class RemoteSearch extends Thread {
                     dhtPeers.clear();
                     for (int i = 0; i < targetSize; i++) dhtPeers.add(pa.remove(random.nextInt(pa.size())));
                 }
+                // collect the other peers responsible for the same DHT positions as candidates for redundant requests to late peers
+                if (hedgeMaxCount > 0 && !shortmem) {
+                    hedgeAlternatives = DHTSelection.selectDHTSearchAlternatives(
+                                event.peers,
+                                event.query.getQueryGoal().getIncludeHashes(),
+                                minage,
+                                minRWIWordCount,
+                                event.peers.redundancy() + 1,
+                                dhtPeers);
+                }
             }
         }
         if (dhtPeers == null) dhtPeers = new HashSet<Seed>();
@@ -285,6 +419,7 @@ public class RemoteSearch extends Thread {
         }
         
         // start search to YaCy DHT peers
+        final List<RemoteSearch> primaries = new ArrayList<RemoteSearch>(dhtPeers.size());
         if (!sb.getConfigBool(SwitchboardConstants.DEBUG_SEARCH_REMOTE_DHT_OFF, false)) {
             for (Seed dhtPeer: dhtPeers) {
                 if (dhtPeer == null || dhtPeer.hash == null) continue;
@@ -310,12 +445,109 @@ public class RemoteSearch extends Thread {
                         blacklist);
                     rs.start();
                     event.primarySearchThreadsL.add(rs);
+                    primaries.add(rs);
                 } catch (final OutOfMemoryError e) {
                     ConcurrentLog.logException(e);
                     break;
                 }
             }
         }
+
+        // watch the DHT searches and start redundant requests to alternative peers when a target answers late
+        if (hedgeAlternatives != null && !hedgeAlternatives.isEmpty() && !primaries.isEmpty()) {
+            final long minDelay = sb.getConfigLong(SwitchboardConstants.REMOTESEARCH_HEDGE_MINDELAY, SwitchboardConstants.REMOTESEARCH_HEDGE_MINDELAY_DEFAULT);
+            final HedgedSearchSuperviser superviser = new HedgedSearchSuperviser(event, primaries, hedgeAlternatives, dhtPeers, hedgeMaxCount, minDelay);
+            event.hedgedSearchSuperviser = superviser;
+            superviser.start();
+        }
+    }
+
+    /**
+     * Supervises the primary searches to DHT peers. A target which did not answer after its expected response time
+     * (derived from the response time statistics in the seed database) gets a redundant search request to another
+     * peer responsible for the same DHT positions. Results are added to the search event by whichever peer answers first,
+     * the request of the other search is then aborted. The number of redundant requests per search event is limited.
+     * The superviser is interrupted by the cleanup of the search event.
+     */
+    private static class HedgedSearchSuperviser extends Thread {
+
+        private final SearchEvent event;
+        private final List<RemoteSearch> primaries;
+        private final Map<String, List<Seed>> alternatives;
+        private final Set<String> used;
+        private final int maxCount;
+        private final long minDelay;
+
+        public HedgedSearchSuperviser(
+                final SearchEvent event,
+                final List<RemoteSearch> primaries,
+                final Map<String, List<Seed>> alternatives,
+                final Collection<Seed> targets,
+                final int maxCount,
+                final long minDelay) {
+            super(ysThreadGroup, "RemoteSearch.HedgedSearchSuperviser");
+            this.event = event;
+            this.primaries = primaries;
+            this.alternatives = alternatives;
+            this.used = new HashSet<String>();
+            for (final Seed s: targets) this.used.add(s.hash);
+            this.maxCount = maxCount;
+            this.minDelay = minDelay;
+        }
+
+        @Override
+        public void run() {
+            int hedged = 0;
+            try {
+                while (hedged < this.maxCount) {
+                    boolean waiting = false;
+                    final long now = System.currentTimeMillis();
+                    for (final RemoteSearch primary: this.primaries) {
+                        if (primary.answered || primary.hedge != null || !primary.isAlive()) continue;
+                        if (!hasAlternative(primary.targetPeer)) continue;
+                        waiting = true;
+                        final long delay = Math.max(this.minDelay, this.event.peers.expectedResponseTime(primary.targetPeer.hash, Math.max(3000, primary.time)));
+                        if (now - primary.startTime < delay) continue;
+                        final Seed alternative = nextAlternative(primary.targetPeer);
+                        if (alternative == null) continue;
+                        if (MemoryControl.shortStatus()) return;
+                        final RemoteSearch rs = primary.hedgeTo(alternative);
+                        if (rs == null) continue;
+                        // add before the start and check for the cleanup of the event after, so that the cleanup sees the search
+                        this.event.primarySearchThreadsL.add(rs);
+                        if (this.isInterrupted()) return;
+                        log.info("REMOTE SEARCH - peer " + primary.targetPeer.hash + ":" + primary.targetPeer.getName() + " is late after " + (now - primary.startTime) + " ms, starting redundant search to peer " + alternative.hash + ":" + alternative.getName());
+                        rs.start();
+                        hedged++;
+                        if (hedged >= this.maxCount) break;
+                    }
+                    if (!waiting) break;
+                    Thread.sleep(50);
+                }
+            } catch (final InterruptedException e) {
+                // the search event has been cleaned up
+            } catch (final OutOfMemoryError e) {
+                ConcurrentLog.logException(e);
+            }
+        }
+
+        private boolean hasAlternative(final Seed target) {
+            final List<Seed> candidates = this.alternatives.get(target.hash);
+            if (candidates == null) return false;
+            for (final Seed candidate: candidates) {
+                if (!this.used.contains(candidate.hash)) return true;
+            }
+            return false;
+        }
+
+        private Seed nextAlternative(final Seed target) {
+            final List<Seed> candidates = this.alternatives.get(target.hash);
+            if (candidates == null) return null;
+            for (final Seed candidate: candidates) {
+                if (this.used.add(candidate.hash)) return candidate;
+            }
+            return null;
+        }
     }
 
     public static Thread secondaryRemoteSearch(
@@ -440,6 +672,37 @@ public class RemoteSearch extends Thread {
         return solr;
     }
 
+    /**
+     * Create and start a thread counting the facets of a query on the local Solr index, to feed the event navigators.
+     * This thread is not a feeder of the event : it delivers no documents, and the results of the event must not wait for it.
+     * @param event the origin search event. Must not be null.
+     * @param solrQuery a facets only Solr query derived from the search event, see QueryParams.solrFacetQuery(). Must not be null.
+     * @param blacklist the blacklist to use. Can be empty but must not be null.
+     * @return the created and running Thread instance
+     */
+    public static Thread solrFacetSearch(
+                    final SearchEvent event,
+                    final SolrQuery solrQuery,
+                    final Blacklist blacklist) {
+        
+        assert solrQuery != null;
+        if (event.peers.mySeed() == null) { return null; }
+        Thread facets = new Thread("RemoteSearch.solrFacetSearch(" + solrQuery.getQuery() + ")") {
+            @Override
+            public void run() {
+                    try {
+                        Protocol.solrQuery(event, solrQuery, 0, 0, event.peers.mySeed(), 0, blacklist, true, true);
+                    } catch (final InterruptedException e) {
+                        Network.log.info("LOCAL SEARCH - interrupted facets search");
+                    } catch (final Exception e) {
+                        ConcurrentLog.logException(e);
+                    }
+            }
+        };
+        facets.start();
+        return facets;
+    }
+
     public static int remainingWaiting(final RemoteSearch[] searchThreads) {
         if (searchThreads == null) return 0;
         int alive = 0;
@@ -0,0 +1,158 @@
+// ResponseTimeStatistics.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.peers;
+
+/**
+ * Smoothed response time statistics of a single remote peer.
+ * The estimation follows the retransmission timer computation of TCP (RFC 6298):
+ * a smoothed mean and a smoothed mean deviation are updated with each observed
+ * response time, and timeouts are derived from both values.
+ * Instances are kept in memory only, they are not part of the seed DNA and are not
+ * transmitted to other peers.
+ */
+public class ResponseTimeStatistics {
+
+    /** weight of a new sample for the smoothed mean (1/8) */
+    private static final int MEAN_SHIFT = 3;
+
+    /** weight of a new sample for the smoothed deviation (1/4) */
+    private static final int DEVIATION_SHIFT = 2;
+
+    private long mean;      // smoothed response time in milliseconds
+    private long deviation; // smoothed mean deviation in milliseconds
+    private long last;      // the last observed response time in milliseconds
+    private int samples;    // number of successful responses
+    private int failures;   // number of failed requests
+    private long lastUpdate;
+
+    public ResponseTimeStatistics() {
+        this.mean = 0;
+        this.deviation = 0;
+        this.last = 0;
+        this.samples = 0;
+        this.failures = 0;
+        this.lastUpdate = 0;
+    }
+
+    /**
+     * Record the response time of a successful request
+     * @param time the response time in milliseconds
+     */
+    public synchronized void add(final long time) {
+        final long t = Math.max(0, time);
+        update(t);
+        this.last = t;
+        this.samples++;
+    }
+
+    /**
+     * Record a failed request. The failure is counted as a sample taking the whole timeout,
+     * so the estimation of unreliable peers drifts towards the timeout limit.
+     * @param timeout the timeout in milliseconds that was applied to the failed request
+     */
+    public synchronized void addFailure(final long timeout) {
+        update(Math.max(0, timeout));
+        this.failures++;
+    }
+
+    /**
+     * smooth the mean and the deviation with a new sample; the first sample initializes them.
+     * Must be called before the sample is counted.
+     * @param t the response time of the sample in milliseconds
+     */
+    private void update(final long t) {
+        if (this.samples == 0 && this.failures == 0) {
+            this.mean = t;
+            this.deviation = t / 2;
+        } else {
+            this.deviation += (Math.abs(this.mean - t) - this.deviation) >> DEVIATION_SHIFT;
+            this.mean += (t - this.mean) >> MEAN_SHIFT;
+        }
+        this.lastUpdate = System.currentTimeMillis();
+    }
+
+    /**
+     * @return true when at least one response or failure was recorded
+     */
+    public synchronized boolean isKnown() {
+        return this.samples + this.failures > 0;
+    }
+
+    /**
+     * @return the smoothed response time in milliseconds
+     */
+    public synchronized long getMean() {
+        return this.mean;
+    }
+
+    /**
+     * @return the smoothed mean deviation of the response time in milliseconds
+     */
+    public synchronized long getDeviation() {
+        return this.deviation;
+    }
+
+    /**
+     * @return the last observed response time in milliseconds
+     */
+    public synchronized long getLast() {
+        return this.last;
+    }
+
+    public synchronized int getSamples() {
+        return this.samples;
+    }
+
+    public synchronized int getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @return the time of the last update in milliseconds since epoch, 0 if never updated
+     */
+    public synchronized long getLastUpdate() {
+        return this.lastUpdate;
+    }
+
+    /**
+     * The time after which a response of this peer can be considered as late.
+     * @param dflt the value to return when nothing is known about the peer
+     * @return mean + 2 * deviation or dflt
+     */
+    public synchronized long expected(final long dflt) {
+        if (!isKnown()) return dflt;
+        return this.mean + 2 * this.deviation;
+    }
+
+    /**
+     * The adaptive request timeout for this peer.
+     * @param min the lower bound of the timeout
+     * @param max the upper bound of the timeout, also used when nothing is known about the peer
+     * @return mean + 4 * deviation limited to the interval [min, max]
+     */
+    public synchronized long timeout(final long min, final long max) {
+        if (!isKnown()) return max;
+        return Math.max(min, Math.min(max, this.mean + 4 * this.deviation));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "mean=" + this.mean + "ms, deviation=" + this.deviation + "ms, samples=" + this.samples + ", failures=" + this.failures;
+    }
+}
@@ -98,6 +98,9 @@ public final class SeedDB implements AlternativeDomainNames {
 
     private Seed mySeed; // my own seed
 
+    /** response time statistics of remote peers, kept in memory only and keyed by peer hash */
+    private final ConcurrentMap<String, ResponseTimeStatistics> responseTimes;
+
     public SeedDB(
             final File networkRoot,
             final String seedActiveDBFileName,
@@ -115,6 +118,7 @@ public final class SeedDB implements AlternativeDomainNames {
         this.myOwnSeedFile = myOwnSeedFile;
         this.netRedundancy = redundancy;
         this.scheme = new Distribution(partitionExponent);
+        this.responseTimes = new ConcurrentHashMap<String, ResponseTimeStatistics>();
 
         // set up seed database
         this.seedActiveDB = openSeedTable(this.seedActiveDBFile);
@@ -160,6 +164,7 @@ public final class SeedDB implements AlternativeDomainNames {
 
         this.netRedundancy = redundancy;
         this.scheme = new Distribution(partitionExponent);
+        this.responseTimes.clear(); // the statistics belong to the peers of the old network
 
         // set up seed database
         this.seedActiveDB = openSeedTable(this.seedActiveDBFile);
@@ -630,6 +635,67 @@ public final class SeedDB implements AlternativeDomainNames {
         return seed;
     }
 
+    /**
+     * Record the response time of a successful request to a remote peer
+     * @param peerHash the hash of the remote peer
+     * @param time the response time in milliseconds
+     */
+    public void recordResponseTime(final String peerHash, final long time) {
+        if (peerHash == null) return;
+        responseTimeStatistics(peerHash).add(time);
+    }
+
+    /**
+     * Record a failed or timed out request to a remote peer
+     * @param peerHash the hash of the remote peer
+     * @param timeout the timeout in milliseconds that was applied to the request
+     */
+    public void recordResponseFailure(final String peerHash, final long timeout) {
+        if (peerHash == null) return;
+        responseTimeStatistics(peerHash).addFailure(timeout);
+    }
+
+    /**
+     * @param peerHash the hash of a remote peer
+     * @return the response time statistics of the peer, null if the peer was never asked
+     */
+    public ResponseTimeStatistics getResponseTime(final String peerHash) {
+        if (peerHash == null) return null;
+        return this.responseTimes.get(peerHash);
+    }
+
+    /**
+     * Compute an adaptive request timeout for a remote peer from its observed response times
+     * @param peerHash the hash of the remote peer
+     * @param min the lower bound of the timeout in milliseconds
+     * @param max the upper bound of the timeout in milliseconds, used for unknown peers
+     * @return the timeout in milliseconds
+     */
+    public long responseTimeout(final String peerHash, final long min, final long max) {
+        final ResponseTimeStatistics stats = getResponseTime(peerHash);
+        return stats == null ? max : stats.timeout(min, max);
+    }
+
+    /**
+     * @param peerHash the hash of a remote peer
+     * @param dflt the value returned for unknown peers
+     * @return the time in milliseconds after which a response of the peer is late
+     */
+    public long expectedResponseTime(final String peerHash, final long dflt) {
+        final ResponseTimeStatistics stats = getResponseTime(peerHash);
+        return stats == null ? dflt : stats.expected(dflt);
+    }
+
+    private ResponseTimeStatistics responseTimeStatistics(final String peerHash) {
+        ResponseTimeStatistics stats = this.responseTimes.get(peerHash);
+        if (stats == null) {
+            final ResponseTimeStatistics newStats = new ResponseTimeStatistics();
+            stats = this.responseTimes.putIfAbsent(peerHash, newStats);
+            if (stats == null) stats = newStats;
+        }
+        return stats;
+    }
+
     public void updateConnected(final Seed seed) {
         if (seed.isProper(false) != null) return;
         final ConcurrentMap<String, String> seedPropMap = seed.getMap();
@@ -131,6 +131,7 @@ import net.yacy.cora.protocol.RequestHeader;
 import net.yacy.cora.protocol.TimeoutRequest;
 import net.yacy.cora.protocol.http.HTTPClient;
 import net.yacy.cora.protocol.http.ProxySettings;
+import net.yacy.cora.util.ByteArray;
 import net.yacy.cora.util.CommonPattern;
 import net.yacy.cora.util.ConcurrentLog;
 import net.yacy.cora.util.JSONArray;
@@ -159,6 +160,7 @@ import net.yacy.data.BookmarkHelper;
 import net.yacy.data.BookmarksDB;
 import net.yacy.data.ListManager;
 import net.yacy.data.MessageBoard;
+import net.yacy.data.SuggestionIndex;
 import net.yacy.data.UserDB;
 import net.yacy.data.UserDB.AccessRight;
 import net.yacy.data.WorkTables;
@@ -166,10 +168,12 @@ import net.yacy.data.wiki.WikiBoard;
 import net.yacy.data.wiki.WikiCode;
 import net.yacy.data.wiki.WikiParser;
 import net.yacy.data.ymark.YMarkTables;
+import net.yacy.document.ArchiveMemberParser;
 import net.yacy.document.Condenser;
 import net.yacy.document.Document;
 import net.yacy.document.LibraryProvider;
 import net.yacy.document.Parser;
+import net.yacy.document.ParserCache;
 import net.yacy.document.Parser.Failure;
 import net.yacy.document.ProbabilisticClassifier;
 import net.yacy.document.TextParser;
@@ -185,6 +189,7 @@ import net.yacy.document.parser.html.Evaluation;
 import net.yacy.gui.Audio;
 import net.yacy.gui.Tray;
 import net.yacy.http.YaCyHttpServer;
+import net.yacy.http.servlets.ResponseCache;
 import net.yacy.kelondro.blob.ArrayStack;
 import net.yacy.kelondro.blob.BEncodedHeap;
 import net.yacy.kelondro.blob.Tables;
@@ -200,6 +205,7 @@ import net.yacy.kelondro.util.SetTools;
 import net.yacy.kelondro.workflow.BusyThread;
 import net.yacy.kelondro.workflow.InstantBusyThread;
 import net.yacy.kelondro.workflow.OneTimeBusyThread;
+import net.yacy.kelondro.workflow.WorkflowPartitioner;
 import net.yacy.kelondro.workflow.WorkflowProcessor;
 import net.yacy.kelondro.workflow.WorkflowTask;
 import net.yacy.kelondro.workflow.WorkflowThread;
@@ -220,6 +226,7 @@ import net.yacy.repository.Blacklist;
 import net.yacy.repository.Blacklist.BlacklistType;
 import net.yacy.repository.FilterEngine;
 import net.yacy.repository.LoaderDispatcher;
+import net.yacy.search.index.DocumentBatch;
 import net.yacy.search.index.Fulltext;
 import net.yacy.search.index.Segment;
 import net.yacy.search.index.Segment.ReferenceReportCache;
@@ -274,6 +281,9 @@ public final class Switchboard extends serverSwitch {
     public File surrogatesOutPath;
     public Segment index;
     public LoaderDispatcher loader;
+    public ParserCache parserCache;
+    public ResponseCache responseCache;
+    public volatile SuggestionIndex suggestionIndex;
     public CrawlSwitchboard crawler;
     public CrawlQueues crawlQueues;
     public CrawlStacker crawlStacker;
@@ -307,6 +317,7 @@ public final class Switchboard extends serverSwitch {
     public WorkflowProcessor<IndexingQueueEntry> indexingCondensementProcessor;
     public WorkflowProcessor<IndexingQueueEntry> indexingAnalysisProcessor;
     public WorkflowProcessor<IndexingQueueEntry> indexingStorageProcessor;
+    private DocumentBatch[] indexingStorageBatches; // the Solr document buffers of the indexingStorageProcessor partitions
 
     public RobotsTxtConfig robotstxtConfig = null;
     public boolean useTailCache;
@@ -449,6 +460,10 @@ public final class Switchboard extends serverSwitch {
 					}
 				}
 
+                // the suggestions are built again with the loaded dictionaries
+                final SuggestionIndex suggestions = Switchboard.this.suggestionIndex;
+                if (suggestions != null) suggestions.invalidate();
+
                 Thread.currentThread().setName("ProbabilisticClassification.initialize");
                 ProbabilisticClassifier.initialize(Switchboard.this.classificationPath);
             }
@@ -902,6 +917,12 @@ public final class Switchboard extends serverSwitch {
         TextParser.setDenyExtension(getConfig(SwitchboardConstants.PARSER_EXTENSIONS_DENY, ""));
         pdfParser.individualPages = getConfigBool(SwitchboardConstants.PARSER_PDF_INDIVIDUALPAGES, false);
         pdfParser.individualPagePropertyname = getConfig(SwitchboardConstants.PARSER_PDF_INDIVIDUALPAGES_KEY, "page");
+        final int archiveConcurrency = getConfigInt(SwitchboardConstants.PARSER_ARCHIVE_CONCURRENCY, SwitchboardConstants.PARSER_ARCHIVE_CONCURRENCY_DEFAULT);
+        ArchiveMemberParser.concurrency = archiveConcurrency > 0 ? archiveConcurrency : Runtime.getRuntime().availableProcessors();
+        this.parserCache = new ParserCache(getConfigLong(SwitchboardConstants.PARSER_CACHE_MAXSIZE, SwitchboardConstants.PARSER_CACHE_MAXSIZE_DEFAULT) * 1024L * 1024L);
+        this.responseCache = new ResponseCache(getConfigLong(SwitchboardConstants.SERVER_RESPONSE_CACHE_MAXSIZE, SwitchboardConstants.SERVER_RESPONSE_CACHE_MAXSIZE_DEFAULT) * 1024L * 1024L);
+        this.suggestionIndex = new SuggestionIndex(getConfigLong(SwitchboardConstants.SEARCH_SUGGEST_REFRESH, SwitchboardConstants.SEARCH_SUGGEST_REFRESH_DEFAULT) * 60000L);
+        this.suggestionIndex.buildInBackground();
 
         // start a loader
         this.log.config("Starting Crawl Loader");
@@ -1029,10 +1050,16 @@ public final class Switchboard extends serverSwitch {
         this.clusterhashes = this.peers.clusterHashes(getConfig("cluster.peers.yacydomain", ""));
 
         // deploy blocking threads
+        int storageWorkers = getConfigInt(SwitchboardConstants.INDEXER_STORAGE_WORKERS, 0);
+        if (storageWorkers <= 0) storageWorkers = Math.max(1, Math.min(4, WorkflowProcessor.availableCPU / 2));
+        this.indexingStorageBatches = new DocumentBatch[storageWorkers];
+        for (int i = 0; i < storageWorkers; i++) {
+            this.indexingStorageBatches[i] = new DocumentBatch(getConfigInt(SwitchboardConstants.INDEXER_STORAGE_BATCHSIZE, SwitchboardConstants.INDEXER_STORAGE_BATCHSIZE_DEFAULT));
+        }
         this.indexingStorageProcessor =
             new WorkflowProcessor<IndexingQueueEntry>(
                 "storeDocumentIndex",
-                "This is the sequencing step of the indexing queue. Files are written as streams, too much councurrency would destroy IO performance. In this process the words are written to the RWI cache, which flushes if it is full.",
+                "This is the sequencing step of the indexing queue. The documents are distributed by their url hash to a small number of workers, so that all versions of a document are stored in sequence. Each worker sends its documents to Solr in batches. In this process the words are written to the RWI cache, which flushes if it is full.",
                 new String[] {
                     "RWI/Cache/Collections"
                 },
@@ -1040,13 +1067,25 @@ public final class Switchboard extends serverSwitch {
 
 					@Override
 					public IndexingQueueEntry process(final IndexingQueueEntry in) throws Exception {
-						storeDocumentIndex(in);
+						storeDocumentIndex(in, Switchboard.this.indexingStorageBatches[storagePartition(in, Switchboard.this.indexingStorageBatches.length)]);
 						return null;
 					}
 				},
-                2,
+                2 * storageWorkers,
                 null,
-                1);
+                storageWorkers,
+                new WorkflowPartitioner<IndexingQueueEntry>() {
+
+					@Override
+					public int partition(final IndexingQueueEntry in, final int partitions) {
+						return storagePartition(in, partitions);
+					}
+
+					@Override
+					public void idle(final int partition) {
+						Switchboard.this.indexingStorageBatches[partition].flush();
+					}
+				});
         this.indexingAnalysisProcessor =
             new WorkflowProcessor<IndexingQueueEntry>(
                 "webStructureAnalysis",
@@ -1098,6 +1137,14 @@ public final class Switchboard extends serverSwitch {
                 Math.max(20, WorkflowProcessor.availableCPU * 2), // it may happen that this is filled with new files from the search process. That means there should be enough place for two result pages
                 this.indexingCondensementProcessor,
                 WorkflowProcessor.availableCPU);
+        if (getConfigBool(SwitchboardConstants.INDEXER_AUTOSCALE, true)) {
+            final int minWorkers = getConfigInt(SwitchboardConstants.INDEXER_AUTOSCALE_MIN, SwitchboardConstants.INDEXER_AUTOSCALE_MIN_DEFAULT);
+            int maxWorkers = getConfigInt(SwitchboardConstants.INDEXER_AUTOSCALE_MAX, 0);
+            if (maxWorkers <= 0) maxWorkers = 2 * WorkflowProcessor.availableCPU;
+            this.indexingDocumentProcessor.setConcurrencyBounds(minWorkers, maxWorkers);
+            this.indexingCondensementProcessor.setConcurrencyBounds(minWorkers, maxWorkers);
+            this.indexingAnalysisProcessor.setConcurrencyBounds(minWorkers, maxWorkers);
+        }
 
         // deploy busy threads
         this.log.config("Starting Threads");
@@ -1320,6 +1367,9 @@ public final class Switchboard extends serverSwitch {
 			setConfig(SwitchboardConstants.HTTP_OUTGOING_POOL_REMOTE_SOLR_MAX_TOTAL, remoteSolrPoolMaxTotal);
 		}
 		RemoteInstance.initPoolMaxConnections(RemoteInstance.CONNECTION_MANAGER, remoteSolrPoolMaxTotal);
+
+		Protocol.KEEP_ALIVE.set(getConfigBool(SwitchboardConstants.HTTP_OUTGOING_PEERS_KEEPALIVE,
+				SwitchboardConstants.HTTP_OUTGOING_PEERS_KEEPALIVE_DEFAULT));
 	}
 
     final String getSysinfo() {
@@ -2021,6 +2071,7 @@ public final class Switchboard extends serverSwitch {
         this.indexingCondensementProcessor.shutdown();
         this.indexingAnalysisProcessor.shutdown();
         this.indexingStorageProcessor.shutdown();
+        for (final DocumentBatch batch: this.indexingStorageBatches) batch.flush();
         if ( this.dhtDispatcher != null ) {
             this.dhtDispatcher.close();
         }
@@ -3033,8 +3084,17 @@ public final class Switchboard extends serverSwitch {
             }
         }
         assert response.getContent() != null;
-        
-        try {
+
+        // re-use the documents of an earlier parsing of the same content at the same url
+        byte[] contentDigest = null;
+        String parserSettings = null;
+        if (this.parserCache.isEnabled() && response.profile() != null) {
+            contentDigest = ParserCache.digest(response.getContent());
+            parserSettings = response.profile().handle() + "/" + response.depth() + "/" + pdfParser.individualPages;
+            documents = this.parserCache.get(response.url(), contentDigest, response.getMimeType(), response.getCharacterEncoding(), parserSettings);
+        }
+
+        if (documents == null) try {
             final String supportError = TextParser.supports(response.url(), response.getMimeType());
     		if (supportError != null) {
     			/* No parser available or format is denied */
@@ -3070,6 +3130,7 @@ public final class Switchboard extends serverSwitch {
             if ( documents == null ) {
                 throw new Parser.Failure("Parser returned null.", response.url());
             }
+            if (contentDigest != null) this.parserCache.put(response.url(), contentDigest, response.getMimeType(), response.getCharacterEncoding(), parserSettings, documents);
         } catch (final Parser.Failure e ) {
             this.log.warn("Unable to parse the resource '" + response.url().toNormalform(true) + "'. " + e.getMessage());
             // create a new errorURL DB entry
@@ -3347,6 +3408,24 @@ public final class Switchboard extends serverSwitch {
      * Store a new entry to the local index.
      */
     public void storeDocumentIndex(final IndexingQueueEntry in) {
+        storeDocumentIndex(in, null);
+    }
+
+    /**
+     * @param in an entry of the indexing queue
+     * @param partitions the number of storage partitions
+     * @return the storage partition of the entry, selected by the url hash
+     */
+    private static int storagePartition(final IndexingQueueEntry in, final int partitions) {
+        return (ByteArray.hashCode(in.queueEntry.url().hash()) & Integer.MAX_VALUE) % partitions;
+    }
+
+    /**
+     * store the documents of an indexing queue entry
+     * @param in an entry of the indexing queue
+     * @param batch the Solr document buffer of the calling thread, null to write the documents immediately
+     */
+    private void storeDocumentIndex(final IndexingQueueEntry in, final DocumentBatch batch) {
         in.queueEntry.updateStatus(Response.QUEUE_STATE_INDEXSTORAGE);
         // the condenser may be null in case that an indexing is not wanted (there may be a no-indexing flag in the file)
         if ( in.condenser != null ) {
@@ -3358,7 +3437,8 @@ public final class Switchboard extends serverSwitch {
                     in.documents[i],
                     in.condenser[i],
                     null,
-                    profile == null ? "crawler" : profile.handle());
+                    profile == null ? "crawler" : profile.handle(),
+                    batch);
             }
         }
         in.queueEntry.updateStatus(Response.QUEUE_STATE_FINISHED);
@@ -3380,6 +3460,20 @@ public final class Switchboard extends serverSwitch {
         final Condenser condenser,
         final SearchEvent searchEvent,
         final String sourceName) {
+        storeDocumentIndex(queueEntry, collections, document, condenser, searchEvent, sourceName, null);
+    }
+
+    /**
+     * @param batch the Solr document buffer of the calling thread, null to write the documents immediately
+     */
+    private void storeDocumentIndex(
+        final Response queueEntry,
+        final Map<String, Pattern> collections,
+        final Document document,
+        final Condenser condenser,
+        final SearchEvent searchEvent,
+        final String sourceName,
+        final DocumentBatch batch) {
 
         //TODO: document must carry referer, size and last modified
 
@@ -3450,7 +3544,8 @@ public final class Switchboard extends serverSwitch {
                 sourceName,
                 getConfigBool(SwitchboardConstants.DHT_ENABLED, false),
                 this.getConfigBool(SwitchboardConstants.PROXY_TRANSPARENT_PROXY, false) ? "http://127.0.0.1:" + sb.getConfigInt(SwitchboardConstants.SERVER_PORT, 8090) : null,
-                this.getConfig("crawler.http.acceptLanguage", null));
+                this.getConfig("crawler.http.acceptLanguage", null),
+                batch);
         final RSSFeed feed =
             EventChannel.channels(queueEntry.initiator() == null
                 ? EventChannel.PROXY
@@ -4422,6 +4517,7 @@ public final class Switchboard extends serverSwitch {
         mySeed.put(Seed.UTC, GenericFormatter.UTCDiffString());
         mySeed.setFlagAcceptRemoteCrawl(getConfigBool(SwitchboardConstants.CRAWLJOB_REMOTE, false));
         mySeed.setFlagAcceptRemoteIndex(getConfigBool(SwitchboardConstants.INDEX_RECEIVE_ALLOW, true));
+        mySeed.setFlagBinaryRWITransfer(true);
         mySeed.setFlagSSLAvailable(this.getHttpServer() != null && this.getHttpServer().withSSL() && getConfigBool("server.https", false));
         if (mySeed.getFlagSSLAvailable()) mySeed.put(Seed.PORTSSL, Integer.toString(getPublicPort(SwitchboardConstants.SERVER_SSLPORT, 8443)));
 
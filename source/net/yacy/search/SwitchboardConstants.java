@@ -167,6 +167,28 @@ public final class SwitchboardConstants {
     public static final String CLEANUP                      = "90_cleanup";
     public static final String CLEANUP_IDLESLEEP            = "90_cleanup_idlesleep";
     public static final String CLEANUP_BUSYSLEEP            = "90_cleanup_busysleep";
+
+    /** Setting key for the number of concurrent workers of the storeDocumentIndex stage. Zero selects a number depending on the available CPU cores. */
+    public static final String INDEXER_STORAGE_WORKERS = "indexer.storage.workers";
+
+    /** Setting key for the number of documents each storeDocumentIndex worker buffers before they are sent to Solr */
+    public static final String INDEXER_STORAGE_BATCHSIZE = "indexer.storage.batchsize";
+
+    /** Default number of documents each storeDocumentIndex worker buffers before they are sent to Solr */
+    public static final int INDEXER_STORAGE_BATCHSIZE_DEFAULT = 16;
+
+    /** Setting key to let the number of workers of the parse, condense and analysis stages follow their load */
+    public static final String INDEXER_AUTOSCALE = "indexer.autoscale";
+
+    /** Setting key for the smallest number of workers of an autoscaled indexing stage */
+    public static final String INDEXER_AUTOSCALE_MIN = "indexer.autoscale.min";
+
+    /** Default smallest number of workers of an autoscaled indexing stage */
+    public static final int INDEXER_AUTOSCALE_MIN_DEFAULT = 1;
+
+    /** Setting key for the largest number of workers of an autoscaled indexing stage. Zero selects twice the number of CPU cores. */
+    public static final String INDEXER_AUTOSCALE_MAX = "indexer.autoscale.max";
+
     /**
      * <p><code>public static final String <strong>INDEX_DIST_CHUNK_SIZE_START</strong> = "indexDistribution.startChunkSize"</code></p>
      * <p>Name of the setting specifying how many words the very first chunk will contain when the DHT-thread starts</p>
@@ -220,6 +242,12 @@ public final class SwitchboardConstants {
     public static final String PARSER_EXTENSIONS_DENY           = "parser.extensions.deny";
     public static final String PARSER_PDF_INDIVIDUALPAGES       = "parser.pdf.individualpages";
     public static final String PARSER_PDF_INDIVIDUALPAGES_KEY   = "parser.pdf.individualpages.key";
+    /** the maximum estimated size in megabytes of the parser results which are kept for urls loaded again with identical content; opt-in, 0 disables the cache */
+    public static final String PARSER_CACHE_MAXSIZE             = "parser.cache.maxSize";
+    public static final long PARSER_CACHE_MAXSIZE_DEFAULT       = 0;
+    /** the maximum number of members of one archive which are parsed at the same time, 0 for the number of processors */
+    public static final String PARSER_ARCHIVE_CONCURRENCY       = "parser.archive.concurrency";
+    public static final int PARSER_ARCHIVE_CONCURRENCY_DEFAULT  = 0;
     /**
      * <p><code>public static final String <strong>PROXY_ONLINE_CAUTION_DELAY</strong> = "onlineCautionDelay"</code></p>
      * <p>Name of the setting how long indexing should pause after the last time the proxy was used in milliseconds</p>
@@ -295,6 +323,18 @@ public final class SwitchboardConstants {
     
     /** Default setting value controlling whether https should be preferred for remote searches, when available on the target peer */
     public static final boolean REMOTESEARCH_HTTPS_PREFERRED_DEFAULT = false;
+
+    /** Setting key to configure the maximum number of redundant requests to alternative DHT peers per search, when a target peer answers late. Set to zero to disable. */
+    public static final String REMOTESEARCH_HEDGE_MAXCOUNT = "remotesearch.hedge.maxcount";
+
+    /** Default maximum number of redundant remote RWI search requests per search */
+    public static final int REMOTESEARCH_HEDGE_MAXCOUNT_DEFAULT = 2;
+
+    /** Setting key to configure the minimum time in milliseconds to wait for a target peer before a redundant request is sent to an alternative peer */
+    public static final String REMOTESEARCH_HEDGE_MINDELAY = "remotesearch.hedge.mindelay";
+
+    /** Default minimum time in milliseconds to wait before a redundant remote RWI search request */
+    public static final long REMOTESEARCH_HEDGE_MINDELAY_DEFAULT = 500;
     
 	/**
 	 * Setting key to configure whether responses from remote Solr instances
@@ -490,13 +530,79 @@ public final class SwitchboardConstants {
     
     /** Setting key of the property that collects the names of all servlets that have been used so far. */
     public static final String SERVER_SERVLETS_CALLED    = "server.servlets.called";
+
+    /** Key of the setting controlling whether new or changed servlet classes in htroot are loaded again while the server runs (for development) */
+    public static final String SERVER_SERVLETS_RELOAD = "server.servlets.reload";
+
+    /** Default setting value controlling whether servlet classes are loaded again when they change */
+    public static final boolean SERVER_SERVLETS_RELOAD_DEFAULT = false;
     
     /** Key of the setting controlling whether HTTP responses should be compressed with gzip when the user-agent accepts it (by including gzip in a 'Accept-Encoding' HTTP request header) */
     public static final String SERVER_RESPONSE_COMPRESS_GZIP = "server.response.compress.gzip";
     
     /** Default setting value controlling whether HTTP responses should be compressed */
     public static final boolean SERVER_RESPONSE_COMPRESS_GZIP_DEFAULT = true;
-    
+
+    /** Key of the setting for the maximum size in megabytes of the cached responses of the Solr select and GSA servlets, 0 to disable the cache */
+    public static final String SERVER_RESPONSE_CACHE_MAXSIZE = "server.response.cache.maxSize";
+
+    /** Default maximum size in megabytes of the cached responses of the Solr select and GSA servlets */
+    public static final long SERVER_RESPONSE_CACHE_MAXSIZE_DEFAULT = 32;
+
+    /** Key of the setting controlling whether requests to the search endpoints pass the admission control of rate limits and concurrency limits */
+    public static final String SERVER_ADMISSION_ENABLED = "server.admission.enabled";
+
+    /** Default setting value controlling whether the admission control is enabled */
+    public static final boolean SERVER_ADMISSION_ENABLED_DEFAULT = true;
+
+    /** Key of the setting with the comma separated paths of the endpoints under admission control, without extension */
+    public static final String SERVER_ADMISSION_PATHS = "server.admission.paths";
+
+    /** Default paths of the endpoints under admission control */
+    public static final String SERVER_ADMISSION_PATHS_DEFAULT = "/yacysearch,/solr/select,/solr/collection1/select,/solr/webgraph/select,/gsa/search";
+
+    /** Key of the setting for the sustained number of requests per second of a single client to one endpoint */
+    public static final String SERVER_ADMISSION_CLIENT_RATE = "server.admission.client.rate";
+
+    /** Default number of requests per second of a single client to one endpoint */
+    public static final float SERVER_ADMISSION_CLIENT_RATE_DEFAULT = 10.0f;
+
+    /** Key of the setting for the number of requests a single client may send to one endpoint in a burst above its rate */
+    public static final String SERVER_ADMISSION_CLIENT_BURST = "server.admission.client.burst";
+
+    /** Default number of requests in a burst of a single client */
+    public static final int SERVER_ADMISSION_CLIENT_BURST_DEFAULT = 30;
+
+    /** Key of the setting for the sustained number of requests per second of all clients to one endpoint */
+    public static final String SERVER_ADMISSION_ENDPOINT_RATE = "server.admission.endpoint.rate";
+
+    /** Default number of requests per second of all clients to one endpoint */
+    public static final float SERVER_ADMISSION_ENDPOINT_RATE_DEFAULT = 100.0f;
+
+    /** Key of the setting for the number of requests all clients may send to one endpoint in a burst above its rate */
+    public static final String SERVER_ADMISSION_ENDPOINT_BURST = "server.admission.endpoint.burst";
+
+    /** Default number of requests in a burst of all clients */
+    public static final int SERVER_ADMISSION_ENDPOINT_BURST_DEFAULT = 200;
+
+    /** Key of the setting for the lowest limit of concurrent requests to one endpoint, the limit adapts to the latency between this and the maximum */
+    public static final String SERVER_ADMISSION_CONCURRENCY_MIN = "server.admission.concurrency.min";
+
+    /** Default lowest limit of concurrent requests to one endpoint */
+    public static final int SERVER_ADMISSION_CONCURRENCY_MIN_DEFAULT = 4;
+
+    /** Key of the setting for the highest limit of concurrent requests to one endpoint */
+    public static final String SERVER_ADMISSION_CONCURRENCY_MAX = "server.admission.concurrency.max";
+
+    /** Default highest limit of concurrent requests to one endpoint */
+    public static final int SERVER_ADMISSION_CONCURRENCY_MAX_DEFAULT = 100;
+
+    /** Key of the setting for the time in milliseconds after which an idle connection to the http and https ports is closed, which is how long a client can keep the connection open for further requests */
+    public static final String SERVER_IDLE_TIMEOUT = "server.idleTimeout";
+
+    /** Default time in milliseconds after which an idle connection is closed */
+    public static final int SERVER_IDLE_TIMEOUT_DEFAULT = 30000;
+
     
     /** Key of the setting controlling the maximum number of simultaneously open outgoing HTTP connections in the general pool (net.yacy.cora.protocol.http.HTTPClient) */
     public static final String HTTP_OUTGOING_POOL_GENERAL_MAX_TOTAL = "http.outgoing.pool.general.maxTotal";
@@ -510,6 +616,12 @@ public final class SwitchboardConstants {
     /** Default setting value controlling the maximum number of simultaneously open outgoing HTTP connections in the remote Solr pool */
     public static final int HTTP_OUTGOING_POOL_REMOTE_SOLR_MAX_TOTAL_DEFAULT = 100;
     
+    /** Key of the setting controlling whether the connections of the peer-to-peer protocol (net.yacy.peers.Protocol) are kept open and reused for further requests to the same peer */
+    public static final String HTTP_OUTGOING_PEERS_KEEPALIVE = "http.outgoing.peers.keepAlive";
+    
+    /** Default setting value controlling whether the connections to other peers are kept open */
+    public static final boolean HTTP_OUTGOING_PEERS_KEEPALIVE_DEFAULT = true;
+    
     /** Key of the setting controlling whether TLS Server Name Indication (SNI) extension is enabled on outgoing HTTP connections in the general http client (net.yacy.cora.protocol.http.HTTPClient) */
     public static final String HTTP_OUTGOING_GENERAL_TLS_SNI_EXTENSION_ENABLED = "http.outgoing.general.tls.sniExtension.enabled";
     
@@ -617,6 +729,12 @@ public final class SwitchboardConstants {
     public static final String UPNP_REMOTEHOST		= "upnp.remoteHost";
 
     public static final String SEARCH_ITEMS   = "search.items";
+
+    /** Key of the setting for the minutes after which the index of query suggestions is built again from the dictionaries and the learned words */
+    public static final String SEARCH_SUGGEST_REFRESH = "search.suggest.refresh";
+
+    /** Default number of minutes after which the index of query suggestions is built again */
+    public static final long SEARCH_SUGGEST_REFRESH_DEFAULT = 10;
     public static final String SEARCH_TARGET_DEFAULT  = "search.target";
     public static final String SEARCH_TARGET_SPECIAL          = "search.target.special"; // exceptions to the search target
     public static final String SEARCH_TARGET_SPECIAL_PATTERN  = "search.target.special.pattern"; // ie 'own' addresses in topframe, 'other' in iframe
@@ -681,6 +799,18 @@ public final class SwitchboardConstants {
     /** Default setting value controlling whether the eventual website favicon should be fetched and displayed for each search result in the HTML results page */
     public static final boolean SEARCH_RESULT_SHOW_FAVICON_DEFAULT = true;
     
+    /** Key of the setting controlling whether the local Solr query of a first results page is split into a fast documents query without facets and an asynchronous facets query */
+    public static final String SEARCH_SOLR_FIRSTPAGE_FASTPATH = "search.solr.firstpage.fastpath";
+    
+    /** Default setting value controlling whether the local Solr query of a first results page is split into a documents query and an asynchronous facets query */
+    public static final boolean SEARCH_SOLR_FIRSTPAGE_FASTPATH_DEFAULT = true;
+    
+    /** Key of the setting controlling the maximum time in milliseconds the local Solr may spend collecting the documents of a first results page. Zero or negative for no limit. */
+    public static final String SEARCH_SOLR_FIRSTPAGE_TIMEALLOWED = "search.solr.firstpage.timeAllowed";
+    
+    /** Default maximum time in milliseconds the local Solr may spend collecting the documents of a first results page */
+    public static final int SEARCH_SOLR_FIRSTPAGE_TIMEALLOWED_DEFAULT = 1000;
+    
     
 
     /**
@@ -0,0 +1,104 @@
+// DocumentBatch.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.search.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.common.SolrInputDocument;
+
+import net.yacy.cora.util.ConcurrentLog;
+
+/**
+ * A buffer of documents and webgraph edges for the Solr indexes of a segment. Each indexing worker
+ * owns one batch; the buffered documents are written with one request per index when the batch
+ * is full or when the worker is idle, instead of one request per document.
+ */
+public class DocumentBatch {
+
+    private final int maxsize;
+    private final List<SolrInputDocument> documents;
+    private final List<SolrInputDocument> edges;
+    private Fulltext fulltext; // the target of the buffered documents
+
+    /**
+     * @param maxsize the number of documents which causes a write of the batch
+     */
+    public DocumentBatch(final int maxsize) {
+        this.fulltext = null;
+        this.maxsize = Math.max(1, maxsize);
+        this.documents = new ArrayList<SolrInputDocument>(this.maxsize);
+        this.edges = new ArrayList<SolrInputDocument>();
+    }
+
+    /**
+     * add a document to the batch and write the batch if it is full
+     * @param fulltext the target indexes of the document
+     * @param document the document for the default collection
+     * @param webgraph the edges of the document for the webgraph, may be null
+     */
+    public synchronized void add(final Fulltext fulltext, final SolrInputDocument document, final List<SolrInputDocument> webgraph) {
+        if (this.fulltext != fulltext) {
+            // the segment has been replaced: the buffered documents belong to the former one
+            flush();
+            this.fulltext = fulltext;
+        }
+        this.documents.add(document);
+        if (webgraph != null && this.fulltext.useWebgraph()) this.edges.addAll(webgraph);
+        if (this.documents.size() >= this.maxsize) flush();
+    }
+
+    /**
+     * @return the number of buffered documents
+     */
+    public synchronized int size() {
+        return this.documents.size();
+    }
+
+    /**
+     * write all buffered documents and edges
+     */
+    public synchronized void flush() {
+        if (this.fulltext == null) return;
+        if (!this.documents.isEmpty()) try {
+            this.fulltext.putDocuments(this.documents);
+        } catch (final IOException e) {
+            ConcurrentLog.logException(e);
+        } finally {
+            this.documents.clear();
+        }
+        if (!this.edges.isEmpty()) {
+            tryloop: for (int i = 0; i < 20; i++) {
+                try {
+                    this.fulltext.putEdges(this.edges);
+                    break tryloop;
+                } catch (final IOException e) {
+                    ConcurrentLog.warn("SOLR", "failed to send " + this.edges.size() + " edges to solr: " + e.getMessage());
+                    if (i == 10) this.fulltext.commit(true);
+                    try {Thread.sleep(1000);} catch (final InterruptedException e1) {break tryloop;}
+                }
+            }
+            this.edges.clear();
+        }
+    }
+
+}
@@ -39,7 +39,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 import java.util.zip.Deflater;
@@ -104,6 +106,8 @@ public final class Fulltext {
     private final CollectionConfiguration collectionConfiguration;
     private final WebgraphConfiguration   webgraphConfiguration;
     private       boolean                 writeWebgraph;
+    private final Map<String, Long>       citationChangedHosts; // host hashes of removed documents, their host link graph changed; mapped to the number of the last change
+    private final AtomicLong              citationChanges;
 
     protected Fulltext(final File segmentPath, final File archivePath,
             final CollectionConfiguration collectionConfiguration, final WebgraphConfiguration webgraphConfiguration) {
@@ -115,6 +119,8 @@ public final class Fulltext {
         this.collectionConfiguration = collectionConfiguration;
         this.webgraphConfiguration = webgraphConfiguration;
         this.writeWebgraph = false;
+        this.citationChangedHosts = new ConcurrentHashMap<String, Long>();
+        this.citationChanges = new AtomicLong(0);
     }
     
     public void setUseWebgraph(boolean check) {
@@ -381,6 +387,26 @@ public final class Fulltext {
         if (MemoryControl.shortStatus()) clearCaches();
     }
 
+    /**
+     * write several documents to the default Solr index with one request
+     * @param docs the documents to write
+     * @throws IOException when the documents could not be written
+     */
+    public void putDocuments(final Collection<SolrInputDocument> docs) throws IOException {
+        if (docs == null || docs.isEmpty()) return;
+        SolrConnector connector = this.getDefaultConnector();
+        if (connector == null) return;
+        for (final SolrInputDocument doc: docs) {
+            ConcurrentLog.info("Fulltext", "indexing: " + doc.getFieldValue(CollectionSchema.id.getSolrFieldName()) + " " + doc.getFieldValue(CollectionSchema.sku.getSolrFieldName()));
+        }
+        try {
+            connector.add(docs);
+        } catch (final SolrException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (MemoryControl.shortStatus()) clearCaches();
+    }
+
     public void putEdges(final Collection<SolrInputDocument> edges) throws IOException {
         if (!this.useWebgraph()) return;
         if (edges == null || edges.size() == 0) return;
@@ -534,6 +560,7 @@ public final class Fulltext {
         if (deleteIDs == null || deleteIDs.size() == 0) return;
         try {
             this.getDefaultConnector().deleteByIds(deleteIDs);
+            for (String id : deleteIDs) citationChanged(id);
             if (this.writeWebgraph) { // Webgraph.id is combination of sourceHash+targetHash+hexCounter, to be successful use source_id_s and/or target_id_s
                 for (String id : deleteIDs) {
                 	/* Add quotes around the url hash to prevent Solr logging a ParseException stack trace when the hash start with a '-' character */
@@ -556,6 +583,7 @@ public final class Fulltext {
         try {
             String id = ASCII.String(urlHash);
             this.getDefaultConnector().deleteById(id);
+            citationChanged(id);
             if (this.writeWebgraph) { // Webgraph.id is combination of sourceHash+targetHash+hexCounter, to be successful use source_id_s and/or target_id_s
             	/* Add quotes around the url hash to prevent Solr logging a ParseException stack trace when the hash start with a '-' character */
                 this.getWebgraphConnector().deleteByQuery(WebgraphSchema.source_id_s + ":\"" + id + "\"");
@@ -566,6 +594,31 @@ public final class Fulltext {
         return false;
     }
 
+    private void citationChanged(final String id) {
+        if (id != null && id.length() == 12) this.citationChangedHosts.put(id.substring(6), this.citationChanges.incrementAndGet());
+    }
+
+    /**
+     * Get the hosts which lost documents. The internal links of these hosts changed, therefore the citation
+     * ranking of their remaining documents must be computed again. The hosts are kept until they are removed
+     * with {@link #removeCitationChangedHosts(Map)} after a successful computation.
+     * @return a copy of the host hashes of removed documents, mapped to the number of their last change
+     */
+    public Map<String, Long> getCitationChangedHosts() {
+        return new HashMap<String, Long>(this.citationChangedHosts);
+    }
+
+    /**
+     * Remove hosts after the citation ranking of their documents was computed again. A host which lost
+     * another document in the meantime is kept.
+     * @param hosts the hosts as returned by {@link #getCitationChangedHosts()}
+     */
+    public void removeCitationChangedHosts(final Map<String, Long> hosts) {
+        for (final Map.Entry<String, Long> entry: hosts.entrySet()) {
+            this.citationChangedHosts.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
     public DigestURL getURL(final String urlHash) throws IOException {
         if (urlHash == null || this.getDefaultConnector() == null) return null;
         
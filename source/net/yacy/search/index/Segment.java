@@ -598,6 +598,30 @@ public class Segment {
             final String proxy,
             final String acceptLanguage
             ) {
+        return storeDocument(url, crawlProfile, responseHeader, document, vector, language, condenser,
+                searchEvent, sourceName, storeToRWI, proxy, acceptLanguage, null);
+    }
+
+    /**
+     * store a document to the Solr indexes, the citation index and the RWI
+     * @param batch when not null, the Solr documents are buffered in this batch of the calling thread
+     *  instead of being written immediately
+     */
+    public SolrInputDocument storeDocument(
+            final DigestURL url,
+            final CrawlProfile crawlProfile,
+            final ResponseHeader responseHeader,
+            final Document document,
+            final CollectionConfiguration.SolrVector vector,
+            final String language,
+            final Condenser condenser,
+            final SearchEvent searchEvent,
+            final String sourceName, // contains the crawl profile hash if this comes from a web crawl
+            final boolean storeToRWI,
+            final String proxy,
+            final String acceptLanguage,
+            final DocumentBatch batch
+            ) {
         final long startTime = System.currentTimeMillis();
         
         final CollectionConfiguration collectionConfig = this.fulltext.getDefaultConfiguration();
@@ -636,10 +660,14 @@ public class Segment {
         }
         
         // STORE TO SOLR
-        this.putDocument(vector);
         List<SolrInputDocument> webgraph = vector.getWebgraphDocuments();
         String error = null;
-        if (webgraph != null && webgraph.size() > 0) {
+        if (batch != null) {
+            batch.add(this.fulltext, vector, webgraph);
+        } else {
+            this.putDocument(vector);
+        }
+        if (batch == null && webgraph != null && webgraph.size() > 0) {
             
             // write the edges to the webgraph solr index
             if (this.fulltext.useWebgraph()) {
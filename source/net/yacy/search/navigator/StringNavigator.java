@@ -30,17 +30,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import net.yacy.cora.sorting.ConcurrentScoreMap;
 import net.yacy.cora.sorting.ReversibleScoreMap;
+import net.yacy.cora.sorting.StripedScoreMap;
 import net.yacy.kelondro.data.meta.URIMetadataNode;
 import net.yacy.search.query.QueryModifier;
 import net.yacy.search.schema.CollectionSchema;
 
 /**
  * Search navigator for simple string entries based on ScoreMap to count and
- * order the result list by counted occurence
+ * order the result list by counted occurence. Counts are collected in a
+ * {@link StripedScoreMap}, so that the feeder threads of a search event can
+ * increment them with little contention.
  */
-public class StringNavigator extends ConcurrentScoreMap<String> implements Navigator {
+public class StringNavigator extends StripedScoreMap<String> implements Navigator {
 
     public String title;
     protected final CollectionSchema field;
@@ -187,7 +189,10 @@ public class StringNavigator extends ConcurrentScoreMap<String> implements Navig
     @Override
     public Iterator<String> navigatorKeys() {
     	if(this.sort.getSortType() == NavigatorSortType.LABEL) {
-        	final ArrayList<String> keys = new ArrayList<>(this.map.keySet());
+        	final ArrayList<String> keys = new ArrayList<>(this.size());
+        	for (final String key : this) {
+        		keys.add(key);
+        	}
         	
         	Comparator<String> keyComparator = Comparator.comparing(this::getElementDisplayName);
         	if(this.sort.getSortDir() == NavigatorSortDirection.DESC) {
@@ -112,9 +112,7 @@ public class AccessTracker {
         // learn that this word can be a word completion for the DidYouMeanLibrary
         String queryString = query.getQueryGoal().getQueryString(false);
         if (resultCount > 10 && queryString != null && queryString.length() > 0) {
-            final StringBuilder sb = new StringBuilder(queryString);
-            sb.append(queryString);
-            WordCache.learn(sb);
+            WordCache.learn(new StringBuilder(queryString));
         }
 
         // add query to statistics list
@@ -675,6 +675,37 @@ public final class QueryParams {
         return params;
     }
     
+    /**
+     * Derive the documents query of a first results page from a query built by solrQuery() : no facets are
+     * counted and the collection of matching documents is limited in time, so that the first results can be shown
+     * as soon as possible on large indexes. When the time is exceeded, Solr returns the best documents collected so far
+     * and flags its response header with partialResults.
+     * @param query a Solr query built by solrQuery(). It is not modified.
+     * @param timeAllowed the maximum time in milliseconds Solr may spend collecting documents. No limit when zero or negative.
+     * @return a new Solr query instance
+     */
+    public static SolrQuery solrFirstPageQuery(final SolrQuery query, final int timeAllowed) {
+        final SolrQuery params = query.getCopy();
+        params.setFacet(false);
+        if (timeAllowed > 0) params.setTimeAllowed(timeAllowed);
+        return params;
+    }
+
+    /**
+     * Derive a facets only query from a query built by solrQuery() with facets : no documents are returned and
+     * nothing is highlighted, Solr only counts the matching documents and the facets values.
+     * @param query a Solr query built by solrQuery() with facets. It is not modified.
+     * @return a new Solr query instance
+     */
+    public static SolrQuery solrFacetQuery(final SolrQuery query) {
+        final SolrQuery params = query.getCopy();
+        params.setStart(0);
+        params.setRows(0);
+        params.setHighlight(false);
+        params.setFields(CollectionSchema.id.getSolrFieldName());
+        return params;
+    }
+
     private SolrQuery solrImageQuery(final boolean getFacets, final boolean strictContentDom) {
         if (this.cachedQuery != null) {
             this.cachedQuery.setStart(this.offset);
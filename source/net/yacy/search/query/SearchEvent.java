@@ -41,14 +41,15 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
 import java.util.regex.Pattern;
 
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.common.SolrDocument;
 
 import net.yacy.contentcontrol.ContentControlFilterUpdateThread;
@@ -68,6 +69,7 @@ import net.yacy.cora.sorting.ConcurrentScoreMap;
 import net.yacy.cora.sorting.ReversibleScoreMap;
 import net.yacy.cora.sorting.ScoreMap;
 import net.yacy.cora.sorting.ScoreMapUpdatesListener;
+import net.yacy.cora.sorting.StripedScoreMap;
 import net.yacy.cora.sorting.WeakPriorityBlockingQueue;
 import net.yacy.cora.sorting.WeakPriorityBlockingQueue.Element;
 import net.yacy.cora.sorting.WeakPriorityBlockingQueue.ReverseElement;
@@ -103,6 +105,7 @@ import net.yacy.search.SwitchboardConstants;
 import net.yacy.search.index.Segment;
 import net.yacy.search.navigator.Navigator;
 import net.yacy.search.navigator.NavigatorPlugins;
+import net.yacy.search.ranking.ReferenceColumns;
 import net.yacy.search.ranking.ReferenceOrder;
 import net.yacy.search.schema.CollectionConfiguration;
 import net.yacy.search.schema.CollectionSchema;
@@ -143,6 +146,8 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
     public final List<RemoteSearch> primarySearchThreadsL;
     public final List<Thread> nodeSearchThreads;
     public Thread[] secondarySearchThreads;
+    /** starts redundant searches for late DHT targets, null if there is none */
+    public volatile Thread hedgedSearchSuperviser;
     public final SortedSet<byte[]> preselectedPeerHashes;
     private final SortedMap<byte[], Integer> IACount;
     private final SortedMap<byte[], String> IAResults;
@@ -151,6 +156,9 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
     public Thread rwiProcess;
     public Thread localsolrsearch;
     
+    /** The local Solr facets query of the first page fast path, feeding the navigators concurrently to the documents query */
+    private Thread localsolrfacets;
+    
     /** Offset of the next local Solr index request
      * Example : last local request with offset=10 and itemsPerPage=20, sets this attribute to 30. */
     private int localsolroffset;
@@ -165,7 +173,7 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
     public final ScoreMap<String> protocolNavigator;
     
     /** a counter for file types */
-    public final ConcurrentScoreMap<String> dateNavigator;
+    public final StripedScoreMap<String> dateNavigator;
     
     /** counters for Vocabularies; key is metatag.getVocabularyName() */
     public final Map<String, ScoreMap<String>> vocabularyNavigator;
@@ -373,9 +381,9 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         	}
         }
         
-        this.locationNavigator = locationNavEnabled ? new ConcurrentScoreMap<>(this) : null;
-        this.protocolNavigator = protocolNavEnabled ? new ConcurrentScoreMap<>(this) : null;
-        this.dateNavigator = dateNavEnabled ? new ConcurrentScoreMap<>(this) : null;
+        this.locationNavigator = locationNavEnabled ? new StripedScoreMap<>(this) : null;
+        this.protocolNavigator = protocolNavEnabled ? new StripedScoreMap<>(this) : null;
+        this.dateNavigator = dateNavEnabled ? new StripedScoreMap<>(this) : null;
         this.topicNavigatorCount = topicsNavEnabled ? MAX_TOPWORDS : 0;
         this.vocabularyNavigator = new TreeMap<String, ScoreMap<String>>();
         // prepare configured search navigation (plugins)
@@ -441,11 +449,24 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         }
 
         // start a local solr search
+        this.localsolrfacets = null;
         if (!Switchboard.getSwitchboard().getConfigBool(SwitchboardConstants.DEBUG_SEARCH_LOCAL_SOLR_OFF, false)) {
         	final boolean useSolrFacets = true;
-			this.localsolrsearch = RemoteSearch.solrRemoteSearch(this,
-					this.query.solrQuery(this.query.contentdom, this.query.isStrictContentDom(), useSolrFacets, this.excludeintext_image), this.query.offset,
-					this.query.itemsPerPage, null /* this peer */, 0, Switchboard.urlBlacklist, useSolrFacets, true);
+        	final SolrQuery solrQuery = this.query.solrQuery(this.query.contentdom, this.query.isStrictContentDom(), useSolrFacets, this.excludeintext_image);
+			if (this.query.offset == 0 && !this.query.facetfields.isEmpty() && Switchboard.getSwitchboard().getConfigBool(
+					SwitchboardConstants.SEARCH_SOLR_FIRSTPAGE_FASTPATH, SwitchboardConstants.SEARCH_SOLR_FIRSTPAGE_FASTPATH_DEFAULT)) {
+				/* First page fast path : the documents are collected without facets and within a limited time, while the facets
+				 * and the exact number of matching documents are counted by a concurrent query and added to the navigators when available.
+				 * As with the next pages, navigators are not incremented by the documents query. */
+				final int timeAllowed = Switchboard.getSwitchboard().getConfigInt(SwitchboardConstants.SEARCH_SOLR_FIRSTPAGE_TIMEALLOWED,
+						SwitchboardConstants.SEARCH_SOLR_FIRSTPAGE_TIMEALLOWED_DEFAULT);
+				this.localsolrfacets = RemoteSearch.solrFacetSearch(this, QueryParams.solrFacetQuery(solrQuery), Switchboard.urlBlacklist);
+				this.localsolrsearch = RemoteSearch.solrRemoteSearch(this, QueryParams.solrFirstPageQuery(solrQuery, timeAllowed), this.query.offset,
+						this.query.itemsPerPage, null /* this peer */, 0, Switchboard.urlBlacklist, false, false);
+			} else {
+				this.localsolrsearch = RemoteSearch.solrRemoteSearch(this, solrQuery, this.query.offset,
+						this.query.itemsPerPage, null /* this peer */, 0, Switchboard.urlBlacklist, useSolrFacets, true);
+			}
         }
         this.localsolroffset = this.query.offset + this.query.itemsPerPage;
         
@@ -465,7 +486,8 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
                 this.primarySearchThreadsL = null;
                 this.nodeSearchThreads = null;
             } else {
-                this.primarySearchThreadsL = new ArrayList<RemoteSearch>();
+                // written by the remote search threads and read by the cleanup and the search event picture
+                this.primarySearchThreadsL = new CopyOnWriteArrayList<RemoteSearch>();
                 this.nodeSearchThreads = new ArrayList<Thread>();
                 // start this concurrently because the remote search needs an enumeration
                 // of the remote peers which may block in some cases when i.e. DHT is active
@@ -693,9 +715,10 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         }
         long timer = System.currentTimeMillis();
 
-        // normalize entries
-        final BlockingQueue<WordReferenceVars> decodedEntries = this.order.normalizeWith(index, maxtime, local);
-        int is = index.size();
+        // decode and rank entries
+        final ReferenceColumns columns = ReferenceColumns.decode(index, maxtime);
+        final long[] ranking = this.order.rank(columns);
+        int is = columns.size();
         EventTracker.update(EventTracker.EClass.SEARCH, new ProfilingGraph.EventSearch(
             this.query.id(true),
             SearchEventType.NORMALIZING,
@@ -704,124 +727,23 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
             System.currentTimeMillis() - timer), false);
         if (!local) this.receivedRemoteReferences.addAndGet(is);
 
-        // iterate over normalized entries and select some that are better than currently stored
+        // iterate over ranked entries and select some that are better than currently stored
         timer = System.currentTimeMillis();
 
         // apply all constraints
         long timeout = maxtime == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + maxtime;
         int successcounter = 0;
         try {
-            WordReferenceVars iEntry;
-            long remaining;
             String acceptableAlternativeSitehash = null;
             if (this.query.modifier.sitehost != null && this.query.modifier.sitehost.length() > 0) try {
                 acceptableAlternativeSitehash = DigestURL.hosthash(this.query.modifier.sitehost.startsWith("www.") ? this.query.modifier.sitehost.substring(4) : "www." + this.query.modifier.sitehost, 80);
             } catch (MalformedURLException e1) {}
-            pollloop: while ( true ) {
-                remaining = timeout - System.currentTimeMillis();
-                if (remaining <= 0) {
-                    ConcurrentLog.warn("SearchEvent", "terminated 'add' loop before poll time-out = " + remaining + ", decodedEntries.size = " + decodedEntries.size());
-                    break;
-                }
-                iEntry = decodedEntries.poll(remaining, TimeUnit.MILLISECONDS);
-                if (iEntry == null) {
-                    ConcurrentLog.warn("SearchEvent", "terminated 'add' loop after poll time-out = " + remaining + ", decodedEntries.size = " + decodedEntries.size());
-                    break pollloop;
-                }
-                if (iEntry == WordReferenceVars.poison) {
-                    break pollloop;
-                }
-                assert (iEntry.urlhash().length == index.row().primaryKeyLength);
-
-                // doublecheck for urls
-                if (this.urlhashes.has(iEntry.urlhash())) {
-                    if (log.isFine()) log.fine("dropped RWI: doublecheck");
-                    continue pollloop;
-                }
-                
-                // increase flag counts
-                Bitfield flags = iEntry.flags();
-                for (int j = 0; j < 32; j++) {
-                    if (flags.get(j)) this.flagcount[j]++;
-                }
-
-                // check constraints
-                if (!this.testFlags(flags)) {
-                    if (log.isFine()) log.fine("dropped RWI: flag test failed");
-                    continue pollloop;
-                }
-
-                // check document domain
-                if (this.query.contentdom.getCode() > 0) {
-                	boolean domainMatch = true;
-                	if(this.query.isStrictContentDom()) {
-                		if((this.query.contentdom == ContentDomain.AUDIO && iEntry.getType() != Response.DT_AUDIO) || 
-                                (this.query.contentdom == ContentDomain.VIDEO && iEntry.getType() != Response.DT_MOVIE) ||
-                                (this.query.contentdom == ContentDomain.IMAGE && iEntry.getType() != Response.DT_IMAGE) ||
-                                (this.query.contentdom == ContentDomain.APP && !(flags.get(Tokenizer.flag_cat_hasapp)))) {
-                                	domainMatch = false;    	
-                                }
-                	} else if((this.query.contentdom == ContentDomain.AUDIO && !(flags.get(Tokenizer.flag_cat_hasaudio))) || 
-                                (this.query.contentdom == ContentDomain.VIDEO && !(flags.get(Tokenizer.flag_cat_hasvideo))) ||
-                                (this.query.contentdom == ContentDomain.IMAGE && !(flags.get(Tokenizer.flag_cat_hasimage))) ||
-                                (this.query.contentdom == ContentDomain.APP && !(flags.get(Tokenizer.flag_cat_hasapp)))) {
-                			domainMatch = false;
-                	}
-                	if(!domainMatch) {
-                		if (log.isFine()) {
-                			log.fine("dropped RWI: contentdom fail");
-                		}
-                		continue pollloop;
-                	}
-                }
-                
-                // check language
-				if (this.query.modifier.language != null && !this.query.modifier.language.isEmpty()
-						&& !this.query.modifier.language.equals(iEntry.getLanguageString())) {
-                	if (log.isFine()) {
-                		log.fine("dropped RWI: language constraint = " + this.query.modifier.language);
-                	}
-                	continue pollloop;
-                }
-                
-                // count domZones
-                //this.domZones[DigestURI.domDomain(iEntry.metadataHash())]++;
-
-                // check site constraints
-                final String hosthash = iEntry.hosthash();
-                if ( this.query.modifier.sitehash == null ) {
-                    if (this.query.siteexcludes != null && this.query.siteexcludes.contains(hosthash)) {
-                        if (log.isFine()) log.fine("dropped RWI: siteexcludes");
-                        continue pollloop;
-                    }
-                } else {
-                    // filter out all domains that do not match with the site constraint
-                    if (!hosthash.equals(this.query.modifier.sitehash) && (acceptableAlternativeSitehash == null || !hosthash.equals(acceptableAlternativeSitehash))) {
-                        if (log.isFine()) log.fine("dropped RWI: modifier.sitehash");
-                        continue pollloop;
-                    }
-                }
-
-                // finally extend the double-check and insert result to stack
-                this.urlhashes.putUnique(iEntry.urlhash());
-                rankingtryloop: while (true) {
-                    try {
-                        this.rwiStack.put(new ReverseElement<WordReferenceVars>(iEntry, this.order.cardinal(iEntry))); // inserts the element and removes the worst (which is smallest)
-                        break rankingtryloop;
-                    } catch (final ArithmeticException e ) {
-                        // this may happen if the concurrent normalizer changes values during cardinal computation
-                        if (log.isFine()) log.fine("dropped RWI: arithmetic exception");
-                        continue rankingtryloop;
-                    }
-                }
-                // increase counter for statistics
-                if (local) this.local_rwi_available.incrementAndGet(); else this.remote_rwi_available.incrementAndGet();
-                
-                successcounter++;
-            }
+            final String alternativeSitehash = acceptableAlternativeSitehash;
+            successcounter = selectRWIs(columns, ranking, local, i -> this.acceptRWI(columns, i, alternativeSitehash), this.urlhashes, this.flagcount, this.rwiStack, timeout);
+            // increase counter for statistics
+            if (local) this.local_rwi_available.addAndGet(successcounter); else this.remote_rwi_available.addAndGet(successcounter);
             if (System.currentTimeMillis() >= timeout) ConcurrentLog.warn("SearchEvent", "rwi normalization ended with timeout = " + maxtime);
 
-        } catch (final InterruptedException e ) {
         } catch (final SpaceExceededException e ) {
         }
 
@@ -835,6 +757,134 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         return successcounter;
     }
     
+    /**
+     * Select the ranked entries of a container which pass the constraints of a query and put them into the rwi stack.
+     * This is the ranking loop of {@link #addRWIs(ReferenceContainer, boolean, String, int, long)} without the
+     * bookkeeping of the search event.
+     * @param columns the decoded entries of a container
+     * @param ranking the ranking of the entries
+     * @param local true if the entries come from the local index
+     * @param accept the constraints of the query for the entry with the given index
+     * @param urlhashes the url hashes of the entries which are already selected, extended by the selected entries
+     * @param flagcount the counts of the flags of the entries which are not already selected
+     * @param rwiStack the stack of the selected entries, a new entry is only put in if the stack is not full or the entry is better than the worst one
+     * @param timeout the time in milliseconds when the loop is terminated
+     * @return the number of selected entries
+     * @throws SpaceExceededException
+     */
+    public static int selectRWIs(
+            final ReferenceColumns columns,
+            final long[] ranking,
+            final boolean local,
+            final IntPredicate accept,
+            final HandleSet urlhashes,
+            final int[] flagcount,
+            final WeakPriorityBlockingQueue<WordReferenceVars> rwiStack,
+            final long timeout) throws SpaceExceededException {
+        final int is = columns.size();
+        int successcounter = 0;
+        entryloop: for (int i = 0; i < is; i++) {
+            if ((i & 0xff) == 0 && System.currentTimeMillis() > timeout) {
+                ConcurrentLog.warn("SearchEvent", "terminated 'add' loop after time-out, remaining entries = " + (is - i));
+                break entryloop;
+            }
+            final byte[] urlhash = columns.urlhash(i);
+
+            // doublecheck for urls
+            if (urlhashes.has(urlhash)) {
+                if (log.isFine()) log.fine("dropped RWI: doublecheck");
+                continue entryloop;
+            }
+
+            // increase flag counts
+            final int flagBits = columns.flagBits(i);
+            for (int j = 0; j < 32; j++) {
+                if (((flagBits >>> j) & 1) != 0) flagcount[j]++;
+            }
+
+            // check constraints
+            if (!accept.test(i)) continue entryloop;
+
+            // finally extend the double-check and insert result to stack
+            urlhashes.putUnique(urlhash);
+            // the entry object is only produced if it can enter the stack, otherwise the put would remove it again at once
+            final Element<WordReferenceVars> worst = rwiStack.isFull() ? rwiStack.getLastInQueue() : null;
+            if (worst == null || worst.getWeight() < ranking[i]) {
+                rwiStack.put(new ReverseElement<WordReferenceVars>(columns.reference(i, local), ranking[i])); // inserts the element and removes the worst (which is smallest)
+            }
+            successcounter++;
+        }
+        return successcounter;
+    }
+
+    /**
+     * @param columns the decoded entries of a container
+     * @param i the index of an entry
+     * @param acceptableAlternativeSitehash the host hash of the site constraint with or without www., or null
+     * @return true if the entry passes the flag, content domain, language and site constraints of the query
+     */
+    private boolean acceptRWI(final ReferenceColumns columns, final int i, final String acceptableAlternativeSitehash) {
+        // check constraints
+        final Bitfield flags = columns.flags(i);
+        if (!this.testFlags(flags)) {
+            if (log.isFine()) log.fine("dropped RWI: flag test failed");
+            return false;
+        }
+
+        // check document domain
+        if (this.query.contentdom.getCode() > 0) {
+        	boolean domainMatch = true;
+        	if(this.query.isStrictContentDom()) {
+        		final char type = columns.getType(i);
+        		if((this.query.contentdom == ContentDomain.AUDIO && type != Response.DT_AUDIO) || 
+                        (this.query.contentdom == ContentDomain.VIDEO && type != Response.DT_MOVIE) ||
+                        (this.query.contentdom == ContentDomain.IMAGE && type != Response.DT_IMAGE) ||
+                        (this.query.contentdom == ContentDomain.APP && !(flags.get(Tokenizer.flag_cat_hasapp)))) {
+                        	domainMatch = false;    	
+                        }
+        	} else if((this.query.contentdom == ContentDomain.AUDIO && !(flags.get(Tokenizer.flag_cat_hasaudio))) || 
+                        (this.query.contentdom == ContentDomain.VIDEO && !(flags.get(Tokenizer.flag_cat_hasvideo))) ||
+                        (this.query.contentdom == ContentDomain.IMAGE && !(flags.get(Tokenizer.flag_cat_hasimage))) ||
+                        (this.query.contentdom == ContentDomain.APP && !(flags.get(Tokenizer.flag_cat_hasapp)))) {
+        			domainMatch = false;
+        	}
+        	if(!domainMatch) {
+        		if (log.isFine()) {
+        			log.fine("dropped RWI: contentdom fail");
+        		}
+        		return false;
+        	}
+        }
+        
+        // check language
+        if (this.query.modifier.language != null && !this.query.modifier.language.isEmpty()
+                && !this.query.modifier.language.equals(columns.getLanguageString(i))) {
+        	if (log.isFine()) {
+        		log.fine("dropped RWI: language constraint = " + this.query.modifier.language);
+        	}
+        	return false;
+        }
+        
+        // count domZones
+        //this.domZones[DigestURI.domDomain(iEntry.metadataHash())]++;
+
+        // check site constraints
+        final String hosthash = columns.hosthash(i);
+        if ( this.query.modifier.sitehash == null ) {
+            if (this.query.siteexcludes != null && this.query.siteexcludes.contains(hosthash)) {
+                if (log.isFine()) log.fine("dropped RWI: siteexcludes");
+                return false;
+            }
+        } else {
+            // filter out all domains that do not match with the site constraint
+            if (!hosthash.equals(this.query.modifier.sitehash) && (acceptableAlternativeSitehash == null || !hosthash.equals(acceptableAlternativeSitehash))) {
+                if (log.isFine()) log.fine("dropped RWI: modifier.sitehash");
+                return false;
+            }
+        }
+        return true;
+    }
+
     public long getEventTime() {
         return this.eventTime;
     }
@@ -849,6 +899,9 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         if (this.localsolrsearch != null) {
             if (localsolrsearch.isAlive()) synchronized (this.localsolrsearch) {this.localsolrsearch.interrupt();}
         }
+        if (this.localsolrfacets != null) {
+            if (this.localsolrfacets.isAlive()) synchronized (this.localsolrfacets) {this.localsolrfacets.interrupt();}
+        }
         if (this.nodeSearchThreads != null) {
             for (final Thread search : this.nodeSearchThreads) {
                 if (search != null) {
@@ -856,6 +909,11 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
                 }
             }
         }
+        final Thread hedging = this.hedgedSearchSuperviser;
+        if (hedging != null) {
+            // stop first, so that no redundant search is started after the primary searches are interrupted
+            synchronized (hedging) {if (hedging.isAlive()) {hedging.interrupt();}}
+        }
         if (this.primarySearchThreadsL != null) {
             for (final RemoteSearch search : this.primarySearchThreadsL) {
                 if (search != null) {
@@ -1124,6 +1182,21 @@ public final class SearchEvent implements ScoreMapUpdatesListener {
         EventTracker.update(EventTracker.EClass.SEARCH, new ProfilingGraph.EventSearch(this.query.id(true), SearchEventType.PRESORT, resourceName, nodeList.size(), System.currentTimeMillis() - timer), false);
     }
 
+    /**
+     * Add the result of a facets only query on the local Solr index : the number of matching documents and
+     * eventually the navigators counts.
+     * @param facets facets counts from the local Solr
+     * @param fullResource the number of documents matching the query in the local Solr
+     * @param incrementNavigators when true, increment the event navigators with the facets counts
+     */
+    public void addLocalFacets(final Map<String, ReversibleScoreMap<String>> facets, final int fullResource,
+            final boolean incrementNavigators) {
+        this.local_solr_stored.set(fullResource);
+        if (incrementNavigators) {
+            incrNavigatorsFromSolrFacets(facets);
+        }
+    }
+
     /**
      * Increment this event eventual navigators with the given facets processed by a Solr instance
      * @param facets facets counts from a Solr instance
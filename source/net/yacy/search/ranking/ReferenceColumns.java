@@ -0,0 +1,238 @@
+// ReferenceColumns.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.search.ranking;
+
+import java.util.Arrays;
+
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.util.ConcurrentLog;
+import net.yacy.kelondro.data.word.Word;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceVars;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.kelondro.util.Bitfield;
+
+/**
+ * The ranking features of a reference container, decoded once into one primitive array per feature.
+ * This is the input of ReferenceOrder.rank(), which normalizes and scores all postings column by column
+ * in tight loops over the arrays instead of passing one WordReferenceVars object per posting through
+ * the queues of normalizeWith(). Objects for the postings are only produced on demand with reference(),
+ * i.e. for those postings which make it into the result stack.
+ */
+public final class ReferenceColumns {
+
+    // the features which are normalized to the range of all ranked postings before they are weighted
+    public static final int URLCOMPS      = 0;
+    public static final int URLLENGTH     = 1;
+    public static final int POSINTEXT     = 2;
+    public static final int POSOFPHRASE   = 3;
+    public static final int POSINPHRASE   = 4;
+    public static final int DISTANCE      = 5;
+    public static final int VIRTUALAGE    = 6;
+    public static final int WORDSINTITLE  = 7;
+    public static final int WORDSINTEXT   = 8;
+    public static final int PHRASESINTEXT = 9;
+    public static final int LLOCAL        = 10;
+    public static final int LOTHER        = 11;
+    public static final int HITCOUNT      = 12;
+    public static final int FEATURES      = 13;
+
+    private static final int HASHLENGTH = Word.commonHashLength;
+
+    private final ReferenceContainer<WordReference> container;
+    private int size;
+
+    final int[][] features;       // features[feature][posting]
+    final double[] termFrequency;
+    final int[] flags;            // the first 32 flag bits of each posting
+    final int[] domlength;        // 256 - DigestURL.domLengthNormalized(urlhash)
+    final int[] language;         // the two language bytes of each posting, see languageCode()
+    final char[] type;
+    final byte[] urlhashes;       // the url hashes of all postings, one after another
+
+    final int[] host;             // the host of each posting as index in hosts
+    String[] hosts;               // the different host hashes of the postings
+    int[] hostCount;              // the number of postings of each host
+
+    private ReferenceColumns(final ReferenceContainer<WordReference> container, final int capacity) {
+        this.container = container;
+        this.size = 0;
+        this.features = new int[FEATURES][capacity];
+        this.termFrequency = new double[capacity];
+        this.flags = new int[capacity];
+        this.domlength = new int[capacity];
+        this.language = new int[capacity];
+        this.type = new char[capacity];
+        this.urlhashes = new byte[capacity * HASHLENGTH];
+        this.host = new int[capacity];
+    }
+
+    /**
+     * decode the ranking features of all postings of a container
+     * @param container the reference container
+     * @param maxtime the maximum time for decoding; postings which could not be decoded in time are omitted
+     * @return the columns of the decoded postings
+     */
+    public static ReferenceColumns decode(final ReferenceContainer<WordReference> container, final long maxtime) {
+        final long timeout = maxtime == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + maxtime;
+        final int n = container.size();
+        final ReferenceColumns c = new ReferenceColumns(container, n);
+        final int[][] f = c.features;
+        int i = 0;
+        while (i < n) {
+            final WordReference ref = container.getReference(i);
+            if (ref == null) break;
+            final byte[] urlhash = ref.urlhash();
+            System.arraycopy(urlhash, 0, c.urlhashes, i * HASHLENGTH, HASHLENGTH);
+            f[URLCOMPS][i]      = ref.urlcomps();
+            f[URLLENGTH][i]     = ref.urllength();
+            f[POSINTEXT][i]     = ref.posintext();
+            f[POSOFPHRASE][i]   = ref.posofphrase();
+            f[POSINPHRASE][i]   = ref.posinphrase();
+            f[DISTANCE][i]      = ref.distance();
+            f[VIRTUALAGE][i]    = ref.virtualAge();
+            f[WORDSINTITLE][i]  = ref.wordsintitle();
+            f[WORDSINTEXT][i]   = ref.wordsintext();
+            f[PHRASESINTEXT][i] = ref.phrasesintext();
+            f[LLOCAL][i]        = ref.llocal();
+            f[LOTHER][i]        = ref.lother();
+            f[HITCOUNT][i]      = ref.hitcount();
+            c.termFrequency[i]  = ref.termFrequency();
+            final byte[] b = ref.flags().bytes();
+            int bits = 0;
+            for (int j = Math.min(4, b.length) - 1; j >= 0; j--) bits = (bits << 8) | (b[j] & 0xff);
+            c.flags[i] = bits;
+            c.domlength[i] = 256 - DigestURL.domLengthNormalized(urlhash);
+            c.language[i] = languageCode(ref.getLanguage());
+            c.type[i] = ref.getType();
+            i++;
+            if ((i & 0xff) == 0 && System.currentTimeMillis() > timeout) {
+                ConcurrentLog.warn("ReferenceColumns", "decoding of rows ended with timeout = " + maxtime + " after " + i + " of " + n + " rows");
+                break;
+            }
+        }
+        c.size = i;
+        c.indexHosts();
+        return c;
+    }
+
+    /**
+     * find the different hosts of the postings: sort the packed host hashes and count the runs
+     */
+    private void indexHosts() {
+        final long[] hostkey = new long[this.size];
+        for (int i = 0; i < this.size; i++) hostkey[i] = hostKey(this.urlhashes, i * HASHLENGTH);
+        final long[] sorted = hostkey.clone();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < this.size; i++) if (unique == 0 || sorted[i] != sorted[unique - 1]) sorted[unique++] = sorted[i];
+        final long[] keys = Arrays.copyOf(sorted, unique);
+        this.hosts = new String[unique];
+        this.hostCount = new int[unique];
+        for (int i = 0; i < this.size; i++) {
+            final int h = Arrays.binarySearch(keys, hostkey[i]);
+            this.host[i] = h;
+            if (this.hostCount[h]++ == 0) this.hosts[h] = ASCII.String(this.urlhashes, i * HASHLENGTH + 6, 6);
+        }
+    }
+
+    /**
+     * @return the number of decoded postings
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return a new array containing the url hash of the posting
+     */
+    public byte[] urlhash(final int i) {
+        return Arrays.copyOfRange(this.urlhashes, i * HASHLENGTH, (i + 1) * HASHLENGTH);
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return the host hash of the posting
+     */
+    public String hosthash(final int i) {
+        return this.hosts[this.host[i]];
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return the first 32 flag bits of the posting, bit n is the flag n of the Bitfield of the reference
+     */
+    public int flagBits(final int i) {
+        return this.flags[i];
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return the flags of the posting as Bitfield
+     */
+    public Bitfield flags(final int i) {
+        final int f = this.flags[i];
+        return new Bitfield(new byte[]{(byte) f, (byte) (f >>> 8), (byte) (f >>> 16), (byte) (f >>> 24)});
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return the document type of the posting
+     */
+    public char getType(final int i) {
+        return this.type[i];
+    }
+
+    /**
+     * @param i the index of a posting
+     * @return the ISO 639 language code of the posting
+     */
+    public String getLanguageString(final int i) {
+        final int l = this.language[i];
+        return new String(new char[]{(char) ((l >>> 8) & 0xff), (char) (l & 0xff)});
+    }
+
+    /**
+     * produce the reference object of a posting
+     * @param i the index of a posting
+     * @param local true if the reference is from the local index
+     * @return the reference as it would have been produced by WordReferenceVars.transform()
+     */
+    public WordReferenceVars reference(final int i, final boolean local) {
+        return new WordReferenceVars(this.container.getReference(i), local);
+    }
+
+    /**
+     * @param language a language code
+     * @return the code as used in the language column; -1 if the code does not have two characters
+     */
+    static int languageCode(final byte[] language) {
+        if (language == null || language.length != 2) return -1;
+        return ((language[0] & 0xff) << 8) | (language[1] & 0xff);
+    }
+
+    private static long hostKey(final byte[] hashes, final int offset) {
+        long key = 0;
+        for (int j = 6; j < 12; j++) key = (key << 8) | (hashes[offset + j] & 0xff);
+        return key;
+    }
+
+}
@@ -58,6 +58,10 @@ public class ReferenceOrder {
     private final RankingProfile ranking;
     private final String language;
 
+    // column-wise minimum and maximum of all postings ranked with rank(), guarded by this
+    private int[] minColumns, maxColumns;
+    private double minTermFrequency, maxTermFrequency;
+
     public ReferenceOrder(final RankingProfile profile, final String language) {
         this.min = null;
         this.max = null;
@@ -65,8 +69,14 @@ public class ReferenceOrder {
         this.doms = new ConcurrentScoreMap<String>();
         this.maxdomcount = 0;
         this.language = language;
+        this.minColumns = null;
+        this.maxColumns = null;
     }
 
+    /**
+     * Normalize the entries of a container with concurrent worker threads. The entries must be ranked with cardinal(WordReference)
+     * after the normalization; see rank() for the columnar alternative without queue hand-offs which is used by the search event.
+     */
     public BlockingQueue<WordReferenceVars> normalizeWith(final ReferenceContainer<WordReference> container, long maxtime, final boolean local) {
         final LinkedBlockingQueue<WordReferenceVars> out = new LinkedBlockingQueue<WordReferenceVars>();
         int threads = cores;
@@ -210,6 +220,142 @@ public class ReferenceOrder {
         }
     }
 
+    /**
+     * Normalize and rank all postings of a decoded container. This is the columnar equivalent of normalizeWith()
+     * followed by cardinal() for each entry: the postings are normalized together with all postings ranked before
+     * with this order, and each feature is scored for all postings in one loop over its column. No objects are
+     * created per posting and no threads are involved, the loops are simple enough to be vectorized by the JIT.
+     * @param columns the decoded postings of a container
+     * @return the ranking of each posting, indexed like the columns: the higher the number, the better is the ranking
+     */
+    public long[] rank(final ReferenceColumns columns) {
+        final int size = columns.size();
+        final long[] r = new long[size];
+        if (size == 0) return r;
+
+        // find min/max of each column
+        final int[] cmin = new int[ReferenceColumns.FEATURES];
+        final int[] cmax = new int[ReferenceColumns.FEATURES];
+        for (int f = 0; f < ReferenceColumns.FEATURES; f++) {
+            final int[] c = columns.features[f];
+            int lo = c[0], hi = c[0];
+            for (int i = 1; i < size; i++) {
+                lo = Math.min(lo, c[i]);
+                hi = Math.max(hi, c[i]);
+            }
+            cmin[f] = lo;
+            cmax[f] = hi;
+        }
+        // the distance of the first entry was never part of the normalization in normalizeWith(), which made its minimum always 0
+        cmin[ReferenceColumns.DISTANCE] = 0;
+        final double[] tf = columns.termFrequency;
+        double tflo = tf[0], tfhi = tf[0];
+        for (int i = 1; i < size; i++) {
+            tflo = Math.min(tflo, tf[i]);
+            tfhi = Math.max(tfhi, tf[i]);
+        }
+
+        // merge with the postings ranked before
+        final int[] min, max;
+        final double tfmin, tfmax;
+        synchronized (this) {
+            if (this.minColumns == null) {
+                this.minColumns = cmin;
+                this.maxColumns = cmax;
+                this.minTermFrequency = tflo;
+                this.maxTermFrequency = tfhi;
+            } else {
+                for (int f = 0; f < ReferenceColumns.FEATURES; f++) {
+                    this.minColumns[f] = Math.min(this.minColumns[f], cmin[f]);
+                    this.maxColumns[f] = Math.max(this.maxColumns[f], cmax[f]);
+                }
+                this.minTermFrequency = Math.min(this.minTermFrequency, tflo);
+                this.maxTermFrequency = Math.max(this.maxTermFrequency, tfhi);
+            }
+            min = this.minColumns.clone();
+            max = this.maxColumns.clone();
+            tfmin = this.minTermFrequency;
+            tfmax = this.maxTermFrequency;
+            for (int h = 0; h < columns.hosts.length; h++) this.doms.inc(columns.hosts[h], columns.hostCount[h]);
+            this.maxdomcount = this.doms.getMaxScore();
+        }
+
+        // score the columns
+        final RankingProfile p = this.ranking;
+        final int[] dl = columns.domlength;
+        final int sdl = p.coeff_domlength;
+        for (int i = 0; i < size; i++) r[i] = dl[i] << sdl;
+        rankSmaller(r, size, columns.features[ReferenceColumns.URLCOMPS], min[ReferenceColumns.URLCOMPS], max[ReferenceColumns.URLCOMPS], p.coeff_urlcomps);
+        rankSmaller(r, size, columns.features[ReferenceColumns.URLLENGTH], min[ReferenceColumns.URLLENGTH], max[ReferenceColumns.URLLENGTH], p.coeff_urllength);
+        rankSmaller(r, size, columns.features[ReferenceColumns.POSINTEXT], min[ReferenceColumns.POSINTEXT], max[ReferenceColumns.POSINTEXT], p.coeff_posintext);
+        rankSmaller(r, size, columns.features[ReferenceColumns.POSOFPHRASE], min[ReferenceColumns.POSOFPHRASE], max[ReferenceColumns.POSOFPHRASE], p.coeff_posofphrase);
+        rankSmaller(r, size, columns.features[ReferenceColumns.POSINPHRASE], min[ReferenceColumns.POSINPHRASE], max[ReferenceColumns.POSINPHRASE], p.coeff_posinphrase);
+        rankSmaller(r, size, columns.features[ReferenceColumns.DISTANCE], min[ReferenceColumns.DISTANCE], max[ReferenceColumns.DISTANCE], p.coeff_worddistance);
+        rankLarger(r, size, columns.features[ReferenceColumns.VIRTUALAGE], min[ReferenceColumns.VIRTUALAGE], max[ReferenceColumns.VIRTUALAGE], p.coeff_date);
+        rankLarger(r, size, columns.features[ReferenceColumns.WORDSINTITLE], min[ReferenceColumns.WORDSINTITLE], max[ReferenceColumns.WORDSINTITLE], p.coeff_wordsintitle);
+        rankLarger(r, size, columns.features[ReferenceColumns.WORDSINTEXT], min[ReferenceColumns.WORDSINTEXT], max[ReferenceColumns.WORDSINTEXT], p.coeff_wordsintext);
+        rankLarger(r, size, columns.features[ReferenceColumns.PHRASESINTEXT], min[ReferenceColumns.PHRASESINTEXT], max[ReferenceColumns.PHRASESINTEXT], p.coeff_phrasesintext);
+        rankLarger(r, size, columns.features[ReferenceColumns.LLOCAL], min[ReferenceColumns.LLOCAL], max[ReferenceColumns.LLOCAL], p.coeff_llocal);
+        rankLarger(r, size, columns.features[ReferenceColumns.LOTHER], min[ReferenceColumns.LOTHER], max[ReferenceColumns.LOTHER], p.coeff_lother);
+        rankLarger(r, size, columns.features[ReferenceColumns.HITCOUNT], min[ReferenceColumns.HITCOUNT], max[ReferenceColumns.HITCOUNT], p.coeff_hitcount);
+        if (tfmax != tfmin) {
+            final double tfrange = tfmax - tfmin;
+            final int stf = p.coeff_termfrequency;
+            for (int i = 0; i < size; i++) r[i] += ((int) (((tf[i] - tfmin) * 256.0) / tfrange)) << stf;
+        }
+        if (p.coeff_authority > 12) {
+            final int[] authority = new int[columns.hosts.length];
+            for (int h = 0; h < authority.length; h++) authority[h] = authority(columns.hosts[h]) << p.coeff_authority;
+            final int[] host = columns.host;
+            for (int i = 0; i < size; i++) r[i] += authority[host[i]];
+        }
+        final int[] flags = columns.flags;
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_dc_identifier, p.coeff_appurl);
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_dc_title, p.coeff_app_dc_title);
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_dc_creator, p.coeff_app_dc_creator);
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_dc_subject, p.coeff_app_dc_subject);
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_dc_description, p.coeff_app_dc_description);
+        rankFlag(r, size, flags, WordReferenceRow.flag_app_emphasized, p.coeff_appemph);
+        rankFlag(r, size, flags, Tokenizer.flag_cat_indexof, p.coeff_catindexof);
+        rankFlag(r, size, flags, Tokenizer.flag_cat_hasimage, p.coeff_cathasimage);
+        rankFlag(r, size, flags, Tokenizer.flag_cat_hasaudio, p.coeff_cathasaudio);
+        rankFlag(r, size, flags, Tokenizer.flag_cat_hasvideo, p.coeff_cathasvideo);
+        rankFlag(r, size, flags, Tokenizer.flag_cat_hasapp, p.coeff_cathasapp);
+        final int lang = ReferenceColumns.languageCode(ASCII.getBytes(this.language));
+        if (lang >= 0) {
+            final int[] language = columns.language;
+            final int sl = 255 << p.coeff_language;
+            for (int i = 0; i < size; i++) if (language[i] == lang) r[i] += sl;
+        }
+        return r;
+    }
+
+    /**
+     * add the score of a feature where smaller values are better
+     */
+    private static void rankSmaller(final long[] r, final int size, final int[] c, final int min, final int max, final int coeff) {
+        if (max == min) return;
+        final int range = max - min;
+        for (int i = 0; i < size; i++) r[i] += (256 - (((c[i] - min) << 8) / range)) << coeff;
+    }
+
+    /**
+     * add the score of a feature where larger values are better
+     */
+    private static void rankLarger(final long[] r, final int size, final int[] c, final int min, final int max, final int coeff) {
+        if (max == min) return;
+        final int range = max - min;
+        for (int i = 0; i < size; i++) r[i] += (((c[i] - min) << 8) / range) << coeff;
+    }
+
+    /**
+     * add the score of a flag
+     */
+    private static void rankFlag(final long[] r, final int size, final int[] flags, final int flag, final int coeff) {
+        final int s = 255 << coeff;
+        for (int i = 0; i < size; i++) r[i] += ((flags[i] >>> flag) & 1) * s;
+    }
+
     public int authority(final String hostHash) {
         assert hostHash.length() == 6;
         return (this.doms.get(hostHash) << 8) / (1 + this.maxdomcount);
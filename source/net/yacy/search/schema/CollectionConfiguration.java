@@ -46,6 +46,9 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -112,6 +115,9 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
 
     private static final long serialVersionUID=-499100932212840385L;
 
+    /** the number of documents in one partial update of citation rankings */
+    private static final int RANKING_UPDATE_BATCH_SIZE = 1000;
+
     public static boolean UNIQUE_HEURISTIC_PREFER_HTTPS = false;
     public static boolean UNIQUE_HEURISTIC_PREFER_WWWPREFIX = true;
     
@@ -1272,6 +1278,10 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
                        collection.contains(CollectionSchema.cr_host_norm_i)));
         // create the ranking map
         final Map<String, CRV> rankings;
+        final Map<String, CRV> changedRankings = new ConcurrentHashMap<String, CRV>();
+        // the hosts which lost documents are removed from the fulltext only after their rankings are written
+        final Map<String, Long> citationChangedHosts = segment.fulltext().getCitationChangedHosts();
+        boolean citationChangesDone = false;
         if(shallComputeCR) {
             // collect hosts from index which shall take part in citation computation
             postprocessingActivity = "collecting host facets for collection";
@@ -1284,8 +1294,11 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
                 ConcurrentLog.logException(e2);
                 collection1hosts = new ClusteredScoreMap<String>(true);
             }
+            // hosts which lost documents have a different link graph, even if none of their documents is tagged for postprocessing
+            final Set<String> changedHosts = addChangedHosts(collectionConnector, citationChangedHosts.keySet(), collection1hosts);
+            citationChangesDone = changedHosts != null;
         	
-        	rankings = createRankingMap(segment, rrCache, collectionConnector, collection1hosts);
+        	rankings = createRankingMap(segment, rrCache, collectionConnector, collection1hosts, changedHosts == null ? new HashSet<String>() : changedHosts, changedRankings);
         } else {
         	rankings = new ConcurrentHashMap<String, CRV>();
         }
@@ -1299,6 +1312,13 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
         // process all documents in collection
         postprocessDocuments(segment, rrCache, harvestkey, byPartialUpdate, collectionConnector, collection,
 				collection1query, rankings, allcount);
+
+        // write the rankings of the documents of changed hosts which were not tagged for postprocessing
+        if (changedRankings.size() > 0) {
+            citationChangesDone &= postprocessChangedRankings(collectionConnector, byPartialUpdate, changedRankings, rankings, allcount);
+            collectionConnector.commit(true);
+        }
+        if (citationChangesDone) segment.fulltext().removeCitationChangedHosts(citationChangedHosts);
         
         
         postprocessingCollection1Count = 0;
@@ -1327,6 +1347,7 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
 			final AtomicInteger allcount) {
 		final Map<String, Long> hostExtentCache = new HashMap<String, Long>(); // a mapping from the host id to the number of documents which contain this host-id
         final Set<String> uniqueURLs = ConcurrentHashMap.newKeySet(); // will be used in a concurrent environment
+        final SignatureGroups signatureGroups = collectSignatureGroups(collectionConnector, collection1query); // if null, the unique check queries the index for each document
         final Set<String> localOmitFields = new HashSet<String>();
         localOmitFields.add(CollectionSchema.process_sxt.getSolrFieldName());
         localOmitFields.add(CollectionSchema.harvestkey_s.getSolrFieldName());
@@ -1435,7 +1456,7 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
                                             if (tagtype == ProcessType.UNIQUE) {
                                                 postprocessing_http_unique(segment, doc, sid, url);
                                                 postprocessing_www_unique(segment, doc, sid, url);
-                                                postprocessing_doublecontent(segment, uniqueURLs, doc, sid, url);
+                                                postprocessing_doublecontent(segment, uniqueURLs, signatureGroups, doc, sid, url);
                                             }
                                             
                                         } catch (IllegalArgumentException e) {}
@@ -1638,96 +1659,227 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
 	}
 
 	/**
-	 * Patches the citation index for links with canonical tags and perform the citation rank computation
+	 * Patches the citation index for links with canonical tags and perform the citation rank computation.
+	 * The citation rank of a document depends only on the links inside of its host, therefore the hosts are
+	 * computed independently of each other on a fork-join pool.
 	 * @param segment Solr segment
 	 * @param rrCache reference report cache for the segment
 	 * @param collectionConnector default connector to the Solr segment
 	 * @param collection1hosts hosts from index which shall take part in citation computation
+	 * @param changedHosts hosts which take part in the computation because documents were removed from them
+	 * @param changedRankings receives the rankings of the documents of the changedHosts
 	 * @return the ranking map 
 	 */
 	private Map<String, CRV> createRankingMap(final Segment segment, final ReferenceReportCache rrCache,
-			final SolrConnector collectionConnector, ReversibleScoreMap<String> collection1hosts) {
+			final SolrConnector collectionConnector, final ReversibleScoreMap<String> collection1hosts,
+			final Set<String> changedHosts, final Map<String, CRV> changedRankings) {
 		final Map<String, CRV> rankings = new ConcurrentHashMap<String, CRV>();
-        try {
-            int concurrency = Math.min(collection1hosts.size(), Runtime.getRuntime().availableProcessors());
-            postprocessingActivity = "collecting cr for " + collection1hosts.size() + " hosts, concurrency = " + concurrency;
-            ConcurrentLog.info("CollectionConfiguration", postprocessingActivity);
-            int countcheck = 0;
-            for (String host: collection1hosts.keyList(true)) {
-                // Patch the citation index for links with canonical tags.
-                // This shall fulfill the following requirement:
-                // If a document A links to B and B contains a 'canonical C', then the citation rank computation shall consider that A links to C and B does not link to C.
-                // To do so, we first must collect all canonical links, find all references to them, get the anchor list of the documents and patch the citation reference of these links
-                String patchquery = CollectionSchema.host_s.getSolrFieldName() + ":" + host + " AND " + CollectionSchema.canonical_s.getSolrFieldName() + AbstractSolrConnector.CATCHALL_DTERM;
-                long patchquerycount = collectionConnector.getCountByQuery("{!cache=false}" + patchquery);
-                BlockingQueue<SolrDocument> documents_with_canonical_tag = collectionConnector.concurrentDocumentsByQuery(patchquery, CollectionSchema.url_chars_i.getSolrFieldName() + " asc", 0, 100000000, Long.MAX_VALUE, 20, 1, true,
-                        CollectionSchema.id.getSolrFieldName(), CollectionSchema.sku.getSolrFieldName(), CollectionSchema.canonical_s.getSolrFieldName());
-                SolrDocument doc_B;
-                int patchquerycountcheck = 0;
-                try {
-                    while ((doc_B = documents_with_canonical_tag.take()) != AbstractSolrConnector.POISON_DOCUMENT) {
-                        // find all documents which link to the canonical doc
-                        DigestURL doc_C_url = new DigestURL((String) doc_B.getFieldValue(CollectionSchema.canonical_s.getSolrFieldName()));
-                        byte[] doc_B_id = ASCII.getBytes(((String) doc_B.getFieldValue(CollectionSchema.id.getSolrFieldName())));
-                        // we remove all references to B, because these become references to C
-                        if (segment.connectedCitation()) {
-                            ReferenceContainer<CitationReference> doc_A_ids = segment.urlCitation().remove(doc_B_id);
-                            if (doc_A_ids == null) {
-                                //System.out.println("*** document with canonical but no referrer: " + doc_B.getFieldValue(CollectionSchema.sku.getSolrFieldName()));
-                                continue; // the document has a canonical tag but no referrer?
-                            }
-                            Iterator<CitationReference> doc_A_ids_iterator = doc_A_ids.entries();
-                            // for each of the referrer A of B, set A as a referrer of C
-                            while (doc_A_ids_iterator.hasNext()) {
-                                CitationReference doc_A_citation = doc_A_ids_iterator.next();
-                                segment.urlCitation().add(doc_C_url.hash(), doc_A_citation);
-                            }
-                        }
-                        patchquerycountcheck++;
-                        if (MemoryControl.shortStatus()) {
-                            ConcurrentLog.warn("CollectionConfiguration", "terminated canonical collection during postprocessing because of short memory");
-                            break;
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    ConcurrentLog.logException(e);
-                } catch (SpaceExceededException e) {
-                    ConcurrentLog.logException(e);
-                }
-                if (patchquerycount != patchquerycountcheck) ConcurrentLog.warn("CollectionConfiguration", "ambiguous patchquery count for host " + host + ": expected=" + patchquerycount + ", counted=" + patchquerycountcheck);
-                
-                // do the citation rank computation
-                if (collection1hosts.get(host) <= 0) continue;
-                // select all documents for each host
-                CRHost crh = new CRHost(segment, rrCache, host, 0.85d, 6);
-                int convergence_attempts = 0;
-                while (convergence_attempts++ < 30) {
-                    ConcurrentLog.info("CollectionConfiguration", "convergence step " + convergence_attempts + " for host " + host + " ...");
-                    if (crh.convergenceStep()) break;
-                    if (MemoryControl.shortStatus()) {
-                        ConcurrentLog.warn("CollectionConfiguration", "terminated convergenceStep during postprocessing because of short memory");
-                        break;
-                    }
-                }
-                ConcurrentLog.info("CollectionConfiguration", "convergence for host " + host + " after " + convergence_attempts + " steps");
-                // we have now the cr for all documents of a specific host; we store them for later use
-                Map<String, CRV> crn = crh.normalize();
-                //crh.log(crn);
-                rankings.putAll(crn); // accumulate this here for usage in document update later
-                if (MemoryControl.shortStatus()) {
-                    ConcurrentLog.warn("CollectionConfiguration", "terminated crn akkumulation during postprocessing because of short memory");
-                    break;
-                }
-                countcheck++;
-            }
-            if (collection1hosts.size() != countcheck) ConcurrentLog.warn("CollectionConfiguration", "ambiguous host count: expected=" + collection1hosts.size() + ", counted=" + countcheck);
-        } catch (final IOException e2) {
-            ConcurrentLog.logException(e2);
-            collection1hosts = new ClusteredScoreMap<String>(true);
-        }
+		final int concurrency = Math.max(1, Math.min(collection1hosts.size(), Runtime.getRuntime().availableProcessors()));
+		postprocessingActivity = "collecting cr for " + collection1hosts.size() + " hosts, concurrency = " + concurrency;
+		ConcurrentLog.info("CollectionConfiguration", postprocessingActivity);
+		final AtomicInteger countcheck = new AtomicInteger(0);
+		final AtomicBoolean terminated = new AtomicBoolean(false);
+		final ForkJoinPool pool = new ForkJoinPool(concurrency);
+		try {
+			final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(collection1hosts.size());
+			for (final String host: collection1hosts.keyList(true)) {
+				tasks.add(pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						if (terminated.get()) return;
+						try {
+							Map<String, CRV> crn = rankHost(segment, rrCache, collectionConnector, host, collection1hosts.get(host));
+							if (crn != null) {
+								rankings.putAll(crn); // accumulate this here for usage in document update later
+								if (changedHosts.contains(host)) changedRankings.putAll(crn);
+							}
+							countcheck.incrementAndGet();
+						} catch (final IOException e) {
+							ConcurrentLog.logException(e);
+						}
+						if (MemoryControl.shortStatus()) {
+							ConcurrentLog.warn("CollectionConfiguration", "terminated crn akkumulation during postprocessing because of short memory");
+							terminated.set(true);
+						}
+					}
+				}));
+			}
+			for (final ForkJoinTask<?> task: tasks) task.join();
+		} finally {
+			pool.shutdown();
+		}
+		if (collection1hosts.size() != countcheck.get()) ConcurrentLog.warn("CollectionConfiguration", "ambiguous host count: expected=" + collection1hosts.size() + ", counted=" + countcheck);
 		return rankings;
 	}
 
+	/**
+	 * Patches the citation index for links with canonical tags and computes the citation rank of the documents of one host
+	 * @param segment Solr segment
+	 * @param rrCache reference report cache for the segment
+	 * @param collectionConnector default connector to the Solr segment
+	 * @param host the host name
+	 * @param hostcount the number of documents of the host which shall be postprocessed
+	 * @return the ranking of all documents of the host, null if the host has no documents to be processed
+	 */
+	private static Map<String, CRV> rankHost(final Segment segment, final ReferenceReportCache rrCache,
+			final SolrConnector collectionConnector, final String host, final int hostcount) throws IOException {
+		// Patch the citation index for links with canonical tags.
+		// This shall fulfill the following requirement:
+		// If a document A links to B and B contains a 'canonical C', then the citation rank computation shall consider that A links to C and B does not link to C.
+		// To do so, we first must collect all canonical links, find all references to them, get the anchor list of the documents and patch the citation reference of these links
+		String patchquery = CollectionSchema.host_s.getSolrFieldName() + ":" + host + " AND " + CollectionSchema.canonical_s.getSolrFieldName() + AbstractSolrConnector.CATCHALL_DTERM;
+		long patchquerycount = collectionConnector.getCountByQuery("{!cache=false}" + patchquery);
+		BlockingQueue<SolrDocument> documents_with_canonical_tag = collectionConnector.concurrentDocumentsByQuery(patchquery, CollectionSchema.url_chars_i.getSolrFieldName() + " asc", 0, 100000000, Long.MAX_VALUE, 20, 1, true,
+				CollectionSchema.id.getSolrFieldName(), CollectionSchema.sku.getSolrFieldName(), CollectionSchema.canonical_s.getSolrFieldName());
+		SolrDocument doc_B;
+		int patchquerycountcheck = 0;
+		try {
+			while ((doc_B = documents_with_canonical_tag.take()) != AbstractSolrConnector.POISON_DOCUMENT) {
+				// find all documents which link to the canonical doc
+				DigestURL doc_C_url = new DigestURL((String) doc_B.getFieldValue(CollectionSchema.canonical_s.getSolrFieldName()));
+				byte[] doc_B_id = ASCII.getBytes(((String) doc_B.getFieldValue(CollectionSchema.id.getSolrFieldName())));
+				// we remove all references to B, because these become references to C
+				if (segment.connectedCitation()) {
+					ReferenceContainer<CitationReference> doc_A_ids = segment.urlCitation().remove(doc_B_id);
+					if (doc_A_ids == null) {
+						//System.out.println("*** document with canonical but no referrer: " + doc_B.getFieldValue(CollectionSchema.sku.getSolrFieldName()));
+						continue; // the document has a canonical tag but no referrer?
+					}
+					Iterator<CitationReference> doc_A_ids_iterator = doc_A_ids.entries();
+					// for each of the referrer A of B, set A as a referrer of C
+					while (doc_A_ids_iterator.hasNext()) {
+						CitationReference doc_A_citation = doc_A_ids_iterator.next();
+						segment.urlCitation().add(doc_C_url.hash(), doc_A_citation);
+					}
+				}
+				patchquerycountcheck++;
+				if (MemoryControl.shortStatus()) {
+					ConcurrentLog.warn("CollectionConfiguration", "terminated canonical collection during postprocessing because of short memory");
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			ConcurrentLog.logException(e);
+		} catch (SpaceExceededException e) {
+			ConcurrentLog.logException(e);
+		}
+		if (patchquerycount != patchquerycountcheck) ConcurrentLog.warn("CollectionConfiguration", "ambiguous patchquery count for host " + host + ": expected=" + patchquerycount + ", counted=" + patchquerycountcheck);
+
+		// do the citation rank computation
+		if (hostcount <= 0) return null;
+		// select all documents for each host
+		CRHost crh = new CRHost(segment, rrCache, host, 0.85d, 6);
+		int convergence_attempts = 0;
+		while (convergence_attempts++ < 30) {
+			ConcurrentLog.info("CollectionConfiguration", "convergence step " + convergence_attempts + " for host " + host + " ...");
+			if (crh.convergenceStep()) break;
+			if (MemoryControl.shortStatus()) {
+				ConcurrentLog.warn("CollectionConfiguration", "terminated convergenceStep during postprocessing because of short memory");
+				break;
+			}
+		}
+		ConcurrentLog.info("CollectionConfiguration", "convergence for host " + host + " after " + convergence_attempts + " steps");
+		// we have now the cr for all documents of a specific host; we store them for later use
+		return crh.normalize();
+	}
+
+	/**
+	 * Find the names of hosts given by their host hashes and add them to the hosts of the citation computation
+	 * @param collectionConnector default connector to the Solr segment
+	 * @param hosthashes the host hashes
+	 * @param collection1hosts hosts from index which shall take part in citation computation
+	 * @return the names of the hosts which are not already part of collection1hosts, null if not all hosts could be looked up
+	 */
+	private static Set<String> addChangedHosts(final SolrConnector collectionConnector, final Set<String> hosthashes, final ReversibleScoreMap<String> collection1hosts) {
+		boolean failed = false;
+		final Set<String> changedHosts = new HashSet<String>();
+		final Iterator<String> i = hosthashes.iterator();
+		while (i.hasNext()) {
+			final StringBuilder q = new StringBuilder();
+			q.append(CollectionSchema.host_id_s.getSolrFieldName()).append(":(");
+			for (int n = 0; n < 100 && i.hasNext(); n++) {
+				if (n > 0) q.append(" OR ");
+				q.append('"').append(i.next()).append('"');
+			}
+			q.append(')');
+			try {
+				final ReversibleScoreMap<String> hosts = collectionConnector.getFacets("{!cache=false}" + q.toString(), 100000, CollectionSchema.host_s.getSolrFieldName()).get(CollectionSchema.host_s.getSolrFieldName());
+				if (hosts == null) continue;
+				for (final String host: hosts) {
+					if (collection1hosts.get(host) > 0) continue;
+					collection1hosts.set(host, hosts.get(host));
+					changedHosts.add(host);
+				}
+			} catch (final IOException e) {
+				ConcurrentLog.logException(e);
+				failed = true;
+			}
+		}
+		return failed ? null : changedHosts;
+	}
+
+	/**
+	 * Write the citation rankings of documents which are not tagged for postprocessing, in batches. Without
+	 * partial updates the documents are loaded and written again completely.
+	 * @param collectionConnector default connector to the Solr segment
+	 * @param byPartialUpdate when true, perform partial updates on documents
+	 * @param changedRankings the rankings of the documents of hosts which lost documents
+	 * @param rankings the rankings which were not yet written by the postprocessing of the tagged documents
+	 * @param allcount global postprocessed documents count
+	 * @return true if all rankings were written
+	 */
+	private boolean postprocessChangedRankings(final SolrConnector collectionConnector, final boolean byPartialUpdate,
+			final Map<String, CRV> changedRankings, final Map<String, CRV> rankings, final AtomicInteger allcount) {
+		final List<SolrInputDocument> batch = new ArrayList<SolrInputDocument>(RANKING_UPDATE_BATCH_SIZE);
+		int count = 0;
+		boolean success = true;
+		try {
+			for (final Map.Entry<String, CRV> entry: changedRankings.entrySet()) {
+				final CRV crv = rankings.remove(entry.getKey());
+				if (crv == null) continue; // already written together with the other postprocessing values
+				final SolrInputDocument sid;
+				if (byPartialUpdate) {
+					sid = new SolrInputDocument();
+					sid.setField(CollectionSchema.id.getSolrFieldName(), entry.getKey());
+				} else {
+					final SolrDocument doc = collectionConnector.getDocumentById(entry.getKey(), this.allFields());
+					if (doc == null) continue; // removed in the meantime
+					sid = toSolrInputDocument(doc);
+				}
+				sid.setField(CollectionSchema.cr_host_count_i.getSolrFieldName(), crv.count);
+				sid.setField(CollectionSchema.cr_host_chance_d.getSolrFieldName(), crv.cr);
+				sid.setField(CollectionSchema.cr_host_norm_i.getSolrFieldName(), crv.crn);
+				batch.add(sid);
+				if (batch.size() >= RANKING_UPDATE_BATCH_SIZE) {
+					writeRankings(collectionConnector, byPartialUpdate, batch);
+					count += batch.size();
+					batch.clear();
+				}
+			}
+			if (batch.size() > 0) {
+				writeRankings(collectionConnector, byPartialUpdate, batch);
+				count += batch.size();
+			}
+		} catch (final IOException e) {
+			ConcurrentLog.warn("CollectionConfiguration", e.getMessage(), e);
+			success = false;
+		} catch (final SolrException e) {
+			ConcurrentLog.warn("CollectionConfiguration", e.getMessage(), e);
+			success = false;
+		}
+		allcount.addAndGet(count);
+		ConcurrentLog.info("CollectionConfiguration", "postprocessing: updated citation ranking of " + count + " documents of hosts with removed documents");
+		return success;
+	}
+
+	private static void writeRankings(final SolrConnector collectionConnector, final boolean byPartialUpdate, final List<SolrInputDocument> batch) throws IOException, SolrException {
+		if (byPartialUpdate) {
+			collectionConnector.update(batch);
+		} else {
+			collectionConnector.add(batch);
+		}
+	}
+
 	/**
 	 * Search in the segment any document having the same url as doc but with the opposite secure/unsecure (https or http) version of the protocol.
 	 * Then updates accordingly the document http_unique_b field.
@@ -1776,11 +1928,13 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
         if (sbb == obb) sid.setField(field.getSolrFieldName(), !sbb);
     }
     
-    public void postprocessing_doublecontent(Segment segment, Set<String> uniqueURLs, SolrDocument doc, final SolrInputDocument sid, final DigestURL url) {
-        // FIND OUT IF THIS IS A DOUBLE DOCUMENT
-        // term to describe documents which are indexable:
-        // - no noindex in meta oder x-robots
-        // - no canonical-tag
+    /**
+     * @return a term to describe documents which are indexable:
+     * - status code 200
+     * - no noindex in meta oder x-robots
+     * - no canonical-tag
+     */
+    private static Conjunction validDocTerm() {
         Conjunction ValidDocTermTemplate = new Conjunction();
         ValidDocTermTemplate.addOperand(new LongLiteral(CollectionSchema.httpstatus_i, 200));
         ValidDocTermTemplate.addOperand(new Disjunction(new Negation(new CatchallLiteral(CollectionSchema.canonical_equal_sku_b)), new BooleanLiteral(CollectionSchema.canonical_equal_sku_b, true)));
@@ -1788,13 +1942,100 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
         ValidDocTermTemplate.addOperand(new Negation(new LongLiteral(CollectionSchema.robots_i, 24))); // bit 3 + 4 (noindex + nofollow)
         ValidDocTermTemplate.addOperand(new Negation(new LongLiteral(CollectionSchema.robots_i, 512))); // bit 9 (noindex)
         ValidDocTermTemplate.addOperand(new Negation(new LongLiteral(CollectionSchema.robots_i, 1536))); // bit 9 + 10 (noindex + nofollow)
+        return ValidDocTermTemplate;
+    }
+
+    private static final CollectionSchema[][] doccheckschema = new CollectionSchema[][]{
+            {CollectionSchema.exact_signature_l, CollectionSchema.exact_signature_unique_b, CollectionSchema.exact_signature_copycount_i},
+            {CollectionSchema.fuzzy_signature_l, CollectionSchema.fuzzy_signature_unique_b, CollectionSchema.fuzzy_signature_copycount_i}};
+
+    private static final CollectionSchema[][] metadatacheckschema = new CollectionSchema[][]{
+            {CollectionSchema.title, CollectionSchema.title_exact_signature_l, CollectionSchema.title_unique_b},
+            {CollectionSchema.description_txt, CollectionSchema.description_exact_signature_l, CollectionSchema.description_unique_b}};
+
+    /**
+     * Collect the signatures of all indexable documents of the hosts which have documents tagged for a uniqueness check.
+     * This replaces the queries for each document in postprocessing_doublecontent with one pass over the documents of these hosts.
+     * @param collectionConnector connector to the main Solr collection
+     * @param collection1query query used to harvest items to postprocess in the main collection
+     * @return the signature groups or null if no signature is configured or the memory was too short to collect them
+     */
+    private SignatureGroups collectSignatureGroups(final SolrConnector collectionConnector, final String collection1query) {
+        final List<CollectionSchema> signaturefields = new ArrayList<CollectionSchema>(4);
+        for (CollectionSchema[] checkfields: doccheckschema) {
+            if (this.contains(checkfields[0]) && this.contains(checkfields[1]) && this.contains(checkfields[2])) signaturefields.add(checkfields[0]);
+        }
+        for (CollectionSchema[] checkfields: metadatacheckschema) {
+            if (this.contains(checkfields[0]) && this.contains(checkfields[1]) && this.contains(checkfields[2])) signaturefields.add(checkfields[1]);
+        }
+        if (signaturefields.isEmpty() || !this.contains(CollectionSchema.host_id_s)) return null;
+        final SignatureGroups groups = new SignatureGroups();
+        try {
+            final ReversibleScoreMap<String> hosts = collectionConnector.getFacets("{!cache=false}" + CollectionSchema.process_sxt.getSolrFieldName() + ":" + ProcessType.UNIQUE.name() + " AND (" + collection1query + ")",
+                    10000000, CollectionSchema.host_id_s.getSolrFieldName()).get(CollectionSchema.host_id_s.getSolrFieldName());
+            if (hosts == null || hosts.size() == 0) return groups;
+            final String[] fields = new String[signaturefields.size() + 2];
+            fields[0] = CollectionSchema.id.getSolrFieldName();
+            fields[1] = CollectionSchema.host_id_s.getSolrFieldName();
+            for (int f = 0; f < signaturefields.size(); f++) fields[f + 2] = signaturefields.get(f).getSolrFieldName();
+            // the first document of a group is the original; prefer hosts without subdomain and http before https as the sort of the postprocessing does
+            final String sort = this.contains(CollectionSchema.host_subdomain_s) && this.contains(CollectionSchema.url_protocol_s) ?
+                    CollectionSchema.host_subdomain_s.getSolrFieldName() + " asc," + CollectionSchema.url_protocol_s.getSolrFieldName() + " asc" : null;
+            postprocessingActivity = "collecting signature groups of " + hosts.size() + " hosts";
+            ConcurrentLog.info("CollectionConfiguration", postprocessingActivity);
+            final Iterator<String> h = hosts.iterator();
+            while (h.hasNext()) {
+                final Disjunction hostterm = new Disjunction();
+                for (int n = 0; n < 100 && h.hasNext(); n++) hostterm.addOperand(new StringLiteral(CollectionSchema.host_id_s, h.next()));
+                final Conjunction query = validDocTerm();
+                query.addOperand(hostterm);
+                final BlockingQueue<SolrDocument> docs = collectionConnector.concurrentDocumentsByQuery("{!cache=false}" + query.toString(), sort, 0, 100000000, Long.MAX_VALUE, 200, 1, true, fields);
+                SolrDocument doc;
+                while ((doc = docs.take()) != AbstractSolrConnector.POISON_DOCUMENT) {
+                    final String id = (String) doc.getFieldValue(CollectionSchema.id.getSolrFieldName());
+                    final String hostid = (String) doc.getFieldValue(CollectionSchema.host_id_s.getSolrFieldName());
+                    if (id == null || hostid == null) continue;
+                    for (CollectionSchema signaturefield: signaturefields) {
+                        final Long signature = (Long) doc.getFieldValue(signaturefield.getSolrFieldName());
+                        if (signature != null) groups.add(hostid, signaturefield, signature.longValue(), id);
+                    }
+                    if (MemoryControl.shortStatus()) {
+                        ConcurrentLog.warn("CollectionConfiguration", "terminated signature grouping during postprocessing because of short memory");
+                        return null;
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            ConcurrentLog.logException(e);
+            return null;
+        } catch (final InterruptedException e) {
+            ConcurrentLog.logException(e);
+            return null;
+        }
+        ConcurrentLog.info("CollectionConfiguration", "collected " + groups.size() + " signature groups");
+        return groups;
+    }
+
+    /**
+     * Compute the unique and copycount fields of the signatures of a document.
+     * @param segment Solr segment
+     * @param uniqueURLs the ids of the documents which were postprocessed before, used if groups is null
+     * @param groups the signature groups of the hosts, see collectSignatureGroups; if null, the index is queried for each document
+     * @param doc the document
+     * @param sid the update of the document
+     * @param url the url of the document
+     */
+    public void postprocessing_doublecontent(Segment segment, Set<String> uniqueURLs, final SignatureGroups groups, SolrDocument doc, final SolrInputDocument sid, final DigestURL url) {
+        // FIND OUT IF THIS IS A DOUBLE DOCUMENT
+        Conjunction ValidDocTermTemplate = validDocTerm();
         
         String urlhash = ASCII.String(url.hash());
         String hostid = url.hosthash();
+        if (groups != null) {
+            postprocessing_doublecontent(groups, ValidDocTermTemplate.matches(doc), doc, sid, url, urlhash, hostid);
+            return;
+        }
         Disjunction dnf = new Disjunction();
-        CollectionSchema[][] doccheckschema = new CollectionSchema[][]{
-                {CollectionSchema.exact_signature_l, CollectionSchema.exact_signature_unique_b, CollectionSchema.exact_signature_copycount_i},
-                {CollectionSchema.fuzzy_signature_l, CollectionSchema.fuzzy_signature_unique_b, CollectionSchema.fuzzy_signature_copycount_i}};
         uniquecheck: for (CollectionSchema[] checkfields: doccheckschema) {
             CollectionSchema signaturefield = checkfields[0];
             CollectionSchema uniquefield = checkfields[1];
@@ -1845,21 +2086,7 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
         }
         
         // CHECK IF TITLE AND DESCRIPTION IS UNIQUE (this is by default not switched on)
-        // in case that the document has no status code 200, has a noindex attribute
-        // or a canonical tag which does not point to the document itself,
-        // then the unique-field is not written at all!
-        Integer robots_i = this.contains(CollectionSchema.robots_i) ? (Integer) doc.getFieldValue(CollectionSchema.robots_i.getSolrFieldName()) : null;
-        Integer httpstatus_i = this.contains(CollectionSchema.httpstatus_i) ? (Integer) doc.getFieldValue(CollectionSchema.httpstatus_i.getSolrFieldName()) : null;
-        String canonical_s = this.contains(CollectionSchema.canonical_s) ? (String) doc.getFieldValue(CollectionSchema.canonical_s.getSolrFieldName()) : null;
-        Boolean canonical_equal_sku_b = this.contains(CollectionSchema.canonical_equal_sku_b) ? (Boolean) doc.getFieldValue(CollectionSchema.canonical_equal_sku_b.getSolrFieldName()) : null;
-
-        CollectionSchema[][] metadatacheckschema = new CollectionSchema[][]{
-                {CollectionSchema.title, CollectionSchema.title_exact_signature_l, CollectionSchema.title_unique_b},
-                {CollectionSchema.description_txt, CollectionSchema.description_exact_signature_l, CollectionSchema.description_unique_b}};
-        if (segment.fulltext().getDefaultConfiguration().contains(CollectionSchema.host_id_s) &&
-            (robots_i == null || (robots_i.intValue() & (1 << 9)) == 0 /*noindex in http X-ROBOTS*/ && (robots_i.intValue() & (1 << 3)) == 0 /*noindex in html metas*/ ) &&
-            (canonical_s == null || canonical_s.length() == 0 || (canonical_equal_sku_b != null && canonical_equal_sku_b.booleanValue()) || url.toNormalform(true).equals(canonical_s)) &&
-            (httpstatus_i == null || httpstatus_i.intValue() == 200)) {
+        if (segment.fulltext().getDefaultConfiguration().contains(CollectionSchema.host_id_s) && metadataCheck(doc, url)) {
             uniquecheck: for (CollectionSchema[] checkfields: metadatacheckschema) {
                 CollectionSchema checkfield = checkfields[0];
                 CollectionSchema signaturefield = checkfields[1];
@@ -1885,6 +2112,53 @@ public class CollectionConfiguration extends SchemaConfiguration implements Seri
         uniqueURLs.add(urlhash);
     }
 
+    /**
+     * in case that the document has no status code 200, has a noindex attribute
+     * or a canonical tag which does not point to the document itself,
+     * then the unique-field of title and description is not written at all!
+     * @return true if the uniqueness of title and description shall be computed for the document
+     */
+    private boolean metadataCheck(final SolrDocument doc, final DigestURL url) {
+        Integer robots_i = this.contains(CollectionSchema.robots_i) ? (Integer) doc.getFieldValue(CollectionSchema.robots_i.getSolrFieldName()) : null;
+        Integer httpstatus_i = this.contains(CollectionSchema.httpstatus_i) ? (Integer) doc.getFieldValue(CollectionSchema.httpstatus_i.getSolrFieldName()) : null;
+        String canonical_s = this.contains(CollectionSchema.canonical_s) ? (String) doc.getFieldValue(CollectionSchema.canonical_s.getSolrFieldName()) : null;
+        Boolean canonical_equal_sku_b = this.contains(CollectionSchema.canonical_equal_sku_b) ? (Boolean) doc.getFieldValue(CollectionSchema.canonical_equal_sku_b.getSolrFieldName()) : null;
+        return (robots_i == null || (robots_i.intValue() & (1 << 9)) == 0 /*noindex in http X-ROBOTS*/ && (robots_i.intValue() & (1 << 3)) == 0 /*noindex in html metas*/ ) &&
+            (canonical_s == null || canonical_s.length() == 0 || (canonical_equal_sku_b != null && canonical_equal_sku_b.booleanValue()) || url.toNormalform(true).equals(canonical_s)) &&
+            (httpstatus_i == null || httpstatus_i.intValue() == 200);
+    }
+
+    /**
+     * Compute the unique and copycount fields of the signatures of a document from the signature groups of its host
+     * @param groups the signature groups
+     * @param member true if the document is indexable and therefore part of the groups
+     */
+    private void postprocessing_doublecontent(final SignatureGroups groups, final boolean member, SolrDocument doc, final SolrInputDocument sid, final DigestURL url, final String urlhash, final String hostid) {
+        for (CollectionSchema[] checkfields: doccheckschema) {
+            CollectionSchema signaturefield = checkfields[0];
+            CollectionSchema uniquefield = checkfields[1];
+            CollectionSchema countfield = checkfields[2];
+            if (this.contains(signaturefield) && this.contains(uniquefield) && this.contains(countfield)) {
+                Long signature = (Long) doc.getFieldValue(signaturefield.getSolrFieldName());
+                if (signature == null) continue;
+                sid.setField(uniquefield.getSolrFieldName(), groups.unique(hostid, signaturefield, signature.longValue(), urlhash));
+                sid.setField(countfield.getSolrFieldName(), groups.copycount(hostid, signaturefield, signature.longValue(), member));
+            }
+        }
+
+        if (!metadataCheck(doc, url)) return;
+        for (CollectionSchema[] checkfields: metadatacheckschema) {
+            CollectionSchema checkfield = checkfields[0];
+            CollectionSchema signaturefield = checkfields[1];
+            CollectionSchema uniquefield = checkfields[2];
+            if (this.contains(checkfield) && this.contains(signaturefield) && this.contains(uniquefield)) {
+                Long signature = (Long) doc.getFieldValue(signaturefield.getSolrFieldName());
+                if (signature == null) continue;
+                sid.setField(uniquefield.getSolrFieldName(), groups.single(hostid, signaturefield, signature.longValue(), member));
+            }
+        }
+    }
+
     public boolean postprocessing_references(final ReferenceReportCache rrCache, final SolrInputDocument sid, final DigestURL url, final Map<String, Long> hostExtentCount) {
         if (!(this.contains(CollectionSchema.references_i) ||
               this.contains(CollectionSchema.references_internal_i) ||
@@ -0,0 +1,113 @@
+/**
+ *  SignatureGroups
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.yacy.search.schema;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Groups of documents of the same host which share a signature, i.e. the same content or the same title.
+ * The groups are collected in one pass over all documents of the hosts which are postprocessed, so that the
+ * uniqueness and the number of copies of a document can be answered without a query for each document.
+ * The first document which is added to a group is the original of the group, all others are copies.
+ */
+public class SignatureGroups {
+
+    private static class Group {
+        private final String first;
+        private int count;
+
+        private Group(final String first) {
+            this.first = first;
+            this.count = 1;
+        }
+    }
+
+    private final Map<String, Group> groups;
+
+    public SignatureGroups() {
+        this.groups = new HashMap<String, Group>();
+    }
+
+    private static String key(final String hostid, final CollectionSchema signaturefield, final long signature) {
+        return new StringBuilder(hostid.length() + 24).append(hostid).append(signaturefield.ordinal()).append(':').append(signature).toString();
+    }
+
+    /**
+     * add a document to the group of its signature
+     * @param hostid the host hash of the document
+     * @param signaturefield the field of the signature
+     * @param signature the signature value
+     * @param id the id of the document
+     */
+    public synchronized void add(final String hostid, final CollectionSchema signaturefield, final long signature, final String id) {
+        final String key = key(hostid, signaturefield, signature);
+        final Group group = this.groups.get(key);
+        if (group == null) {
+            this.groups.put(key, new Group(id));
+        } else {
+            group.count++;
+        }
+    }
+
+    /**
+     * @param hostid the host hash of the document
+     * @param signaturefield the field of the signature
+     * @param signature the signature value
+     * @param member true if the document was added to the groups
+     * @return the number of documents with this signature, the document itself included even if it is not a member of the group
+     */
+    public synchronized int copycount(final String hostid, final CollectionSchema signaturefield, final long signature, final boolean member) {
+        final Group group = this.groups.get(key(hostid, signaturefield, signature));
+        if (group == null) return 1;
+        return member ? group.count : group.count + 1;
+    }
+
+    /**
+     * @param hostid the host hash of the document
+     * @param signaturefield the field of the signature
+     * @param signature the signature value
+     * @param id the id of the document
+     * @return true if the document is the original of its group or if there is no other document with the signature
+     */
+    public synchronized boolean unique(final String hostid, final CollectionSchema signaturefield, final long signature, final String id) {
+        final Group group = this.groups.get(key(hostid, signaturefield, signature));
+        return group == null || group.first.equals(id);
+    }
+
+    /**
+     * @param hostid the host hash of the document
+     * @param signaturefield the field of the signature
+     * @param signature the signature value
+     * @param member true if the document was added to the groups
+     * @return true if no other document has the signature
+     */
+    public synchronized boolean single(final String hostid, final CollectionSchema signaturefield, final long signature, final boolean member) {
+        return copycount(hostid, signaturefield, signature, member) == 1;
+    }
+
+    /**
+     * @return the number of groups
+     */
+    public synchronized int size() {
+        return this.groups.size();
+    }
+
+}
@@ -0,0 +1,274 @@
+// FormerResponseWriters.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexableField;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.XML;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.ResultContext;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.TextField;
+import org.apache.solr.search.DocIterator;
+import org.apache.solr.search.DocList;
+import org.apache.solr.search.ReturnFields;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.json.simple.JSONArray;
+
+import net.yacy.cora.federate.solr.SolrType;
+import net.yacy.cora.util.JSONObject;
+
+/**
+ * The former implementations of the document lists of the FlatJSONResponseWriter and the
+ * EnhancedXMLResponseWriter, kept unchanged as reference for the {@link ResponseWriterBenchmark}.
+ * They look up the schema and escape the field name for each value, and the flat json writer
+ * builds a JSONObject for each document.
+ */
+public class FormerResponseWriters {
+
+    private static final char lb = '\n';
+    private static final char[] XML_START = "<?xml version = \"1.0\" encoding = \"UTF-8\"?>\n<response>\n".toCharArray();
+    private static final char[] XML_STOP = "\n</response>\n".toCharArray();
+
+    public static void writeFlatJSON(final Writer writer, final SolrQueryRequest request, final SolrQueryResponse rsp) throws IOException {
+        final DocList response = ((ResultContext) rsp.getValues().get("response")).getDocList();
+        final int sz = response.size();
+        final SolrIndexSearcher searcher = request.getSearcher();
+        final DocIterator iterator = response.iterator();
+        final IndexSchema schema = request.getSchema();
+        for (int i = 0; i < sz; i++) {
+            final int id = iterator.nextDoc();
+            final Document doc = searcher.doc(id);
+            writeFlatJSONDoc(writer, schema, doc.getFields());
+        }
+    }
+
+    private static void writeFlatJSONDoc(final Writer writer, final IndexSchema schema, final List<IndexableField> fields) throws IOException {
+        final JSONObject json = new JSONObject(true);
+        final int sz = fields.size();
+        int fidx1 = 0, fidx2 = 0;
+        while (fidx1 < sz) {
+            final IndexableField value = fields.get(fidx1);
+            final String fieldName = value.name();
+            fidx2 = fidx1 + 1;
+            while (fidx2 < sz && fieldName.equals(fields.get(fidx2).name())) {
+                fidx2++;
+            }
+            SchemaField sf = schema == null ? null : schema.getFieldOrNull(fieldName);
+            if (sf == null) {
+                sf = new SchemaField(fieldName, new TextField());
+            }
+            final FieldType type = sf.getType();
+            if (fidx1 + 1 == fidx2) {
+                if (sf.multiValued()) {
+                    final JSONArray a = new JSONArray();
+                    json.put(fieldName, a);
+                    final JSONObject j = new JSONObject();
+                    setValue(j, type.getTypeName(), "x", value.stringValue());
+                    a.add(j.get("x"));
+                } else {
+                    setValue(json, type.getTypeName(), value.name(), value.stringValue());
+                }
+            } else {
+                final JSONArray a = new JSONArray();
+                json.put(fieldName, a);
+                for (int i = fidx1; i < fidx2; i++) {
+                    final JSONObject j = new JSONObject();
+                    setValue(j, type.getTypeName(), "x", fields.get(i).stringValue());
+                    a.add(j.get("x"));
+                }
+            }
+            fidx1 = fidx2;
+        }
+        writer.write(json.toString());
+        writer.write(lb);
+    }
+
+    private static void setValue(final JSONObject json, final String typeName, final String name, final String value) {
+        if (typeName.equals(SolrType.text_general.printName()) ||
+            typeName.equals(SolrType.string.printName()) ||
+            typeName.equals(SolrType.text_en_splitting_tight.printName())) {
+            json.put(name, value);
+        } else if (typeName.equals(SolrType.bool.printName())) {
+            json.put(name, "F".equals(value) ? false : true);
+        } else if (typeName.equals(SolrType.num_integer.printName())) {
+            json.put(name, Long.parseLong(value));
+        } else if (typeName.equals(SolrType.num_long.printName())) {
+            json.put(name, Long.parseLong(value));
+        } else if (typeName.equals(SolrType.date.printName())) {
+            json.put(name, new Date(Long.parseLong(value)).toInstant().toString());
+        } else if (typeName.equals(SolrType.num_float.printName())) {
+            json.put(name, Double.parseDouble(value));
+        } else if (typeName.equals(SolrType.num_double.printName())) {
+            json.put(name, Double.parseDouble(value));
+        }
+    }
+
+    public static void writeXML(final Writer writer, final SolrQueryRequest request, final SolrQueryResponse rsp) throws IOException {
+        writer.write(XML_START);
+        writeProps(writer, "responseHeader", rsp.getResponseHeader());
+        final DocList response = ((ResultContext) rsp.getResponse()).getDocList();
+        final ReturnFields returnFields = rsp.getReturnFields();
+        final int sz = response.size();
+        writer.write("<result");
+        writeAttr(writer, "name", "response");
+        writeAttr(writer, "numFound", Long.toString(response.matches()));
+        writeAttr(writer, "start", Long.toString(response.offset()));
+        if (sz == 0) {
+            writer.write("/>");
+        } else {
+            writer.write('>'); writer.write(lb);
+            final SolrIndexSearcher searcher = request.getSearcher();
+            final DocIterator iterator = response.iterator();
+            final IndexSchema schema = request.getSchema();
+            for (int i = 0; i < sz; i++) {
+                final int id = iterator.nextDoc();
+                final Document doc = searcher.doc(id);
+                writeXMLDoc(writer, schema, doc.getFields(), returnFields);
+            }
+            writer.write("</result>");
+            writer.write(lb);
+        }
+        writer.write(XML_STOP);
+    }
+
+    private static void writeXMLDoc(final Writer writer, final IndexSchema schema, final List<IndexableField> fields, final ReturnFields returnFields) throws IOException {
+        startTagOpen(writer, "doc", null);
+        final Map<String, String> fieldRenamings = returnFields == null ? Collections.emptyMap() : returnFields.getFieldRenames();
+        final int sz = fields.size();
+        int fidx1 = 0, fidx2 = 0;
+        while (fidx1 < sz) {
+            final IndexableField value = fields.get(fidx1);
+            final String fieldName = value.name();
+            fidx2 = fidx1 + 1;
+            while (fidx2 < sz && fieldName.equals(fields.get(fidx2).name())) {
+                fidx2++;
+            }
+            if (returnFields == null || returnFields.wantsField(fieldName)) {
+                SchemaField sf = schema == null ? null : schema.getFieldOrNull(fieldName);
+                if (sf == null) {
+                    sf = new SchemaField(fieldName, new TextField());
+                }
+                final String renderedFieldName = fieldRenamings.getOrDefault(fieldName, fieldName);
+                final FieldType type = sf.getType();
+                if (fidx1 + 1 == fidx2) {
+                    if (sf.multiValued()) {
+                        startTagOpen(writer, "arr", renderedFieldName);
+                        writer.write(lb);
+                        writeField(writer, type.getTypeName(), null, value.stringValue());
+                        writer.write("</arr>");
+                    } else {
+                        writeField(writer, type.getTypeName(), renderedFieldName, value.stringValue());
+                    }
+                } else {
+                    startTagOpen(writer, "arr", renderedFieldName);
+                    writer.write(lb);
+                    for (int i = fidx1; i < fidx2; i++) {
+                        writeField(writer, type.getTypeName(), null, fields.get(i).stringValue());
+                    }
+                    writer.write("</arr>");
+                    writer.write(lb);
+                }
+            }
+            fidx1 = fidx2;
+        }
+        writer.write("</doc>");
+        writer.write(lb);
+    }
+
+    private static void writeField(final Writer writer, final String typeName, final String name, final String value) throws IOException {
+        if (typeName.equals(SolrType.text_general.printName()) ||
+            typeName.equals(SolrType.string.printName()) ||
+            typeName.equals(SolrType.text_en_splitting_tight.printName())) {
+            writeTag(writer, "str", name, value, true);
+        } else if (typeName.equals(SolrType.bool.printName())) {
+            writeTag(writer, "bool", name, "F".equals(value) ? "false" : "true", true);
+        } else if (typeName.equals(SolrType.num_integer.printName())) {
+            writeTag(writer, "int", name, value, true);
+        } else if (typeName.equals(SolrType.num_long.printName())) {
+            writeTag(writer, "long", name, value, true);
+        } else if (typeName.equals(SolrType.date.printName())) {
+            writeTag(writer, "date", name, new Date(Long.parseLong(value)).toInstant().toString(), true);
+        } else if (typeName.equals(SolrType.num_float.printName())) {
+            writeTag(writer, "float", name, value, true);
+        } else if (typeName.equals(SolrType.num_double.printName())) {
+            writeTag(writer, "double", name, value, true);
+        }
+    }
+
+    private static void writeProps(final Writer writer, final String name, final NamedList<?> val) throws IOException {
+        if (val == null) return;
+        final int sz = val.size();
+        if (sz <= 0) startTagClose(writer, "lst", name); else startTagOpen(writer, "lst", name);
+        for (int i = 0; i < sz; i++) {
+            final String n = val.getName(i);
+            final Object v = val.getVal(i);
+            if (v instanceof Integer) writeTag(writer, "int", n, ((Integer) v).toString(), false);
+            else if (v instanceof String) writeTag(writer, "str", n, (String) v, true);
+            else if (v instanceof NamedList) writeProps(writer, n, (NamedList<?>) v);
+        }
+        if (sz > 0) {
+            writer.write("</lst>");
+            writer.write(lb);
+        }
+    }
+
+    private static void writeTag(final Writer writer, final String tag, final String nameAttr, final String val, final boolean escape) throws IOException {
+        final int contentLen = val.length();
+        if (contentLen == 0) {
+            startTagClose(writer, tag, nameAttr);
+            return;
+        }
+        startTagOpen(writer, tag, nameAttr);
+        if (escape) {
+            XML.escapeCharData(val, writer);
+        } else {
+            writer.write(val, 0, contentLen);
+        }
+        writer.write("</"); writer.write(tag); writer.write('>'); writer.write(lb);
+    }
+
+    private static void startTagOpen(final Writer writer, final String tag, final String nameAttr) throws IOException {
+        writer.write('<'); writer.write(tag);
+        if (nameAttr != null) writeAttr(writer, "name", nameAttr);
+        writer.write('>');
+    }
+
+    private static void startTagClose(final Writer writer, final String tag, final String nameAttr) throws IOException {
+        writer.write('<'); writer.write(tag);
+        if (nameAttr != null) writeAttr(writer, "name", nameAttr);
+        writer.write("/>"); writer.write(lb);
+    }
+
+    private static void writeAttr(final Writer writer, final String nameAttr, final String val) throws IOException {
+        writer.write(' '); writer.write(nameAttr); writer.write("=\""); XML.escapeAttributeValue(val, writer); writer.write('"');
+    }
+
+}
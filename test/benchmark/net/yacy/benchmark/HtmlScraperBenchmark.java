@@ -0,0 +1,135 @@
+// HtmlScraperBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.document.VocabularyScraper;
+import net.yacy.document.parser.html.ContentScraper;
+import net.yacy.document.parser.html.TransformerWriter;
+
+/**
+ * Documents per second through the html scraper, as done by htmlParser.parseToScraper() after the charset
+ * detection: the characters of a document are written to a TransformerWriter which feeds a ContentScraper.
+ * The documents are generated with nested blocks, lists of links, headlines, scripts, comments and entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class HtmlScraperBenchmark {
+
+    /** the number of documents scraped in one invocation */
+    private static final int DOCUMENTS = 32;
+
+    private static final String[] WORDS = ("the quick brown fox jumps over lazy dog search engine peer index crawler "
+            + "document Müller straße café naïve résumé").split(" ");
+
+    private char[][] documents;
+    private DigestURL root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws MalformedURLException {
+        final Random r = new Random(SyntheticIndex.DEFAULT_SEED);
+        this.documents = new char[DOCUMENTS][];
+        for (int d = 0; d < DOCUMENTS; d++) {
+            final StringBuilder html = new StringBuilder(32 * 1024);
+            html.append("<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\"><title>").append(text(r, 4)).append("</title>");
+            html.append("<meta name=\"description\" content=\"").append(text(r, 12)).append("\"><link rel=\"stylesheet\" href=\"/s.css\">");
+            html.append("<style>p{color:red}</style></head><body class=\"x\">\n");
+            final int blocks = 10 + r.nextInt(30);
+            for (int b = 0; b < blocks; b++) block(html, r, 0);
+            html.append("</body></html>\n");
+            this.documents[d] = html.toString().toCharArray();
+        }
+        this.root = new DigestURL("http://example.org/dir/page.html");
+    }
+
+    private static String text(final Random r, final int words) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[r.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static void block(final StringBuilder html, final Random r, final int depth) {
+        final double p = r.nextDouble();
+        if (depth > 5 || p < 0.3) {
+            html.append("<p>").append(text(r, 5 + r.nextInt(55)));
+            if (r.nextInt(10) == 0) html.append(" see http://example.com/x/").append(r.nextInt(100)).append(" now");
+            if (r.nextInt(5) == 0) html.append(" &amp; &eacute;t&eacute;");
+            html.append("</p>\n");
+        } else if (p < 0.45) {
+            html.append("<ul>");
+            final int items = 2 + r.nextInt(9);
+            for (int i = 0; i < items; i++) html.append("<li><a href=\"/p/").append(i).append(".html\" title=\"t").append(i).append("\">").append(text(r, 3)).append("</a></li>");
+            html.append("</ul>\n");
+        } else if (p < 0.5) {
+            final int h = depth % 6 + 1;
+            html.append("<h").append(h).append('>').append(text(r, 4)).append("</h").append(h).append(">\n");
+        } else if (p < 0.55) {
+            html.append("<script>var a=1; if (a<2) { document.write('<b>x</b>'); }</script>\n");
+        } else if (p < 0.6) {
+            html.append("<!-- comment ").append(text(r, 5)).append(" -->\n<img src=\"/img/").append(r.nextInt(100)).append(".png\" alt=\"").append(text(r, 2)).append("\" width=\"10\" height=\"20\">\n");
+        } else {
+            html.append("<div class=\"c").append(depth).append("\" id=\"d").append(r.nextInt(1000)).append("\"><span>").append(text(r, 5)).append("</span> <b>").append(text(r, 2)).append("</b> <em>").append(text(r, 2)).append("</em>\n");
+            final int children = 1 + r.nextInt(5);
+            for (int c = 0; c < children; c++) block(html, r, depth + 1);
+            html.append("</div>\n");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void scrape(final Blackhole bh) throws IOException {
+        for (final char[] document: this.documents) {
+            final ContentScraper scraper = new ContentScraper(this.root, 1000, 1000, new HashSet<String>(), new VocabularyScraper(), 0);
+            final TransformerWriter writer = new TransformerWriter(null, null, scraper, false, 4096);
+            for (int off = 0; off < document.length; off += 4096) writer.write(document, off, Math.min(4096, document.length - off));
+            writer.flush();
+            writer.close();
+            bh.consume(scraper.getText());
+            bh.consume(scraper.getAnchors());
+        }
+    }
+
+}
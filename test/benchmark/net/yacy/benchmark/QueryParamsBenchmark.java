@@ -0,0 +1,99 @@
+// QueryParamsBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.search.query.QueryModifier;
+import net.yacy.search.query.QueryParams;
+
+/**
+ * The url constraint check which is applied to each candidate result of a search event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QueryParamsBenchmark {
+
+    private static final int URLS = 10000;
+
+    private List<DigestURL> urls;
+    private QueryModifier none, protocol, site, filetype;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticIndex index = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, URLS, 500);
+        this.urls = index.urls(URLS);
+        this.none = new QueryModifier(0);
+        this.protocol = new QueryModifier(0);
+        this.protocol.parse("yacy /https");
+        this.site = new QueryModifier(0);
+        this.site.parse("yacy site:" + index.host(3));
+        this.filetype = new QueryModifier(0);
+        this.filetype.parse("yacy filetype:pdf");
+    }
+
+    private void match(final QueryModifier modifier, final String tld, final Blackhole bh) {
+        for (final DigestURL url: this.urls) bh.consume(QueryParams.matchesURL(modifier, tld, url));
+    }
+
+    @Benchmark
+    public void matchesURLNoModifier(final Blackhole bh) {
+        match(this.none, null, bh);
+    }
+
+    @Benchmark
+    public void matchesURLProtocol(final Blackhole bh) {
+        match(this.protocol, null, bh);
+    }
+
+    @Benchmark
+    public void matchesURLSitehost(final Blackhole bh) {
+        match(this.site, null, bh);
+    }
+
+    @Benchmark
+    public void matchesURLTld(final Blackhole bh) {
+        match(this.none, "de", bh);
+    }
+
+    @Benchmark
+    public void matchesURLFiletype(final Blackhole bh) {
+        match(this.filetype, null, bh);
+    }
+
+}
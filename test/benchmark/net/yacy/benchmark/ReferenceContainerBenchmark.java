@@ -0,0 +1,99 @@
+// ReferenceContainerBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+
+/**
+ * Join and exclusion of reference containers, as done for multi-word queries.
+ * The 'equal' benchmarks join containers of the same size (join by enumeration), the 'small'
+ * benchmarks join a container with one having a tenth of its size (join by test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReferenceContainerBenchmark {
+
+    /** the number of references of the larger containers */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    /** the number of documents in the index relative to the container size, the smaller the more overlap */
+    @Param({"2", "10"})
+    public int spread;
+
+    private SyntheticIndex index;
+    private ReferenceContainer<WordReference> large1, large2, small;
+    private ReferenceContainer<WordReference> pivot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SpaceExceededException {
+        this.index = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, this.size * this.spread, Math.max(10, this.size / 20));
+        this.large1 = this.index.container("yacy", this.size);
+        this.large2 = this.index.container("search", this.size);
+        this.small = this.index.container("engine", this.size / 10);
+    }
+
+    /** excludeDestructive modifies the pivot container, so each invocation needs a fresh copy */
+    @Setup(Level.Invocation)
+    public void clonePivot() throws SpaceExceededException {
+        this.pivot = this.large1.topLevelClone();
+    }
+
+    @Benchmark
+    public ReferenceContainer<WordReference> joinConstructiveEqual() throws SpaceExceededException {
+        return ReferenceContainer.joinConstructive(SyntheticIndex.factory, this.large1, this.large2, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ReferenceContainer<WordReference> joinConstructiveSmall() throws SpaceExceededException {
+        return ReferenceContainer.joinConstructive(SyntheticIndex.factory, this.small, this.large2, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ReferenceContainer<WordReference> excludeDestructiveEqual() {
+        return ReferenceContainer.excludeDestructive(SyntheticIndex.factory, this.pivot, this.large2);
+    }
+
+    @Benchmark
+    public ReferenceContainer<WordReference> excludeDestructiveSmall() {
+        return ReferenceContainer.excludeDestructive(SyntheticIndex.factory, this.pivot, this.small);
+    }
+
+}
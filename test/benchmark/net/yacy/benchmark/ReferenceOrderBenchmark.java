@@ -0,0 +1,125 @@
+// ReferenceOrderBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.yacy.cora.document.analysis.Classification.ContentDomain;
+import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceVars;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.search.ranking.RankingProfile;
+import net.yacy.search.ranking.ReferenceColumns;
+import net.yacy.search.ranking.ReferenceOrder;
+
+/**
+ * Decoding, normalization and ranking of a reference container, with objects (transform, normalizeWith, cardinal)
+ * and with columns (decode, rank).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReferenceOrderBenchmark {
+
+    @Param({"100", "3000", "30000"})
+    public int size;
+
+    private ReferenceContainer<WordReference> container;
+    private RankingProfile ranking;
+    private ReferenceOrder normalized;
+    private List<WordReferenceVars> entries;
+    private ReferenceColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SpaceExceededException, InterruptedException {
+        final SyntheticIndex index = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, this.size * 4, Math.max(10, this.size / 20));
+        this.container = index.container("yacy", this.size);
+        this.ranking = new RankingProfile(ContentDomain.TEXT);
+
+        // a normalized order and its entries for the cardinal benchmark
+        this.normalized = new ReferenceOrder(this.ranking, "en");
+        this.entries = new ArrayList<WordReferenceVars>(this.size);
+        final BlockingQueue<WordReferenceVars> queue = this.normalized.normalizeWith(this.container, Long.MAX_VALUE, true);
+        WordReferenceVars entry;
+        while ((entry = queue.take()) != WordReferenceVars.poison) this.entries.add(entry);
+        this.columns = ReferenceColumns.decode(this.container, Long.MAX_VALUE);
+    }
+
+    /**
+     * drain a queue until the poison entry is found
+     * @return the number of entries
+     */
+    private static int drain(final BlockingQueue<WordReferenceVars> queue, final Blackhole bh) throws InterruptedException {
+        int count = 0;
+        WordReferenceVars entry;
+        while ((entry = queue.take()) != WordReferenceVars.poison) {
+            bh.consume(entry);
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int transform(final Blackhole bh) throws InterruptedException {
+        return drain(WordReferenceVars.transform(this.container, Long.MAX_VALUE, true), bh);
+    }
+
+    @Benchmark
+    public int normalizeWith(final Blackhole bh) throws InterruptedException {
+        final ReferenceOrder order = new ReferenceOrder(this.ranking, "en");
+        return drain(order.normalizeWith(this.container, Long.MAX_VALUE, true), bh);
+    }
+
+    @Benchmark
+    public void cardinal(final Blackhole bh) {
+        for (final WordReferenceVars entry: this.entries) bh.consume(this.normalized.cardinal(entry));
+    }
+
+    @Benchmark
+    public ReferenceColumns decode() {
+        return ReferenceColumns.decode(this.container, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long[] rank() {
+        return new ReferenceOrder(this.ranking, "en").rank(this.columns);
+    }
+
+}
@@ -0,0 +1,214 @@
+// ResponseWriterBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.document.id.MultiProtocolURL;
+import net.yacy.cora.federate.solr.connector.EmbeddedSolrConnector;
+import net.yacy.cora.federate.solr.instance.EmbeddedInstance;
+import net.yacy.cora.federate.solr.responsewriter.EnhancedXMLResponseWriter;
+import net.yacy.cora.federate.solr.responsewriter.FlatJSONResponseWriter;
+import net.yacy.kelondro.util.FileUtils;
+import net.yacy.search.schema.CollectionSchema;
+import net.yacy.search.schema.WebgraphSchema;
+
+/**
+ * Writing of a solr response with the flat json and the xml response writer, compared to their
+ * former implementations in {@link FormerResponseWriters}. The documents are written from an
+ * embedded index in a temporary directory; the query is done once, so that only the writers are
+ * measured. The output goes to a writer which counts the characters and drops them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ResponseWriterBenchmark {
+
+    private static final String[] WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipisicing", "elit",
+        "sed", "do", "eiusmod", "tempor", "incididunt", "labore", "dolore", "magna", "aliqua", "<b>", "&amp;", "\"quoted\""};
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private File storage;
+    private EmbeddedInstance instance;
+    private SolrQueryRequest request;
+    private SolrQueryResponse response;
+    private FlatJSONResponseWriter flatJSONWriter;
+    private EnhancedXMLResponseWriter xmlWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.storage = Files.createTempDirectory("ResponseWriterBenchmark").toFile();
+        this.instance = new EmbeddedInstance(new File("defaults/solr"), this.storage, CollectionSchema.CORE_NAME,
+                new String[]{CollectionSchema.CORE_NAME, WebgraphSchema.CORE_NAME});
+        final EmbeddedSolrConnector connector = new EmbeddedSolrConnector(this.instance);
+        final SyntheticIndex index = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, this.rows, Math.max(10, this.rows / 20));
+        final Random r = new Random(SyntheticIndex.DEFAULT_SEED);
+        final List<SolrInputDocument> docs = new ArrayList<SolrInputDocument>(this.rows);
+        for (int doc = 0; doc < this.rows; doc++) docs.add(document(index.url(doc), r));
+        connector.add(docs);
+        connector.commit(false);
+
+        final ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, "*:*");
+        params.set(CommonParams.ROWS, this.rows);
+        this.request = connector.request(params);
+        this.response = connector.query(this.request);
+        this.flatJSONWriter = new FlatJSONResponseWriter(false);
+        this.xmlWriter = new EnhancedXMLResponseWriter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.request.close();
+        this.instance.close();
+        FileUtils.deletedelete(this.storage);
+    }
+
+    /**
+     * @return a document with about 20 stored fields, multi-valued ones, an empty one and one large text
+     */
+    private static SolrInputDocument document(final DigestURL url, final Random r) {
+        final SolrInputDocument doc = new SolrInputDocument();
+        doc.setField(CollectionSchema.id.name(), ASCII.String(url.hash()));
+        doc.setField(CollectionSchema.sku.name(), url.toNormalform(true));
+        doc.setField(CollectionSchema.last_modified.name(), new Date(1514764800000L - r.nextInt(1000000) * 1000L));
+        doc.setField(CollectionSchema.load_date_dt.name(), new Date(1514764800000L));
+        doc.addField(CollectionSchema.title.name(), words(r, 6));
+        doc.addField(CollectionSchema.title.name(), words(r, 4));
+        doc.setField(CollectionSchema.author.name(), words(r, 2));
+        doc.setField(CollectionSchema.keywords.name(), "");
+        doc.setField(CollectionSchema.host_s.name(), url.getHost());
+        doc.setField(CollectionSchema.url_protocol_s.name(), url.getProtocol());
+        doc.setField(CollectionSchema.url_file_ext_s.name(), MultiProtocolURL.getFileExtension(url.getFileName()));
+        doc.setField(CollectionSchema.language_s.name(), "en");
+        doc.setField(CollectionSchema.charset_s.name(), "UTF-8");
+        doc.addField(CollectionSchema.description_txt.name(), words(r, 20));
+        for (int i = 0; i < 3; i++) doc.addField(CollectionSchema.h1_txt.name(), words(r, 5));
+        for (int i = 0; i < 10; i++) doc.addField(CollectionSchema.outboundlinks_urlstub_sxt.name(), "example" + r.nextInt(1000) + ".com/" + words(r, 1));
+        doc.setField(CollectionSchema.size_i.name(), r.nextInt(100000));
+        doc.setField(CollectionSchema.wordcount_i.name(), r.nextInt(2000));
+        doc.setField(CollectionSchema.http_unique_b.name(), r.nextBoolean());
+        doc.setField(CollectionSchema.text_t.name(), words(r, 500));
+        return doc;
+    }
+
+    private static String words(final Random r, final int count) {
+        final StringBuilder s = new StringBuilder(count * 8);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) s.append(' ');
+            s.append(WORDS[r.nextInt(WORDS.length)]);
+        }
+        return s.toString();
+    }
+
+    @Benchmark
+    public long flatJSON() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        this.flatJSONWriter.write(writer, this.request, this.response);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long flatJSONFormer() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        FormerResponseWriters.writeFlatJSON(writer, this.request, this.response);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long xml() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        this.xmlWriter.write(writer, this.request, this.response);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long xmlFormer() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        FormerResponseWriters.writeXML(writer, this.request, this.response);
+        return writer.count;
+    }
+
+    /**
+     * An unsynchronized sink which only counts the written characters, so that the
+     * measurement does not include the cost of buffering or encoding.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count = 0;
+
+        @Override
+        public void write(final int c) {
+            this.count++;
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+            this.count += len;
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) {
+            this.count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+// SearchEventBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.yacy.cora.document.analysis.Classification.ContentDomain;
+import net.yacy.cora.sorting.WeakPriorityBlockingQueue;
+import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.kelondro.data.word.Word;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceVars;
+import net.yacy.kelondro.index.RowHandleSet;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.search.query.SearchEvent;
+import net.yacy.search.ranking.RankingProfile;
+import net.yacy.search.ranking.ReferenceColumns;
+import net.yacy.search.ranking.ReferenceOrder;
+
+/**
+ * The RWI ranking of SearchEvent.addRWIs() on synthetic containers: decoding and ranking of the container
+ * columns and the ranking loop {@link SearchEvent#selectRWIs}. A SearchEvent can not be instantiated without
+ * a running Switchboard, therefore the constraints are those of a query without constraints, which reads the
+ * flags and the host hash of each entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SearchEventBenchmark {
+
+    /** the size of the RWI stack of a search event */
+    private static final int MAX_RESULTS_RWI = 3000;
+
+    /** the number of references in a container */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    /** the number of containers added to one search event, as from the local index and remote peers */
+    @Param({"1", "4"})
+    public int containers;
+
+    private List<ReferenceContainer<WordReference>> index;
+    private RankingProfile ranking;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SpaceExceededException {
+        // containers of different words overlap, so the double-check drops some of the entries
+        final SyntheticIndex synthetic = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, this.size * 2, Math.max(10, this.size / 20));
+        this.index = new ArrayList<ReferenceContainer<WordReference>>(this.containers);
+        for (int i = 0; i < this.containers; i++) this.index.add(synthetic.container("yacy" + i, this.size));
+        this.ranking = new RankingProfile(ContentDomain.TEXT);
+    }
+
+    @Benchmark
+    public WeakPriorityBlockingQueue<WordReferenceVars> addRWIs() throws SpaceExceededException {
+        final WeakPriorityBlockingQueue<WordReferenceVars> rwiStack = new WeakPriorityBlockingQueue<WordReferenceVars>(MAX_RESULTS_RWI, false);
+        final ReferenceOrder order = new ReferenceOrder(this.ranking, "en");
+        final RowHandleSet urlhashes = new RowHandleSet(Word.commonHashLength, Word.commonHashOrder, 100);
+        final int[] flagcount = new int[32];
+        for (final ReferenceContainer<WordReference> container: this.index) {
+            final ReferenceColumns columns = ReferenceColumns.decode(container, Long.MAX_VALUE);
+            final long[] ranking = order.rank(columns);
+            SearchEvent.selectRWIs(columns, ranking, true, i -> columns.flags(i) != null && columns.hosthash(i) != null,
+                    urlhashes, flagcount, rwiStack, Long.MAX_VALUE);
+        }
+        return rwiStack;
+    }
+
+}
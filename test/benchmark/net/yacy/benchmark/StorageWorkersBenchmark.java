@@ -0,0 +1,146 @@
+// StorageWorkersBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.yacy.cora.util.ByteArray;
+import net.yacy.kelondro.data.word.Word;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceRow;
+import net.yacy.kelondro.rwi.ReferenceContainerCache;
+import net.yacy.kelondro.workflow.WorkflowJob;
+import net.yacy.kelondro.workflow.WorkflowPartitioner;
+import net.yacy.kelondro.workflow.WorkflowProcessor;
+import net.yacy.kelondro.workflow.WorkflowTask;
+
+/**
+ * Documents per second through a partitioned storeDocumentIndex stage, depending on the number of workers.
+ * A document is distributed by its url hash to a worker, which writes one reference per word of the document
+ * into a shared RWI cache, as done by Segment.storeDocument(). The Solr part of the stage needs a running
+ * Solr core and is not part of this benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StorageWorkersBenchmark {
+
+    /** the number of documents stored in one invocation */
+    private static final int DOCUMENTS = 256;
+
+    /** the number of different words of a document */
+    private static final int WORDS = 200;
+
+    /** the number of different words of all documents */
+    private static final int VOCABULARY = 20000;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    private WordReferenceRow[] references;
+    private byte[][][] words;
+    private WorkflowProcessor<StorageJob> processor;
+    private ReferenceContainerCache<WordReference> cache;
+    private CountDownLatch stored;
+
+    private static class StorageJob extends WorkflowJob {
+        private final int doc;
+        private StorageJob(final int doc) {
+            this.doc = doc;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticIndex index = new SyntheticIndex(SyntheticIndex.DEFAULT_SEED, DOCUMENTS, DOCUMENTS / 8);
+        final byte[][] vocabulary = new byte[VOCABULARY][];
+        for (int w = 0; w < VOCABULARY; w++) vocabulary[w] = Word.word2hash("word" + w);
+        final Random r = new Random(SyntheticIndex.DEFAULT_SEED);
+        this.references = new WordReferenceRow[DOCUMENTS];
+        this.words = new byte[DOCUMENTS][WORDS][];
+        for (int doc = 0; doc < DOCUMENTS; doc++) {
+            this.references[doc] = index.reference(doc, r);
+            // a skewed distribution of the words, frequent words are shared by many documents
+            for (int w = 0; w < WORDS; w++) this.words[doc][w] = vocabulary[(int) (VOCABULARY * Math.pow(r.nextDouble(), 3))];
+        }
+
+        this.processor = new WorkflowProcessor<StorageJob>(
+                "storageWorkersBenchmark", "", new String[0],
+                new WorkflowTask<StorageJob>() {
+                    @Override
+                    public StorageJob process(final StorageJob in) throws Exception {
+                        final WordReferenceRow reference = StorageWorkersBenchmark.this.references[in.doc];
+                        for (final byte[] termHash: StorageWorkersBenchmark.this.words[in.doc]) {
+                            StorageWorkersBenchmark.this.cache.add(termHash, reference);
+                        }
+                        StorageWorkersBenchmark.this.stored.countDown();
+                        return null;
+                    }
+                },
+                2 * this.workers, null, this.workers,
+                new WorkflowPartitioner<StorageJob>() {
+                    @Override
+                    public int partition(final StorageJob in, final int partitions) {
+                        return (ByteArray.hashCode(StorageWorkersBenchmark.this.references[in.doc].urlhash()) & Integer.MAX_VALUE) % partitions;
+                    }
+                    @Override
+                    public void idle(final int partition) {
+                    }
+                });
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.cache = new ReferenceContainerCache<WordReference>(SyntheticIndex.factory, Word.commonHashOrder, Word.commonHashLength);
+        this.stored = new CountDownLatch(DOCUMENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.processor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void store() throws InterruptedException {
+        for (int doc = 0; doc < DOCUMENTS; doc++) this.processor.enQueue(new StorageJob(doc));
+        this.stored.await();
+    }
+
+}
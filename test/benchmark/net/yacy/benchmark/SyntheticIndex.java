@@ -0,0 +1,191 @@
+// SyntheticIndex.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.document.id.MultiProtocolURL;
+import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.crawler.retrieval.Response;
+import net.yacy.document.Tokenizer;
+import net.yacy.kelondro.data.word.Word;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceFactory;
+import net.yacy.kelondro.data.word.WordReferenceRow;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.kelondro.rwi.ReferenceFactory;
+import net.yacy.kelondro.util.Bitfield;
+
+/**
+ * A reproducible generator of synthetic RWI index data for the benchmarks.
+ * Documents are identified by an integer id in the range [0, documents); the url and all
+ * properties of a document are derived from its id and the seed only, and the references of
+ * a word are derived from the word and the seed only. The same seed therefore always produces
+ * the same containers, independently of the order in which they are requested, so results of
+ * different benchmark runs and of different versions of the code can be compared.
+ * The overlap of two containers (which drives the join cost) is controlled by the number of
+ * references of each word relative to the number of documents.
+ */
+public class SyntheticIndex {
+
+    public static final long DEFAULT_SEED = 0x5EEDL;
+
+    /** a fixed 'now', so the age of the documents does not depend on the time of the run */
+    private static final long BASE_TIME = 1514764800000L; // 2018-01-01T00:00:00Z
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+
+    private static final String[] TLDS = {"com", "org", "net", "de", "fr", "eu", "info", "edu"};
+    private static final String[] LANGUAGES = {"en", "en", "en", "de", "de", "fr", "es", "it"};
+    private static final String[] EXTENSIONS = {"html", "html", "html", "htm", "php", "pdf", "txt", "doc"};
+    private static final int[] FLAGS = {
+        WordReferenceRow.flag_app_dc_description, WordReferenceRow.flag_app_dc_title, WordReferenceRow.flag_app_dc_creator,
+        WordReferenceRow.flag_app_dc_subject, WordReferenceRow.flag_app_dc_identifier, WordReferenceRow.flag_app_emphasized,
+        Tokenizer.flag_cat_indexof, Tokenizer.flag_cat_hasimage, Tokenizer.flag_cat_hasaudio, Tokenizer.flag_cat_hasvideo, Tokenizer.flag_cat_hasapp
+    };
+
+    public static final ReferenceFactory<WordReference> factory = new WordReferenceFactory();
+
+    private final long seed;
+    private final int documents;
+    private final int hosts;
+    private final ConcurrentHashMap<Integer, DigestURL> urls;
+
+    /**
+     * @param seed the seed of all random values
+     * @param documents the number of documents in the index
+     * @param hosts the number of hosts the documents are distributed to
+     */
+    public SyntheticIndex(final long seed, final int documents, final int hosts) {
+        this.seed = seed;
+        this.documents = documents;
+        this.hosts = Math.max(1, hosts);
+        this.urls = new ConcurrentHashMap<Integer, DigestURL>();
+    }
+
+    public int documents() {
+        return this.documents;
+    }
+
+    /**
+     * @param host a host number
+     * @return the host name of the given host number
+     */
+    public String host(final int host) {
+        return ((host % 3 == 0) ? "www." : "") + "host" + host + ".example." + TLDS[host % TLDS.length];
+    }
+
+    /**
+     * @param doc a document id
+     * @return the url of the document
+     */
+    public DigestURL url(final int doc) {
+        DigestURL url = this.urls.get(doc);
+        if (url != null) return url;
+        final Random r = new Random(this.seed * 31 + doc);
+        final int host = r.nextInt(this.hosts);
+        final StringBuilder s = new StringBuilder(80);
+        s.append((host % 5 == 0) ? "https://" : "http://").append(host(host));
+        final int depth = r.nextInt(5);
+        for (int i = 0; i < depth; i++) s.append("/dir").append(r.nextInt(20));
+        s.append("/doc").append(doc).append('.').append(EXTENSIONS[r.nextInt(EXTENSIONS.length)]);
+        try {
+            url = new DigestURL(s.toString());
+        } catch (final MalformedURLException e) {
+            throw new IllegalStateException(e); // the generated urls are always well-formed
+        }
+        this.urls.put(doc, url);
+        return url;
+    }
+
+    /**
+     * @param count the number of urls
+     * @return the urls of the documents 0 .. count - 1
+     */
+    public List<DigestURL> urls(final int count) {
+        final List<DigestURL> list = new ArrayList<DigestURL>(count);
+        for (int doc = 0; doc < count; doc++) list.add(url(doc % this.documents));
+        return list;
+    }
+
+    /**
+     * Produce the reference of a word in a document
+     * @param doc the document id
+     * @param r the random source of the word properties
+     * @return a reference as it would be produced by the tokenizer when the document is indexed
+     */
+    public WordReferenceRow reference(final int doc, final Random r) {
+        final DigestURL url = url(doc);
+        final Random d = new Random(this.seed * 17 + doc); // document properties, equal for all words of the document
+        final String urlNormalform = url.toNormalform(true);
+        final int wordcount = 50 + d.nextInt(5000);
+        final WordReferenceRow entry = new WordReferenceRow(
+                url.hash(),
+                urlNormalform.length(),
+                MultiProtocolURL.urlComps(urlNormalform).length,
+                1 + d.nextInt(12),
+                wordcount,
+                1 + wordcount / (5 + d.nextInt(20)),
+                BASE_TIME - d.nextInt(3650) * DAY,
+                BASE_TIME - d.nextInt(30) * DAY,
+                ASCII.getBytes(LANGUAGES[d.nextInt(LANGUAGES.length)]),
+                Response.docType(url),
+                d.nextInt(100),
+                d.nextInt(50));
+        final Word word = new Word(1 + r.nextInt(wordcount), 1 + r.nextInt(20), 100 + r.nextInt(1 + wordcount / 10));
+        word.count = 1 + r.nextInt(20);
+        word.flags = new Bitfield(4);
+        for (final int flag: FLAGS) if (r.nextInt(8) == 0) word.flags.set(flag, true);
+        entry.setWord(word);
+        return entry;
+    }
+
+    /**
+     * Produce the reference container of a word
+     * @param word the word
+     * @param size the number of references in the container, at most the number of documents
+     * @return a sorted container with references to size distinct documents
+     * @throws SpaceExceededException
+     */
+    public ReferenceContainer<WordReference> container(final String word, final int size) throws SpaceExceededException {
+        final byte[] termHash = Word.word2hash(word);
+        final Random r = new Random(this.seed ^ word.hashCode());
+        final int n = Math.min(size, this.documents);
+        final ReferenceContainer<WordReference> container = new ReferenceContainer<WordReference>(factory, termHash, n);
+        // select n distinct documents (Floyd's algorithm)
+        final BitSet selected = new BitSet(this.documents);
+        for (int j = this.documents - n; j < this.documents; j++) {
+            final int t = r.nextInt(j + 1);
+            final int doc = selected.get(t) ? j : t;
+            selected.set(doc);
+        }
+        for (int doc = selected.nextSetBit(0); doc >= 0; doc = selected.nextSetBit(doc + 1)) {
+            container.add(reference(doc, r));
+        }
+        container.sort();
+        return container;
+    }
+
+}
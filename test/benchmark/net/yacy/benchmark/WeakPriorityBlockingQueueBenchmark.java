@@ -0,0 +1,114 @@
+// WeakPriorityBlockingQueueBenchmark.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.yacy.cora.sorting.WeakPriorityBlockingQueue;
+import net.yacy.cora.sorting.WeakPriorityBlockingQueue.Element;
+import net.yacy.cora.sorting.WeakPriorityBlockingQueue.ReverseElement;
+
+/**
+ * Put and poll on the bounded priority queue that holds the ranked RWI results of a search event.
+ * The weights are random as the cardinal values of a normalized container, so most of the puts
+ * into a full queue replace the worst element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WeakPriorityBlockingQueueBenchmark {
+
+    /** the maximum size of the queue, 3000 is the size of the RWI stack of a search event */
+    @Param({"100", "3000"})
+    public int maxsize;
+
+    /** the number of elements offered to the queue */
+    @Param({"10000"})
+    public int elements;
+
+    private long[] weights;
+    private WeakPriorityBlockingQueue<Integer> shared;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random r = new Random(SyntheticIndex.DEFAULT_SEED);
+        this.weights = new long[this.elements];
+        for (int i = 0; i < this.elements; i++) this.weights[i] = r.nextInt(1 << 24);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpShared() {
+        this.shared = new WeakPriorityBlockingQueue<Integer>(this.maxsize, false);
+    }
+
+    /**
+     * fill a new queue with all elements and poll it empty
+     */
+    @Benchmark
+    public void putPoll(final Blackhole bh) {
+        final WeakPriorityBlockingQueue<Integer> queue = new WeakPriorityBlockingQueue<Integer>(this.maxsize, false);
+        for (int i = 0; i < this.weights.length; i++) {
+            queue.put(new ReverseElement<Integer>(i, this.weights[i]));
+        }
+        Element<Integer> e;
+        while ((e = queue.poll()) != null) bh.consume(e);
+    }
+
+    /**
+     * fill a queue with all elements, drained as done for result pages, then read the first page
+     */
+    @Benchmark
+    public void putDrained(final Blackhole bh) throws InterruptedException {
+        final WeakPriorityBlockingQueue<Integer> queue = new WeakPriorityBlockingQueue<Integer>(this.maxsize, true);
+        for (int i = 0; i < this.weights.length; i++) {
+            queue.put(new ReverseElement<Integer>(i, this.weights[i]));
+        }
+        for (int p = 0; p < 10; p++) bh.consume(queue.element(p));
+    }
+
+    /**
+     * concurrent puts of several feeder threads into one queue, as done by the local and remote searches
+     */
+    @Benchmark
+    @Threads(4)
+    public void putConcurrent() {
+        final Random r = new Random();
+        this.shared.put(new ReverseElement<Integer>(r.nextInt(), this.weights[r.nextInt(this.weights.length)]));
+    }
+
+}
@@ -0,0 +1,191 @@
+// EnhancedXMLResponseWriterTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.federate.solr.responsewriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.yacy.cora.federate.solr.connector.EmbeddedSolrConnector;
+import net.yacy.cora.federate.solr.instance.EmbeddedInstance;
+import net.yacy.search.schema.CollectionSchema;
+import net.yacy.search.schema.WebgraphSchema;
+
+/**
+ * Unit tests for the {@link EnhancedXMLResponseWriter} class.
+ */
+public class EnhancedXMLResponseWriterTest {
+
+    /** Embedded Solr test instance */
+    private static EmbeddedInstance EMBEDDED_INSTANCE;
+
+    private static EmbeddedSolrConnector CONNECTOR;
+
+    /**
+     * Inits the embedded Solr index with one document.
+     */
+    @BeforeClass
+    public static void initSolr() throws IOException {
+        final File solr_config = new File("defaults/solr");
+        final File storage = new File("test/DATA/INDEX/webportal/SEGMENTS/text/solr/");
+        storage.mkdirs();
+        EMBEDDED_INSTANCE = new EmbeddedInstance(solr_config, storage, CollectionSchema.CORE_NAME,
+                new String[] { CollectionSchema.CORE_NAME, WebgraphSchema.CORE_NAME });
+        CONNECTOR = new EmbeddedSolrConnector(EMBEDDED_INSTANCE);
+        CONNECTOR.clear();
+
+        final SolrInputDocument doc = new SolrInputDocument();
+        doc.setField(CollectionSchema.id.name(), "xmlwriter001");
+        doc.setField(CollectionSchema.sku.name(), "http://example.com/");
+        doc.addField(CollectionSchema.title.name(), "Lorem <ipsum>");
+        doc.addField(CollectionSchema.title.name(), "dolor");
+        doc.addField(CollectionSchema.h1_txt.name(), "sit");
+        doc.setField(CollectionSchema.keywords.name(), "");
+        doc.setField(CollectionSchema.size_i.name(), 126);
+        doc.setField(CollectionSchema.http_unique_b.name(), true);
+        CONNECTOR.add(doc);
+        CONNECTOR.commit(true);
+    }
+
+    /**
+     * Closes the embedded Solr index.
+     */
+    @AfterClass
+    public static void finalizeTesting() {
+        EMBEDDED_INSTANCE.close();
+    }
+
+    private static String write(final String fl) throws IOException {
+        final ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, CollectionSchema.id.name() + ":xmlwriter001");
+        if (fl != null) params.set(CommonParams.FL, fl);
+        final SolrQueryRequest request = CONNECTOR.request(params);
+        final StringWriter writer = new StringWriter();
+        try {
+            final SolrQueryResponse response = CONNECTOR.query(request);
+            new EnhancedXMLResponseWriter().write(writer, request, response);
+        } finally {
+            request.close();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * All stored fields are written with the tag of their type, multi-valued fields as arr also if they have a
+     * single value, empty values as empty tags.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        final String xml = write(null);
+        Assert.assertTrue(xml, xml.contains("<result name=\"response\" numFound=\"1\" start=\"0\">"));
+        Assert.assertTrue(xml, xml.contains("<str name=\"id\">xmlwriter001</str>\n"));
+        Assert.assertTrue(xml, xml.contains("<arr name=\"title\">\n<str>Lorem &lt;ipsum&gt;</str>\n<str>dolor</str>\n</arr>\n"));
+        Assert.assertTrue(xml, xml.contains("<arr name=\"h1_txt\">\n<str>sit</str>\n</arr>"));
+        Assert.assertTrue(xml, xml.contains("<str name=\"keywords\"/>\n"));
+        Assert.assertTrue(xml, xml.contains("<int name=\"size_i\">126</int>\n"));
+        Assert.assertTrue(xml, xml.contains("<bool name=\"http_unique_b\">true</bool>\n"));
+    }
+
+    /**
+     * Only the fields of the fl parameter are written, with their alias name if they have one.
+     */
+    @Test
+    public void testWriteFieldList() throws IOException {
+        final String xml = write("id,t:title,keywords,size:size_i");
+        Assert.assertTrue(xml, xml.contains("<str name=\"id\">xmlwriter001</str>\n"));
+        Assert.assertTrue(xml, xml.contains("<arr name=\"t\">\n<str>Lorem &lt;ipsum&gt;</str>\n<str>dolor</str>\n</arr>\n"));
+        Assert.assertTrue(xml, xml.contains("<str name=\"keywords\"/>\n"));
+        Assert.assertTrue(xml, xml.contains("<int name=\"size\">126</int>\n"));
+        Assert.assertFalse(xml, xml.contains("name=\"title\""));
+        Assert.assertFalse(xml, xml.contains("name=\"size_i\""));
+        Assert.assertFalse(xml, xml.contains("name=\"h1_txt\""));
+        Assert.assertFalse(xml, xml.contains("name=\"sku\""));
+        Assert.assertFalse(xml, xml.contains("name=\"http_unique_b\""));
+    }
+
+    /**
+     * Write a solrj query response.
+     */
+    @Test
+    public void testWriteQueryResponse() throws IOException {
+        final ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, CollectionSchema.id.name() + ":xmlwriter001");
+        params.set(CommonParams.FL, "id,title,keywords");
+        final QueryResponse response = CONNECTOR.getResponseByParams(params);
+        final StringWriter writer = new StringWriter();
+        new EnhancedXMLResponseWriter().write(writer, null, CollectionSchema.CORE_NAME, response);
+        final String xml = writer.toString();
+        Assert.assertTrue(xml, xml.contains("<str name=\"id\">xmlwriter001</str>\n"));
+        Assert.assertTrue(xml, xml.contains("<arr name=\"title\">\n<str>Lorem &lt;ipsum&gt;</str>\n<str>dolor</str>\n</arr>\n"));
+        Assert.assertTrue(xml, xml.contains("<str name=\"keywords\"/>\n"));
+        Assert.assertFalse(xml, xml.contains("name=\"size_i\""));
+    }
+
+    /**
+     * Write a solrj document: collections are written as arr, null values are skipped.
+     */
+    @Test
+    public void testWriteDoc() throws IOException {
+        final SolrDocument doc = new SolrDocument();
+        doc.setField("id", "a");
+        doc.addField("title", "Lorem <ipsum>");
+        doc.addField("title", "dolor");
+        doc.setField("keywords", "");
+        doc.setField("size_i", 126);
+        doc.setField("host_s", null);
+
+        final StringWriter writer = new StringWriter();
+        EnhancedXMLResponseWriter.writeDoc(writer, doc);
+        Assert.assertEquals("<doc><str name=\"id\">a</str>\n<arr name=\"title\">\n<str>Lorem &lt;ipsum&gt;</str>\n<str>dolor</str>\n</arr>\n"
+                + "<str name=\"keywords\"/>\n<int name=\"size_i\">126</int>\n</doc>\n", writer.toString());
+    }
+
+    /**
+     * Write a solr input document like a solrj document.
+     */
+    @Test
+    public void testWriteInputDoc() throws IOException {
+        final SolrInputDocument doc = new SolrInputDocument();
+        doc.setField("id", "a");
+        doc.addField("title", "Lorem <ipsum>");
+        doc.addField("title", "dolor");
+        doc.setField("keywords", "");
+        doc.setField("size_i", 126);
+
+        final StringWriter writer = new StringWriter();
+        EnhancedXMLResponseWriter.writeDoc(writer, doc);
+        Assert.assertEquals("<doc><str name=\"id\">a</str>\n<arr name=\"title\">\n<str>Lorem &lt;ipsum&gt;</str>\n<str>dolor</str>\n</arr>\n"
+                + "<str name=\"keywords\"/>\n<int name=\"size_i\">126</int>\n</doc>\n", writer.toString());
+    }
+
+}
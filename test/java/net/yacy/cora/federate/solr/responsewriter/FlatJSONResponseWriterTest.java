@@ -0,0 +1,140 @@
+// FlatJSONResponseWriterTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.federate.solr.responsewriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.yacy.cora.federate.solr.connector.EmbeddedSolrConnector;
+import net.yacy.cora.federate.solr.instance.EmbeddedInstance;
+import net.yacy.cora.util.JSONObject;
+import net.yacy.search.schema.CollectionSchema;
+import net.yacy.search.schema.WebgraphSchema;
+
+/**
+ * Unit tests for the {@link FlatJSONResponseWriter} class.
+ */
+public class FlatJSONResponseWriterTest {
+
+    /** Embedded Solr test instance */
+    private static EmbeddedInstance EMBEDDED_INSTANCE;
+
+    private static EmbeddedSolrConnector CONNECTOR;
+
+    /**
+     * Inits the embedded Solr index with one document.
+     */
+    @BeforeClass
+    public static void initSolr() throws IOException {
+        final File solr_config = new File("defaults/solr");
+        final File storage = new File("test/DATA/INDEX/webportal/SEGMENTS/text/solr/");
+        storage.mkdirs();
+        EMBEDDED_INSTANCE = new EmbeddedInstance(solr_config, storage, CollectionSchema.CORE_NAME,
+                new String[] { CollectionSchema.CORE_NAME, WebgraphSchema.CORE_NAME });
+        CONNECTOR = new EmbeddedSolrConnector(EMBEDDED_INSTANCE);
+        CONNECTOR.clear();
+
+        final SolrInputDocument doc = new SolrInputDocument();
+        doc.setField(CollectionSchema.id.name(), "flatjson0001");
+        doc.setField(CollectionSchema.sku.name(), "http://example.com/");
+        doc.addField(CollectionSchema.title.name(), "Lorem \"ipsum\"");
+        doc.addField(CollectionSchema.title.name(), "dolor");
+        doc.addField(CollectionSchema.h1_txt.name(), "sit");
+        doc.setField(CollectionSchema.keywords.name(), "");
+        doc.setField(CollectionSchema.size_i.name(), 126);
+        doc.setField(CollectionSchema.http_unique_b.name(), true);
+        CONNECTOR.add(doc);
+        CONNECTOR.commit(true);
+    }
+
+    /**
+     * Closes the embedded Solr index.
+     */
+    @AfterClass
+    public static void finalizeTesting() {
+        EMBEDDED_INSTANCE.close();
+    }
+
+    /**
+     * The stored fields of a document are written as one json object per line, multi-valued fields as arrays
+     * also if they have a single value.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        final ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, CollectionSchema.id.name() + ":flatjson0001");
+        final SolrQueryRequest request = CONNECTOR.request(params);
+        final StringWriter writer = new StringWriter();
+        try {
+            final SolrQueryResponse response = CONNECTOR.query(request);
+            new FlatJSONResponseWriter(false).write(writer, request, response);
+        } finally {
+            request.close();
+        }
+        final String json = writer.toString();
+        Assert.assertEquals(json.length() - 1, json.indexOf('\n'));
+
+        Assert.assertTrue(json, json.contains("\"title\":[\"Lorem \\\"ipsum\\\"\",\"dolor\"]"));
+        Assert.assertTrue(json, json.contains("\"h1_txt\":[\"sit\"]"));
+        Assert.assertTrue(json, json.contains("\"keywords\":\"\""));
+        Assert.assertTrue(json, json.contains("\"size_i\":126"));
+        Assert.assertTrue(json, json.contains("\"http_unique_b\":true"));
+
+        final JSONObject parsed = new JSONObject(json);
+        Assert.assertEquals("flatjson0001", parsed.getString(CollectionSchema.id.name()));
+        Assert.assertEquals(2, parsed.getJSONArray(CollectionSchema.title.name()).length());
+        Assert.assertEquals("", parsed.getString(CollectionSchema.keywords.name()));
+    }
+
+    /**
+     * Write a solrj document: collections are written as arrays, null values are skipped.
+     */
+    @Test
+    public void testWriteDoc() throws IOException {
+        final SolrDocument doc = new SolrDocument();
+        doc.setField("id", "a");
+        doc.addField("title", "Lorem \"ipsum\"");
+        doc.addField("title", "dolor");
+        doc.setField("keywords", "");
+        doc.setField("size_i", 126);
+        doc.setField("host_s", null);
+        doc.setField("h1_txt", new ArrayList<String>());
+
+        final StringWriter writer = new StringWriter();
+        FlatJSONResponseWriter.writeDoc(writer, doc);
+        Assert.assertEquals("{\"id\":\"a\",\"title\":[\"Lorem \\\"ipsum\\\"\",\"dolor\"],\"keywords\":\"\",\"size_i\":126,\"h1_txt\":[]}\n",
+                writer.toString());
+    }
+
+}
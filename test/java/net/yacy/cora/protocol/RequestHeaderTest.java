@@ -64,4 +64,19 @@ public class RequestHeaderTest {
         assertEquals (80, portresult);
     }
 
+    /**
+     * If-None-Match matches the current entity tag, weak or not, in a list or as wildcard.
+     */
+    @Test
+    public void testNotModified() {
+        final String etag = "W/\"7-abc\"";
+        assertTrue(RequestHeader.notModified(etag, etag));
+        assertTrue(RequestHeader.notModified("\"other\", \"7-abc\"", etag));
+        assertTrue(RequestHeader.notModified("*", etag));
+        assertTrue(RequestHeader.notModified("\"5-html\"", "\"5-html\""));
+        assertFalse(RequestHeader.notModified("\"5-html\"", "\"5-html-gzip\""));
+        assertFalse(RequestHeader.notModified(null, etag));
+        assertFalse(RequestHeader.notModified("W/\"8-abc\"", etag));
+    }
+
 }
@@ -0,0 +1,97 @@
+package net.yacy.cora.sorting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StripedScoreMapTest {
+
+    /**
+     * Test of the basic score operations
+     */
+    @Test
+    public void testScores() {
+        final StripedScoreMap<String> ssm = new StripedScoreMap<String>();
+        ssm.inc("first");
+        ssm.inc("first", 9);
+        ssm.set("second", 5);
+        ssm.inc("third", 13);
+        ssm.dec("third");
+
+        assertEquals(3, ssm.size());
+        assertEquals(10, ssm.get("first"));
+        assertEquals(5, ssm.get("second"));
+        assertEquals(12, ssm.get("third"));
+        assertEquals(27, ssm.totalCount());
+        assertEquals(5, ssm.getMinScore());
+        assertEquals(12, ssm.getMaxScore());
+
+        ssm.set("first", 100);
+        assertEquals(100, ssm.get("first"));
+
+        assertEquals(5, ssm.delete("second"));
+        assertFalse(ssm.containsKey("second"));
+        assertEquals(0, ssm.get("second"));
+        ssm.inc("second"); // gets the id of the deleted key, which must start with a score of 0
+        assertEquals(1, ssm.get("second"));
+        assertEquals(2, ssm.shrinkToMinScore(13));
+        assertEquals("{first=100}", ssm.toString());
+
+        ssm.clear();
+        assertTrue(ssm.isEmpty());
+        assertEquals(0, ssm.get("first"));
+    }
+
+    /**
+     * Test of keys ordered by score
+     */
+    @Test
+    public void testKeys() {
+        final StripedScoreMap<String> ssm = new StripedScoreMap<String>();
+        ssm.set("a", 55);
+        ssm.set("b", 3);
+        ssm.set("c", 80);
+        final Iterator<String> up = ssm.keys(true);
+        assertEquals("b", up.next());
+        assertEquals("a", up.next());
+        assertEquals("c", up.next());
+        assertFalse(up.hasNext());
+        final Iterator<String> down = ssm.keys(false);
+        assertEquals("c", down.next());
+
+        assertEquals(1, ssm.shrinkToMinScore(10));
+        assertFalse(ssm.containsKey("b"));
+        assertEquals(1, ssm.shrinkToMaxSize(1));
+        assertTrue(ssm.containsKey("c"));
+    }
+
+    /**
+     * Concurrent increments from several threads must all be counted
+     */
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        final StripedScoreMap<String> ssm = new StripedScoreMap<String>();
+        final int threads = 8, increments = 10000;
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Thread worker = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < increments; i++) ssm.inc("key" + (i % 10));
+                }
+            };
+            worker.start();
+            workers.add(worker);
+        }
+        for (final Thread worker: workers) worker.join();
+        assertEquals(10, ssm.size());
+        assertEquals(threads * increments / 10, ssm.get("key0"));
+        assertEquals(threads * increments, ssm.totalCount());
+    }
+}
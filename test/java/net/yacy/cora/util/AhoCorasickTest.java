@@ -0,0 +1,77 @@
+// AhoCorasickTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link AhoCorasick} class.
+ */
+public class AhoCorasickTest {
+
+    private static List<String> findAll(final AhoCorasick automaton, final String[] patterns, final String text) {
+        final List<String> matches = new ArrayList<String>();
+        automaton.find(text, new AhoCorasick.MatchHandler() {
+            @Override
+            public boolean match(final int pattern, final int start, final int end) {
+                Assert.assertEquals(patterns[pattern], text.substring(start, end));
+                matches.add(patterns[pattern] + "@" + start);
+                return true;
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * Overlapping and nested occurrences are all found, in the order of their end positions.
+     */
+    @Test
+    public void testOverlappingMatches() {
+        final String[] patterns = new String[]{"he", "she", "his", "hers", ""};
+        final AhoCorasick automaton = new AhoCorasick(patterns);
+        Assert.assertEquals("[she@1, he@2, hers@2]", findAll(automaton, patterns, "ushers").toString());
+        Assert.assertEquals("[his@0, she@2, he@3]", findAll(automaton, patterns, "hishe").toString());
+        Assert.assertTrue(findAll(automaton, patterns, "xyz").isEmpty());
+        Assert.assertTrue(findAll(automaton, patterns, "").isEmpty());
+    }
+
+    /**
+     * The search stops when the handler returns false.
+     */
+    @Test
+    public void testStop() {
+        final AhoCorasick automaton = new AhoCorasick(new String[]{"a"});
+        final int[] count = new int[1];
+        automaton.find("aaaa", new AhoCorasick.MatchHandler() {
+            @Override
+            public boolean match(final int pattern, final int start, final int end) {
+                count[0]++;
+                return count[0] < 2;
+            }
+        });
+        Assert.assertEquals(2, count[0]);
+    }
+
+}
@@ -0,0 +1,106 @@
+// ConcurrencyLimitTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ConcurrencyLimit} class.
+ */
+public class ConcurrencyLimitTest {
+
+    private static final long MILLISECOND = 1000000L;
+
+    /**
+     * Requests above the limit are rejected, a released permit can be taken again.
+     */
+    @Test
+    public void testAcquire() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(2, 50, 10);
+        for (int i = 0; i < 10; i++) Assert.assertTrue(limit.acquire());
+        Assert.assertFalse(limit.acquire());
+        Assert.assertEquals(10, limit.getInflight());
+        limit.release(MILLISECOND);
+        Assert.assertTrue(limit.acquire());
+        for (int i = 0; i < 10; i++) limit.release(MILLISECOND);
+        Assert.assertEquals(0, limit.getInflight());
+    }
+
+    /**
+     * A fully used limit with a stable latency grows, and shrinks when the latency rises.
+     */
+    @Test
+    public void testAdapt() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(2, 50, 10);
+        for (int round = 0; round < 20; round++) {
+            final int l = limit.getLimit();
+            for (int i = 0; i < l; i++) Assert.assertTrue(limit.acquire());
+            for (int i = 0; i < l; i++) limit.release(MILLISECOND);
+        }
+        final int grown = limit.getLimit();
+        Assert.assertTrue(Integer.toString(grown), grown > 10);
+
+        // a rising latency lets it shrink, until the long-term latency has followed the rise
+        for (int i = 0; i < grown; i++) Assert.assertTrue(limit.acquire());
+        for (int i = 0; i < grown; i++) limit.release(20 * MILLISECOND);
+        Assert.assertTrue(Integer.toString(limit.getLimit()), limit.getLimit() < grown / 2);
+    }
+
+    /**
+     * The limit stays between its minimum and maximum, also for an initial limit outside of them.
+     */
+    @Test
+    public void testBounds() {
+        Assert.assertEquals(5, new ConcurrencyLimit(5, 20, 1).getLimit());
+        Assert.assertEquals(20, new ConcurrencyLimit(5, 20, 100).getLimit());
+        Assert.assertEquals(1, new ConcurrencyLimit(0, 0, 0).getLimit());
+
+        final ConcurrencyLimit limit = new ConcurrencyLimit(5, 12, 10);
+        for (int round = 0; round < 100; round++) {
+            final int l = limit.getLimit();
+            for (int i = 0; i < l; i++) limit.acquire();
+            for (int i = 0; i < l; i++) limit.release(MILLISECOND);
+        }
+        Assert.assertEquals(12, limit.getLimit());
+        // a jump of the latency shrinks the limit down to its minimum
+        for (int round = 0; round < 6; round++) {
+            final int l = limit.getLimit();
+            for (int i = 0; i < l; i++) limit.acquire();
+            for (int i = 0; i < l; i++) limit.release(200 * MILLISECOND);
+        }
+        Assert.assertEquals(5, limit.getLimit());
+    }
+
+    /**
+     * A limit which is not used up does not change with the latency.
+     */
+    @Test
+    public void testUnused() {
+        final ConcurrencyLimit limit = new ConcurrencyLimit(2, 50, 20);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(limit.acquire());
+            limit.release(i % 2 == 0 ? MILLISECOND : 100 * MILLISECOND);
+        }
+        Assert.assertEquals(20, limit.getLimit());
+    }
+
+}
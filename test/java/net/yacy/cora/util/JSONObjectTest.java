@@ -0,0 +1,35 @@
+package net.yacy.cora.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link JSONObject} class.
+ */
+public class JSONObjectTest {
+
+    private static String quote(final String s) throws IOException {
+        return JSONObject.quote(s, new StringWriter()).toString();
+    }
+
+    /**
+     * Test of quote method writing to a writer: unescaped text is written as it is,
+     * around and between escaped characters.
+     */
+    @Test
+    public void testQuote() throws IOException {
+        assertEquals("\"\"", quote(null));
+        assertEquals("\"\"", quote(""));
+        assertEquals("\"plain text\"", quote("plain text"));
+        assertEquals("\"a\\\"b\\\\c\"", quote("a\"b\\c"));
+        assertEquals("\"\\n\\tx\\r\"", quote("\n\tx\r"));
+        assertEquals("\"a/b<\\/c>\"", quote("a/b</c>"));
+        assertEquals("\"\\u0001\\u0085\\u2028\u00e9\"", quote("\u0001\u0085\u2028\u00e9"));
+        assertEquals(JSONObject.quote("x\"y</z>"), quote("x\"y</z>"));
+    }
+
+}
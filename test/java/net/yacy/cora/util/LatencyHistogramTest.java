@@ -0,0 +1,63 @@
+// LatencyHistogramTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LatencyHistogram} class.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram h = new LatencyHistogram();
+        Assert.assertEquals(0, h.getPercentile(0.5));
+        Assert.assertEquals(0, h.getMean());
+        for (int i = 0; i < 90; i++) h.add(3);
+        for (int i = 0; i < 9; i++) h.add(150);
+        h.add(100000);
+        Assert.assertEquals(100, h.getCount());
+        Assert.assertEquals(90 * 3 + 9 * 150 + 100000, h.getSum());
+        Assert.assertEquals(5, h.getPercentile(0.5));
+        Assert.assertEquals(5, h.getPercentile(0.9));
+        Assert.assertEquals(200, h.getPercentile(0.99));
+        Assert.assertEquals(Long.MAX_VALUE, h.getPercentile(1.0));
+        Assert.assertEquals("60000ms+", LatencyHistogram.format(h.getPercentile(1.0)));
+    }
+
+    @Test
+    public void testBucketBounds() {
+        final LatencyHistogram h = new LatencyHistogram();
+        h.add(-1); // clock skew is counted as zero
+        h.add(1);
+        h.add(2);
+        final long[] counts = h.getBucketCounts();
+        Assert.assertEquals(LatencyHistogram.BOUNDS.length + 1, counts.length);
+        Assert.assertEquals(2, counts[0]);
+        Assert.assertEquals(1, counts[1]);
+        h.clear();
+        Assert.assertEquals(0, h.getCount());
+        Assert.assertEquals(0, h.getBucketCounts()[0]);
+    }
+
+}
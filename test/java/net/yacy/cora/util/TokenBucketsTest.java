@@ -0,0 +1,65 @@
+// TokenBucketsTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.cora.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TokenBuckets} class.
+ */
+public class TokenBucketsTest {
+
+    private static final long SECOND = 1000000000L;
+
+    /**
+     * A full bucket admits a burst, then one request per interval.
+     */
+    @Test
+    public void testBurstAndRate() {
+        final TokenBuckets buckets = new TokenBuckets(10.0d, 5, 100);
+        final long now = 0;
+        for (int i = 0; i < 5; i++) Assert.assertTrue(buckets.take("a", now));
+        Assert.assertFalse(buckets.take("a", now));
+        // other keys have their own bucket
+        Assert.assertTrue(buckets.take("b", now));
+        // after one interval there is one token again
+        Assert.assertTrue(buckets.take("a", now + SECOND / 10));
+        Assert.assertFalse(buckets.take("a", now + SECOND / 10));
+        // after a long time the bucket is full again, but not more than full
+        final long later = now + 10 * SECOND;
+        for (int i = 0; i < 5; i++) Assert.assertTrue(buckets.take("a", later));
+        Assert.assertFalse(buckets.take("a", later));
+    }
+
+    /**
+     * Full buckets are forgotten when there are too many keys.
+     */
+    @Test
+    public void testPrune() {
+        final TokenBuckets buckets = new TokenBuckets(10.0d, 1, 10);
+        for (int i = 0; i < 10; i++) buckets.take(Integer.toString(i), 0);
+        Assert.assertEquals(10, buckets.size());
+        buckets.take("x", 10 * SECOND);
+        Assert.assertEquals(1, buckets.size());
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ *  SuggestionIndexTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.yacy.cora.document.WordCache;
+
+/**
+ * Unit tests for the {@link SuggestionIndex} class.
+ */
+public class SuggestionIndexTest {
+
+    private static SuggestionIndex index;
+
+    @BeforeClass
+    public static void learn() {
+        for (int i = 0; i < 5; i++) WordCache.learn(new StringBuilder("searching"));
+        for (int i = 0; i < 2; i++) WordCache.learn(new StringBuilder("seamless"));
+        WordCache.learn(new StringBuilder("searchlight"));
+        WordCache.learn(new StringBuilder("peer to peer search"));
+        index = new SuggestionIndex(60000);
+        index.build();
+    }
+
+    /**
+     * A lookup does not wait for an index which is not built yet.
+     */
+    @Test
+    public void testNotBuilt() {
+        assertTrue(new SuggestionIndex(60000).getSuggestions("sea", 10).isEmpty());
+    }
+
+    /**
+     * Completions of a prefix are ordered by the number of times they were learned.
+     */
+    @Test
+    public void testPrefix() {
+        final List<String> suggestions = index.getSuggestions("sea", 10);
+        assertEquals("searching", suggestions.get(0));
+        assertEquals("seamless", suggestions.get(1));
+        assertTrue(suggestions.contains("searchlight"));
+    }
+
+    /**
+     * A swapped, missing or wrong letter in the input is tolerated and the input itself is not suggested.
+     */
+    @Test
+    public void testTypo() {
+        assertTrue(index.getSuggestions("serach", 10).contains("searching"));
+        assertTrue(index.getSuggestions("seaching", 10).contains("searching"));
+        assertTrue(index.getSuggestions("searcbing", 10).contains("searching"));
+        assertFalse(index.getSuggestions("searching", 10).contains("searching"));
+    }
+
+    /**
+     * The last word of several words is completed after the other words.
+     */
+    @Test
+    public void testWords() {
+        assertTrue(index.getSuggestions("peer to p", 10).contains("peer to peer search"));
+        assertTrue(index.getSuggestions("yacy seam", 10).contains("yacy seamless"));
+        assertTrue(index.getSuggestions("a", 10).isEmpty());
+    }
+
+}
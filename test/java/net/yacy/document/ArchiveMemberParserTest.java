@@ -0,0 +1,86 @@
+/**
+ *  ArchiveMemberParserTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.yacy.cora.document.id.DigestURL;
+
+/**
+ * Unit tests for the {@link ArchiveMemberParser} class.
+ */
+public class ArchiveMemberParserTest {
+
+    private static Document document(final DigestURL location, final String text) {
+        return new Document(location, "text/plain", "UTF-8", null, null, null, null, null,
+                location.getHost(), null, null, 0.0d, 0.0d, text, null, null, null, false, new Date());
+    }
+
+    /**
+     * The documents of the members are added in the order of the members, also if they are parsed concurrently.
+     */
+    @Test
+    public void testOrder() throws MalformedURLException, Parser.Failure, IOException, InterruptedException {
+        final DigestURL location = new DigestURL("http://localhost/archive.zip");
+        final Document maindoc = document(location, null);
+        final ArchiveMemberParser members = new ArchiveMemberParser(maindoc);
+        final Random random = new Random(42);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            final String text = "member" + i + " ";
+            final int sleep = random.nextInt(5);
+            final DigestURL url = new DigestURL("http://localhost/archive.zip#" + text.trim());
+            expected.append(text);
+            members.parse(() -> {
+                Thread.sleep(sleep);
+                return new Document[]{document(url, text)};
+            });
+        }
+        members.finish();
+        assertEquals(expected.toString().trim(), maindoc.getTextString().replaceAll("\\s+", " ").trim());
+    }
+
+    /**
+     * A failure of a member is thrown to the archive parser.
+     */
+    @Test
+    public void testFailure() throws MalformedURLException, IOException, InterruptedException {
+        final DigestURL location = new DigestURL("http://localhost/archive.7z");
+        final ArchiveMemberParser members = new ArchiveMemberParser(document(location, null));
+        try {
+            members.parse(() -> null);
+            members.parse(() -> {
+                throw new Parser.Failure("broken member", location);
+            });
+            members.finish();
+            fail("the failure of the member was not thrown");
+        } catch (final Parser.Failure e) {
+            assertEquals("broken member", e.getMessage().substring(0, "broken member".length()));
+        }
+    }
+
+}
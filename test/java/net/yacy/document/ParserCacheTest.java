@@ -0,0 +1,121 @@
+/**
+ *  ParserCacheTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.net.MalformedURLException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import net.yacy.cora.document.encoding.UTF8;
+import net.yacy.cora.document.id.DigestURL;
+
+/**
+ * Unit tests for the {@link ParserCache} class.
+ */
+public class ParserCacheTest {
+
+    private static Document[] documents(final DigestURL location, final String text) {
+        return new Document[] {new Document(location, "text/plain", "UTF-8", null, null, null, null, null,
+                location.getHost(), null, null, 0.0d, 0.0d, text, null, null, null, false, new Date())};
+    }
+
+    /**
+     * A result is only used for the same url, content and parser settings.
+     */
+    @Test
+    public void testGet() throws MalformedURLException {
+        final ParserCache cache = new ParserCache(1024 * 1024);
+        final DigestURL url = new DigestURL("http://localhost/test.txt");
+        final byte[] content = UTF8.getBytes("some text");
+        final byte[] digest = ParserCache.digest(content);
+        final Document[] docs = documents(url, "some text");
+        cache.put(url, digest, "text/plain", "UTF-8", "profile/0", docs);
+
+        final Document[] cached = cache.get(url, ParserCache.digest(UTF8.getBytes("some text")), "text/plain", "UTF-8", "profile/0");
+        assertEquals(1, cached.length);
+        assertNotSame(docs[0], cached[0]);
+        assertEquals("some text", cached[0].getTextString());
+        assertNull(cache.get(new DigestURL("http://localhost/other.txt"), digest, "text/plain", "UTF-8", "profile/0"));
+        assertNull(cache.get(url, ParserCache.digest(UTF8.getBytes("other text")), "text/plain", "UTF-8", "profile/0"));
+        assertNull(cache.get(url, digest, "text/html", "UTF-8", "profile/0"));
+        assertNull(cache.get(url, digest, "text/plain", "ISO-8859-1", "profile/0"));
+        assertNull(cache.get(url, digest, "text/plain", "UTF-8", "profile/1"));
+        assertEquals(1, cache.getHits());
+        assertEquals(5, cache.getMisses());
+    }
+
+    /**
+     * Changes of the stored or of a returned document do not change the cached result.
+     */
+    @Test
+    public void testCopies() throws MalformedURLException {
+        final ParserCache cache = new ParserCache(1024 * 1024);
+        final DigestURL url = new DigestURL("http://localhost/test.txt");
+        final byte[] digest = ParserCache.digest(UTF8.getBytes("some text"));
+        final Document[] docs = documents(url, "some text");
+        cache.put(url, digest, "text/plain", "UTF-8", "", docs);
+        docs[0].addTags(Collections.singleton("stored"));
+        docs[0].setDepth(1);
+        final Document[] first = cache.get(url, digest, "text/plain", "UTF-8", "");
+        first[0].getGenericFacets().put("vocabulary", new HashSet<String>(Collections.singleton("tag")));
+        first[0].addTags(Collections.singleton("returned"));
+        final Document second = cache.get(url, digest, "text/plain", "UTF-8", "")[0];
+        assertEquals(0, second.dc_subject().size());
+        assertEquals(999, second.getDepth());
+        assertEquals(0, second.getGenericFacets().size());
+    }
+
+    /**
+     * The least recently used results are removed when the cache exceeds its size.
+     */
+    @Test
+    public void testEviction() throws MalformedURLException {
+        final ParserCache cache = new ParserCache(200 * 1024);
+        final DigestURL[] urls = new DigestURL[60];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = new DigestURL("http://localhost/" + i + ".txt");
+            cache.put(urls[i], ParserCache.digest(UTF8.getBytes("text " + i)), "text/plain", null, "", documents(urls[i], "text " + i));
+        }
+        assertEquals(true, cache.byteSize() <= 200 * 1024);
+        assertEquals(true, cache.size() < urls.length);
+        assertNull(cache.get(urls[0], ParserCache.digest(UTF8.getBytes("text 0")), "text/plain", null, ""));
+        assertEquals(1, cache.get(urls[urls.length - 1], ParserCache.digest(UTF8.getBytes("text " + (urls.length - 1))), "text/plain", null, "").length);
+    }
+
+    /**
+     * A cache without size keeps nothing.
+     */
+    @Test
+    public void testDisabled() throws MalformedURLException {
+        final ParserCache cache = new ParserCache(0);
+        final DigestURL url = new DigestURL("http://localhost/test.txt");
+        final byte[] digest = ParserCache.digest(UTF8.getBytes("some text"));
+        cache.put(url, digest, "text/plain", "UTF-8", "", documents(url, "some text"));
+        assertNull(cache.get(url, digest, "text/plain", "UTF-8", ""));
+        assertEquals(0, cache.size());
+    }
+
+}
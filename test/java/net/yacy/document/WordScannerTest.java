@@ -0,0 +1,72 @@
+package net.yacy.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class WordScannerTest {
+
+    private static List<String> scan(final String text) {
+        final List<String> tokens = new ArrayList<String>();
+        WordScanner.scan(text, new WordScanner.Handler() {
+            @Override
+            public void word(final char[] buffer, final int start, final int length) {
+                tokens.add(new String(buffer, start, length));
+            }
+
+            @Override
+            public void punctuation(final char c) {
+                tokens.add(String.valueOf(c));
+            }
+        });
+        return tokens;
+    }
+
+    private static List<String> tokenize(final String text) {
+        final List<String> tokens = new ArrayList<String>();
+        final WordTokenizer words = new WordTokenizer(new SentenceReader(text), null);
+        try {
+            while (words.hasMoreElements()) tokens.add(words.nextElement().toString());
+        } finally {
+            words.close();
+        }
+        return tokens;
+    }
+
+    /**
+     * The scanner must produce the same tokens as the WordTokenizer on a SentenceReader
+     */
+    @Test
+    public void testSameTokensAsWordTokenizer() {
+        final String[] texts = new String[] {
+                "",
+                "   ",
+                "One word is not a sentence because words are just words.",
+                "Sentence One. Sentence Two? Sentence 3! ...and more",
+                "!!! ! ! ! Sentence One.Sentence two.",
+                "line one\nline two\r\n\ttabbed\u0000nul, comma; semicolon: colon",
+                "Übergrößenträger straße Ελληνικά 日本語のテキスト 123 4.5",
+                "http://www.example.com/path/index.html?query=value#anchor"
+        };
+        for (final String text: texts) {
+            assertEquals(text, tokenize(text), scan(text));
+        }
+    }
+
+    /**
+     * Words which cross the boundary of the internal buffer or are longer than the buffer
+     */
+    @Test
+    public void testLongText() {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) sb.append("word").append(i).append(i % 7 == 0 ? ". " : " ");
+        for (int i = 0; i < 10000; i++) sb.append((char) ('a' + i % 26));
+        sb.append(" end");
+        final String text = sb.toString();
+        assertEquals(tokenize(text), scan(text));
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ *  WikitextConverterTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.document.importer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.yacy.cora.document.id.AnchorURL;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.document.Document;
+
+/**
+ * Unit tests for the {@link WikitextConverter} class.
+ */
+public class WikitextConverterTest {
+
+    private static final String STUB = "https://en.wikipedia.org/wiki/";
+
+    /**
+     * Markup, templates and references are removed from the text.
+     */
+    @Test
+    public void testText() {
+        final WikitextConverter converter = new WikitextConverter(STUB);
+        converter.convert("{{Infobox|name={{nested}}}}'''Bold''' and ''italic''<ref name=\"a\">a reference</ref> text<!-- comment -->.\n"
+                + "* item &amp; more<br/>\n__NOTOC__");
+        final String text = converter.getText();
+        assertEquals("Bold and italic text.\n item & more\n", text);
+    }
+
+    /**
+     * Headlines become sections and table markup is removed.
+     */
+    @Test
+    public void testSectionsAndTables() {
+        final WikitextConverter converter = new WikitextConverter(STUB);
+        converter.convert("== History ==\nsome text\n{| class=\"wikitable\"\n|-\n! Name !! Value\n|-\n| style=\"color:red\" | one || two\n|}\n=== Later ===");
+        assertArrayEquals(new String[] {"History", "Later"}, converter.getSections());
+        final String text = converter.getText();
+        assertTrue(text, text.replaceAll("\\s+", " ").contains("Name Value one two"));
+        assertFalse(text, text.contains("wikitable"));
+        assertFalse(text, text.contains("color"));
+    }
+
+    /**
+     * Internal and external links become anchors, links to other namespaces are dropped.
+     */
+    @Test
+    public void testLinks() throws MalformedURLException {
+        final DigestURL url = new DigestURL(STUB + "Test");
+        final Document document = WikitextConverter.toDocument(url, STUB, "Test",
+                "See [[Main Page|the main page]], [[Other#Part]], [[File:X.png|thumb|a [[caption]]]], [[de:Test]] and [https://yacy.net YaCy].", null);
+        assertEquals("See the main page, Other#Part, ,  and YaCy.", document.getTextString());
+        final List<AnchorURL> anchors = new ArrayList<AnchorURL>(document.getAnchors());
+        assertEquals(3, anchors.size());
+        assertEquals(STUB + "Main_Page", anchors.get(0).toNormalform(true));
+        assertEquals("the main page", anchors.get(0).getTextProperty());
+        assertEquals(STUB + "Other", anchors.get(1).toNormalform(true));
+        assertEquals("https://yacy.net/", anchors.get(2).toNormalform(true));
+        assertEquals("Test", document.dc_title());
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ *  ResponseCacheTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ResponseCache} class.
+ */
+public class ResponseCacheTest {
+
+    /**
+     * The key does not depend on the order of the parameters but on all of their values.
+     */
+    @Test
+    public void testKey() {
+        final Map<String, String[]> a = new LinkedHashMap<String, String[]>();
+        a.put("q", new String[] {"yacy"});
+        a.put("fq", new String[] {"a", "b"});
+        final Map<String, String[]> b = new LinkedHashMap<String, String[]>();
+        b.put("fq", new String[] {"a", "b"});
+        b.put("q", new String[] {"yacy"});
+        assertEquals(ResponseCache.key("x|", a), ResponseCache.key("x|", b));
+        assertNotEquals(ResponseCache.key("x|", a), ResponseCache.key("y|", a));
+        b.put("fq", new String[] {"a&fq=b"});
+        assertNotEquals(ResponseCache.key("x|", a), ResponseCache.key("x|", b));
+        assertTrue(ResponseCache.etag("k", 7).startsWith("W/\"7-"));
+        assertNotEquals(ResponseCache.etag("k", 7), ResponseCache.etag("k", 8));
+    }
+
+    /**
+     * A recorded response is returned for the same index version only.
+     */
+    @Test
+    public void testRecordAndGet() throws IOException {
+        final ResponseCache cache = new ResponseCache(16 * 1024);
+        final ByteArrayOutputStream client = new ByteArrayOutputStream();
+        final ResponseCache.Recorder recorder = cache.record(client);
+        final byte[] body = "<response>result</response>".getBytes(StandardCharsets.UTF_8);
+        recorder.write(body, 0, body.length);
+        recorder.store("k", 1, "text/xml", 42);
+        assertArrayEquals(body, client.toByteArray());
+
+        final ResponseCache.Response response = cache.get("k", 1);
+        assertEquals("text/xml", response.getContentType());
+        assertEquals(42, response.getMatches());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.writeTo(out);
+        assertArrayEquals(body, out.toByteArray());
+
+        // a new index version invalidates the entry
+        assertNull(cache.get("k", 2));
+        assertNull(cache.get("k", 1));
+        assertEquals(0, cache.byteSize());
+    }
+
+    /**
+     * Responses larger than an entry may be are passed to the client but not cached,
+     * and the least recently used entries are removed when the cache is full.
+     */
+    @Test
+    public void testSizeLimit() throws IOException {
+        final ResponseCache cache = new ResponseCache(16 * 100);
+        final ByteArrayOutputStream client = new ByteArrayOutputStream();
+        ResponseCache.Recorder recorder = cache.record(client);
+        recorder.write(new byte[101], 0, 101);
+        recorder.store("large", 1, null, 0);
+        assertEquals(101, client.size());
+        assertEquals(0, cache.size());
+
+        for (int i = 0; i < 20; i++) {
+            recorder = cache.record(new ByteArrayOutputStream());
+            recorder.write(new byte[100], 0, 100);
+            recorder.store("k" + i, 1, null, 0);
+        }
+        assertEquals(16, cache.size());
+        assertTrue(cache.byteSize() <= 16 * 100);
+        assertNull(cache.get("k0", 1));
+        assertEquals(100, cache.get("k19", 1).length());
+    }
+
+}
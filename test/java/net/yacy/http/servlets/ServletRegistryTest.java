@@ -0,0 +1,131 @@
+/**
+ *  ServletRegistryTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.yacy.cora.protocol.RequestHeader;
+import net.yacy.server.serverObjects;
+import net.yacy.server.serverSwitch;
+
+/**
+ * Unit tests for the {@link ServletRegistry} class.
+ */
+public class ServletRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A servlet class, copied into the test htroot under another file name.
+     */
+    public static class Echo {
+        public static serverObjects respond(final RequestHeader header, final serverObjects post, final serverSwitch env) {
+            final serverObjects prop = new serverObjects();
+            prop.put("echo", post == null ? "none" : post.get("q", ""));
+            return prop;
+        }
+    }
+
+    /**
+     * A helper class without respond method.
+     */
+    public static class Helper {
+        public static int twice(final int i) {
+            return 2 * i;
+        }
+    }
+
+    private static void copyClass(final Class<?> c, final File target) throws IOException {
+        target.getParentFile().mkdirs();
+        try (final InputStream in = ServletRegistryTest.class.getResourceAsStream(c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class");
+             final OutputStream out = new FileOutputStream(target)) {
+            final byte[] b = new byte[4096];
+            int n;
+            while ((n = in.read(b)) > 0) out.write(b, 0, n);
+        }
+    }
+
+    /**
+     * The respond method of a servlet class is found by the template path without extension and called
+     * through its method handle.
+     */
+    @Test
+    public void testLookup() throws IOException, InvocationTargetException {
+        final File htroot = this.folder.newFolder("htroot");
+        copyClass(Echo.class, new File(htroot, "yacy/search.class"));
+        copyClass(Helper.class, new File(htroot, "helper.class"));
+        final ServletRegistry registry = new ServletRegistry(htroot, false);
+        assertEquals(1, registry.size());
+
+        final MethodHandle respond = registry.get("/yacy/search.html");
+        assertNotNull(respond);
+        assertSame(respond, registry.get("/yacy/search.json"));
+        assertSame(respond, registry.get("/yacy/search"));
+        assertNull(registry.get("/yacy/searchitem.html"));
+        assertNull(registry.get("/search.html"));
+        assertNull(registry.get("/helper.html"));
+
+        final serverObjects post = new serverObjects();
+        post.put("q", "yacy");
+        final serverObjects prop = (serverObjects) ServletRegistry.invoke(respond, null, post, null);
+        assertEquals("yacy", prop.get("echo"));
+        assertEquals("none", ((serverObjects) ServletRegistry.invoke(respond, null, null, null)).get("echo"));
+    }
+
+    /**
+     * A class file which cannot be loaded is skipped, and with reload switched on a removed class file
+     * removes its servlet.
+     */
+    @Test
+    public void testMissingClass() throws IOException {
+        final File htroot = this.folder.newFolder("htroot");
+        try (final OutputStream out = new FileOutputStream(new File(htroot, "broken.class"))) {
+            out.write(new byte[] {1, 2, 3, 4});
+        }
+        final File classFile = new File(htroot, "index.class");
+        copyClass(Echo.class, classFile);
+        final ServletRegistry registry = new ServletRegistry(htroot, true);
+        assertEquals(1, registry.size());
+        assertNull(registry.get("/broken.html"));
+        assertNull(registry.get("/missing.html"));
+        assertNotNull(registry.get("/index.html"));
+
+        assertTrue(classFile.delete());
+        assertNull(registry.get("/index.html"));
+        assertEquals(0, registry.size());
+    }
+
+}
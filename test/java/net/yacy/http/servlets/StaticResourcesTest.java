@@ -0,0 +1,132 @@
+/**
+ *  StaticResourcesTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for the {@link StaticResources} class.
+ */
+public class StaticResourcesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(final String name, final byte[] content) throws IOException {
+        final File file = new File(this.folder.getRoot(), name);
+        try (final FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+        return file;
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer) {
+        final byte[] b = new byte[buffer.remaining()];
+        buffer.get(b);
+        return b;
+    }
+
+    private static byte[] gunzip(final byte[] gz) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            final byte[] buffer = new byte[1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A compressible file gets a gzip variant which is created only once.
+     */
+    @Test
+    public void testGzipVariant() throws IOException {
+        final StringBuilder css = new StringBuilder();
+        for (int i = 0; i < 200; i++) css.append(".c").append(i).append(" { margin: 0; padding: 0; }\n");
+        final byte[] content = css.toString().getBytes(StandardCharsets.UTF_8);
+        final File file = write("style.css", content);
+        final File compressed = this.folder.newFolder("compressed");
+        final StaticResources resources = new StaticResources(compressed);
+
+        final StaticResources.Entry entry = resources.get(file, true);
+        assertTrue(entry.isCompressed());
+        assertEquals(StaticResources.GZIP, entry.encoding("gzip, deflate"));
+        assertArrayEquals(content, bytes(entry.content(null)));
+        final byte[] gz = bytes(entry.content(StaticResources.GZIP));
+        assertTrue(gz.length < content.length);
+        assertArrayEquals(content, gunzip(gz));
+        assertEquals(1, compressed.listFiles().length);
+        assertNotEquals(entry.etag(null), entry.etag(StaticResources.GZIP));
+        assertSame(entry, resources.get(file, true));
+
+        // a changed file gets a new variant, which replaces the variant of the earlier version
+        final File[] variants = compressed.listFiles();
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        final StaticResources.Entry changed = resources.get(file, true);
+        assertNotSame(entry, changed);
+        assertArrayEquals(content, gunzip(bytes(changed.content(StaticResources.GZIP))));
+        assertEquals(1, compressed.listFiles().length);
+        assertFalse(variants[0].exists());
+
+        // without compression the plain file is sent only
+        final StaticResources.Entry plain = new StaticResources(compressed).get(file, false);
+        assertFalse(plain.isCompressed());
+        assertNull(plain.encoding("gzip"));
+    }
+
+    /**
+     * The best accepted encoding is chosen, encodings with q=0 are not acceptable.
+     */
+    @Test
+    public void testEncoding() throws IOException {
+        final byte[] content = new byte[4096];
+        final File file = write("script.js", content);
+        write("script.js.br", new byte[10]); // not a real brotli stream, only its presence matters here
+        final StaticResources.Entry entry = new StaticResources(this.folder.newFolder("compressed")).get(file, true);
+
+        assertEquals(StaticResources.BROTLI, entry.encoding("gzip, deflate, br"));
+        assertEquals(StaticResources.GZIP, entry.encoding("gzip, br;q=0"));
+        assertEquals(StaticResources.BROTLI, entry.encoding("br;q=0.5, gzip;q=0.0"));
+        assertNull(entry.encoding("identity"));
+        assertNull(entry.encoding(null));
+        assertEquals(10, entry.content(StaticResources.BROTLI).remaining());
+    }
+
+}
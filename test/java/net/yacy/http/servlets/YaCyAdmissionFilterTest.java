@@ -0,0 +1,49 @@
+/**
+ *  YaCyAdmissionFilterTest.java
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.http.servlets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link YaCyAdmissionFilter} class.
+ */
+public class YaCyAdmissionFilterTest {
+
+    /**
+     * The extension of the last path segment is removed, so that only the
+     * endpoint itself matches and not the pages which share its prefix.
+     */
+    @Test
+    public void testEndpointPath() {
+        assertEquals("/yacysearch", YaCyAdmissionFilter.endpointPath("/yacysearch.html"));
+        assertEquals("/yacysearch", YaCyAdmissionFilter.endpointPath("/yacysearch.rss"));
+        assertEquals("/yacysearch", YaCyAdmissionFilter.endpointPath("/yacysearch"));
+        assertEquals("/yacy/search", YaCyAdmissionFilter.endpointPath("/yacy/search.html"));
+        assertEquals("/solr/collection1/select", YaCyAdmissionFilter.endpointPath("/solr/collection1/select"));
+        assertEquals("/yacysearchitem", YaCyAdmissionFilter.endpointPath("/yacysearchitem.html"));
+        assertEquals("/yacysearchtrailer", YaCyAdmissionFilter.endpointPath("/yacysearchtrailer.html"));
+        assertEquals("/yacysearch_location", YaCyAdmissionFilter.endpointPath("/yacysearch_location.rss"));
+        assertEquals("/env.d/yacysearch", YaCyAdmissionFilter.endpointPath("/env.d/yacysearch"));
+        assertNull(YaCyAdmissionFilter.endpointPath(null));
+    }
+
+}
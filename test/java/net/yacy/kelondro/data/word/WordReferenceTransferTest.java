@@ -0,0 +1,136 @@
+/**
+ *  WordReferenceTransferTest
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.kelondro.data.word;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.encoding.UTF8;
+import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.crawler.retrieval.Response;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.kelondro.util.Bitfield;
+
+/**
+ * Unit tests for the {@link WordReferenceTransfer} class.
+ */
+public class WordReferenceTransferTest {
+
+    private static ReferenceContainer<WordReference> container(final String word, final int postings) throws IOException, SpaceExceededException {
+        final ReferenceContainer<WordReference> container = new ReferenceContainer<WordReference>(new WordReferenceFactory(), Word.word2hash(word));
+        for (int i = 0; i < postings; i++) {
+            final DigestURL url = new DigestURL("http://test" + (i % 7) + ".org/" + word + "/" + i + ".html");
+            final WordReferenceRow row = new WordReferenceRow(
+                    url.hash(), 20 + i, 3, 2 + i,
+                    1, 1,
+                    System.currentTimeMillis(), System.currentTimeMillis(),
+                    UTF8.getBytes("en"), Response.DT_TEXT,
+                    i % 3, 5);
+            final Word w = new Word(i + 1, 1, 100);
+            w.flags = new Bitfield(4);
+            row.setWord(w);
+            container.add(row);
+        }
+        container.sort();
+        return container;
+    }
+
+    /**
+     * The postings are read back with their term and all columns, and the
+     * transfer is smaller than the text form of the postings.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException, SpaceExceededException {
+        final List<ReferenceContainer<WordReference>> indexes = new ArrayList<ReferenceContainer<WordReference>>();
+        indexes.add(container("yacy", 50));
+        indexes.add(container("search", 1));
+        indexes.add(container("empty", 0));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(51, WordReferenceTransfer.write(indexes, out));
+
+        int text = 0;
+        final List<String> expected = new ArrayList<String>();
+        for (final ReferenceContainer<WordReference> container: indexes) {
+            final Iterator<WordReference> i = container.entries();
+            while (i.hasNext()) {
+                final String line = ASCII.String(container.getTermHash()) + i.next().toPropertyForm();
+                text += line.length() + 2;
+                expected.add(line);
+            }
+        }
+        assertTrue(out.size() * 2 < text);
+
+        final WordReferenceTransfer.Reader reader = new WordReferenceTransfer.Reader(new ByteArrayInputStream(out.toByteArray()));
+        final List<String> received = new ArrayList<String>();
+        while (reader.hasNext()) {
+            final WordReferenceRow row = reader.next();
+            received.add(ASCII.String(reader.termHash()) + row.toPropertyForm());
+        }
+        assertEquals(expected, received);
+        assertNull(reader.failure());
+        assertArrayEquals(Word.word2hash("search"), reader.termHash());
+    }
+
+    /**
+     * A truncated stream ends the postings with a failure, an unknown version is rejected.
+     */
+    @Test
+    public void testMalformed() throws IOException, SpaceExceededException {
+        final List<ReferenceContainer<WordReference>> indexes = new ArrayList<ReferenceContainer<WordReference>>();
+        indexes.add(container("yacy", 10));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WordReferenceTransfer.write(indexes, out);
+        final byte[] b = out.toByteArray();
+        final byte[] truncated = new byte[b.length / 2];
+        System.arraycopy(b, 0, truncated, 0, truncated.length);
+        final WordReferenceTransfer.Reader reader = new WordReferenceTransfer.Reader(new ByteArrayInputStream(truncated));
+        assertFalse(reader.hasNext());
+        assertNotNull(reader.failure());
+
+        final ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (final GZIPOutputStream z = new GZIPOutputStream(zip)) {
+            z.write(99);
+        }
+        try {
+            new WordReferenceTransfer.Reader(new ByteArrayInputStream(zip.toByteArray()));
+            fail("unknown version accepted");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+}
@@ -38,4 +38,19 @@ public class CharBufferTest {
         Assert.assertNotNull(p.get("class"));
         Assert.assertNotNull(p.get("itemtype"));
     }
+
+    /**
+     * Test of the propParser method on a range of a char array, as used by the html tokenizer.
+     */
+    @Test
+    public void testPropParserRange() {
+        final char[] tag = "<a href=\"/p.html\" rel='nofollow' hidden title=x>text".toCharArray();
+        final int start = 2, end = tag.length - 5; // the attributes between the tag name and the '>'
+        final Properties p = CharBuffer.propParser(tag, start, end);
+        Assert.assertEquals(4, p.size());
+        Assert.assertEquals("/p.html", p.getProperty("href"));
+        Assert.assertEquals("nofollow", p.getProperty("rel"));
+        Assert.assertEquals("", p.getProperty("hidden"));
+        Assert.assertEquals("x", p.getProperty("title"));
+    }
 }
@@ -0,0 +1,191 @@
+// WorkflowProcessorTest.java
+// -------------------------------------
+// part of YaCy, a peer-to-peer based web search engine
+//
+// LICENSE
+//
+// This program is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation; either version 2 of the License, or
+// (at your option) any later version.
+//
+// This program is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with this program; if not, write to the Free Software
+// Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+
+package net.yacy.kelondro.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link WorkflowProcessor} class.
+ */
+public class WorkflowProcessorTest {
+
+	private static class Entry extends WorkflowJob {
+		private final int key;
+		private final int sequence;
+
+		private Entry(final int key, final int sequence) {
+			this.key = key;
+			this.sequence = sequence;
+		}
+	}
+
+	/**
+	 * Entries of the same partition must be processed in their order of arrival by a single thread,
+	 * and the partition worker must be notified when its queue runs empty.
+	 */
+	@Test
+	public void testPartitionedProcessing() throws InterruptedException {
+		final int partitions = 4, keys = 16, entries = 2000;
+		final Map<Integer, List<Integer>> sequences = new ConcurrentHashMap<>();
+		final Map<Integer, String> threads = new ConcurrentHashMap<>();
+		final AtomicInteger idle = new AtomicInteger(0);
+		final AtomicBoolean mixed = new AtomicBoolean(false);
+		final CountDownLatch processed = new CountDownLatch(entries);
+		final WorkflowProcessor<Entry> processor = new WorkflowProcessor<Entry>("partitionTest", "", new String[0],
+				new WorkflowTask<Entry>() {
+					@Override
+					public Entry process(final Entry in) throws Exception {
+						sequences.computeIfAbsent(in.key, k -> Collections.synchronizedList(new ArrayList<Integer>())).add(in.sequence);
+						final String previous = threads.putIfAbsent(in.key, Thread.currentThread().getName());
+						if (previous != null && !previous.equals(Thread.currentThread().getName())) mixed.set(true);
+						processed.countDown();
+						return null;
+					}
+				}, 8, null, partitions, new WorkflowPartitioner<Entry>() {
+					@Override
+					public int partition(final Entry in, final int p) {
+						return in.key % p;
+					}
+
+					@Override
+					public void idle(final int partition) {
+						idle.incrementAndGet();
+					}
+				});
+		try {
+			Assert.assertEquals(partitions, processor.getPartitions());
+			for (int i = 0; i < entries; i++) processor.enQueue(new Entry(i % keys, i));
+			Assert.assertTrue(processed.await(30, TimeUnit.SECONDS));
+			Assert.assertEquals(keys, sequences.size());
+			Assert.assertFalse("entries of one partition processed by several threads", mixed.get());
+			for (final List<Integer> sequence : sequences.values()) {
+				for (int i = 1; i < sequence.size(); i++) {
+					Assert.assertTrue(sequence.get(i - 1) < sequence.get(i));
+				}
+			}
+			Assert.assertTrue(idle.get() > 0);
+			Assert.assertTrue(processor.getExecutors() <= partitions);
+		} finally {
+			processor.shutdown();
+		}
+	}
+
+	/**
+	 * A processor without partitioner shares one queue between its executors.
+	 */
+	@Test
+	public void testSharedQueueProcessing() throws InterruptedException {
+		final int entries = 500;
+		final CountDownLatch processed = new CountDownLatch(entries);
+		final WorkflowProcessor<Entry> processor = new WorkflowProcessor<Entry>("sharedTest", "", new String[0],
+				new WorkflowTask<Entry>() {
+					@Override
+					public Entry process(final Entry in) throws Exception {
+						processed.countDown();
+						return null;
+					}
+				}, 8, null, 3);
+		try {
+			Assert.assertEquals(0, processor.getPartitions());
+			for (int i = 0; i < entries; i++) processor.enQueue(new Entry(i, i));
+			Assert.assertTrue(processed.await(30, TimeUnit.SECONDS));
+			Assert.assertTrue(processor.getExecutors() <= 3);
+		} finally {
+			processor.shutdown();
+		}
+	}
+
+	/**
+	 * An autoscaled processor adds executors while its entries wait longer than they are processed.
+	 */
+	@Test
+	public void testAutoscaleIncreasesConcurrency() throws InterruptedException {
+		final int entries = 300;
+		final CountDownLatch processed = new CountDownLatch(entries);
+		final WorkflowProcessor<Entry> processor = new WorkflowProcessor<Entry>("autoscaleTest", "", new String[0],
+				new WorkflowTask<Entry>() {
+					@Override
+					public Entry process(final Entry in) throws Exception {
+						Thread.sleep(20);
+						processed.countDown();
+						return null;
+					}
+				}, entries, null, 1);
+		try {
+			processor.setConcurrencyBounds(1, 8);
+			Assert.assertTrue(processor.isAutoscaled());
+			Assert.assertEquals(1, processor.getConcurrency());
+			for (int i = 0; i < entries; i++) processor.enQueue(new Entry(i, i));
+			Assert.assertTrue(processed.await(30, TimeUnit.SECONDS));
+			Assert.assertTrue(processor.getConcurrency() > 1);
+			Assert.assertTrue(processor.getConcurrency() <= 8);
+			// the service time is recorded after the task returned
+			for (int i = 0; i < 100 && processor.getServiceTimes().getCount() < entries; i++) Thread.sleep(10);
+			Assert.assertEquals(entries, processor.getServiceTimes().getCount());
+			Assert.assertEquals(entries, processor.getWaitTimes().getCount());
+			Assert.assertTrue(processor.getServiceTimes().getPercentile(0.5) >= 20);
+		} finally {
+			processor.shutdown();
+		}
+	}
+
+	/**
+	 * A partitioned processor keeps one executor for each partition.
+	 */
+	@Test
+	public void testPartitionedIsNotAutoscaled() {
+		final WorkflowProcessor<Entry> processor = new WorkflowProcessor<Entry>("fixedTest", "", new String[0],
+				new WorkflowTask<Entry>() {
+					@Override
+					public Entry process(final Entry in) throws Exception {
+						return null;
+					}
+				}, 8, null, 2, new WorkflowPartitioner<Entry>() {
+					@Override
+					public int partition(final Entry in, final int p) {
+						return in.key % p;
+					}
+
+					@Override
+					public void idle(final int partition) {
+					}
+				});
+		try {
+			processor.setConcurrencyBounds(1, 8);
+			Assert.assertFalse(processor.isAutoscaled());
+			Assert.assertEquals(2, processor.getConcurrency());
+		} finally {
+			processor.shutdown();
+		}
+	}
+
+}
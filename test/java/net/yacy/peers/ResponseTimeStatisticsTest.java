@@ -0,0 +1,48 @@
+package net.yacy.peers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ResponseTimeStatisticsTest {
+
+    /**
+     * Unknown peers get the maximum timeout and the default expected response time
+     */
+    @Test
+    public void testUnknownPeer() {
+        final ResponseTimeStatistics stats = new ResponseTimeStatistics();
+        assertFalse(stats.isKnown());
+        assertEquals(8000, stats.timeout(1000, 8000));
+        assertEquals(3000, stats.expected(3000));
+    }
+
+    /**
+     * A peer with stable response times converges to a timeout close to its response time
+     */
+    @Test
+    public void testStableResponseTimes() {
+        final ResponseTimeStatistics stats = new ResponseTimeStatistics();
+        for (int i = 0; i < 50; i++) stats.add(400);
+        assertTrue(stats.isKnown());
+        assertEquals(400, stats.getMean());
+        assertTrue(stats.expected(3000) < 500);
+        assertEquals(1000, stats.timeout(1000, 8000)); // limited by the lower bound
+    }
+
+    /**
+     * Failures drive the estimation towards the timeout
+     */
+    @Test
+    public void testFailures() {
+        final ResponseTimeStatistics stats = new ResponseTimeStatistics();
+        stats.add(400);
+        for (int i = 0; i < 20; i++) stats.addFailure(8000);
+        assertEquals(20, stats.getFailures());
+        assertEquals(1, stats.getSamples());
+        assertTrue(stats.getMean() > 6000);
+        assertEquals(8000, stats.timeout(1000, 8000));
+    }
+}
@@ -3,12 +3,28 @@ package net.yacy.search.ranking;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import net.yacy.cora.document.analysis.Classification;
+import net.yacy.cora.document.encoding.ASCII;
+import net.yacy.cora.document.encoding.UTF8;
 import net.yacy.cora.document.id.DigestURL;
+import net.yacy.cora.document.id.MultiProtocolURL;
 import net.yacy.cora.util.SpaceExceededException;
+import net.yacy.crawler.retrieval.Response;
+import net.yacy.document.Tokenizer;
 import net.yacy.kelondro.data.meta.URIMetadataNode;
+import net.yacy.kelondro.data.word.Word;
+import net.yacy.kelondro.data.word.WordReference;
+import net.yacy.kelondro.data.word.WordReferenceFactory;
+import net.yacy.kelondro.data.word.WordReferenceRow;
+import net.yacy.kelondro.data.word.WordReferenceVars;
+import net.yacy.kelondro.rwi.ReferenceContainer;
+import net.yacy.kelondro.util.Bitfield;
 import net.yacy.search.schema.CollectionConfiguration;
 import org.apache.solr.common.SolrInputDocument;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -49,4 +65,52 @@ public class ReferenceOrderTest {
 
     }
 
+    /**
+     * Test of rank method, of class ReferenceOrder: the columnar ranking must
+     * produce the same scores as normalizeWith() followed by cardinal()
+     */
+    @Test
+    public void testRank_equalsCardinal() throws MalformedURLException, SpaceExceededException, InterruptedException {
+        final ReferenceContainer<WordReference> container = new ReferenceContainer<WordReference>(new WordReferenceFactory(), Word.word2hash("test"), 20);
+        for (int i = 0; i < 20; i++) {
+            final DigestURL url = new DigestURL("http://host" + (i % 4) + ".test.org/" + (i % 3 == 0 ? "dir/" : "") + "doc" + i + ".html");
+            final WordReferenceRow entry = new WordReferenceRow(
+                    url.hash(), url.toNormalform(true).length(), MultiProtocolURL.urlComps(url.toNormalform(true)).length,
+                    i % 5, 100 + 10 * i, 10 + i,
+                    System.currentTimeMillis() - i * 86400000L, System.currentTimeMillis(),
+                    UTF8.getBytes(i % 2 == 0 ? "en" : "de"), Response.DT_TEXT, i % 7, i % 3);
+            final Word word = new Word(1 + i * 3, 1 + i % 4, 100 + i);
+            word.count = 1 + i % 6;
+            word.flags = new Bitfield(4);
+            word.flags.set(WordReferenceRow.flag_app_dc_title, i % 2 == 0);
+            word.flags.set(Tokenizer.flag_cat_hasimage, i % 3 == 0);
+            entry.setWord(word);
+            container.add(entry);
+        }
+        container.sort();
+
+        final RankingProfile profile = new RankingProfile(Classification.ContentDomain.TEXT);
+
+        // rank with normalizeWith and cardinal, the normalization must be complete before cardinal is called
+        final ReferenceOrder order = new ReferenceOrder(profile, "en");
+        final BlockingQueue<WordReferenceVars> queue = order.normalizeWith(container, Long.MAX_VALUE, true);
+        final Map<String, WordReferenceVars> entries = new HashMap<String, WordReferenceVars>();
+        WordReferenceVars entry;
+        while ((entry = queue.take()) != WordReferenceVars.poison) entries.put(ASCII.String(entry.urlhash()), entry);
+        final Map<String, Long> expected = new HashMap<String, Long>();
+        for (final Map.Entry<String, WordReferenceVars> e: entries.entrySet()) expected.put(e.getKey(), order.cardinal(e.getValue()));
+
+        // rank with the columns
+        final ReferenceColumns columns = ReferenceColumns.decode(container, Long.MAX_VALUE);
+        final long[] ranking = new ReferenceOrder(profile, "en").rank(columns);
+
+        assertEquals(container.size(), columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            final String urlhash = ASCII.String(columns.urlhash(i));
+            assertEquals("ranking of " + urlhash, expected.get(urlhash).longValue(), ranking[i]);
+            assertEquals(entries.get(urlhash).hosthash(), columns.hosthash(i));
+            assertEquals(entries.get(urlhash).getLanguageString(), columns.getLanguageString(i));
+        }
+    }
+
 }
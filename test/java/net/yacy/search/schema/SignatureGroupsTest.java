@@ -0,0 +1,70 @@
+/**
+ *  SignatureGroupsTest
+ *  part of YaCy, a peer-to-peer based web search engine
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program in the file lgpl21.txt
+ *  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.yacy.search.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link SignatureGroups} class.
+ */
+public class SignatureGroupsTest {
+
+    /**
+     * The first document of a group is the original, the copy count includes all documents of the group.
+     */
+    @Test
+    public void testGroups() {
+        final SignatureGroups groups = new SignatureGroups();
+        groups.add("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id1AAAAAA");
+        groups.add("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id2AAAAAA");
+        groups.add("AAAAAA", CollectionSchema.exact_signature_l, 7L, "id3AAAAAA");
+        groups.add("BBBBBB", CollectionSchema.exact_signature_l, 42L, "id4BBBBBB");
+        groups.add("AAAAAA", CollectionSchema.fuzzy_signature_l, 42L, "id2AAAAAA");
+        assertEquals(4, groups.size());
+
+        assertTrue(groups.unique("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id1AAAAAA"));
+        assertFalse(groups.unique("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id2AAAAAA"));
+        assertEquals(2, groups.copycount("AAAAAA", CollectionSchema.exact_signature_l, 42L, true));
+        assertTrue(groups.unique("AAAAAA", CollectionSchema.fuzzy_signature_l, 42L, "id2AAAAAA"));
+
+        // groups are separated by host
+        assertTrue(groups.unique("BBBBBB", CollectionSchema.exact_signature_l, 42L, "id4BBBBBB"));
+        assertTrue(groups.single("BBBBBB", CollectionSchema.exact_signature_l, 42L, true));
+        assertFalse(groups.single("AAAAAA", CollectionSchema.exact_signature_l, 42L, true));
+    }
+
+    /**
+     * A document which is not indexable is not part of a group but counted as a copy.
+     */
+    @Test
+    public void testNonMember() {
+        final SignatureGroups groups = new SignatureGroups();
+        groups.add("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id1AAAAAA");
+        assertFalse(groups.unique("AAAAAA", CollectionSchema.exact_signature_l, 42L, "id5AAAAAA"));
+        assertEquals(2, groups.copycount("AAAAAA", CollectionSchema.exact_signature_l, 42L, false));
+        assertFalse(groups.single("AAAAAA", CollectionSchema.exact_signature_l, 42L, false));
+        assertTrue(groups.unique("AAAAAA", CollectionSchema.exact_signature_l, 9L, "id5AAAAAA"));
+        assertEquals(1, groups.copycount("AAAAAA", CollectionSchema.exact_signature_l, 9L, false));
+    }
+
+}